@@ -0,0 +1,238 @@
+package com.boc_dev.maths.objects;
+
+import com.boc_dev.maths.objects.matrix.Matrix3d;
+import com.boc_dev.maths.objects.vector.Vec3d;
+import com.boc_dev.maths.objects.vector.Vec3dArray;
+import com.boc_dev.maths.objects.vector.Vec3f;
+import com.boc_dev.maths.objects.vector.Vec3fArray;
+
+import java.util.Objects;
+
+/**
+ * Running mean and 3x3 covariance of a stream of points, computed in a single pass without storing the points.
+ *
+ * Sums are kept about the running mean (Welford), so large coordinates do not lose precision the way raw sums of
+ * squares do. Accumulators built on separate threads can be combined with {@link #merge(CovarianceAccumulator)},
+ * for example:
+ *
+ * <pre>
+ * CovarianceAccumulator acc = IntStream.range(0, blocks).parallel().collect(
+ *         CovarianceAccumulator::new,
+ *         (a, block) -&gt; a.addAll(points, block * blockSize, Math.min(points.size(), (block + 1) * blockSize)),
+ *         CovarianceAccumulator::merge);
+ * </pre>
+ *
+ * Not thread safe, each thread should use its own instance.
+ */
+public class CovarianceAccumulator {
+
+	// addAll(Vec3fArray) widens float input to double CHUNK points at a time; each chunk is reduced and merged in turn
+	private static final int CHUNK = 1024;
+
+	private long count;
+
+	private double meanX;
+	private double meanY;
+	private double meanZ;
+
+	// sums of products of deviations from the mean
+	private double xx;
+	private double xy;
+	private double xz;
+	private double yy;
+	private double yz;
+	private double zz;
+
+	// chunk buffers for float input, allocated on first use
+	private double[] wideXs;
+	private double[] wideYs;
+	private double[] wideZs;
+
+	public CovarianceAccumulator add(double x, double y, double z) {
+		count++;
+		double dx = x - meanX;
+		double dy = y - meanY;
+		double dz = z - meanZ;
+		meanX += dx / count;
+		meanY += dy / count;
+		meanZ += dz / count;
+		double ex = x - meanX;
+		double ey = y - meanY;
+		double ez = z - meanZ;
+		xx += dx * ex;
+		xy += dx * ey;
+		xz += dx * ez;
+		yy += dy * ey;
+		yz += dy * ez;
+		zz += dz * ez;
+		return this;
+	}
+
+	public CovarianceAccumulator add(Vec3d vec) {
+		return add(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public CovarianceAccumulator add(Vec3f vec) {
+		return add(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	/**
+	 * Adds points from to to (exclusive). The range is reduced to its own mean and covariance in two passes and then
+	 * merged, which avoids a division per point.
+	 */
+	public CovarianceAccumulator addAll(Vec3dArray vecs, int from, int to) {
+		Objects.checkFromToIndex(from, to, vecs.size());
+		return addAll(vecs.getXs(), vecs.getYs(), vecs.getZs(), from, to);
+	}
+
+	public CovarianceAccumulator addAll(Vec3dArray vecs) {
+		return addAll(vecs, 0, vecs.size());
+	}
+
+	/**
+	 * Adds points from to to (exclusive), widened to double a chunk at a time and reduced the same way as the
+	 * {@link Vec3dArray} overload.
+	 */
+	public CovarianceAccumulator addAll(Vec3fArray vecs, int from, int to) {
+		Objects.checkFromToIndex(from, to, vecs.size());
+		float[] xs = vecs.getXs();
+		float[] ys = vecs.getYs();
+		float[] zs = vecs.getZs();
+		if (from < to && wideXs == null) {
+			wideXs = new double[CHUNK];
+			wideYs = new double[CHUNK];
+			wideZs = new double[CHUNK];
+		}
+		for (int start = from; start < to; start += CHUNK) {
+			int n = Math.min(CHUNK, to - start);
+			for (int i = 0; i < n; i++) {
+				wideXs[i] = xs[start + i];
+				wideYs[i] = ys[start + i];
+				wideZs[i] = zs[start + i];
+			}
+			addAll(wideXs, wideYs, wideZs, 0, n);
+		}
+		return this;
+	}
+
+	public CovarianceAccumulator addAll(Vec3fArray vecs) {
+		return addAll(vecs, 0, vecs.size());
+	}
+
+	private CovarianceAccumulator addAll(double[] xs, double[] ys, double[] zs, int from, int to) {
+		int n = to - from;
+		if (n == 0) {
+			return this;
+		}
+
+		double sx = 0, sy = 0, sz = 0;
+		for (int i = from; i < to; i++) {
+			sx += xs[i];
+			sy += ys[i];
+			sz += zs[i];
+		}
+		double mx = sx / n, my = sy / n, mz = sz / n;
+
+		double cxx = 0, cxy = 0, cxz = 0, cyy = 0, cyz = 0, czz = 0;
+		for (int i = from; i < to; i++) {
+			double dx = xs[i] - mx;
+			double dy = ys[i] - my;
+			double dz = zs[i] - mz;
+			cxx += dx * dx;
+			cxy += dx * dy;
+			cxz += dx * dz;
+			cyy += dy * dy;
+			cyz += dy * dz;
+			czz += dz * dz;
+		}
+
+		return merge(n, mx, my, mz, cxx, cxy, cxz, cyy, cyz, czz);
+	}
+
+	/**
+	 * Combines the points seen by other into this accumulator. other is left unchanged.
+	 *
+	 * @return this
+	 */
+	public CovarianceAccumulator merge(CovarianceAccumulator other) {
+		return merge(other.count, other.meanX, other.meanY, other.meanZ,
+				other.xx, other.xy, other.xz, other.yy, other.yz, other.zz);
+	}
+
+	private CovarianceAccumulator merge(long n, double mx, double my, double mz,
+	                                    double cxx, double cxy, double cxz, double cyy, double cyz, double czz) {
+		if (n == 0) {
+			return this;
+		}
+		long total = count + n;
+		double dx = mx - meanX;
+		double dy = my - meanY;
+		double dz = mz - meanZ;
+		double weight = (double) count * n / total;
+
+		xx += cxx + dx * dx * weight;
+		xy += cxy + dx * dy * weight;
+		xz += cxz + dx * dz * weight;
+		yy += cyy + dy * dy * weight;
+		yz += cyz + dy * dz * weight;
+		zz += czz + dz * dz * weight;
+
+		double fraction = (double) n / total;
+		meanX += dx * fraction;
+		meanY += dy * fraction;
+		meanZ += dz * fraction;
+		count = total;
+		return this;
+	}
+
+	public void reset() {
+		count = 0;
+		meanX = meanY = meanZ = 0;
+		xx = xy = xz = yy = yz = zz = 0;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public Vec3d getMean() {
+		return new Vec3d(meanX, meanY, meanZ);
+	}
+
+	/**
+	 * Population covariance, the sums divided by the number of points.
+	 */
+	public Matrix3d getCovariance() {
+		return new Matrix3d(getCovariance(new double[9], 0, count));
+	}
+
+	/**
+	 * Unbiased sample covariance, the sums divided by the number of points minus one.
+	 */
+	public Matrix3d getSampleCovariance() {
+		return new Matrix3d(getCovariance(new double[9], 0, count - 1));
+	}
+
+	/**
+	 * Writes the 3x3 population covariance into dest starting at offset.
+	 *
+	 * @return dest
+	 */
+	public double[] getCovariance(double[] dest, int offset) {
+		return getCovariance(dest, offset, count);
+	}
+
+	private double[] getCovariance(double[] dest, int offset, long divisor) {
+		double scale = divisor > 0 ? 1.0 / divisor : 0.0;
+		dest[offset] = xx * scale;
+		dest[offset + 1] = xy * scale;
+		dest[offset + 2] = xz * scale;
+		dest[offset + 3] = xy * scale;
+		dest[offset + 4] = yy * scale;
+		dest[offset + 5] = yz * scale;
+		dest[offset + 6] = xz * scale;
+		dest[offset + 7] = yz * scale;
+		dest[offset + 8] = zz * scale;
+		return dest;
+	}
+}
@@ -0,0 +1,154 @@
+package com.boc_dev.maths.objects;
+
+import com.boc_dev.maths.objects.matrix.Matrix4f;
+import com.boc_dev.maths.objects.vector.MutableVec3f;
+
+import java.util.Arrays;
+
+/**
+ * Frame scoped arena of maths temporaries. Instances are handed out from preallocated slabs during a frame and all
+ * of them become free again on {@link #reset()}, so a game loop that calls reset once per frame stops allocating
+ * once the arena has grown to the frame's high water mark:
+ *
+ * <pre>
+ * Matrix4f world = Matrix4f.Transform(position, rotation, scale, arena);
+ * Matrix4f mvp = world.multiply(viewProjection, arena);
+ * ...
+ * arena.reset();
+ * </pre>
+ *
+ * Matrix4f and QuaternionF are handed out as ordinary immutable instances whose values are rewritten when they are
+ * reused, so nothing from an arena may be kept after reset, store a copy instead. Vec3f keeps its values in final
+ * fields and cannot be reused, so vectors come out as {@link MutableVec3f}.
+ *
+ * Unlike {@link ScratchPool} an arena is not tied to a thread and has no nested frames, it is owned by whatever
+ * runs the frame and must only be used by one thread at a time.
+ */
+public final class FrameArena {
+
+	private Matrix4f[] matrix4fs;
+	private QuaternionF[] quaternionFs;
+	private float[][] quaternionValues;
+	private MutableVec3f[] vec3fs;
+
+	private int matrix4fCount;
+	private int quaternionFCount;
+	private int vec3fCount;
+
+	public FrameArena() {
+		this(256, 256, 256);
+	}
+
+	/**
+	 * Preallocates the given number of each type. The arena grows past these if a frame needs more.
+	 */
+	public FrameArena(int matrix4fs, int quaternionFs, int vec3fs) {
+		this.matrix4fs = new Matrix4f[Math.max(1, matrix4fs)];
+		this.quaternionFs = new QuaternionF[Math.max(1, quaternionFs)];
+		this.quaternionValues = new float[this.quaternionFs.length][];
+		this.vec3fs = new MutableVec3f[Math.max(1, vec3fs)];
+		fill(0, 0, 0);
+	}
+
+	/**
+	 * Frees every instance handed out since the last reset.
+	 */
+	public void reset() {
+		matrix4fCount = 0;
+		quaternionFCount = 0;
+		vec3fCount = 0;
+	}
+
+	/**
+	 * @return an identity matrix owned by the arena, its values can be written through getValues()
+	 */
+	public Matrix4f matrix4f() {
+		if (matrix4fCount == matrix4fs.length) {
+			grow();
+		}
+		Matrix4f matrix = matrix4fs[matrix4fCount++];
+		float[] elements = matrix.getValues();
+		Arrays.fill(elements, 0.0f);
+		elements[0] = 1.0f;
+		elements[5] = 1.0f;
+		elements[10] = 1.0f;
+		elements[15] = 1.0f;
+		return matrix;
+	}
+
+	public QuaternionF quaternionF(float s, float i, float j, float k) {
+		float[] q = quaternionValues();
+		q[0] = s;
+		q[1] = i;
+		q[2] = j;
+		q[3] = k;
+		return lastQuaternionF();
+	}
+
+	/**
+	 * @return a zero vector owned by the arena
+	 */
+	public MutableVec3f vec3f() {
+		if (vec3fCount == vec3fs.length) {
+			grow();
+		}
+		return vec3fs[vec3fCount++].set(0, 0, 0);
+	}
+
+	public int getMatrix4fCount() {
+		return matrix4fCount;
+	}
+
+	public int getQuaternionFCount() {
+		return quaternionFCount;
+	}
+
+	public int getVec3fCount() {
+		return vec3fCount;
+	}
+
+	/**
+	 * Takes the next quaternion and returns its backing array, for QuaternionF methods to write their result into.
+	 */
+	float[] quaternionValues() {
+		if (quaternionFCount == quaternionFs.length) {
+			grow();
+		}
+		return quaternionValues[quaternionFCount++];
+	}
+
+	QuaternionF lastQuaternionF() {
+		return quaternionFs[quaternionFCount - 1];
+	}
+
+	// doubles every slab that is full, so growth happens a few times while the arena warms up and then never again
+	private void grow() {
+		int matrices = matrix4fs.length;
+		int quaternions = quaternionFs.length;
+		int vectors = vec3fs.length;
+		if (matrix4fCount == matrices) {
+			matrix4fs = Arrays.copyOf(matrix4fs, matrices * 2);
+		}
+		if (quaternionFCount == quaternions) {
+			quaternionFs = Arrays.copyOf(quaternionFs, quaternions * 2);
+			quaternionValues = Arrays.copyOf(quaternionValues, quaternions * 2);
+		}
+		if (vec3fCount == vectors) {
+			vec3fs = Arrays.copyOf(vec3fs, vectors * 2);
+		}
+		fill(matrices, quaternions, vectors);
+	}
+
+	private void fill(int matricesFrom, int quaternionsFrom, int vectorsFrom) {
+		for (int i = matricesFrom; i < matrix4fs.length; i++) {
+			matrix4fs[i] = new Matrix4f(new float[16]);
+		}
+		for (int i = quaternionsFrom; i < quaternionFs.length; i++) {
+			quaternionValues[i] = new float[4];
+			quaternionFs[i] = new QuaternionF(quaternionValues[i]);
+		}
+		for (int i = vectorsFrom; i < vec3fs.length; i++) {
+			vec3fs[i] = new MutableVec3f();
+		}
+	}
+}
@@ -95,30 +95,56 @@ public class QuaternionD {
 	}
 
 	public Matrix4d toMatrix() {
+		return new Matrix4d(toMatrix(q[0], q[1], q[2], q[3], new double[16], 0));
+	}
 
-		double[] qNorm = (this.normalise()).getQ();
-
-		double q00 = qNorm[0] * qNorm[0];
-		double q01 = qNorm[0] * qNorm[1];
-		double q02 = qNorm[0] * qNorm[2];
-		double q03 = qNorm[0] * qNorm[3];
-
-		double q11 = qNorm[1] * qNorm[1];
-		double q12 = qNorm[1] * qNorm[2];
-		double q13 = qNorm[1] * qNorm[3];
-
-		double q22 = qNorm[2] * qNorm[2];
-		double q23 = qNorm[2] * qNorm[3];
-
-		double q33 = qNorm[3] * qNorm[3];
-
-		return new Matrix4d(
-				q00 + q11 - 0.5, q12 - q03, q02 + q13, 0.0,
-				q03 + q12, q00 + q22 - 0.5, q23 - q01, 0.0,
-				q13 - q02, q01 + q23, q00 + q33 - 0.5, 0.0,
-				0.0, 0.0, 0.0, 0.5
-		).scale(2);
-
+	/**
+	 * Rotation matrix of a quaternion given as components, normalised first, written into dest starting at offset.
+	 *
+	 * @param dest destination array, needs 16 doubles from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public static double[] toMatrix(double s, double i, double j, double k, double[] dest, int offset) {
+
+		double invLen = 1 / Math.sqrt(s * s + i * i + j * j + k * k);
+		double n0 = s * invLen;
+		double n1 = i * invLen;
+		double n2 = j * invLen;
+		double n3 = k * invLen;
+
+		double q00 = n0 * n0;
+		double q01 = n0 * n1;
+		double q02 = n0 * n2;
+		double q03 = n0 * n3;
+
+		double q11 = n1 * n1;
+		double q12 = n1 * n2;
+		double q13 = n1 * n3;
+
+		double q22 = n2 * n2;
+		double q23 = n2 * n3;
+
+		double q33 = n3 * n3;
+
+		dest[offset] = (q00 + q11 - 0.5) * 2;
+		dest[offset + 1] = (q12 - q03) * 2;
+		dest[offset + 2] = (q02 + q13) * 2;
+		dest[offset + 3] = 0;
+		dest[offset + 4] = (q03 + q12) * 2;
+		dest[offset + 5] = (q00 + q22 - 0.5) * 2;
+		dest[offset + 6] = (q23 - q01) * 2;
+		dest[offset + 7] = 0;
+		dest[offset + 8] = (q13 - q02) * 2;
+		dest[offset + 9] = (q01 + q23) * 2;
+		dest[offset + 10] = (q00 + q33 - 0.5) * 2;
+		dest[offset + 11] = 0;
+		dest[offset + 12] = 0;
+		dest[offset + 13] = 0;
+		dest[offset + 14] = 0;
+		dest[offset + 15] = 1;
+
+		return dest;
 	}
 
 	public QuaternionD scale(double s) {
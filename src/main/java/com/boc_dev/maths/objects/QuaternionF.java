@@ -2,6 +2,7 @@ package com.boc_dev.maths.objects;
 
 import com.boc_dev.maths.objects.vector.Vec3f;
 import com.boc_dev.maths.objects.matrix.Matrix4f;
+import com.boc_dev.maths.utils.FastMath;
 
 import java.util.Arrays;
 
@@ -67,10 +68,63 @@ public class QuaternionF {
 		return new QuaternionF(Math.cos(angle / 2.0), 0.0, 0.0, Math.sin(angle / 2.0));
 	}
 
+	/**
+	 * Same as {@link #RotationX(float)} but uses {@link FastMath#sincos(float, float[], int)}.
+	 *
+	 * @param angle in radians
+	 * @return
+	 */
+	public static QuaternionF FastRotationX(float angle) {
+		return fastRotation(angle, 1);
+	}
+
+	/**
+	 * Same as {@link #RotationY(float)} but uses {@link FastMath#sincos(float, float[], int)}.
+	 *
+	 * @param angle in radians
+	 * @return
+	 */
+	public static QuaternionF FastRotationY(float angle) {
+		return fastRotation(angle, 2);
+	}
+
+	/**
+	 * Same as {@link #RotationZ(float)} but uses {@link FastMath#sincos(float, float[], int)}.
+	 *
+	 * @param angle in radians
+	 * @return
+	 */
+	public static QuaternionF FastRotationZ(float angle) {
+		return fastRotation(angle, 3);
+	}
+
+	// the quaternion's own storage takes sin and cos of the half angle, cos moves to s and sin to the axis component
+	private static QuaternionF fastRotation(float angle, int component) {
+		float[] q = new float[4];
+		FastMath.sincos(angle / 2.0f, q, 2);
+		float sin = q[2];
+		q[0] = q[3];
+		q[2] = 0.0f;
+		q[3] = 0.0f;
+		q[component] = sin;
+		return new QuaternionF(q);
+	}
+
 	public QuaternionF normalise() {
 		return this.scale(1 / this.len());
 	}
 
+	/**
+	 * Normalised quaternion written as s, i, j, k into dest starting at offset, without allocating.
+	 *
+	 * @param dest destination array, needs 4 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] normalise(float[] dest, int offset) {
+		return scale(1 / len(), dest, offset);
+	}
+
 	public QuaternionF(float s, float i, float j, float k) {
 		q = new float[4];
 		q[0] = s;
@@ -103,7 +157,7 @@ public class QuaternionF {
 		return q[3];
 	}
 
-	private QuaternionF(float... q) {
+	QuaternionF(float... q) {
 		this.q = q;
 	}
 
@@ -112,59 +166,251 @@ public class QuaternionF {
 	}
 
 	public QuaternionF rotateVector(Vec3f vector) {
-		return this.multiply(FromVec(0, vector)).multiply(this.conjugate());
+		return new QuaternionF(rotateVector(vector, new float[4], 0));
+	}
+
+	/**
+	 * Same result as {@link #rotateVector(Vec3f)}, written as s, i, j, k into dest starting at offset,
+	 * without building the intermediate quaternions.
+	 *
+	 * @param vector vector to rotate
+	 * @param dest destination array, needs 4 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] rotateVector(Vec3f vector, float[] dest, int offset) {
+
+		float vx = vector.getX();
+		float vy = vector.getY();
+		float vz = vector.getZ();
+
+		// this * (0, v)
+		float ts = - (q[1] * vx) - (q[2] * vy) - (q[3] * vz);
+		float ti = (q[0] * vx) + (q[2] * vz) - (q[3] * vy);
+		float tj = (q[0] * vy) - (q[1] * vz) + (q[3] * vx);
+		float tk = (q[0] * vz) + (q[1] * vy) - (q[2] * vx);
+
+		// (this * (0, v)) * conjugate
+		multiply(ts, ti, tj, tk, q[0], -q[1], -q[2], -q[3], dest, offset);
+		return dest;
+	}
+
+	/**
+	 * Rotates vector by this unit quaternion. Same vector as the i, j, k part of {@link #rotateVector(Vec3f)}, but
+	 * computed as v + 2s(u x v) + 2u x (u x v) with u = (i, j, k), which needs about half the multiplications.
+	 *
+	 * @param vector vector to rotate
+	 * @return rotated vector
+	 */
+	public Vec3f rotate(Vec3f vector) {
+		float[] dest = rotate(vector.getX(), vector.getY(), vector.getZ(), new float[3], 0);
+		return new Vec3f(dest[0], dest[1], dest[2]);
+	}
+
+	/**
+	 * Same as {@link #rotate(Vec3f)}, written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param dest destination array, needs 3 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] rotate(float x, float y, float z, float[] dest, int offset) {
+		float s = q[0], a = q[1], b = q[2], c = q[3];
+		float tx = (b * z - c * y) * 2;
+		float ty = (c * x - a * z) * 2;
+		float tz = (a * y - b * x) * 2;
+		dest[offset] = x + s * tx + (b * tz - c * ty);
+		dest[offset + 1] = y + s * ty + (c * tx - a * tz);
+		dest[offset + 2] = z + s * tz + (a * ty - b * tx);
+		return dest;
+	}
+
+	/**
+	 * Rotates count vectors stored as interleaved x, y, z triples. dest may be the same array as vectors.
+	 * For structure of arrays data use {@link com.boc_dev.maths.objects.vector.Vec3fArray#rotate}, which
+	 * is vectorised.
+	 *
+	 * @param vectors source values, 3 * count floats from offset
+	 * @param offset start index in vectors
+	 * @param dest destination array, needs 3 * count floats from destOffset
+	 * @param destOffset start index in dest
+	 * @param count number of vectors
+	 */
+	public void rotate(float[] vectors, int offset, float[] dest, int destOffset, int count) {
+		for (int n = 0; n < count; n++) {
+			int from = offset + n * 3;
+			rotate(vectors[from], vectors[from + 1], vectors[from + 2], dest, destOffset + n * 3);
+		}
 	}
 
 	public QuaternionF add(QuaternionF p) {
-		return new QuaternionF(
-				q[0] + p.getQ()[0],
-				q[1] + p.getQ()[1],
-				q[2] + p.getQ()[2],
-				q[3] + p.getQ()[3]);
+		return new QuaternionF(add(p, new float[4], 0));
 	}
 
-	public QuaternionF multiply(QuaternionF p) {
-		return new QuaternionF(
-				(q[0] * p.getQ()[0]) - (q[1] * p.getQ()[1]) - (q[2] * p.getQ()[2]) - (q[3] * p.getQ()[3]),
-				(q[1] * p.getQ()[0]) + (q[0] * p.getQ()[1]) + (q[2] * p.getQ()[3]) - (q[3] * p.getQ()[2]),
-				(q[0] * p.getQ()[2]) - (q[1] * p.getQ()[3]) + (q[2] * p.getQ()[0]) + (q[3] * p.getQ()[1]),
-				(q[0] * p.getQ()[3]) + (q[1] * p.getQ()[2]) - (q[2] * p.getQ()[1]) + (q[3] * p.getQ()[0])
-		);
+	/**
+	 * Addition written as s, i, j, k into dest starting at offset, without allocating.
+	 *
+	 * @param p quaternion to add
+	 * @param dest destination array, needs 4 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] add(QuaternionF p, float[] dest, int offset) {
+		dest[offset] = q[0] + p.q[0];
+		dest[offset + 1] = q[1] + p.q[1];
+		dest[offset + 2] = q[2] + p.q[2];
+		dest[offset + 3] = q[3] + p.q[3];
+		return dest;
 	}
 
-	public Matrix4f toMatrix() {
+	public QuaternionF multiply(QuaternionF p) {
+		return new QuaternionF(multiply(p, new float[4], 0));
+	}
 
-		float[] qNorm = (this.normalise()).getQ();
+	/**
+	 * Hamilton product in a quaternion taken from arena, valid until the arena is reset.
+	 */
+	public QuaternionF multiply(QuaternionF p, FrameArena arena) {
+		multiply(p, arena.quaternionValues(), 0);
+		return arena.lastQuaternionF();
+	}
 
-		float q00 = qNorm[0] * qNorm[0];
-		float q01 = qNorm[0] * qNorm[1];
-		float q02 = qNorm[0] * qNorm[2];
-		float q03 = qNorm[0] * qNorm[3];
+	/**
+	 * Hamilton product written as s, i, j, k into dest starting at offset, without allocating.
+	 *
+	 * @param p right hand quaternion
+	 * @param dest destination array, needs 4 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] multiply(QuaternionF p, float[] dest, int offset) {
+		multiply(q[0], q[1], q[2], q[3], p.q[0], p.q[1], p.q[2], p.q[3], dest, offset);
+		return dest;
+	}
 
-		float q11 = qNorm[1] * qNorm[1];
-		float q12 = qNorm[1] * qNorm[2];
-		float q13 = qNorm[1] * qNorm[3];
+	/**
+	 * Hamilton product of two quaternions given as components, written as s, i, j, k into dest starting at offset.
+	 * All inputs are passed by value, so dest may hold either input.
+	 */
+	public static void multiply(float as, float ai, float aj, float ak,
+	                            float bs, float bi, float bj, float bk,
+	                            float[] dest, int offset) {
+		dest[offset] = (as * bs) - (ai * bi) - (aj * bj) - (ak * bk);
+		dest[offset + 1] = (ai * bs) + (as * bi) + (aj * bk) - (ak * bj);
+		dest[offset + 2] = (as * bj) - (ai * bk) + (aj * bs) + (ak * bi);
+		dest[offset + 3] = (as * bk) + (ai * bj) - (aj * bi) + (ak * bs);
+	}
 
-		float q22 = qNorm[2] * qNorm[2];
-		float q23 = qNorm[2] * qNorm[3];
+	public Matrix4f toMatrix() {
+		return new Matrix4f(toMatrix(new float[16], 0));
+	}
 
-		float q33 = qNorm[3] * qNorm[3];
+	/**
+	 * Rotation matrix in a matrix taken from arena, valid until the arena is reset.
+	 */
+	public Matrix4f toMatrix(FrameArena arena) {
+		Matrix4f matrix = arena.matrix4f();
+		toMatrix(matrix.getValues(), 0);
+		return matrix;
+	}
 
-		return new Matrix4f(
-				q00 + q11 - 0.5f, q12 - q03, q02 + q13, 0,
-				q03 + q12, q00 + q22 - 0.5f, q23 - q01, 0,
-				q13 - q02, q01 + q23, q00 + q33 - 0.5f, 0,
-				0, 0, 0, 0.5f
-		).scale(2);
+	/**
+	 * Rotation matrix of the normalised quaternion written into dest starting at offset, without allocating.
+	 *
+	 * @param dest destination array, needs 16 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] toMatrix(float[] dest, int offset) {
+		return toMatrix(q[0], q[1], q[2], q[3], dest, offset);
+	}
 
+	/**
+	 * Rotation matrix of a quaternion given as components, normalised first, written into dest starting at offset.
+	 *
+	 * @param dest destination array, needs 16 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public static float[] toMatrix(float s, float i, float j, float k, float[] dest, int offset) {
+
+		float invLen = 1 / (float) Math.sqrt(s * s + i * i + j * j + k * k);
+		float n0 = s * invLen;
+		float n1 = i * invLen;
+		float n2 = j * invLen;
+		float n3 = k * invLen;
+
+		float q00 = n0 * n0;
+		float q01 = n0 * n1;
+		float q02 = n0 * n2;
+		float q03 = n0 * n3;
+
+		float q11 = n1 * n1;
+		float q12 = n1 * n2;
+		float q13 = n1 * n3;
+
+		float q22 = n2 * n2;
+		float q23 = n2 * n3;
+
+		float q33 = n3 * n3;
+
+		dest[offset] = (q00 + q11 - 0.5f) * 2;
+		dest[offset + 1] = (q12 - q03) * 2;
+		dest[offset + 2] = (q02 + q13) * 2;
+		dest[offset + 3] = 0;
+		dest[offset + 4] = (q03 + q12) * 2;
+		dest[offset + 5] = (q00 + q22 - 0.5f) * 2;
+		dest[offset + 6] = (q23 - q01) * 2;
+		dest[offset + 7] = 0;
+		dest[offset + 8] = (q13 - q02) * 2;
+		dest[offset + 9] = (q01 + q23) * 2;
+		dest[offset + 10] = (q00 + q33 - 0.5f) * 2;
+		dest[offset + 11] = 0;
+		dest[offset + 12] = 0;
+		dest[offset + 13] = 0;
+		dest[offset + 14] = 0;
+		dest[offset + 15] = 1;
+
+		return dest;
 	}
 
 	public QuaternionF scale(float s) {
-		return new QuaternionF(q[0] * s, q[1] * s, q[2] * s, q[3] * s);
+		return new QuaternionF(scale(s, new float[4], 0));
+	}
+
+	/**
+	 * Scale written as s, i, j, k into dest starting at offset, without allocating.
+	 *
+	 * @param s scale
+	 * @param dest destination array, needs 4 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] scale(float s, float[] dest, int offset) {
+		dest[offset] = q[0] * s;
+		dest[offset + 1] = q[1] * s;
+		dest[offset + 2] = q[2] * s;
+		dest[offset + 3] = q[3] * s;
+		return dest;
 	}
 
 	public QuaternionF conjugate() {
-		return new QuaternionF(q[0], -q[1], -q[2], -q[3]);
+		return new QuaternionF(conjugate(new float[4], 0));
+	}
+
+	/**
+	 * Conjugate written as s, i, j, k into dest starting at offset, without allocating.
+	 *
+	 * @param dest destination array, needs 4 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] conjugate(float[] dest, int offset) {
+		dest[offset] = q[0];
+		dest[offset + 1] = -q[1];
+		dest[offset + 2] = -q[2];
+		dest[offset + 3] = -q[3];
+		return dest;
 	}
 
 	public float len2() {
@@ -196,11 +442,23 @@ public class QuaternionF {
 	 * @return
 	 */
 	public Vec3f toEulerAngles() {
+		return toEulerAngles(false);
+	}
+
+	/** returns yaw pitch roll, using the {@link FastMath} approximations of atan2 and asin
+	 *
+	 * @return
+	 */
+	public Vec3f toEulerAnglesFast() {
+		return toEulerAngles(true);
+	}
+
+	private Vec3f toEulerAngles(boolean fast) {
 
 		// roll (x-axis rotation)
 		float sinr_cosp = 2 * (getS() * getI() + getJ() * getK());
 		float cosr_cosp = 1 - 2 * (getI() * getI() + getJ() * getJ());
-		float roll = (float) Math.atan2(sinr_cosp, cosr_cosp);
+		float roll = fast ? FastMath.atan2(sinr_cosp, cosr_cosp) : (float) Math.atan2(sinr_cosp, cosr_cosp);
 
 		// pitch (y-axis rotation)
 		float pitch;
@@ -209,13 +467,13 @@ public class QuaternionF {
 			pitch = (float) Math.copySign (Math.PI / 2, sinp); // use 90 degrees if out of range
 		}
         else{
-			pitch = (float) Math.asin (sinp);
+			pitch = fast ? FastMath.asin(sinp) : (float) Math.asin (sinp);
 		}
 
 		// yaw (z-axis rotation)
 		float siny_cosp = 2 * (getS() * getK() + getI() * getJ());
 		float cosy_cosp = 1 - 2 * (getJ() * getJ() + getK() * getK());
-		float yaw = (float) Math.atan2(siny_cosp, cosy_cosp);
+		float yaw = fast ? FastMath.atan2(siny_cosp, cosy_cosp) : (float) Math.atan2(siny_cosp, cosy_cosp);
 
 		return new Vec3f(yaw, pitch, roll);
 	}
@@ -229,13 +487,141 @@ public class QuaternionF {
         return (this.scale(1 - percent).add(q2)).normalise();
     }
 
+	/**
+	 * Spherical linear interpolation along the shortest arc. Falls back to a normalised lerp when the quaternions
+	 * are almost parallel.
+	 *
+	 * @param q2 quaternion to interpolate towards
+	 * @param percent 0 gives this quaternion, 1 gives q2
+	 * @return interpolated unit quaternion
+	 */
     public QuaternionF slerp(QuaternionF q2, float percent) {
-	    double theta = dot(q2);
-	    float wp = (float) (Math.sin(1 - percent) * theta / Math.sin(theta));
-	    float wq = (float) (Math.sin(percent) * theta / Math.sin(theta));
-        return (this.scale(wp).add(q2.scale(wq))).normalise();
+		return new QuaternionF(slerp(q[0], q[1], q[2], q[3], q2.q[0], q2.q[1], q2.q[2], q2.q[3], percent, new float[4], 0));
     }
 
+	/**
+	 * Normalised lerp along the shortest arc. Cheaper than slerp and close to it for the small steps between
+	 * neighbouring animation keys, though the speed is not constant across the interval.
+	 *
+	 * @param q2 quaternion to interpolate towards
+	 * @param percent 0 gives this quaternion, 1 gives q2
+	 * @return interpolated unit quaternion
+	 */
+	public QuaternionF nlerp(QuaternionF q2, float percent) {
+		return new QuaternionF(nlerp(q[0], q[1], q[2], q[3], q2.q[0], q2.q[1], q2.q[2], q2.q[3], percent, new float[4], 0));
+	}
+
+	/**
+	 * {@link #slerp(QuaternionF, float)} of two quaternions given as components, written as s, i, j, k into dest
+	 * starting at offset. All inputs are passed by value, so dest may hold either input.
+	 *
+	 * @return dest
+	 */
+	public static float[] slerp(float as, float ai, float aj, float ak,
+	                            float bs, float bi, float bj, float bk,
+	                            float percent, float[] dest, int offset) {
+		float cosTheta = as * bs + ai * bi + aj * bj + ak * bk;
+		float sign = 1;
+		if (cosTheta < 0) {
+			cosTheta = -cosTheta;
+			sign = -1;
+		}
+		if (cosTheta > 0.9995f) {
+			return blend(as, ai, aj, ak, bs, bi, bj, bk, 1 - percent, sign * percent, dest, offset);
+		}
+		double theta = Math.acos(cosTheta);
+		double invSinTheta = 1 / Math.sin(theta);
+		float wa = (float) (Math.sin((1 - percent) * theta) * invSinTheta);
+		float wb = (float) (sign * Math.sin(percent * theta) * invSinTheta);
+		return blend(as, ai, aj, ak, bs, bi, bj, bk, wa, wb, dest, offset);
+	}
+
+	/**
+	 * {@link #nlerp(QuaternionF, float)} of two quaternions given as components, written as s, i, j, k into dest
+	 * starting at offset. All inputs are passed by value, so dest may hold either input.
+	 *
+	 * @return dest
+	 */
+	public static float[] nlerp(float as, float ai, float aj, float ak,
+	                            float bs, float bi, float bj, float bk,
+	                            float percent, float[] dest, int offset) {
+		float wb = as * bs + ai * bi + aj * bj + ak * bk < 0 ? -percent : percent;
+		return blend(as, ai, aj, ak, bs, bi, bj, bk, 1 - percent, wb, dest, offset);
+	}
+
+	/**
+	 * Slerps count pairs of quaternions stored as s, i, j, k, pair n blended by percents[percentOffset + n].
+	 * dest may be the same array as a or b.
+	 */
+	public static void slerp(float[] a, int aOffset, float[] b, int bOffset, float[] percents, int percentOffset,
+	                         float[] dest, int destOffset, int count) {
+		for (int n = 0; n < count; n++) {
+			int ai = aOffset + n * 4;
+			int bi = bOffset + n * 4;
+			slerp(a[ai], a[ai + 1], a[ai + 2], a[ai + 3], b[bi], b[bi + 1], b[bi + 2], b[bi + 3],
+					percents[percentOffset + n], dest, destOffset + n * 4);
+		}
+	}
+
+	/**
+	 * Nlerps count pairs of quaternions stored as s, i, j, k, pair n blended by percents[percentOffset + n].
+	 * dest may be the same array as a or b.
+	 */
+	public static void nlerp(float[] a, int aOffset, float[] b, int bOffset, float[] percents, int percentOffset,
+	                         float[] dest, int destOffset, int count) {
+		for (int n = 0; n < count; n++) {
+			int ai = aOffset + n * 4;
+			int bi = bOffset + n * 4;
+			nlerp(a[ai], a[ai + 1], a[ai + 2], a[ai + 3], b[bi], b[bi + 1], b[bi + 2], b[bi + 3],
+					percents[percentOffset + n], dest, destOffset + n * 4);
+		}
+	}
+
+	// wa * a + wb * b, normalised
+	private static float[] blend(float as, float ai, float aj, float ak,
+	                             float bs, float bi, float bj, float bk,
+	                             float wa, float wb, float[] dest, int offset) {
+		float s = as * wa + bs * wb;
+		float i = ai * wa + bi * wb;
+		float j = aj * wa + bj * wb;
+		float k = ak * wa + bk * wb;
+		float invLen = (float) (1 / Math.sqrt(s * s + i * i + j * j + k * k));
+		dest[offset] = s * invLen;
+		dest[offset + 1] = i * invLen;
+		dest[offset + 2] = j * invLen;
+		dest[offset + 3] = k * invLen;
+		return dest;
+	}
+
+	/**
+	 * Spherical linear interpolation along the shortest arc, using the {@link FastMath} approximations of acos and
+	 * sincos. Falls back to a normalised lerp when the quaternions are almost parallel.
+	 *
+	 * @param q2 quaternion to interpolate towards
+	 * @param percent 0 gives this quaternion, 1 gives q2
+	 * @return interpolated unit quaternion
+	 */
+	public QuaternionF slerpFast(QuaternionF q2, float percent) {
+		float cosTheta = dot(q2);
+		float sign = 1;
+		if (cosTheta < 0) {
+			cosTheta = -cosTheta;
+			sign = -1;
+		}
+		float[] result = new float[4];
+		float wa = 1 - percent;
+		float wb = sign * percent;
+		if (cosTheta <= 0.9995f) {
+			// sin((1 - p) theta) = sin(theta) cos(p theta) - cos(theta) sin(p theta), so one sincos gives both weights
+			// result is free until blend writes it, so it holds the sincos pair
+			float[] sincos = FastMath.sincos(percent * FastMath.acos(cosTheta), result, 0);
+			float invSinTheta = (float) (1 / Math.sqrt((1 - cosTheta) * (1 + cosTheta)));
+			wa = sincos[1] - cosTheta * sincos[0] * invSinTheta;
+			wb = sign * sincos[0] * invSinTheta;
+		}
+		return new QuaternionF(blend(q[0], q[1], q[2], q[3], q2.q[0], q2.q[1], q2.q[2], q2.q[3], wa, wb, result, 0));
+	}
+
 	@Override
 	public String toString() {
 		return Arrays.toString(q);
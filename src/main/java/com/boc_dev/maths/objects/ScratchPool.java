@@ -0,0 +1,178 @@
+package com.boc_dev.maths.objects;
+
+import com.boc_dev.maths.objects.matrix.MutableMatrix4d;
+import com.boc_dev.maths.objects.matrix.MutableMatrix4f;
+import com.boc_dev.maths.objects.vector.MutableVec3d;
+import com.boc_dev.maths.objects.vector.MutableVec3f;
+import com.boc_dev.maths.objects.vector.MutableVec4f;
+
+import java.util.Arrays;
+
+/**
+ * Per thread pool of mutable scratch instances. Instances are handed out inside a frame and are all returned when
+ * the frame is popped, so temporaries in a hot loop are reused instead of allocated:
+ *
+ * <pre>
+ * try (ScratchPool pool = ScratchPool.push()) {
+ *     MutableVec3f delta = pool.vec3f().set(target).subtractLocal(position);
+ *     MutableMatrix4f m = pool.matrix4f().mulLocal(parent).translateLocal(delta);
+ *     ...
+ * }
+ * </pre>
+ *
+ * Frames nest. Vectors are handed out as zero and matrices as identity. An instance must not be used after the
+ * frame it came from has been popped, and a pool must only be used by the thread that owns it.
+ */
+public final class ScratchPool implements AutoCloseable {
+
+	private static final ThreadLocal<ScratchPool> POOLS = ThreadLocal.withInitial(ScratchPool::new);
+
+	private static final int TYPES = 5;
+
+	private MutableVec3f[] vec3fs = new MutableVec3f[16];
+	private MutableVec3d[] vec3ds = new MutableVec3d[16];
+	private MutableVec4f[] vec4fs = new MutableVec4f[16];
+	private MutableMatrix4f[] matrix4fs = new MutableMatrix4f[16];
+	private MutableMatrix4d[] matrix4ds = new MutableMatrix4d[16];
+
+	private int vec3fCount;
+	private int vec3dCount;
+	private int vec4fCount;
+	private int matrix4fCount;
+	private int matrix4dCount;
+
+	// saved counts for each open frame
+	private int[] frames = new int[TYPES * 8];
+	private int depth;
+
+	private ScratchPool() {
+	}
+
+	/**
+	 * @return the pool for the current thread
+	 */
+	public static ScratchPool get() {
+		return POOLS.get();
+	}
+
+	/**
+	 * Opens a frame on the current thread's pool.
+	 *
+	 * @return the pool for the current thread, close it to pop the frame
+	 */
+	public static ScratchPool push() {
+		ScratchPool pool = POOLS.get();
+		pool.pushFrame();
+		return pool;
+	}
+
+	public void pushFrame() {
+		if ((depth + 1) * TYPES > frames.length) {
+			frames = Arrays.copyOf(frames, frames.length * 2);
+		}
+		int index = depth * TYPES;
+		frames[index] = vec3fCount;
+		frames[index + 1] = vec3dCount;
+		frames[index + 2] = vec4fCount;
+		frames[index + 3] = matrix4fCount;
+		frames[index + 4] = matrix4dCount;
+		depth++;
+	}
+
+	/**
+	 * Returns every instance handed out since the matching push.
+	 */
+	public void pop() {
+		if (depth == 0) {
+			throw new IllegalStateException("No scratch frame to pop");
+		}
+		depth--;
+		int index = depth * TYPES;
+		vec3fCount = frames[index];
+		vec3dCount = frames[index + 1];
+		vec4fCount = frames[index + 2];
+		matrix4fCount = frames[index + 3];
+		matrix4dCount = frames[index + 4];
+	}
+
+	@Override
+	public void close() {
+		pop();
+	}
+
+	public MutableVec3f vec3f() {
+		checkFrame();
+		if (vec3fCount == vec3fs.length) {
+			vec3fs = Arrays.copyOf(vec3fs, vec3fs.length * 2);
+		}
+		MutableVec3f vec = vec3fs[vec3fCount];
+		if (vec == null) {
+			vec = new MutableVec3f();
+			vec3fs[vec3fCount] = vec;
+		}
+		vec3fCount++;
+		return vec.set(0, 0, 0);
+	}
+
+	public MutableVec3d vec3d() {
+		checkFrame();
+		if (vec3dCount == vec3ds.length) {
+			vec3ds = Arrays.copyOf(vec3ds, vec3ds.length * 2);
+		}
+		MutableVec3d vec = vec3ds[vec3dCount];
+		if (vec == null) {
+			vec = new MutableVec3d();
+			vec3ds[vec3dCount] = vec;
+		}
+		vec3dCount++;
+		return vec.set(0, 0, 0);
+	}
+
+	public MutableVec4f vec4f() {
+		checkFrame();
+		if (vec4fCount == vec4fs.length) {
+			vec4fs = Arrays.copyOf(vec4fs, vec4fs.length * 2);
+		}
+		MutableVec4f vec = vec4fs[vec4fCount];
+		if (vec == null) {
+			vec = new MutableVec4f();
+			vec4fs[vec4fCount] = vec;
+		}
+		vec4fCount++;
+		return vec.set(0, 0, 0, 0);
+	}
+
+	public MutableMatrix4f matrix4f() {
+		checkFrame();
+		if (matrix4fCount == matrix4fs.length) {
+			matrix4fs = Arrays.copyOf(matrix4fs, matrix4fs.length * 2);
+		}
+		MutableMatrix4f matrix = matrix4fs[matrix4fCount];
+		if (matrix == null) {
+			matrix = new MutableMatrix4f();
+			matrix4fs[matrix4fCount] = matrix;
+		}
+		matrix4fCount++;
+		return matrix.setIdentity();
+	}
+
+	public MutableMatrix4d matrix4d() {
+		checkFrame();
+		if (matrix4dCount == matrix4ds.length) {
+			matrix4ds = Arrays.copyOf(matrix4ds, matrix4ds.length * 2);
+		}
+		MutableMatrix4d matrix = matrix4ds[matrix4dCount];
+		if (matrix == null) {
+			matrix = new MutableMatrix4d();
+			matrix4ds[matrix4dCount] = matrix;
+		}
+		matrix4dCount++;
+		return matrix.setIdentity();
+	}
+
+	private void checkFrame() {
+		if (depth == 0) {
+			throw new IllegalStateException("Scratch instances can only be taken inside a frame, call push first");
+		}
+	}
+}
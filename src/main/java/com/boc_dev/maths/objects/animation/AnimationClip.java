@@ -0,0 +1,67 @@
+package com.boc_dev.maths.objects.animation;
+
+/**
+ * Translation, rotation and scale tracks for each joint of a skeleton. A null track leaves that channel of the
+ * joint at the identity. Clips are immutable and shared between every instance playing them, the per instance
+ * playback state lives in a {@link ClipSampler}.
+ */
+public class AnimationClip {
+
+	private final int jointCount;
+	private final float duration;
+	private final KeyframeTrack[] translations;
+	private final KeyframeTrack[] rotations;
+	private final KeyframeTrack[] scales;
+
+	/**
+	 * @param duration     length of the clip, positive and finite since looped playback wraps time by it
+	 * @param translations vector track per joint, or null entries
+	 * @param rotations    rotation track per joint, or null entries
+	 * @param scales       vector track per joint, or null entries
+	 */
+	public AnimationClip(float duration, KeyframeTrack[] translations, KeyframeTrack[] rotations, KeyframeTrack[] scales) {
+		if (!(duration > 0) || !Float.isFinite(duration)) {
+			throw new IllegalArgumentException("Duration must be positive and finite, not " + duration);
+		}
+		this.jointCount = translations.length;
+		if (rotations.length != jointCount || scales.length != jointCount) {
+			throw new IllegalArgumentException("Track arrays have " + translations.length + ", " + rotations.length
+					+ " and " + scales.length + " joints");
+		}
+		check(translations, 3);
+		check(rotations, 4);
+		check(scales, 3);
+		this.duration = duration;
+		this.translations = translations.clone();
+		this.rotations = rotations.clone();
+		this.scales = scales.clone();
+	}
+
+	public int getJointCount() {
+		return jointCount;
+	}
+
+	public float getDuration() {
+		return duration;
+	}
+
+	public KeyframeTrack getTranslation(int joint) {
+		return translations[joint];
+	}
+
+	public KeyframeTrack getRotation(int joint) {
+		return rotations[joint];
+	}
+
+	public KeyframeTrack getScale(int joint) {
+		return scales[joint];
+	}
+
+	private static void check(KeyframeTrack[] tracks, int components) {
+		for (KeyframeTrack track : tracks) {
+			if (track != null && track.getComponents() != components) {
+				throw new IllegalArgumentException("Expected tracks of " + components + " components, not " + track.getComponents());
+			}
+		}
+	}
+}
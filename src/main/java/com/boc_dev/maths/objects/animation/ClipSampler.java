@@ -0,0 +1,118 @@
+package com.boc_dev.maths.objects.animation;
+
+import com.boc_dev.maths.objects.QuaternionF;
+
+/**
+ * Playback state of one instance of an {@link AnimationClip}. It keeps a key cursor per track, so sampling at
+ * steadily increasing times finds each key in constant time. It also keeps scratch buffers, so sampling does not
+ * allocate.
+ *
+ * Rotations are sampled in two passes. The first gathers the pair of keys and the blend weight for every joint into
+ * flat arrays. The second blends them all in one loop over those arrays, with either nlerp or slerp.
+ *
+ * One sampler per playing instance, samplers are not thread safe.
+ */
+public class ClipSampler {
+
+	public enum RotationBlend {
+		/**
+		 * Normalised lerp, cheapest and close to slerp for the small angles between neighbouring keys.
+		 */
+		NLERP,
+		/**
+		 * Constant angular speed between keys.
+		 */
+		SLERP
+	}
+
+	private final AnimationClip clip;
+	private final RotationBlend rotationBlend;
+	// translation, rotation and scale cursor per joint
+	private final int[] cursors;
+	private final float[] from;
+	private final float[] to;
+	private final float[] percents;
+
+	public ClipSampler(AnimationClip clip) {
+		this(clip, RotationBlend.NLERP);
+	}
+
+	public ClipSampler(AnimationClip clip, RotationBlend rotationBlend) {
+		int joints = clip.getJointCount();
+		this.clip = clip;
+		this.rotationBlend = rotationBlend;
+		this.cursors = new int[joints * 3];
+		this.from = new float[joints * 4];
+		this.to = new float[joints * 4];
+		this.percents = new float[joints];
+	}
+
+	public AnimationClip getClip() {
+		return clip;
+	}
+
+	/**
+	 * Writes the clip at time into pose. Times outside a track's keys hold its first or last key.
+	 */
+	public void sample(float time, Pose pose) {
+		int joints = clip.getJointCount();
+		if (pose.getJointCount() != joints) {
+			throw new IllegalArgumentException("Pose has " + pose.getJointCount() + " joints, clip has " + joints);
+		}
+		float[] translations = pose.getTranslations();
+		float[] scales = pose.getScales();
+
+		for (int joint = 0; joint < joints; joint++) {
+			int c = joint * 3;
+
+			KeyframeTrack translation = clip.getTranslation(joint);
+			if (translation != null) {
+				cursors[c] = translation.sample(time, cursors[c], translations, joint * 3);
+			} else {
+				translations[joint * 3] = 0.0f;
+				translations[joint * 3 + 1] = 0.0f;
+				translations[joint * 3 + 2] = 0.0f;
+			}
+
+			KeyframeTrack scale = clip.getScale(joint);
+			if (scale != null) {
+				cursors[c + 2] = scale.sample(time, cursors[c + 2], scales, joint * 3);
+			} else {
+				scales[joint * 3] = 1.0f;
+				scales[joint * 3 + 1] = 1.0f;
+				scales[joint * 3 + 2] = 1.0f;
+			}
+
+			KeyframeTrack rotation = clip.getRotation(joint);
+			if (rotation != null) {
+				int key = rotation.keyIndex(time, cursors[c + 1]);
+				cursors[c + 1] = key;
+				rotation.copyKey(key, from, joint * 4);
+				rotation.copyKey(key + 1, to, joint * 4);
+				percents[joint] = rotation.fraction(time, key);
+			} else {
+				from[joint * 4] = 1.0f;
+				from[joint * 4 + 1] = 0.0f;
+				from[joint * 4 + 2] = 0.0f;
+				from[joint * 4 + 3] = 0.0f;
+				System.arraycopy(from, joint * 4, to, joint * 4, 4);
+				percents[joint] = 0.0f;
+			}
+		}
+
+		if (rotationBlend == RotationBlend.SLERP) {
+			QuaternionF.slerp(from, 0, to, 0, percents, 0, pose.getRotations(), 0, joints);
+		} else {
+			QuaternionF.nlerp(from, 0, to, 0, percents, 0, pose.getRotations(), 0, joints);
+		}
+	}
+
+	/**
+	 * As {@link #sample(float, Pose)}, with time wrapped into [0, duration) so the clip loops.
+	 */
+	public void sampleLooped(float time, Pose pose) {
+		float duration = clip.getDuration();
+		float wrapped = time % duration;
+		sample(wrapped < 0 ? wrapped + duration : wrapped, pose);
+	}
+}
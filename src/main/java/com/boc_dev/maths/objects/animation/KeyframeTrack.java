@@ -0,0 +1,152 @@
+package com.boc_dev.maths.objects.animation;
+
+import com.boc_dev.maths.objects.QuaternionF;
+
+import java.util.Arrays;
+
+/**
+ * Keyframes of one animated channel, key times and values held in flat primitive arrays. Vector tracks hold
+ * x, y, z per key for translations and scales, rotation tracks hold s, i, j, k per key.
+ *
+ * Lookups take a cursor, the key index the previous lookup returned. Playback moves forward in small steps so the
+ * next key is almost always the cursor or a few after it, and only jumps backwards or far ahead fall back to a
+ * binary search.
+ */
+public class KeyframeTrack {
+
+	// keys walked forwards from the cursor before giving up and searching
+	private static final int LINEAR_STEPS = 4;
+
+	private final float[] times;
+	private final float[] values;
+	private final int components;
+
+	private KeyframeTrack(float[] times, float[] values, int components) {
+		if (times.length == 0) {
+			throw new IllegalArgumentException("A track needs at least one key");
+		}
+		if (values.length != times.length * components) {
+			throw new IllegalArgumentException(values.length + " values for " + times.length + " keys of " + components + " components");
+		}
+		for (int i = 1; i < times.length; i++) {
+			if (!(times[i] > times[i - 1])) {
+				throw new IllegalArgumentException("Key times must increase, key " + i + " is at " + times[i] + " after " + times[i - 1]);
+			}
+		}
+		this.times = times.clone();
+		this.values = values.clone();
+		this.components = components;
+	}
+
+	/**
+	 * @param times  increasing key times
+	 * @param values x, y, z for each key
+	 */
+	public static KeyframeTrack Vector(float[] times, float[] values) {
+		return new KeyframeTrack(times, values, 3);
+	}
+
+	/**
+	 * @param times  increasing key times
+	 * @param values s, i, j, k for each key, normalised on the way in
+	 */
+	public static KeyframeTrack Rotation(float[] times, float[] values) {
+		KeyframeTrack track = new KeyframeTrack(times, values, 4);
+		float[] v = track.values;
+		for (int i = 0; i < v.length; i += 4) {
+			float invLen = (float) (1 / Math.sqrt(v[i] * v[i] + v[i + 1] * v[i + 1] + v[i + 2] * v[i + 2] + v[i + 3] * v[i + 3]));
+			for (int c = i; c < i + 4; c++) {
+				v[c] *= invLen;
+			}
+		}
+		return track;
+	}
+
+	public int getKeyCount() {
+		return times.length;
+	}
+
+	public int getComponents() {
+		return components;
+	}
+
+	public float getTime(int key) {
+		return times[key];
+	}
+
+	public float getStartTime() {
+		return times[0];
+	}
+
+	public float getEndTime() {
+		return times[times.length - 1];
+	}
+
+	/**
+	 * Interpolated value at time, lerped for vector tracks and nlerped for rotation tracks, written into dest
+	 * starting at offset. Times outside the keys clamp to the first or last key.
+	 *
+	 * @param cursor key index returned by the previous call, or 0
+	 * @return the key index to pass as cursor next time
+	 */
+	public int sample(float time, int cursor, float[] dest, int offset) {
+		int key = keyIndex(time, cursor);
+		float percent = fraction(time, key);
+		int a = key * components;
+		int b = Math.min(key + 1, times.length - 1) * components;
+		if (components == 4) {
+			QuaternionF.nlerp(values[a], values[a + 1], values[a + 2], values[a + 3],
+					values[b], values[b + 1], values[b + 2], values[b + 3], percent, dest, offset);
+		} else {
+			for (int c = 0; c < components; c++) {
+				dest[offset + c] = values[a + c] + (values[b + c] - values[a + c]) * percent;
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * Index of the last key at or before time, 0 before the first key.
+	 *
+	 * @param cursor a previous result, the search starts from here
+	 */
+	int keyIndex(float time, int cursor) {
+		int last = times.length - 1;
+		if (cursor < 0 || cursor > last || times[cursor] > time) {
+			return search(time);
+		}
+		for (int steps = 0; cursor < last && times[cursor + 1] <= time; steps++) {
+			if (steps == LINEAR_STEPS) {
+				return search(time);
+			}
+			cursor++;
+		}
+		return cursor;
+	}
+
+	/**
+	 * Position of time between key and the one after it, from 0 to 1.
+	 */
+	float fraction(float time, int key) {
+		if (key == times.length - 1) {
+			return 0.0f;
+		}
+		float percent = (time - times[key]) / (times[key + 1] - times[key]);
+		return Math.max(0.0f, Math.min(1.0f, percent));
+	}
+
+	/**
+	 * Copies the values of key, or the last key if key is past it, into dest.
+	 */
+	void copyKey(int key, float[] dest, int offset) {
+		System.arraycopy(values, Math.min(key, times.length - 1) * components, dest, offset, components);
+	}
+
+	private int search(float time) {
+		int index = Arrays.binarySearch(times, time);
+		if (index < 0) {
+			index = -index - 2;
+		}
+		return Math.max(0, index);
+	}
+}
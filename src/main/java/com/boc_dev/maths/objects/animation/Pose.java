@@ -0,0 +1,111 @@
+package com.boc_dev.maths.objects.animation;
+
+import com.boc_dev.maths.objects.QuaternionF;
+import com.boc_dev.maths.objects.srt.Transform;
+import com.boc_dev.maths.objects.vector.Vec3f;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Local translation, rotation and scale of every joint of a skeleton, in flat arrays: x, y, z per joint for
+ * translations and scales and s, i, j, k per joint for rotations. Written by {@link ClipSampler} and reused from
+ * frame to frame.
+ */
+public class Pose {
+
+	private final int jointCount;
+	private final float[] translations;
+	private final float[] rotations;
+	private final float[] scales;
+
+	/**
+	 * Creates a pose with every joint at the identity.
+	 */
+	public Pose(int jointCount) {
+		this.jointCount = jointCount;
+		this.translations = new float[jointCount * 3];
+		this.rotations = new float[jointCount * 4];
+		this.scales = new float[jointCount * 3];
+		setIdentity();
+	}
+
+	public int getJointCount() {
+		return jointCount;
+	}
+
+	/**
+	 * Backing array of translations, 3 floats per joint. Writes go straight into the pose.
+	 */
+	public float[] getTranslations() {
+		return translations;
+	}
+
+	/**
+	 * Backing array of rotations, 4 floats per joint. Writes go straight into the pose.
+	 */
+	public float[] getRotations() {
+		return rotations;
+	}
+
+	/**
+	 * Backing array of scales, 3 floats per joint. Writes go straight into the pose.
+	 */
+	public float[] getScales() {
+		return scales;
+	}
+
+	public Vec3f getTranslation(int joint) {
+		Objects.checkIndex(joint, jointCount);
+		return new Vec3f(translations[joint * 3], translations[joint * 3 + 1], translations[joint * 3 + 2]);
+	}
+
+	public QuaternionF getRotation(int joint) {
+		Objects.checkIndex(joint, jointCount);
+		int i = joint * 4;
+		return new QuaternionF(rotations[i], rotations[i + 1], rotations[i + 2], rotations[i + 3]);
+	}
+
+	public Vec3f getScale(int joint) {
+		Objects.checkIndex(joint, jointCount);
+		return new Vec3f(scales[joint * 3], scales[joint * 3 + 1], scales[joint * 3 + 2]);
+	}
+
+	public Transform toTransform(int joint) {
+		return new Transform(getScale(joint), getRotation(joint), getTranslation(joint));
+	}
+
+	public void setIdentity() {
+		Arrays.fill(translations, 0.0f);
+		Arrays.fill(scales, 1.0f);
+		Arrays.fill(rotations, 0.0f);
+		for (int i = 0; i < rotations.length; i += 4) {
+			rotations[i] = 1.0f;
+		}
+	}
+
+	/**
+	 * Blends from this pose to other, for cross fading between clips. Translations and scales are lerped and
+	 * rotations nlerped. dest may be this pose or other.
+	 *
+	 * @param weight 0 gives this pose, 1 gives other
+	 */
+	public void blend(Pose other, float weight, Pose dest) {
+		if (other.jointCount != jointCount || dest.jointCount != jointCount) {
+			throw new IllegalArgumentException("Poses have " + jointCount + ", " + other.jointCount + " and " + dest.jointCount + " joints");
+		}
+		lerp(translations, other.translations, weight, dest.translations);
+		lerp(scales, other.scales, weight, dest.scales);
+		for (int i = 0; i < rotations.length; i += 4) {
+			QuaternionF.nlerp(rotations[i], rotations[i + 1], rotations[i + 2], rotations[i + 3],
+					other.rotations[i], other.rotations[i + 1], other.rotations[i + 2], other.rotations[i + 3],
+					weight, dest.rotations, i);
+		}
+	}
+
+	private static void lerp(float[] a, float[] b, float weight, float[] dest) {
+		for (int i = 0; i < a.length; i++) {
+			dest[i] = a[i] + (b[i] - a[i]) * weight;
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package com.boc_dev.maths.objects.dev;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Dense row major matrix multiply, c = a * b with a m x n, b n x p and c m x p.
+ *
+ * The kernel walks k in blocks so the rows of b being streamed stay in cache, and updates four rows of c per pass
+ * so each value of b loaded is used four times. The inner loop runs over contiguous j so the JIT can vectorise it.
+ * Products above {@link #PARALLEL_THRESHOLD} multiply-adds are split by rows of c over the common ForkJoinPool,
+ * every task writes its own rows so no synchronisation is needed.
+ *
+ * The kernel is written out three times, for double, float, and float in with double accumulation for
+ * {@link Matrixnf}. Generics cannot specialise over primitives, and sharing the loops through an interface would add a
+ * call per block or box the values, so the copies are intentional. They must change together: any change to the
+ * blocking or unrolling of one goes into all three, and GemmTest checks they still agree across the block boundaries.
+ */
+final class Gemm {
+
+	static final long PARALLEL_THRESHOLD = 1L << 18;
+
+	// rows of b kept hot in cache per pass, 256 rows * p doubles per column block
+	static final int K_BLOCK = 256;
+	// columns of c and b per block, 512 doubles = 4KB per row
+	static final int J_BLOCK = 512;
+	// rows of c per task once split
+	private static final int MIN_TASK_ROWS = 16;
+
+	private Gemm() {
+	}
+
+	/**
+	 * c = a * b. c must not alias a or b, it is overwritten.
+	 */
+	static void multiply(double[] a, double[] b, double[] c, int m, int n, int p) {
+		multiply(a, 0, n, b, 0, p, c, m, n, p);
+	}
+
+	/**
+	 * c = a * b where a and b are row major blocks inside larger arrays, row i of a starting at
+	 * aOffset + i * aStride. c is packed.
+	 */
+	static void multiply(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride, double[] c, int m, int n, int p) {
+		Arrays.fill(c, 0, m * p, 0.0);
+		multiplyAdd(a, aOffset, aStride, b, bOffset, bStride, c, m, n, p);
+	}
+
+	/**
+	 * c += a * b, c packed m x p.
+	 */
+	static void multiplyAdd(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride, double[] c, int m, int n, int p) {
+		forRows(m, n, p, (from, to) -> multiplyRows(a, aOffset, aStride, b, bOffset, bStride, c, n, p, from, to));
+	}
+
+	/**
+	 * Single precision c = a * b, accumulating in float.
+	 */
+	static void multiply(float[] a, int aOffset, int aStride, float[] b, int bOffset, int bStride, float[] c, int m, int n, int p) {
+		Arrays.fill(c, 0, m * p, 0.0f);
+		forRows(m, n, p, (from, to) -> multiplyRows(a, aOffset, aStride, b, bOffset, bStride, c, n, p, from, to));
+	}
+
+	/**
+	 * c = a * b for single precision a and b, accumulating in double so long inner products do not lose precision.
+	 */
+	static void multiply(float[] a, int aOffset, int aStride, float[] b, int bOffset, int bStride, double[] c, int m, int n, int p) {
+		Arrays.fill(c, 0, m * p, 0.0);
+		forRows(m, n, p, (from, to) -> multiplyRows(a, aOffset, aStride, b, bOffset, bStride, c, n, p, from, to));
+	}
+
+	private static void forRows(int m, int n, int p, RowKernel kernel) {
+		if ((long) m * n * p < PARALLEL_THRESHOLD || m < 2 * MIN_TASK_ROWS) {
+			kernel.rows(0, m);
+		} else {
+			ForkJoinPool.commonPool().invoke(new RowTask(kernel, (long) n * p, 0, m));
+		}
+	}
+
+	/**
+	 * Accumulates rows from to to (exclusive) of a * b into c.
+	 */
+	static void multiplyRows(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride, double[] c, int n, int p, int from, int to) {
+		for (int kk = 0; kk < n; kk += K_BLOCK) {
+			int kEnd = Math.min(n, kk + K_BLOCK);
+			for (int jj = 0; jj < p; jj += J_BLOCK) {
+				int jEnd = Math.min(p, jj + J_BLOCK);
+
+				int i = from;
+				for (; i + 3 < to; i += 4) {
+					int c0 = i * p, c1 = c0 + p, c2 = c1 + p, c3 = c2 + p;
+					int a0 = aOffset + i * aStride, a1 = a0 + aStride, a2 = a1 + aStride, a3 = a2 + aStride;
+					for (int k = kk; k < kEnd; k++) {
+						double a0k = a[a0 + k];
+						double a1k = a[a1 + k];
+						double a2k = a[a2 + k];
+						double a3k = a[a3 + k];
+						int bk = bOffset + k * bStride;
+						for (int j = jj; j < jEnd; j++) {
+							double bkj = b[bk + j];
+							c[c0 + j] += a0k * bkj;
+							c[c1 + j] += a1k * bkj;
+							c[c2 + j] += a2k * bkj;
+							c[c3 + j] += a3k * bkj;
+						}
+					}
+				}
+
+				for (; i < to; i++) {
+					int ci = i * p;
+					int ai = aOffset + i * aStride;
+					for (int k = kk; k < kEnd; k++) {
+						double aik = a[ai + k];
+						int bk = bOffset + k * bStride;
+						for (int j = jj; j < jEnd; j++) {
+							c[ci + j] += aik * b[bk + j];
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Single precision copy of the kernel above, keep the two in step.
+	 */
+	static void multiplyRows(float[] a, int aOffset, int aStride, float[] b, int bOffset, int bStride, float[] c, int n, int p, int from, int to) {
+		for (int kk = 0; kk < n; kk += K_BLOCK) {
+			int kEnd = Math.min(n, kk + K_BLOCK);
+			for (int jj = 0; jj < p; jj += J_BLOCK) {
+				int jEnd = Math.min(p, jj + J_BLOCK);
+
+				int i = from;
+				for (; i + 3 < to; i += 4) {
+					int c0 = i * p, c1 = c0 + p, c2 = c1 + p, c3 = c2 + p;
+					int a0 = aOffset + i * aStride, a1 = a0 + aStride, a2 = a1 + aStride, a3 = a2 + aStride;
+					for (int k = kk; k < kEnd; k++) {
+						float a0k = a[a0 + k];
+						float a1k = a[a1 + k];
+						float a2k = a[a2 + k];
+						float a3k = a[a3 + k];
+						int bk = bOffset + k * bStride;
+						for (int j = jj; j < jEnd; j++) {
+							float bkj = b[bk + j];
+							c[c0 + j] += a0k * bkj;
+							c[c1 + j] += a1k * bkj;
+							c[c2 + j] += a2k * bkj;
+							c[c3 + j] += a3k * bkj;
+						}
+					}
+				}
+
+				for (; i < to; i++) {
+					int ci = i * p;
+					int ai = aOffset + i * aStride;
+					for (int k = kk; k < kEnd; k++) {
+						float aik = a[ai + k];
+						int bk = bOffset + k * bStride;
+						for (int j = jj; j < jEnd; j++) {
+							c[ci + j] += aik * b[bk + j];
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copy of the kernel above for single precision inputs accumulated into double, keep the three in step.
+	 */
+	static void multiplyRows(float[] a, int aOffset, int aStride, float[] b, int bOffset, int bStride, double[] c, int n, int p, int from, int to) {
+		for (int kk = 0; kk < n; kk += K_BLOCK) {
+			int kEnd = Math.min(n, kk + K_BLOCK);
+			for (int jj = 0; jj < p; jj += J_BLOCK) {
+				int jEnd = Math.min(p, jj + J_BLOCK);
+
+				int i = from;
+				for (; i + 3 < to; i += 4) {
+					int c0 = i * p, c1 = c0 + p, c2 = c1 + p, c3 = c2 + p;
+					int a0 = aOffset + i * aStride, a1 = a0 + aStride, a2 = a1 + aStride, a3 = a2 + aStride;
+					for (int k = kk; k < kEnd; k++) {
+						double a0k = a[a0 + k];
+						double a1k = a[a1 + k];
+						double a2k = a[a2 + k];
+						double a3k = a[a3 + k];
+						int bk = bOffset + k * bStride;
+						for (int j = jj; j < jEnd; j++) {
+							double bkj = b[bk + j];
+							c[c0 + j] += a0k * bkj;
+							c[c1 + j] += a1k * bkj;
+							c[c2 + j] += a2k * bkj;
+							c[c3 + j] += a3k * bkj;
+						}
+					}
+				}
+
+				for (; i < to; i++) {
+					int ci = i * p;
+					int ai = aOffset + i * aStride;
+					for (int k = kk; k < kEnd; k++) {
+						double aik = a[ai + k];
+						int bk = bOffset + k * bStride;
+						for (int j = jj; j < jEnd; j++) {
+							c[ci + j] += aik * b[bk + j];
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private interface RowKernel {
+		void rows(int from, int to);
+	}
+
+	private static final class RowTask extends RecursiveAction {
+
+		private final RowKernel kernel;
+		// multiply-adds per row of c
+		private final long rowWork;
+		private final int from;
+		private final int to;
+
+		RowTask(RowKernel kernel, long rowWork, int from, int to) {
+			this.kernel = kernel;
+			this.rowWork = rowWork;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			int rows = to - from;
+			if (rows <= MIN_TASK_ROWS || rows * rowWork < PARALLEL_THRESHOLD) {
+				kernel.rows(from, to);
+				return;
+			}
+			// keep splits on multiples of 4 so the unrolled path covers every row but the last few
+			int mid = from + ((rows / 2) & ~3);
+			invokeAll(new RowTask(kernel, rowWork, from, mid), new RowTask(kernel, rowWork, mid, to));
+		}
+	}
+}
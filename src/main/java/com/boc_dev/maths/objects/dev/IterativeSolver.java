@@ -0,0 +1,219 @@
+package com.boc_dev.maths.objects.dev;
+
+import java.util.Arrays;
+
+/**
+ * Krylov solvers for A x = b where A is only available as a {@link LinearOperator}, such as a
+ * {@link SparseMatrixnd} or a matrix free stencil. Each iteration costs one or two operator applications and a few
+ * passes over vectors of length n, so memory stays O(n).
+ *
+ * x holds the initial guess on entry and the solution on return. Convergence is |b - A x| &lt;= tolerance * |b|.
+ * A null preconditioner means none.
+ */
+public final class IterativeSolver {
+
+	private IterativeSolver() {
+	}
+
+	/**
+	 * Outcome of a solve, the solution itself is left in x.
+	 */
+	public static final class Result {
+
+		private final int iterations;
+		private final double residual;
+		private final boolean converged;
+
+		Result(int iterations, double residual, boolean converged) {
+			this.iterations = iterations;
+			this.residual = residual;
+			this.converged = converged;
+		}
+
+		public int getIterations() {
+			return iterations;
+		}
+
+		/**
+		 * Final |b - A x| / |b|.
+		 */
+		public double getResidual() {
+			return residual;
+		}
+
+		public boolean isConverged() {
+			return converged;
+		}
+
+		@Override
+		public String toString() {
+			return "Result{iterations=" + iterations + ", residual=" + residual + ", converged=" + converged + "}";
+		}
+	}
+
+	/**
+	 * Preconditioned conjugate gradient, for symmetric positive definite A and preconditioner.
+	 */
+	public static Result conjugateGradient(LinearOperator a, double[] b, double[] x, LinearOperator preconditioner,
+	                                       double tolerance, int maxIterations) {
+		int n = checkSizes(b, x);
+		double bNorm = norm(b);
+		if (bNorm == 0.0) {
+			Arrays.fill(x, 0.0);
+			return new Result(0, 0.0, true);
+		}
+
+		double[] r = new double[n];
+		double[] z = new double[n];
+		double[] p = new double[n];
+		double[] ap = new double[n];
+
+		residual(a, b, x, r, ap);
+		double relative = norm(r) / bNorm;
+		if (relative <= tolerance) {
+			return new Result(0, relative, true);
+		}
+		precondition(preconditioner, r, z);
+		System.arraycopy(z, 0, p, 0, n);
+		double rz = dot(r, z);
+
+		for (int iteration = 1; iteration <= maxIterations; iteration++) {
+			a.apply(p, ap);
+			double alpha = rz / dot(p, ap);
+			double rr = 0.0;
+			for (int i = 0; i < n; i++) {
+				x[i] += alpha * p[i];
+				r[i] -= alpha * ap[i];
+				rr += r[i] * r[i];
+			}
+			relative = Math.sqrt(rr) / bNorm;
+			if (relative <= tolerance) {
+				return new Result(iteration, relative, true);
+			}
+
+			precondition(preconditioner, r, z);
+			double rzNext = dot(r, z);
+			double beta = rzNext / rz;
+			rz = rzNext;
+			for (int i = 0; i < n; i++) {
+				p[i] = z[i] + beta * p[i];
+			}
+		}
+		return new Result(maxIterations, relative, false);
+	}
+
+	/**
+	 * Right preconditioned BiCGSTAB, for general non symmetric A.
+	 */
+	public static Result biCGStab(LinearOperator a, double[] b, double[] x, LinearOperator preconditioner,
+	                              double tolerance, int maxIterations) {
+		int n = checkSizes(b, x);
+		double bNorm = norm(b);
+		if (bNorm == 0.0) {
+			Arrays.fill(x, 0.0);
+			return new Result(0, 0.0, true);
+		}
+
+		double[] r = new double[n];
+		double[] shadow = new double[n];
+		double[] p = new double[n];
+		double[] v = new double[n];
+		double[] pHat = new double[n];
+		double[] sHat = new double[n];
+		double[] t = new double[n];
+
+		residual(a, b, x, r, t);
+		double relative = norm(r) / bNorm;
+		if (relative <= tolerance) {
+			return new Result(0, relative, true);
+		}
+		System.arraycopy(r, 0, shadow, 0, n);
+		double rho = 1.0;
+		double alpha = 1.0;
+		double omega = 1.0;
+
+		for (int iteration = 1; iteration <= maxIterations; iteration++) {
+			double rhoNext = dot(shadow, r);
+			if (rhoNext == 0.0) {
+				// breakdown, the shadow residual is orthogonal to the residual
+				return new Result(iteration, relative, false);
+			}
+			double beta = (rhoNext / rho) * (alpha / omega);
+			rho = rhoNext;
+			for (int i = 0; i < n; i++) {
+				p[i] = r[i] + beta * (p[i] - omega * v[i]);
+			}
+			precondition(preconditioner, p, pHat);
+			a.apply(pHat, v);
+			alpha = rho / dot(shadow, v);
+
+			// r becomes s = r - alpha v
+			double ss = 0.0;
+			for (int i = 0; i < n; i++) {
+				r[i] -= alpha * v[i];
+				ss += r[i] * r[i];
+			}
+			relative = Math.sqrt(ss) / bNorm;
+			if (relative <= tolerance) {
+				for (int i = 0; i < n; i++) {
+					x[i] += alpha * pHat[i];
+				}
+				return new Result(iteration, relative, true);
+			}
+
+			precondition(preconditioner, r, sHat);
+			a.apply(sHat, t);
+			double tt = dot(t, t);
+			omega = tt == 0.0 ? 0.0 : dot(t, r) / tt;
+			double rr = 0.0;
+			for (int i = 0; i < n; i++) {
+				x[i] += alpha * pHat[i] + omega * sHat[i];
+				r[i] -= omega * t[i];
+				rr += r[i] * r[i];
+			}
+			relative = Math.sqrt(rr) / bNorm;
+			if (relative <= tolerance) {
+				return new Result(iteration, relative, true);
+			}
+			if (omega == 0.0) {
+				return new Result(iteration, relative, false);
+			}
+		}
+		return new Result(maxIterations, relative, false);
+	}
+
+	private static int checkSizes(double[] b, double[] x) {
+		if (b.length != x.length) {
+			throw new IllegalArgumentException("b has length " + b.length + " but x has length " + x.length);
+		}
+		return b.length;
+	}
+
+	// r = b - A x, using scratch for A x
+	private static void residual(LinearOperator a, double[] b, double[] x, double[] r, double[] scratch) {
+		a.apply(x, scratch);
+		for (int i = 0; i < b.length; i++) {
+			r[i] = b[i] - scratch[i];
+		}
+	}
+
+	private static void precondition(LinearOperator preconditioner, double[] x, double[] y) {
+		if (preconditioner == null) {
+			System.arraycopy(x, 0, y, 0, x.length);
+		} else {
+			preconditioner.apply(x, y);
+		}
+	}
+
+	private static double dot(double[] a, double[] b) {
+		double sum = 0.0;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+
+	private static double norm(double[] a) {
+		return Math.sqrt(dot(a, a));
+	}
+}
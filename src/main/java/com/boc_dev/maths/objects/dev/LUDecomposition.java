@@ -0,0 +1,251 @@
+package com.boc_dev.maths.objects.dev;
+
+/**
+ * LU decomposition with partial pivoting of a square {@link Matrixnd}, PA = LU. The factors are computed once in
+ * O(n^3) and every solve after that is O(n^2) per right hand side, so one factorisation can be reused for many
+ * right hand sides.
+ *
+ * Rows of the matrix are the equations: solve finds x with sum over c of get(c, r) * x[c] = b[r] for every row r.
+ *
+ * L (unit lower, diagonal not stored) and U are packed into a single row major array.
+ */
+public class LUDecomposition {
+
+	private final int size;
+	private final double[] lu;
+	// row k was swapped with row swaps[k] when column k was eliminated
+	private final int[] swaps;
+	private final int pivotSign;
+	private final boolean singular;
+
+	/**
+	 * Factorises a copy of matrix, which is left unchanged.
+	 */
+	public LUDecomposition(Matrixnd matrix) {
+		if (matrix.getRowSize() != matrix.getColSize()) {
+			throw new IllegalArgumentException("LU decomposition needs a square matrix, not "
+					+ matrix.getRowSize() + "x" + matrix.getColSize());
+		}
+		this.size = matrix.getRowSize();
+		this.lu = matrix.copyElements();
+		this.swaps = new int[size];
+
+		int n = size;
+		int sign = 1;
+		boolean zeroPivot = false;
+
+		for (int k = 0; k < n; k++) {
+
+			// largest remaining value in column k becomes the pivot
+			int pivot = k;
+			double max = Math.abs(lu[k * n + k]);
+			for (int i = k + 1; i < n; i++) {
+				double value = Math.abs(lu[i * n + k]);
+				if (value > max) {
+					max = value;
+					pivot = i;
+				}
+			}
+
+			swaps[k] = pivot;
+			if (pivot != k) {
+				int pivotRow = pivot * n;
+				int kRow = k * n;
+				for (int j = 0; j < n; j++) {
+					double temp = lu[pivotRow + j];
+					lu[pivotRow + j] = lu[kRow + j];
+					lu[kRow + j] = temp;
+				}
+				sign = -sign;
+			}
+
+			double diagonal = lu[k * n + k];
+			// only an exact zero, as for Matrix4d.inverse, a tiny pivot may just be a badly scaled row
+			if (diagonal == 0.0 || !Double.isFinite(diagonal)) {
+				zeroPivot = true;
+				continue;
+			}
+
+			int kRow = k * n;
+			for (int i = k + 1; i < n; i++) {
+				int iRow = i * n;
+				double factor = lu[iRow + k] / diagonal;
+				lu[iRow + k] = factor;
+				if (factor != 0.0) {
+					for (int j = k + 1; j < n; j++) {
+						lu[iRow + j] -= factor * lu[kRow + j];
+					}
+				}
+			}
+		}
+
+		this.pivotSign = sign;
+		this.singular = zeroPivot;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * True if a pivot is exactly zero or not finite, in which case solve and inverse throw.
+	 */
+	public boolean isSingular() {
+		return singular;
+	}
+
+	/**
+	 * Conditioning check, true if the matrix is singular or a pivot is at most tolerance times the largest pivot.
+	 * A tolerance of a few times size * Math.ulp(1.0) catches matrices that are singular up to rounding.
+	 */
+	public boolean isSingular(double tolerance) {
+		if (singular) {
+			return true;
+		}
+		double largest = 0.0;
+		for (int i = 0; i < size; i++) {
+			largest = Math.max(largest, Math.abs(lu[i * size + i]));
+		}
+		for (int i = 0; i < size; i++) {
+			if (Math.abs(lu[i * size + i]) <= tolerance * largest) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public double det() {
+		double det = pivotSign;
+		for (int i = 0; i < size; i++) {
+			det *= lu[i * size + i];
+		}
+		return det;
+	}
+
+	public Vecnd solve(Vecnd b) {
+		if (b.size() != size) {
+			throw new IllegalArgumentException("Right hand side has " + b.size() + " values, expected " + size);
+		}
+		double[] x = b.toArray();
+		return new Vecnd(solve(x, x));
+	}
+
+	/**
+	 * Solves for every column of b at once, returning x with the same shape as b.
+	 */
+	public Matrixnd solve(Matrixnd b) {
+		if (b.getRowSize() != size) {
+			throw new IllegalArgumentException("Right hand side has " + b.getRowSize() + " rows, expected " + size);
+		}
+		int columns = b.getColSize();
+		double[] x = b.copyElements();
+		solveColumns(x, columns);
+		return new Matrixnd(size, columns, x);
+	}
+
+	/**
+	 * Allocation free solve of a single right hand side. dest may be the same array as b.
+	 *
+	 * @return dest
+	 * @throws ArithmeticException if the matrix is singular
+	 */
+	public double[] solve(double[] b, double[] dest) {
+		checkSingular();
+		int n = size;
+
+		if (b != dest) {
+			System.arraycopy(b, 0, dest, 0, n);
+		}
+		permute(dest, 1);
+
+		// forward substitution with unit lower L
+		for (int i = 1; i < n; i++) {
+			int iRow = i * n;
+			double sum = dest[i];
+			for (int j = 0; j < i; j++) {
+				sum -= lu[iRow + j] * dest[j];
+			}
+			dest[i] = sum;
+		}
+
+		// back substitution with U
+		for (int i = n - 1; i >= 0; i--) {
+			int iRow = i * n;
+			double sum = dest[i];
+			for (int j = i + 1; j < n; j++) {
+				sum -= lu[iRow + j] * dest[j];
+			}
+			dest[i] = sum / lu[iRow + i];
+		}
+
+		return dest;
+	}
+
+	public Matrixnd inverse() {
+		double[] identity = new double[size * size];
+		for (int i = 0; i < size; i++) {
+			identity[i * size + i] = 1.0;
+		}
+		solveColumns(identity, size);
+		return new Matrixnd(size, size, identity);
+	}
+
+	// solves in place for a row major size x columns block, working on whole rows so the inner loops are contiguous
+	private void solveColumns(double[] x, int columns) {
+		checkSingular();
+		int n = size;
+		permute(x, columns);
+
+		for (int i = 1; i < n; i++) {
+			int xi = i * columns;
+			for (int j = 0; j < i; j++) {
+				double factor = lu[i * n + j];
+				if (factor != 0.0) {
+					int xj = j * columns;
+					for (int c = 0; c < columns; c++) {
+						x[xi + c] -= factor * x[xj + c];
+					}
+				}
+			}
+		}
+
+		for (int i = n - 1; i >= 0; i--) {
+			int xi = i * columns;
+			for (int j = i + 1; j < n; j++) {
+				double factor = lu[i * n + j];
+				if (factor != 0.0) {
+					int xj = j * columns;
+					for (int c = 0; c < columns; c++) {
+						x[xi + c] -= factor * x[xj + c];
+					}
+				}
+			}
+			double inverseDiagonal = 1.0 / lu[i * n + i];
+			for (int c = 0; c < columns; c++) {
+				x[xi + c] *= inverseDiagonal;
+			}
+		}
+	}
+
+	// applies the row swaps of the factorisation, in order, to a row major size x columns block in place
+	private void permute(double[] x, int columns) {
+		for (int i = 0; i < size; i++) {
+			int swap = swaps[i];
+			if (swap != i) {
+				int xi = i * columns;
+				int xs = swap * columns;
+				for (int c = 0; c < columns; c++) {
+					double temp = x[xi + c];
+					x[xi + c] = x[xs + c];
+					x[xs + c] = temp;
+				}
+			}
+		}
+	}
+
+	private void checkSingular() {
+		if (singular) {
+			throw new ArithmeticException("Matrix is singular");
+		}
+	}
+}
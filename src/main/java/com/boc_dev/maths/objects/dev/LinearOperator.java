@@ -0,0 +1,15 @@
+package com.boc_dev.maths.objects.dev;
+
+/**
+ * A linear map y = A x given only by how it acts on a vector, so iterative solvers can run on matrices that
+ * are never stored, or on preconditioners such as M^-1.
+ */
+@FunctionalInterface
+public interface LinearOperator {
+
+	/**
+	 * Writes A x into y. x and y are never the same array, and have the same length for the square operators the
+	 * solvers take.
+	 */
+	void apply(double[] x, double[] y);
+}
@@ -0,0 +1,282 @@
+package com.boc_dev.maths.objects.dev;
+
+import java.io.IOException;
+
+/**
+ * LU decomposition with partial pivoting of a {@link MappedMatrixnd}, PA = LU, from {@link MappedMatrixnd#lu}.
+ *
+ * Factorised in place in its own file by blocked right looking elimination, one column of tiles at a time. The
+ * current column of tiles, n x tileSize, is factorised in memory, then the row swaps, the row of U tiles and the
+ * trailing update are streamed through the tile cache, the update being a tile multiply. Only the pivots and the
+ * diagonal are kept on the heap, L and U stay in the file.
+ *
+ * Rows of the matrix are the equations, as for {@link LUDecomposition}.
+ */
+public class MappedLUDecomposition implements AutoCloseable {
+
+	private final MappedMatrixnd lu;
+	private final int size;
+	// row i was swapped with row swaps[i] when column i was eliminated
+	private final int[] swaps;
+	private final double[] diagonal;
+	private final int pivotSign;
+	private final boolean singular;
+
+	MappedLUDecomposition(MappedMatrixnd lu) {
+		this.lu = lu;
+		this.size = lu.getRowSize();
+		this.swaps = new int[size];
+		this.diagonal = new double[size];
+
+		int n = size;
+		int t = lu.getTileSize();
+		int tiles = lu.getTileRows();
+		int sign = 1;
+		boolean zeroPivot = false;
+
+		double[] negated = new double[t * t];
+		for (int kb = 0; kb < tiles; kb++) {
+			int c0 = kb * t;
+			int width = Math.min(t, n - c0);
+			int height = n - c0;
+
+			// gather the column of tiles from the diagonal down
+			double[] panel = new double[height * width];
+			for (int ib = kb; ib < tiles; ib++) {
+				double[] tile = lu.tile(ib, kb, false);
+				for (int r = 0, row = ib * t; r < t && row < n; r++, row++) {
+					System.arraycopy(tile, r * t, panel, (row - c0) * width, width);
+				}
+			}
+
+			for (int j = 0; j < width; j++) {
+				int pivot = j;
+				double max = Math.abs(panel[j * width + j]);
+				for (int i = j + 1; i < height; i++) {
+					double value = Math.abs(panel[i * width + j]);
+					if (value > max) {
+						max = value;
+						pivot = i;
+					}
+				}
+				swaps[c0 + j] = c0 + pivot;
+				if (pivot != j) {
+					for (int c = 0; c < width; c++) {
+						double temp = panel[pivot * width + c];
+						panel[pivot * width + c] = panel[j * width + c];
+						panel[j * width + c] = temp;
+					}
+					sign = -sign;
+				}
+
+				double pivotValue = panel[j * width + j];
+				diagonal[c0 + j] = pivotValue;
+				// only an exact zero, as for LUDecomposition
+				if (pivotValue == 0.0 || !Double.isFinite(pivotValue)) {
+					zeroPivot = true;
+					continue;
+				}
+				for (int i = j + 1; i < height; i++) {
+					double factor = panel[i * width + j] / pivotValue;
+					panel[i * width + j] = factor;
+					if (factor != 0.0) {
+						for (int c = j + 1; c < width; c++) {
+							panel[i * width + c] -= factor * panel[j * width + c];
+						}
+					}
+				}
+			}
+
+			for (int ib = kb; ib < tiles; ib++) {
+				double[] tile = lu.tile(ib, kb, true);
+				for (int r = 0, row = ib * t; r < t && row < n; r++, row++) {
+					System.arraycopy(panel, (row - c0) * width, tile, r * t, width);
+				}
+			}
+
+			// the panel's row swaps, applied to every other column of tiles
+			for (int jb = 0; jb < tiles; jb++) {
+				if (jb != kb) {
+					for (int j = c0; j < c0 + width; j++) {
+						if (swaps[j] != j) {
+							swapRows(jb, j, swaps[j]);
+						}
+					}
+				}
+			}
+
+			// row of U tiles, L11^-1 * A12 with L11 unit lower
+			for (int jb = kb + 1; jb < tiles; jb++) {
+				double[] l = lu.tile(kb, kb, false);
+				double[] u = lu.tile(kb, jb, true);
+				for (int r = 1; r < width; r++) {
+					for (int q = 0; q < r; q++) {
+						double factor = l[r * t + q];
+						if (factor != 0.0) {
+							for (int c = 0; c < t; c++) {
+								u[r * t + c] -= factor * u[q * t + c];
+							}
+						}
+					}
+				}
+			}
+
+			// trailing update, A22 -= L21 * U12 a tile at a time
+			for (int ib = kb + 1; ib < tiles; ib++) {
+				double[] l = lu.tile(ib, kb, false);
+				for (int i = 0; i < negated.length; i++) {
+					negated[i] = -l[i];
+				}
+				for (int jb = kb + 1; jb < tiles; jb++) {
+					double[] a = lu.tile(ib, jb, true);
+					double[] u = lu.tile(kb, jb, false);
+					Gemm.multiplyAdd(negated, 0, t, u, 0, t, a, t, t, t);
+				}
+			}
+		}
+
+		this.pivotSign = sign;
+		this.singular = zeroPivot;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * True if a pivot is exactly zero or not finite, in which case solve throws.
+	 */
+	public boolean isSingular() {
+		return singular;
+	}
+
+	/**
+	 * Conditioning check, as {@link LUDecomposition#isSingular(double)}.
+	 */
+	public boolean isSingular(double tolerance) {
+		if (singular) {
+			return true;
+		}
+		double largest = 0.0;
+		for (double value : diagonal) {
+			largest = Math.max(largest, Math.abs(value));
+		}
+		for (double value : diagonal) {
+			if (Math.abs(value) <= tolerance * largest) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public double det() {
+		double det = pivotSign;
+		for (double value : diagonal) {
+			det *= value;
+		}
+		return det;
+	}
+
+	public Vecnd solve(Vecnd b) {
+		if (b.size() != size) {
+			throw new IllegalArgumentException("Right hand side has " + b.size() + " values, expected " + size);
+		}
+		double[] x = b.toArray();
+		return new Vecnd(solve(x, x));
+	}
+
+	/**
+	 * Solves for a single right hand side held in memory, reading L and U a tile at a time. dest may be the same
+	 * array as b.
+	 *
+	 * @return dest
+	 * @throws ArithmeticException if the matrix is singular
+	 */
+	public double[] solve(double[] b, double[] dest) {
+		if (singular) {
+			throw new ArithmeticException("Matrix is singular");
+		}
+		int n = size;
+		int t = lu.getTileSize();
+		int tiles = lu.getTileRows();
+		if (b != dest) {
+			System.arraycopy(b, 0, dest, 0, n);
+		}
+		for (int i = 0; i < n; i++) {
+			double temp = dest[swaps[i]];
+			dest[swaps[i]] = dest[i];
+			dest[i] = temp;
+		}
+
+		// forward substitution with unit lower L
+		for (int ib = 0; ib < tiles; ib++) {
+			int r0 = ib * t;
+			int height = Math.min(t, n - r0);
+			for (int jb = 0; jb <= ib; jb++) {
+				double[] l = lu.tile(ib, jb, false);
+				int c0 = jb * t;
+				for (int r = 0; r < height; r++) {
+					int end = jb == ib ? r : Math.min(t, n - c0);
+					double sum = 0.0;
+					for (int c = 0; c < end; c++) {
+						sum += l[r * t + c] * dest[c0 + c];
+					}
+					dest[r0 + r] -= sum;
+				}
+			}
+		}
+
+		// back substitution with U
+		for (int ib = tiles - 1; ib >= 0; ib--) {
+			int r0 = ib * t;
+			int height = Math.min(t, n - r0);
+			for (int jb = tiles - 1; jb > ib; jb--) {
+				double[] u = lu.tile(ib, jb, false);
+				int c0 = jb * t;
+				int width = Math.min(t, n - c0);
+				for (int r = 0; r < height; r++) {
+					double sum = 0.0;
+					for (int c = 0; c < width; c++) {
+						sum += u[r * t + c] * dest[c0 + c];
+					}
+					dest[r0 + r] -= sum;
+				}
+			}
+			double[] u = lu.tile(ib, ib, false);
+			for (int r = height - 1; r >= 0; r--) {
+				double sum = dest[r0 + r];
+				for (int c = r + 1; c < height; c++) {
+					sum -= u[r * t + c] * dest[r0 + c];
+				}
+				dest[r0 + r] = sum / u[r * t + r];
+			}
+		}
+		return dest;
+	}
+
+	/**
+	 * The packed factors, L below the diagonal with its unit diagonal implied and U on and above it.
+	 */
+	public MappedMatrixnd getFactors() {
+		return lu;
+	}
+
+	@Override
+	public void close() throws IOException {
+		lu.close();
+	}
+
+	// swaps rows a and b within column of tiles jb
+	private void swapRows(int jb, int a, int b) {
+		int t = lu.getTileSize();
+		double[] first = lu.tile(a / t, jb, true);
+		double[] second = lu.tile(b / t, jb, true);
+		int i = (a % t) * t;
+		int j = (b % t) * t;
+		for (int c = 0; c < t; c++, i++, j++) {
+			double temp = first[i];
+			first[i] = second[j];
+			second[j] = temp;
+		}
+	}
+}
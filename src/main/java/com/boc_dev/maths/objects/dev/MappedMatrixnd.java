@@ -0,0 +1,398 @@
+package com.boc_dev.maths.objects.dev;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Dense matrix kept in a memory mapped file, for matrices larger than the heap.
+ *
+ * The file holds a small header followed by square tiles of tileSize x tileSize doubles, little endian, each tile
+ * row major and contiguous on disk, tiles in row major order. Edge tiles are padded with zeros. Tiles are copied
+ * into a bounded LRU cache of heap arrays as they are used, and dirty tiles are written back to the mapping when
+ * they are evicted, so memory use is about cacheTiles * tileSize^2 * 8 bytes whatever the size of the matrix.
+ *
+ * {@link #multiply(MappedMatrixnd, Path)}, {@link #transpose(Path)} and {@link #lu(Path)} stream through the
+ * tiles into new files. Indexing follows {@link Matrixnd}: get(x, y) with x the column and y the row, and
+ * a.multiply(b) is the product b * a. Not thread safe.
+ */
+public class MappedMatrixnd implements AutoCloseable {
+
+	static final int DEFAULT_TILE_SIZE = 256;
+	// 64 tiles of 256 x 256 doubles is 32MB
+	static final int DEFAULT_CACHE_TILES = 64;
+	// the streaming operations hold up to three tiles at once
+	private static final int MIN_CACHE_TILES = 4;
+
+	private static final int MAGIC = 0x4d4e4444;
+	private static final int HEADER_BYTES = 64;
+	private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+	private final Path path;
+	private final FileChannel channel;
+	private final MappedByteBuffer[] segments;
+	private final boolean writable;
+	private final int rows;
+	private final int cols;
+	private final int tileSize;
+	private final int tileRows;
+	private final int tileCols;
+	private final int tileBytes;
+	private final long tilesPerSegment;
+	private final int cacheTiles;
+	private final LinkedHashMap<Long, Tile> cache;
+
+	private static final class Tile {
+		private final double[] data;
+		private boolean dirty;
+
+		private Tile(double[] data) {
+			this.data = data;
+		}
+	}
+
+	private MappedMatrixnd(Path path, FileChannel channel, FileChannel.MapMode mode, int rows, int cols, int tileSize, int cacheTiles) throws IOException {
+		this.path = path;
+		this.channel = channel;
+		this.writable = mode == FileChannel.MapMode.READ_WRITE;
+		this.rows = rows;
+		this.cols = cols;
+		this.tileSize = tileSize;
+		this.tileRows = (rows + tileSize - 1) / tileSize;
+		this.tileCols = (cols + tileSize - 1) / tileSize;
+		this.tileBytes = tileSize * tileSize * Double.BYTES;
+		this.tilesPerSegment = Math.max(1, MAX_SEGMENT_BYTES / tileBytes);
+		this.cacheTiles = Math.max(MIN_CACHE_TILES, cacheTiles);
+
+		long tiles = (long) tileRows * tileCols;
+		int count = (int) ((tiles + tilesPerSegment - 1) / tilesPerSegment);
+		this.segments = new MappedByteBuffer[count];
+		for (int i = 0; i < count; i++) {
+			long first = i * tilesPerSegment;
+			long length = Math.min(tilesPerSegment, tiles - first) * tileBytes;
+			segments[i] = channel.map(mode, HEADER_BYTES + first * tileBytes, length);
+		}
+
+		this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Tile> eldest) {
+				if (size() > MappedMatrixnd.this.cacheTiles) {
+					writeBack(eldest.getKey(), eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Creates or truncates the file at path to hold a rows x cols matrix of zeros.
+	 */
+	public static MappedMatrixnd Create(Path path, int rows, int cols) throws IOException {
+		return Create(path, rows, cols, DEFAULT_TILE_SIZE, DEFAULT_CACHE_TILES);
+	}
+
+	/**
+	 * @param tileSize   rows and columns per tile, 256 keeps a tile at 512KB
+	 * @param cacheTiles tiles held in memory at once, at least 4
+	 */
+	public static MappedMatrixnd Create(Path path, int rows, int cols, int tileSize, int cacheTiles) throws IOException {
+		if (rows < 1 || cols < 1) {
+			throw new IllegalArgumentException("Matrix must be at least 1x1, not " + rows + "x" + cols);
+		}
+		if (tileSize < 1 || (long) tileSize * tileSize * Double.BYTES > MAX_SEGMENT_BYTES) {
+			throw new IllegalArgumentException("Tile size " + tileSize);
+		}
+		FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(rows).putInt(cols).putInt(tileSize).rewind();
+			channel.write(header, 0);
+			return new MappedMatrixnd(path, channel, FileChannel.MapMode.READ_WRITE, rows, cols, tileSize, cacheTiles);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Maps an existing matrix file.
+	 *
+	 * @param writable false to map the file read only, in which case set throws ReadOnlyBufferException
+	 */
+	public static MappedMatrixnd Open(Path path, boolean writable) throws IOException {
+		return Open(path, writable, DEFAULT_CACHE_TILES);
+	}
+
+	public static MappedMatrixnd Open(Path path, boolean writable, int cacheTiles) throws IOException {
+		FileChannel channel = writable
+				? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+				: FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			channel.read(header, 0);
+			header.flip();
+			if (header.remaining() < 16 || header.getInt() != MAGIC) {
+				throw new IOException(path + " is not a matrix file");
+			}
+			int rows = header.getInt();
+			int cols = header.getInt();
+			int tileSize = header.getInt();
+			if (rows < 1 || cols < 1 || tileSize < 1 || (long) tileSize * tileSize * Double.BYTES > MAX_SEGMENT_BYTES) {
+				throw new IOException(path + " has a bad header, " + rows + "x" + cols + " in tiles of " + tileSize);
+			}
+			long tiles = (long) ((rows + tileSize - 1) / tileSize) * ((cols + tileSize - 1) / tileSize);
+			long expected = HEADER_BYTES + tiles * tileSize * tileSize * Double.BYTES;
+			if (channel.size() != expected) {
+				throw new IOException(path + " has length " + channel.size() + ", expected " + expected + " for a "
+						+ rows + "x" + cols + " matrix in tiles of " + tileSize);
+			}
+			return new MappedMatrixnd(path, channel, writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+					rows, cols, tileSize, cacheTiles);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public int getRowSize() {
+		return rows;
+	}
+
+	public int getColSize() {
+		return cols;
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * Getter using x and y values assuming x are columns are y are rows.
+	 */
+	public double get(int x, int y) {
+		Objects.checkIndex(x, cols);
+		Objects.checkIndex(y, rows);
+		return tile(y / tileSize, x / tileSize, false)[(y % tileSize) * tileSize + x % tileSize];
+	}
+
+	public void set(int x, int y, double value) {
+		Objects.checkIndex(x, cols);
+		Objects.checkIndex(y, rows);
+		tile(y / tileSize, x / tileSize, true)[(y % tileSize) * tileSize + x % tileSize] = value;
+	}
+
+	/**
+	 * Copies rows x cols values starting at (rowFrom, colFrom) into a new in memory matrix.
+	 */
+	public Matrixnd getBlock(int rowFrom, int colFrom, int rows, int cols) {
+		Objects.checkFromIndexSize(rowFrom, rows, this.rows);
+		Objects.checkFromIndexSize(colFrom, cols, this.cols);
+		double[] result = new double[rows * cols];
+		for (int row = rowFrom; row < rowFrom + rows; ) {
+			int ti = row / tileSize;
+			int rowEnd = Math.min(rowFrom + rows, (ti + 1) * tileSize);
+			for (int col = colFrom; col < colFrom + cols; ) {
+				int tj = col / tileSize;
+				int colEnd = Math.min(colFrom + cols, (tj + 1) * tileSize);
+				double[] tile = tile(ti, tj, false);
+				for (int r = row; r < rowEnd; r++) {
+					System.arraycopy(tile, (r - ti * tileSize) * tileSize + col - tj * tileSize,
+							result, (r - rowFrom) * cols + col - colFrom, colEnd - col);
+				}
+				col = colEnd;
+			}
+			row = rowEnd;
+		}
+		return Matrixnd.Packed(rows, cols, result);
+	}
+
+	/**
+	 * Writes source into this matrix with its top left element at (rowFrom, colFrom).
+	 */
+	public void setBlock(Matrixnd source, int rowFrom, int colFrom) {
+		int rows = source.getRowSize();
+		int cols = source.getColSize();
+		Objects.checkFromIndexSize(rowFrom, rows, this.rows);
+		Objects.checkFromIndexSize(colFrom, cols, this.cols);
+		for (int row = rowFrom; row < rowFrom + rows; ) {
+			int ti = row / tileSize;
+			int rowEnd = Math.min(rowFrom + rows, (ti + 1) * tileSize);
+			for (int col = colFrom; col < colFrom + cols; ) {
+				int tj = col / tileSize;
+				int colEnd = Math.min(colFrom + cols, (tj + 1) * tileSize);
+				double[] tile = tile(ti, tj, true);
+				for (int r = row; r < rowEnd; r++) {
+					source.copyRow(r - rowFrom, col - colFrom, colEnd - col,
+							tile, (r - ti * tileSize) * tileSize + col - tj * tileSize);
+				}
+				col = colEnd;
+			}
+			row = rowEnd;
+		}
+	}
+
+	public Matrixnd toMatrixnd() {
+		return getBlock(0, 0, rows, cols);
+	}
+
+	/**
+	 * matrix * this, as {@link Matrixnd#multiply(Matrixnd)}, written to a new file at dest. Each output tile is
+	 * accumulated in memory from a row of tiles of matrix and a column of tiles of this, so the cache works best
+	 * holding a row of tiles of matrix plus two.
+	 */
+	public MappedMatrixnd multiply(MappedMatrixnd matrix, Path dest) throws IOException {
+		if (matrix.cols != rows) {
+			throw new IllegalArgumentException("Cannot multiply " + matrix.rows + "x" + matrix.cols + " by " + rows + "x" + cols);
+		}
+		if (matrix.tileSize != tileSize) {
+			throw new IllegalArgumentException("Tile sizes differ, " + matrix.tileSize + " and " + tileSize);
+		}
+		MappedMatrixnd result = Create(dest, matrix.rows, cols, tileSize, cacheTiles);
+		try {
+			double[] accumulator = new double[tileSize * tileSize];
+			for (int ti = 0; ti < result.tileRows; ti++) {
+				for (int tj = 0; tj < result.tileCols; tj++) {
+					Arrays.fill(accumulator, 0.0);
+					for (int tk = 0; tk < tileRows; tk++) {
+						double[] a = matrix.tile(ti, tk, false);
+						double[] b = tile(tk, tj, false);
+						Gemm.multiplyAdd(a, 0, tileSize, b, 0, tileSize, accumulator, tileSize, tileSize, tileSize);
+					}
+					System.arraycopy(accumulator, 0, result.tile(ti, tj, true), 0, accumulator.length);
+				}
+			}
+			return result;
+		} catch (RuntimeException e) {
+			result.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Transpose written to a new file at dest, one tile at a time.
+	 */
+	public MappedMatrixnd transpose(Path dest) throws IOException {
+		MappedMatrixnd result = Create(dest, cols, rows, tileSize, cacheTiles);
+		try {
+			for (int ti = 0; ti < tileRows; ti++) {
+				for (int tj = 0; tj < tileCols; tj++) {
+					double[] source = tile(ti, tj, false);
+					double[] target = result.tile(tj, ti, true);
+					for (int r = 0; r < tileSize; r++) {
+						for (int c = 0; c < tileSize; c++) {
+							target[c * tileSize + r] = source[r * tileSize + c];
+						}
+					}
+				}
+			}
+			return result;
+		} catch (RuntimeException e) {
+			result.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * LU decomposition with partial pivoting, factorising a copy of this matrix in place in a new file at
+	 * factorPath. This matrix is left unchanged.
+	 */
+	public MappedLUDecomposition lu(Path factorPath) throws IOException {
+		if (rows != cols) {
+			throw new IllegalArgumentException("LU decomposition needs a square matrix, not " + rows + "x" + cols);
+		}
+		force();
+		Files.copy(path, factorPath, StandardCopyOption.REPLACE_EXISTING);
+		return new MappedLUDecomposition(Open(factorPath, true, cacheTiles));
+	}
+
+	/**
+	 * Writes every dirty cached tile back to the mapping.
+	 */
+	public void flush() {
+		for (Map.Entry<Long, Tile> entry : cache.entrySet()) {
+			writeBack(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Flushes the cache and writes any changes through to the file.
+	 */
+	public void force() {
+		flush();
+		for (MappedByteBuffer segment : segments) {
+			if (!segment.isReadOnly()) {
+				segment.force();
+			}
+		}
+	}
+
+	/**
+	 * Flushes the cache and closes the file channel. The mapping stays valid until it is garbage collected, but
+	 * should not be used.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (writable) {
+			flush();
+		}
+		cache.clear();
+		channel.close();
+	}
+
+	int getTileRows() {
+		return tileRows;
+	}
+
+	int getTileCols() {
+		return tileCols;
+	}
+
+	/**
+	 * The cached tile (ti, tj). The array stays valid until a few more tiles have been fetched, so callers fetch the
+	 * tiles a step needs and finish with them before fetching more.
+	 *
+	 * @param write true to mark the tile dirty so it is written back on eviction
+	 */
+	double[] tile(int ti, int tj, boolean write) {
+		if (write && !writable) {
+			throw new ReadOnlyBufferException();
+		}
+		long key = (long) ti * tileCols + tj;
+		Tile tile = cache.get(key);
+		if (tile == null) {
+			tile = new Tile(new double[tileSize * tileSize]);
+			tileBuffer(key).get(tile.data);
+			cache.put(key, tile);
+		}
+		tile.dirty |= write;
+		return tile.data;
+	}
+
+	private void writeBack(long key, Tile tile) {
+		if (tile.dirty) {
+			tileBuffer(key).put(tile.data);
+			tile.dirty = false;
+		}
+	}
+
+	private DoubleBuffer tileBuffer(long key) {
+		ByteBuffer segment = segments[(int) (key / tilesPerSegment)].duplicate();
+		int offset = (int) (key % tilesPerSegment) * tileBytes;
+		segment.position(offset).limit(offset + tileBytes);
+		return segment.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+	}
+}
@@ -0,0 +1,238 @@
+package com.boc_dev.maths.objects.dev;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Lazily evaluated chain of element-wise {@link Matrixnd} operations, started with {@link Matrixnd#lazy()}.
+ *
+ * Each call only records a node, nothing is computed until {@link #eval()}, or an operation that needs every element
+ * at once such as {@link #multiply(Matrixnd)} or {@link #det()}. The whole chain is then evaluated in one pass over
+ * the result, a block of each row at a time, so intermediate values live in small buffers that stay in cache
+ * instead of in full size temporary matrices.
+ *
+ * <pre>
+ * Matrixnd result = a.lazy().add(b).scale(s).elemMultiply(c).eval();
+ * </pre>
+ *
+ * Expressions are immutable, so a chain can be shared, extended down different branches or evaluated more than once.
+ */
+public abstract class MatrixExpression {
+
+    // elements per block, small enough that a buffer per level of the chain stays in L1
+    static final int BLOCK = 256;
+
+    private final int rows;
+    private final int cols;
+
+    private MatrixExpression(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    static MatrixExpression Of(Matrixnd matrix) {
+        return new Leaf(matrix);
+    }
+
+    public int getRowSize() {
+        return rows;
+    }
+
+    public int getColSize() {
+        return cols;
+    }
+
+    public MatrixExpression add(Matrixnd matrix) {
+        return add(new Leaf(matrix));
+    }
+
+    public MatrixExpression add(MatrixExpression expression) {
+        return new Binary(this, expression, Binary.ADD);
+    }
+
+    public MatrixExpression subtract(Matrixnd matrix) {
+        return subtract(new Leaf(matrix));
+    }
+
+    public MatrixExpression subtract(MatrixExpression expression) {
+        return new Binary(this, expression, Binary.SUBTRACT);
+    }
+
+    public MatrixExpression elemMultiply(Matrixnd matrix) {
+        return elemMultiply(new Leaf(matrix));
+    }
+
+    public MatrixExpression elemMultiply(MatrixExpression expression) {
+        return new Binary(this, expression, Binary.MULTIPLY);
+    }
+
+    public MatrixExpression scale(double s) {
+        return new Scale(this, s);
+    }
+
+    /**
+     * Applies function to every element, for operations without their own method such as Math::abs.
+     */
+    public MatrixExpression map(DoubleUnaryOperator function) {
+        return new Map(this, function);
+    }
+
+    /**
+     * Evaluates the chain in a single pass into a new packed matrix.
+     */
+    public Matrixnd eval() {
+        double[] result = new double[rows * cols];
+        double[][] scratch = new double[depth()][BLOCK];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col += BLOCK) {
+                evaluate(row, col, Math.min(BLOCK, cols - col), result, row * cols + col, scratch, 0);
+            }
+        }
+        return Matrixnd.Packed(rows, cols, result);
+    }
+
+    /**
+     * Evaluates, then multiplies as {@link Matrixnd#multiply(Matrixnd)}.
+     */
+    public Matrixnd multiply(Matrixnd matrix) {
+        return eval().multiply(matrix);
+    }
+
+    public double det() {
+        return eval().det();
+    }
+
+    /**
+     * Writes length elements of row from column col into dest at offset.
+     *
+     * @param scratch one BLOCK sized buffer per level below this node, used from level on
+     */
+    abstract void evaluate(int row, int col, int length, double[] dest, int offset, double[][] scratch, int level);
+
+    /**
+     * Number of scratch buffers evaluate needs.
+     */
+    abstract int depth();
+
+    private static final class Leaf extends MatrixExpression {
+
+        private final Matrixnd matrix;
+
+        Leaf(Matrixnd matrix) {
+            super(matrix.getRowSize(), matrix.getColSize());
+            this.matrix = matrix;
+        }
+
+        @Override
+        void evaluate(int row, int col, int length, double[] dest, int offset, double[][] scratch, int level) {
+            matrix.copyRow(row, col, length, dest, offset);
+        }
+
+        @Override
+        int depth() {
+            return 0;
+        }
+    }
+
+    private static final class Binary extends MatrixExpression {
+
+        static final int ADD = 0;
+        static final int SUBTRACT = 1;
+        static final int MULTIPLY = 2;
+
+        private final MatrixExpression left;
+        private final MatrixExpression right;
+        private final int operator;
+
+        Binary(MatrixExpression left, MatrixExpression right, int operator) {
+            super(left.getRowSize(), left.getColSize());
+            if (left.getRowSize() != right.getRowSize() || left.getColSize() != right.getColSize()) {
+                throw new IllegalArgumentException("Element-wise operation on " + left.getRowSize() + "x"
+                        + left.getColSize() + " and " + right.getRowSize() + "x" + right.getColSize());
+            }
+            this.left = left;
+            this.right = right;
+            this.operator = operator;
+        }
+
+        @Override
+        void evaluate(int row, int col, int length, double[] dest, int offset, double[][] scratch, int level) {
+            // the left side is evaluated straight into dest so a left leaning chain needs one buffer in total
+            left.evaluate(row, col, length, dest, offset, scratch, level);
+            double[] buffer = scratch[level];
+            right.evaluate(row, col, length, buffer, 0, scratch, level + 1);
+            // one plain loop per operator so each can be vectorised
+            switch (operator) {
+                case ADD:
+                    for (int i = 0; i < length; i++) {
+                        dest[offset + i] += buffer[i];
+                    }
+                    break;
+                case SUBTRACT:
+                    for (int i = 0; i < length; i++) {
+                        dest[offset + i] -= buffer[i];
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < length; i++) {
+                        dest[offset + i] *= buffer[i];
+                    }
+                    break;
+            }
+        }
+
+        @Override
+        int depth() {
+            return Math.max(left.depth(), right.depth() + 1);
+        }
+    }
+
+    private static final class Scale extends MatrixExpression {
+
+        private final MatrixExpression child;
+        private final double s;
+
+        Scale(MatrixExpression child, double s) {
+            super(child.getRowSize(), child.getColSize());
+            this.child = child;
+            this.s = s;
+        }
+
+        @Override
+        void evaluate(int row, int col, int length, double[] dest, int offset, double[][] scratch, int level) {
+            child.evaluate(row, col, length, dest, offset, scratch, level);
+            for (int i = offset, end = offset + length; i < end; i++) {
+                dest[i] *= s;
+            }
+        }
+
+        @Override
+        int depth() {
+            return child.depth();
+        }
+    }
+
+    private static final class Map extends MatrixExpression {
+
+        private final MatrixExpression child;
+        private final DoubleUnaryOperator function;
+
+        Map(MatrixExpression child, DoubleUnaryOperator function) {
+            super(child.getRowSize(), child.getColSize());
+            this.child = child;
+            this.function = function;
+        }
+
+        @Override
+        void evaluate(int row, int col, int length, double[] dest, int offset, double[][] scratch, int level) {
+            child.evaluate(row, col, length, dest, offset, scratch, level);
+            for (int i = offset, end = offset + length; i < end; i++) {
+                dest[i] = function.applyAsDouble(dest[i]);
+            }
+        }
+
+        @Override
+        int depth() {
+            return child.depth();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.boc_dev.maths.objects.dev;
 import com.boc_dev.maths.objects.vector.Vec2d;
 import com.boc_dev.maths.objects.vector.Vecd;
 
+import java.util.Objects;
 import java.util.function.BiFunction;
 
 public class Matrixnd {
@@ -12,6 +13,11 @@ public class Matrixnd {
 
     private final double[] elements;
 
+    // element (x, y) lives at elements[offset + y * rowStride + x * colStride], so views can share a parent's array
+    private final int offset;
+    private final int rowStride;
+    private final int colStride;
+
     /**
      * Default matrices to choose from
      * - Identity
@@ -55,6 +61,9 @@ public class Matrixnd {
         SIZE_COL = sqrtI;
         assert elements.length == SIZE_ROW * SIZE_COL;
         this.elements = elements;
+        this.offset = 0;
+        this.rowStride = SIZE_COL;
+        this.colStride = 1;
     }
 
     /**For non square matrices
@@ -69,6 +78,18 @@ public class Matrixnd {
         SIZE_COL = colSize;
         assert elements.length == SIZE_ROW * SIZE_COL;
         this.elements = elements;
+        this.offset = 0;
+        this.rowStride = SIZE_COL;
+        this.colStride = 1;
+    }
+
+    private Matrixnd(int rowSize, int colSize, double[] elements, int offset, int rowStride, int colStride) {
+        SIZE_ROW = rowSize;
+        SIZE_COL = colSize;
+        this.elements = elements;
+        this.offset = offset;
+        this.rowStride = rowStride;
+        this.colStride = colStride;
     }
 
     /**
@@ -79,15 +100,73 @@ public class Matrixnd {
      * @return values in matrix
      */
     public double get(int x, int y) {
-        return elements[y * SIZE_COL + x];
+        return elements[offset + y * rowStride + x * colStride];
     }
 
+    public int getRowSize() {
+        return SIZE_ROW;
+    }
+
+    public int getColSize() {
+        return SIZE_COL;
+    }
+
+    /**Row as a view sharing this matrix's array, no copy is made
+     *
+     * @param rowIndex row
+     * @return vector of length getColSize()
+     */
     public Vecnd getRow(int rowIndex) {
-        return new Vecnd(loopAction((i, j) -> get(j, rowIndex), SIZE_ROW, 1));
+        Objects.checkIndex(rowIndex, SIZE_ROW);
+        return new Vecnd(elements, offset + rowIndex * rowStride, colStride, SIZE_COL);
     }
 
+    /**Column as a view sharing this matrix's array, no copy is made
+     *
+     * @param colIndex column
+     * @return vector of length getRowSize()
+     */
     public Vecnd getCol(int colIndex) {
-        return new Vecnd(loopAction((i, j) -> get(colIndex, i), 1, SIZE_COL));
+        Objects.checkIndex(colIndex, SIZE_COL);
+        return new Vecnd(elements, offset + colIndex * colStride, rowStride, SIZE_ROW);
+    }
+
+    /**Transpose as a view sharing this matrix's array, no copy is made
+     *
+     * @return getColSize() x getRowSize() matrix
+     */
+    public Matrixnd transpose() {
+        return new Matrixnd(SIZE_COL, SIZE_ROW, elements, offset, colStride, rowStride);
+    }
+
+    /**Sub-matrix as a view sharing this matrix's array, no copy is made
+     *
+     * @param rowFrom first row
+     * @param colFrom first column
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return rows x cols matrix
+     */
+    public Matrixnd block(int rowFrom, int colFrom, int rows, int cols) {
+        Objects.checkFromIndexSize(rowFrom, rows, SIZE_ROW);
+        Objects.checkFromIndexSize(colFrom, cols, SIZE_COL);
+        return new Matrixnd(rows, cols, elements, offset + rowFrom * rowStride + colFrom * colStride, rowStride, colStride);
+    }
+
+    /**Whether this matrix shares another matrix's array rather than owning a packed copy
+     *
+     * @return true for views from transpose, block, or another view
+     */
+    public boolean isView() {
+        return !isPacked() || elements.length != SIZE_ROW * SIZE_COL;
+    }
+
+    /**Packed row major copy, detached from any parent
+     *
+     * @return new matrix
+     */
+    public Matrixnd copy() {
+        return new Matrixnd(SIZE_ROW, SIZE_COL, copyElements(), 0, SIZE_COL, 1);
     }
 
     /**
@@ -107,9 +186,7 @@ public class Matrixnd {
      * @return new Matrix2D
      */
     public Matrixnd add(Matrixnd matrixnd) {
-        assert SIZE_ROW == matrixnd.SIZE_ROW;
-        assert SIZE_COL == matrixnd.SIZE_COL;
-        return new Matrixnd(loopAction((i, j) -> matrixnd.get(i, j) + matrixnd.get(j, i), SIZE_ROW, SIZE_COL));
+        return lazy().add(matrixnd).eval();
     }
 
     /**
@@ -119,7 +196,7 @@ public class Matrixnd {
      * @return matrix2d
      */
     public Matrixnd scale(double s) {
-        return new Matrixnd(loopAction((i, j) -> get(i, j) * s, SIZE_ROW, SIZE_COL));
+        return lazy().scale(s).eval();
     }
 
     /**
@@ -129,7 +206,15 @@ public class Matrixnd {
      * @return matrixd
      */
     public Matrixnd elemMultiply(Matrixnd matrixnd) {
-        return new Matrixnd(loopAction((i, j) -> get(i, j) * matrixnd.get(i, j), SIZE_ROW, SIZE_COL));
+        return lazy().elemMultiply(matrixnd).eval();
+    }
+
+    /**Starts a lazy chain of element-wise operations, evaluated in one fused pass by {@link MatrixExpression#eval()}
+     *
+     * @return expression reading this matrix
+     */
+    public MatrixExpression lazy() {
+        return MatrixExpression.Of(this);
     }
 
     /**
@@ -139,7 +224,15 @@ public class Matrixnd {
      * @return matrix2d
      */
     public Matrixnd multiply(Matrixnd matrixnd) {
-        return new Matrixnd(loopAction((i, j) -> getCol(i).dot(matrixnd.getRow(j)), SIZE_ROW, SIZE_COL));
+        assert matrixnd.SIZE_COL == SIZE_ROW;
+        // element (row, col) is the dot of this column col with the other matrix's row, so the product is other * this
+        // row major views such as blocks are read in place, only views with a column stride (transposes) are packed
+        Matrixnd a = matrixnd.colStride == 1 ? matrixnd : matrixnd.copy();
+        Matrixnd b = colStride == 1 ? this : copy();
+        double[] result = new double[matrixnd.SIZE_ROW * SIZE_COL];
+        Gemm.multiply(a.elements, a.offset, a.rowStride, b.elements, b.offset, b.rowStride, result,
+                matrixnd.SIZE_ROW, SIZE_ROW, SIZE_COL);
+        return new Matrixnd(matrixnd.SIZE_ROW, SIZE_COL, result, 0, SIZE_COL, 1);
     }
 
     /**
@@ -171,49 +264,155 @@ public class Matrixnd {
         }
     }*/
 
-    /**Determinant
+    /**Determinant, from an LU decomposition so O(n^3) rather than the O(n!) of cofactor expansion
      *
      * @return double
      */
     public double det() {
         assert SIZE_ROW == SIZE_COL;
-        return det(this, SIZE_ROW);
+        return lu().det();
+    }
+
+    /**LU decomposition with partial pivoting. Keep hold of it to solve for many right hand sides without
+     * refactorising.
+     *
+     * @return decomposition of a copy of this matrix
+     */
+    public LUDecomposition lu() {
+        return new LUDecomposition(this);
+    }
+
+    /**Householder QR decomposition, needs at least as many rows as columns
+     *
+     * @return decomposition of a copy of this matrix
+     */
+    public QRDecomposition qr() {
+        return new QRDecomposition(this);
+    }
+
+    /**Full singular value decomposition
+     *
+     * @return decomposition of a copy of this matrix
+     */
+    public SingularValueDecomposition svd() {
+        return new SingularValueDecomposition(this);
+    }
+
+    /**Truncated singular value decomposition
+     *
+     * @param k number of singular values wanted
+     * @return the k largest singular values and their vectors
+     */
+    public SingularValueDecomposition svd(int k) {
+        return SingularValueDecomposition.Top(this, k);
+    }
+
+    /**Full eigen decomposition of the symmetric part of this matrix
+     *
+     * @return eigenvalues in descending order and their eigenvectors
+     */
+    public SymmetricEigenDecomposition symmetricEigen() {
+        return new SymmetricEigenDecomposition(this);
+    }
+
+    /**Truncated eigen decomposition of the symmetric part of this matrix
+     *
+     * @param k number of eigenvalues wanted
+     * @return the k eigenvalues of largest magnitude and their eigenvectors
+     */
+    public SymmetricEigenDecomposition symmetricEigen(int k) {
+        return SymmetricEigenDecomposition.Top(this, k);
+    }
+
+    /**Solves this * x = b, rows of this matrix being the equations
+     *
+     * @param b right hand side, one value per row
+     * @return x
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public Vecnd solve(Vecnd b) {
+        return lu().solve(b);
+    }
+
+    /**Solves this * X = B for every column of B at once
+     *
+     * @param b right hand sides, one per column
+     * @return X, the same shape as b
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public Matrixnd solve(Matrixnd b) {
+        return lu().solve(b);
     }
 
-    /**Recursive implementation
+    /**Inverse
      *
-     * @param matrix
-     * @param size
-     * @return
+     * @return new matrix
+     * @throws ArithmeticException if the matrix is singular
      */
-    private double det(Matrixnd matrix, int size) {
+    public Matrixnd inverse() {
+        return lu().inverse();
+    }
 
-        if (size == 2) {
-            return (matrix.get(0, 0) * matrix.get(1, 1)) - (matrix.get(1, 0) * matrix.get(0, 1));
+    /**Single precision copy, each element rounded to the nearest float
+     *
+     * @return new matrix
+     */
+    public Matrixnf toMatrixnf() {
+        float[] result = new float[SIZE_ROW * SIZE_COL];
+        for (int row = 0; row < SIZE_ROW; row++) {
+            int from = offset + row * rowStride;
+            for (int col = 0; col < SIZE_COL; col++) {
+                result[row * SIZE_COL + col] = (float) elements[from + col * colStride];
+            }
+        }
+        return Matrixnf.Packed(SIZE_ROW, SIZE_COL, result);
+    }
+
+    // wraps a packed row major array without the size checks of the public constructors
+    static Matrixnd Packed(int rowSize, int colSize, double[] elements) {
+        return new Matrixnd(rowSize, colSize, elements, 0, colSize, 1);
+    }
+
+    /**Copies length elements of row from column col into dest at destOffset
+     */
+    void copyRow(int row, int col, int length, double[] dest, int destOffset) {
+        int from = offset + row * rowStride + col * colStride;
+        if (colStride == 1) {
+            System.arraycopy(elements, from, dest, destOffset, length);
         } else {
-            int sign = 1;
-            double sum = 0.0;
-            for (int i = 0; i < size; i++) {
-                int newSize = size - 1;
-                double[] newMatrix = new double[newSize * newSize];
-                int index = 0;
-                for (int y = 1; y < size; y++) {
-                    for (int x = 0; x < i; x++) {
-                        newMatrix[index++] = matrix.get(x, y);
-                    }
-                    for (int x = i + 1; x < size; x++) {
-                        newMatrix[index++] = matrix.get(x, y);
-                    }
-                }
-                sum += sign * matrix.get(i, 0) * det(new Matrixnd(newMatrix), newSize);
-                sign *= -1;
+            for (int i = 0; i < length; i++) {
+                dest[destOffset + i] = elements[from + i * colStride];
             }
-            return sum;
         }
     }
 
-    // for testing
+    /**Row major elements, this matrix's own array when it is packed and otherwise a packed copy, so do not write
+     * to it
+     */
     double[] getElements() {
-        return elements;
+        return isPacked() && elements.length == SIZE_ROW * SIZE_COL ? elements : copyElements();
+    }
+
+    /**Row major elements in a new array
+     */
+    double[] copyElements() {
+        double[] copy = new double[SIZE_ROW * SIZE_COL];
+        if (colStride == 1) {
+            for (int row = 0; row < SIZE_ROW; row++) {
+                System.arraycopy(elements, offset + row * rowStride, copy, row * SIZE_COL, SIZE_COL);
+            }
+        } else {
+            for (int row = 0; row < SIZE_ROW; row++) {
+                int from = offset + row * rowStride;
+                for (int col = 0; col < SIZE_COL; col++) {
+                    copy[row * SIZE_COL + col] = elements[from + col * colStride];
+                }
+            }
+        }
+        return copy;
+    }
+
+    private boolean isPacked() {
+        return offset == 0 && colStride == 1 && rowStride == SIZE_COL;
     }
 }
@@ -0,0 +1,376 @@
+package com.boc_dev.maths.objects.dev;
+
+import java.util.Objects;
+
+/**
+ * Single precision counterpart of {@link Matrixnd}, half the memory and twice the SIMD width for data where float
+ * precision is enough.
+ *
+ * Storage, views and the multiply convention match Matrixnd. Operations that are sensitive to rounding go through
+ * double: det, solve and inverse factorise a double copy, and {@link #multiplyToDouble(Matrixnf)} accumulates the
+ * product in double.
+ */
+public class Matrixnf {
+
+    private final int SIZE_ROW;
+    private final int SIZE_COL;
+
+    private final float[] elements;
+
+    // element (x, y) lives at elements[offset + y * rowStride + x * colStride], so views can share a parent's array
+    private final int offset;
+    private final int rowStride;
+    private final int colStride;
+
+    /**
+     * Default matrices to choose from
+     * - Identity
+     * - Empty
+     */
+    public static Matrixnf Identity(int size) {
+        float[] elements = new float[size * size];
+        for (int i = 0; i < size; i++) {
+            elements[i * size + i] = 1.0f;
+        }
+        return Packed(size, size, elements);
+    }
+
+    public static Matrixnf Empty(int size) {
+        return Packed(size, size, new float[size * size]);
+    }
+
+    /**For square matrices
+     *
+     * @param elements
+     */
+    public Matrixnf(float... elements) {
+        int size = (int) Math.sqrt(elements.length);
+        if (size * size != elements.length) {
+            throw new IllegalArgumentException(elements.length + " elements do not make a square matrix");
+        }
+        SIZE_ROW = size;
+        SIZE_COL = size;
+        this.elements = elements;
+        this.offset = 0;
+        this.rowStride = size;
+        this.colStride = 1;
+    }
+
+    /**For non square matrices
+     *
+     * @param rowSize
+     * @param colSize
+     * @param elements
+     */
+    public Matrixnf(int rowSize, int colSize, float... elements) {
+        if (elements.length != rowSize * colSize) {
+            throw new IllegalArgumentException(elements.length + " elements for a " + rowSize + "x" + colSize + " matrix");
+        }
+        SIZE_ROW = rowSize;
+        SIZE_COL = colSize;
+        this.elements = elements;
+        this.offset = 0;
+        this.rowStride = colSize;
+        this.colStride = 1;
+    }
+
+    private Matrixnf(int rowSize, int colSize, float[] elements, int offset, int rowStride, int colStride) {
+        SIZE_ROW = rowSize;
+        SIZE_COL = colSize;
+        this.elements = elements;
+        this.offset = offset;
+        this.rowStride = rowStride;
+        this.colStride = colStride;
+    }
+
+    /**
+     * Getter using x and y values assuming x are columns are y are rows.
+     *
+     * @param x x index
+     * @param y y index
+     * @return values in matrix
+     */
+    public float get(int x, int y) {
+        return elements[offset + y * rowStride + x * colStride];
+    }
+
+    public int getRowSize() {
+        return SIZE_ROW;
+    }
+
+    public int getColSize() {
+        return SIZE_COL;
+    }
+
+    /**Row as a view sharing this matrix's array, no copy is made
+     *
+     * @param rowIndex row
+     * @return vector of length getColSize()
+     */
+    public Vecnf getRow(int rowIndex) {
+        Objects.checkIndex(rowIndex, SIZE_ROW);
+        return new Vecnf(elements, offset + rowIndex * rowStride, colStride, SIZE_COL);
+    }
+
+    /**Column as a view sharing this matrix's array, no copy is made
+     *
+     * @param colIndex column
+     * @return vector of length getRowSize()
+     */
+    public Vecnf getCol(int colIndex) {
+        Objects.checkIndex(colIndex, SIZE_COL);
+        return new Vecnf(elements, offset + colIndex * colStride, rowStride, SIZE_ROW);
+    }
+
+    /**Transpose as a view sharing this matrix's array, no copy is made
+     *
+     * @return getColSize() x getRowSize() matrix
+     */
+    public Matrixnf transpose() {
+        return new Matrixnf(SIZE_COL, SIZE_ROW, elements, offset, colStride, rowStride);
+    }
+
+    /**Sub-matrix as a view sharing this matrix's array, no copy is made
+     *
+     * @param rowFrom first row
+     * @param colFrom first column
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return rows x cols matrix
+     */
+    public Matrixnf block(int rowFrom, int colFrom, int rows, int cols) {
+        Objects.checkFromIndexSize(rowFrom, rows, SIZE_ROW);
+        Objects.checkFromIndexSize(colFrom, cols, SIZE_COL);
+        return new Matrixnf(rows, cols, elements, offset + rowFrom * rowStride + colFrom * colStride, rowStride, colStride);
+    }
+
+    /**Whether this matrix shares another matrix's array rather than owning a packed copy
+     *
+     * @return true for views from transpose, block, or another view
+     */
+    public boolean isView() {
+        return !isPacked() || elements.length != SIZE_ROW * SIZE_COL;
+    }
+
+    /**Packed row major copy, detached from any parent
+     *
+     * @return new matrix
+     */
+    public Matrixnf copy() {
+        return Packed(SIZE_ROW, SIZE_COL, copyElements());
+    }
+
+    /**Adds 2 matrices together
+     *
+     * @param matrixnf input matrix
+     * @return new matrix
+     */
+    public Matrixnf add(Matrixnf matrixnf) {
+        checkSameSize(matrixnf);
+        float[] result = new float[SIZE_ROW * SIZE_COL];
+        for (int row = 0; row < SIZE_ROW; row++) {
+            for (int col = 0; col < SIZE_COL; col++) {
+                result[row * SIZE_COL + col] = get(col, row) + matrixnf.get(col, row);
+            }
+        }
+        return Packed(SIZE_ROW, SIZE_COL, result);
+    }
+
+    /**Scale matrix by value
+     *
+     * @param s
+     * @return new matrix
+     */
+    public Matrixnf scale(float s) {
+        float[] result = copyElements();
+        for (int i = 0; i < result.length; i++) {
+            result[i] *= s;
+        }
+        return Packed(SIZE_ROW, SIZE_COL, result);
+    }
+
+    /**Matrix element-wise multiplication
+     *
+     * @param matrixnf
+     * @return new matrix
+     */
+    public Matrixnf elemMultiply(Matrixnf matrixnf) {
+        checkSameSize(matrixnf);
+        float[] result = new float[SIZE_ROW * SIZE_COL];
+        for (int row = 0; row < SIZE_ROW; row++) {
+            for (int col = 0; col < SIZE_COL; col++) {
+                result[row * SIZE_COL + col] = get(col, row) * matrixnf.get(col, row);
+            }
+        }
+        return Packed(SIZE_ROW, SIZE_COL, result);
+    }
+
+    /**Matrix multiplication, other * this as for {@link Matrixnd#multiply(Matrixnd)}, accumulated in float
+     *
+     * @param matrixnf
+     * @return new matrix
+     */
+    public Matrixnf multiply(Matrixnf matrixnf) {
+        assert matrixnf.SIZE_COL == SIZE_ROW;
+        Matrixnf a = matrixnf.colStride == 1 ? matrixnf : matrixnf.copy();
+        Matrixnf b = colStride == 1 ? this : copy();
+        float[] result = new float[matrixnf.SIZE_ROW * SIZE_COL];
+        Gemm.multiply(a.elements, a.offset, a.rowStride, b.elements, b.offset, b.rowStride, result,
+                matrixnf.SIZE_ROW, SIZE_ROW, SIZE_COL);
+        return Packed(matrixnf.SIZE_ROW, SIZE_COL, result);
+    }
+
+    /**Matrix multiplication as {@link #multiply(Matrixnf)}, but accumulated and returned in double, for long inner
+     * products where float sums would drift
+     *
+     * @param matrixnf
+     * @return new double matrix
+     */
+    public Matrixnd multiplyToDouble(Matrixnf matrixnf) {
+        assert matrixnf.SIZE_COL == SIZE_ROW;
+        Matrixnf a = matrixnf.colStride == 1 ? matrixnf : matrixnf.copy();
+        Matrixnf b = colStride == 1 ? this : copy();
+        double[] result = new double[matrixnf.SIZE_ROW * SIZE_COL];
+        Gemm.multiply(a.elements, a.offset, a.rowStride, b.elements, b.offset, b.rowStride, result,
+                matrixnf.SIZE_ROW, SIZE_ROW, SIZE_COL);
+        return Matrixnd.Packed(matrixnf.SIZE_ROW, SIZE_COL, result);
+    }
+
+    /**Determinant, from an LU decomposition in double
+     *
+     * @return double
+     */
+    public double det() {
+        return lu().det();
+    }
+
+    /**LU decomposition of a double copy of this matrix, keep hold of it to solve for many right hand sides
+     *
+     * @return decomposition
+     */
+    public LUDecomposition lu() {
+        return new LUDecomposition(toMatrixnd());
+    }
+
+    /**Householder QR decomposition of a double copy of this matrix, needs at least as many rows as columns
+     *
+     * @return decomposition
+     */
+    public QRDecomposition qr() {
+        return new QRDecomposition(toMatrixnd());
+    }
+
+    /**Full singular value decomposition of a double copy of this matrix
+     *
+     * @return decomposition
+     */
+    public SingularValueDecomposition svd() {
+        return new SingularValueDecomposition(toMatrixnd());
+    }
+
+    /**Truncated singular value decomposition of a double copy of this matrix
+     *
+     * @param k number of singular values wanted
+     * @return the k largest singular values and their vectors
+     */
+    public SingularValueDecomposition svd(int k) {
+        return SingularValueDecomposition.Top(toMatrixnd(), k);
+    }
+
+    /**Full eigen decomposition of the symmetric part of a double copy of this matrix
+     *
+     * @return eigenvalues in descending order and their eigenvectors
+     */
+    public SymmetricEigenDecomposition symmetricEigen() {
+        return new SymmetricEigenDecomposition(toMatrixnd());
+    }
+
+    /**Truncated eigen decomposition of the symmetric part of a double copy of this matrix
+     *
+     * @param k number of eigenvalues wanted
+     * @return the k eigenvalues of largest magnitude and their eigenvectors
+     */
+    public SymmetricEigenDecomposition symmetricEigen(int k) {
+        return SymmetricEigenDecomposition.Top(toMatrixnd(), k);
+    }
+
+    /**Solves this * x = b in double, rounding the solution to float
+     *
+     * @param b right hand side, one value per row
+     * @return x
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public Vecnf solve(Vecnf b) {
+        return lu().solve(b.toVecnd()).toVecnf();
+    }
+
+    /**Solves this * X = B for every column of B at once, in double
+     *
+     * @param b right hand sides, one per column
+     * @return X, the same shape as b
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public Matrixnf solve(Matrixnf b) {
+        return lu().solve(b.toMatrixnd()).toMatrixnf();
+    }
+
+    /**Inverse, computed in double
+     *
+     * @return new matrix
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public Matrixnf inverse() {
+        return lu().inverse().toMatrixnf();
+    }
+
+    public Matrixnd toMatrixnd() {
+        double[] result = new double[SIZE_ROW * SIZE_COL];
+        for (int row = 0; row < SIZE_ROW; row++) {
+            int from = offset + row * rowStride;
+            for (int col = 0; col < SIZE_COL; col++) {
+                result[row * SIZE_COL + col] = elements[from + col * colStride];
+            }
+        }
+        return Matrixnd.Packed(SIZE_ROW, SIZE_COL, result);
+    }
+
+    // wraps a packed row major array without the size checks of the public constructors
+    static Matrixnf Packed(int rowSize, int colSize, float[] elements) {
+        return new Matrixnf(rowSize, colSize, elements, 0, colSize, 1);
+    }
+
+    /**Row major elements, this matrix's own array when it is packed and otherwise a packed copy, so do not write
+     * to it
+     */
+    float[] getElements() {
+        return isPacked() && elements.length == SIZE_ROW * SIZE_COL ? elements : copyElements();
+    }
+
+    /**Row major elements in a new array
+     */
+    float[] copyElements() {
+        float[] copy = new float[SIZE_ROW * SIZE_COL];
+        for (int row = 0; row < SIZE_ROW; row++) {
+            int from = offset + row * rowStride;
+            if (colStride == 1) {
+                System.arraycopy(elements, from, copy, row * SIZE_COL, SIZE_COL);
+            } else {
+                for (int col = 0; col < SIZE_COL; col++) {
+                    copy[row * SIZE_COL + col] = elements[from + col * colStride];
+                }
+            }
+        }
+        return copy;
+    }
+
+    private boolean isPacked() {
+        return offset == 0 && colStride == 1 && rowStride == SIZE_COL;
+    }
+
+    private void checkSameSize(Matrixnf matrixnf) {
+        if (SIZE_ROW != matrixnf.SIZE_ROW || SIZE_COL != matrixnf.SIZE_COL) {
+            throw new IllegalArgumentException("Element-wise operation on " + SIZE_ROW + "x" + SIZE_COL
+                    + " and " + matrixnf.SIZE_ROW + "x" + matrixnf.SIZE_COL);
+        }
+    }
+}
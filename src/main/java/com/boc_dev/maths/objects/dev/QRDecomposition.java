@@ -0,0 +1,237 @@
+package com.boc_dev.maths.objects.dev;
+
+import java.util.Arrays;
+
+/**
+ * Householder QR decomposition A = QR of an m x n {@link Matrixnd} with m &gt;= n, mostly for least squares fitting.
+ *
+ * The Householder vectors and R are packed into one row major copy of A, and Q is only formed when asked for, thin
+ * (m x n) rather than the full m x m. Reflections are applied a row at a time so the inner loops stay contiguous.
+ */
+public class QRDecomposition {
+
+	private final int rows;
+	private final int cols;
+	// Householder vectors on and below the diagonal, R above it
+	private final double[] qr;
+	private final double[] rDiagonal;
+	private final boolean fullRank;
+
+	/**
+	 * Factorises a copy of matrix, which is left unchanged.
+	 */
+	public QRDecomposition(Matrixnd matrix) {
+		if (matrix.getRowSize() < matrix.getColSize()) {
+			throw new IllegalArgumentException("QR decomposition needs at least as many rows as columns, not "
+					+ matrix.getRowSize() + "x" + matrix.getColSize());
+		}
+		this.rows = matrix.getRowSize();
+		this.cols = matrix.getColSize();
+		this.qr = matrix.copyElements();
+		this.rDiagonal = new double[cols];
+
+		int m = rows;
+		int n = cols;
+		double[] w = new double[n];
+
+		// each diagonal of R is compared with the norm of its own column, so columns of very different size are
+		// not mistaken for dependent ones
+		double[] columnNorms = new double[n];
+		for (int i = 0; i < m; i++) {
+			for (int j = 0; j < n; j++) {
+				columnNorms[j] = Math.hypot(columnNorms[j], qr[i * n + j]);
+			}
+		}
+		boolean rankDeficient = false;
+
+		for (int k = 0; k < n; k++) {
+
+			double norm = 0.0;
+			for (int i = k; i < m; i++) {
+				norm = Math.hypot(norm, qr[i * n + k]);
+			}
+
+			if (norm != 0.0) {
+				if (qr[k * n + k] < 0) {
+					norm = -norm;
+				}
+				for (int i = k; i < m; i++) {
+					qr[i * n + k] /= norm;
+				}
+				qr[k * n + k] += 1.0;
+
+				// w = v^T A for the trailing columns, then A -= v w / v_k
+				for (int j = k + 1; j < n; j++) {
+					w[j] = 0.0;
+				}
+				for (int i = k; i < m; i++) {
+					int row = i * n;
+					double vi = qr[row + k];
+					for (int j = k + 1; j < n; j++) {
+						w[j] += vi * qr[row + j];
+					}
+				}
+				double scale = -1.0 / qr[k * n + k];
+				for (int j = k + 1; j < n; j++) {
+					w[j] *= scale;
+				}
+				for (int i = k; i < m; i++) {
+					int row = i * n;
+					double vi = qr[row + k];
+					for (int j = k + 1; j < n; j++) {
+						qr[row + j] += w[j] * vi;
+					}
+				}
+			}
+
+			rDiagonal[k] = -norm;
+			if (Math.abs(norm) <= m * Math.ulp(columnNorms[k])) {
+				rankDeficient = true;
+			}
+		}
+
+		this.fullRank = !rankDeficient;
+	}
+
+	/**
+	 * False if some column is, up to rounding, a combination of the columns before it, in which case solve throws.
+	 */
+	public boolean isFullRank() {
+		return fullRank;
+	}
+
+	/**
+	 * Upper triangular n x n factor.
+	 */
+	public Matrixnd getR() {
+		int n = cols;
+		double[] r = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			r[i * n + i] = rDiagonal[i];
+			System.arraycopy(qr, i * n + i + 1, r, i * n + i + 1, n - i - 1);
+		}
+		return new Matrixnd(n, n, r);
+	}
+
+	/**
+	 * Thin m x n factor with orthonormal columns.
+	 */
+	public Matrixnd getQ() {
+		int m = rows;
+		int n = cols;
+		double[] q = new double[m * n];
+		double[] w = new double[n];
+
+		// apply the reflections in reverse to the first n columns of the identity
+		for (int k = n - 1; k >= 0; k--) {
+			q[k * n + k] = 1.0;
+			if (qr[k * n + k] == 0.0) {
+				continue;
+			}
+			for (int j = k; j < n; j++) {
+				w[j] = 0.0;
+			}
+			for (int i = k; i < m; i++) {
+				double vi = qr[i * n + k];
+				int row = i * n;
+				for (int j = k; j < n; j++) {
+					w[j] += vi * q[row + j];
+				}
+			}
+			double scale = -1.0 / qr[k * n + k];
+			for (int j = k; j < n; j++) {
+				w[j] *= scale;
+			}
+			for (int i = k; i < m; i++) {
+				double vi = qr[i * n + k];
+				int row = i * n;
+				for (int j = k; j < n; j++) {
+					q[row + j] += w[j] * vi;
+				}
+			}
+		}
+		return new Matrixnd(m, n, q);
+	}
+
+	/**
+	 * Least squares solution, the x minimising |Ax - b|.
+	 *
+	 * @throws ArithmeticException if A is rank deficient
+	 */
+	public Vecnd solve(Vecnd b) {
+		if (b.size() != rows) {
+			throw new IllegalArgumentException("Right hand side has " + b.size() + " values, expected " + rows);
+		}
+		double[] x = b.toArray();
+		solveColumns(x, 1);
+		double[] result = new double[cols];
+		System.arraycopy(x, 0, result, 0, cols);
+		return new Vecnd(result);
+	}
+
+	/**
+	 * Least squares solution for every column of b at once, returning an n x b.getColSize() matrix.
+	 *
+	 * @throws ArithmeticException if A is rank deficient
+	 */
+	public Matrixnd solve(Matrixnd b) {
+		if (b.getRowSize() != rows) {
+			throw new IllegalArgumentException("Right hand side has " + b.getRowSize() + " rows, expected " + rows);
+		}
+		int columns = b.getColSize();
+		double[] x = b.copyElements();
+		solveColumns(x, columns);
+		double[] result = new double[cols * columns];
+		System.arraycopy(x, 0, result, 0, result.length);
+		return new Matrixnd(cols, columns, result);
+	}
+
+	// overwrites the first n rows of the row major rows x columns block x with the solution
+	private void solveColumns(double[] x, int columns) {
+		if (!fullRank) {
+			throw new ArithmeticException("Matrix is rank deficient");
+		}
+		int m = rows;
+		int n = cols;
+		double[] w = new double[columns];
+
+		// x = Q^T b
+		for (int k = 0; k < n; k++) {
+			Arrays.fill(w, 0.0);
+			for (int i = k; i < m; i++) {
+				double vi = qr[i * n + k];
+				int row = i * columns;
+				for (int c = 0; c < columns; c++) {
+					w[c] += vi * x[row + c];
+				}
+			}
+			double scale = -1.0 / qr[k * n + k];
+			for (int c = 0; c < columns; c++) {
+				w[c] *= scale;
+			}
+			for (int i = k; i < m; i++) {
+				double vi = qr[i * n + k];
+				int row = i * columns;
+				for (int c = 0; c < columns; c++) {
+					x[row + c] += w[c] * vi;
+				}
+			}
+		}
+
+		// R x = Q^T b
+		for (int k = n - 1; k >= 0; k--) {
+			int row = k * columns;
+			double inverseDiagonal = 1.0 / rDiagonal[k];
+			for (int c = 0; c < columns; c++) {
+				x[row + c] *= inverseDiagonal;
+			}
+			for (int i = 0; i < k; i++) {
+				double factor = qr[i * n + k];
+				int iRow = i * columns;
+				for (int c = 0; c < columns; c++) {
+					x[iRow + c] -= factor * x[row + c];
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,267 @@
+package com.boc_dev.maths.objects.dev;
+
+/**
+ * Singular value decomposition A = U diag(values) V^T of an m x n {@link Matrixnd}, with r = min(m, n) singular
+ * values in descending order.
+ *
+ * The full decomposition is one-sided (Hestenes) Jacobi: pairs of columns of A are rotated until they are
+ * orthogonal, which gives small singular values to high relative accuracy. Columns are held as contiguous rows of
+ * the transpose so each rotation streams through memory. {@link #Top(Matrixnd, int)} finds only the k largest by
+ * subspace iteration on A^T A (or A A^T, whichever is smaller) without ever forming it.
+ */
+public class SingularValueDecomposition {
+
+	private final int rows;
+	private final int cols;
+	private final double[] values;
+	// left singular vectors as rows of length m, right singular vectors as rows of length n
+	private final double[] u;
+	private final double[] v;
+	private final boolean converged;
+
+	private SingularValueDecomposition(int rows, int cols, double[] values, double[] u, double[] v, boolean converged) {
+		this.rows = rows;
+		this.cols = cols;
+		this.values = values;
+		this.u = u;
+		this.v = v;
+		this.converged = converged;
+	}
+
+	/**
+	 * Full decomposition of a copy of matrix.
+	 */
+	public SingularValueDecomposition(Matrixnd matrix) {
+		this.rows = matrix.getRowSize();
+		this.cols = matrix.getColSize();
+		int m = rows;
+		int n = cols;
+		double[] a = matrix.getElements();
+
+		// one-sided Jacobi works on the columns of whichever of A and A^T is tall, held as rows
+		boolean tall = m >= n;
+		int count = tall ? n : m;
+		int length = tall ? m : n;
+		double[] w = tall ? transpose(a, m, n) : a.clone();
+		double[] rotations = new double[count * count];
+		for (int i = 0; i < count; i++) {
+			rotations[i * count + i] = 1.0;
+		}
+		this.converged = orthogonaliseRows(w, rotations, count, length);
+
+		double[] norms = new double[count];
+		for (int i = 0; i < count; i++) {
+			norms[i] = Math.sqrt(SymmetricEigenDecomposition.dot(w, i * length, w, i * length, length));
+		}
+		int[] order = SymmetricEigenDecomposition.descending(norms, count);
+
+		double[] left = new double[count * length];
+		double[] right = new double[count * count];
+		this.values = new double[count];
+		for (int i = 0; i < count; i++) {
+			int from = order[i];
+			double value = norms[from];
+			values[i] = value;
+			double inverse = value > 0.0 ? 1.0 / value : 0.0;
+			for (int j = 0; j < length; j++) {
+				left[i * length + j] = w[from * length + j] * inverse;
+			}
+			System.arraycopy(rotations, from * count, right, i * count, count);
+		}
+
+		// for a wide A we decomposed A^T, so the roles of U and V swap
+		this.u = tall ? left : right;
+		this.v = tall ? right : left;
+	}
+
+	/**
+	 * The k largest singular values and their vectors. Zero singular values leave zero vectors in U.
+	 */
+	public static SingularValueDecomposition Top(Matrixnd matrix, int k) {
+		int m = matrix.getRowSize();
+		int n = matrix.getColSize();
+		double[] a = matrix.getElements();
+		double[] at = transpose(a, m, n);
+
+		SymmetricEigenDecomposition eigen;
+		double[] other;
+		if (n <= m) {
+			// x A^T A for rows x of length n, via x A^T of length m
+			eigen = SymmetricEigenDecomposition.Top(n, k, (x, y, count) -> {
+				double[] temp = new double[count * m];
+				Gemm.multiply(x, at, temp, count, n, m);
+				Gemm.multiply(temp, a, y, count, m, n);
+			});
+			other = new double[k * m];
+			Gemm.multiply(vectorRows(eigen, k, n), at, other, k, n, m);
+		} else {
+			eigen = SymmetricEigenDecomposition.Top(m, k, (x, y, count) -> {
+				double[] temp = new double[count * n];
+				Gemm.multiply(x, a, temp, count, m, n);
+				Gemm.multiply(temp, at, y, count, n, m);
+			});
+			other = new double[k * n];
+			Gemm.multiply(vectorRows(eigen, k, m), a, other, k, m, n);
+		}
+
+		double[] values = new double[k];
+		int otherLength = n <= m ? m : n;
+		for (int i = 0; i < k; i++) {
+			double value = Math.sqrt(Math.max(0.0, eigen.getEigenvalue(i)));
+			values[i] = value;
+			double inverse = value > 0.0 ? 1.0 / value : 0.0;
+			for (int j = 0; j < otherLength; j++) {
+				other[i * otherLength + j] *= inverse;
+			}
+		}
+
+		double[] vectors = n <= m ? vectorRows(eigen, k, n) : vectorRows(eigen, k, m);
+		return n <= m
+				? new SingularValueDecomposition(m, n, values, other, vectors, eigen.isConverged())
+				: new SingularValueDecomposition(m, n, values, vectors, other, eigen.isConverged());
+	}
+
+	/**
+	 * Number of singular values held, min(m, n) for the full decomposition or k for {@link #Top(Matrixnd, int)}.
+	 */
+	public int getCount() {
+		return values.length;
+	}
+
+	/**
+	 * False when the iteration limit was hit first, in which case the results are only estimates. See
+	 * {@link SymmetricEigenDecomposition#isConverged()}.
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
+	public double[] getSingularValues() {
+		return values.clone();
+	}
+
+	public double getSingularValue(int i) {
+		return values[i];
+	}
+
+	/**
+	 * m x count matrix of left singular vectors as columns.
+	 */
+	public Matrixnd getU() {
+		return columns(u, values.length, rows);
+	}
+
+	/**
+	 * n x count matrix of right singular vectors as columns.
+	 */
+	public Matrixnd getV() {
+		return columns(v, values.length, cols);
+	}
+
+	/**
+	 * Number of singular values above the rounding error of the largest.
+	 */
+	public int rank() {
+		if (values.length == 0) {
+			return 0;
+		}
+		double tolerance = Math.max(rows, cols) * Math.ulp(values[0]);
+		int rank = 0;
+		for (double value : values) {
+			if (value > tolerance) {
+				rank++;
+			}
+		}
+		return rank;
+	}
+
+	/**
+	 * Ratio of the largest to smallest singular value held.
+	 */
+	public double cond() {
+		return values[0] / values[values.length - 1];
+	}
+
+	/**
+	 * Rotates pairs of rows of w until they are mutually orthogonal, applying the same rotations to the rows of r.
+	 *
+	 * @return false if the sweep limit ran out first
+	 */
+	private static boolean orthogonaliseRows(double[] w, double[] r, int count, int length) {
+		double epsilon = Math.ulp(1.0);
+		for (int sweep = 0; sweep < SymmetricEigenDecomposition.MAX_SWEEPS; sweep++) {
+			boolean rotated = false;
+			for (int p = 0; p < count; p++) {
+				int rowP = p * length;
+				for (int q = p + 1; q < count; q++) {
+					int rowQ = q * length;
+					double alpha = 0.0;
+					double beta = 0.0;
+					double gamma = 0.0;
+					for (int i = 0; i < length; i++) {
+						double wp = w[rowP + i];
+						double wq = w[rowQ + i];
+						alpha += wp * wp;
+						beta += wq * wq;
+						gamma += wp * wq;
+					}
+					if (gamma == 0.0 || Math.abs(gamma) <= epsilon * Math.sqrt(alpha * beta)) {
+						continue;
+					}
+					rotated = true;
+
+					double zeta = (beta - alpha) / (2.0 * gamma);
+					double t = zeta == 0.0
+							? 1.0
+							: Math.signum(zeta) / (Math.abs(zeta) + Math.sqrt(1.0 + zeta * zeta));
+					double c = 1.0 / Math.sqrt(1.0 + t * t);
+					double s = c * t;
+
+					for (int i = 0; i < length; i++) {
+						double wp = w[rowP + i];
+						double wq = w[rowQ + i];
+						w[rowP + i] = c * wp - s * wq;
+						w[rowQ + i] = s * wp + c * wq;
+					}
+					int rP = p * count;
+					int rQ = q * count;
+					for (int i = 0; i < count; i++) {
+						double vp = r[rP + i];
+						double vq = r[rQ + i];
+						r[rP + i] = c * vp - s * vq;
+						r[rQ + i] = s * vp + c * vq;
+					}
+				}
+			}
+			if (!rotated) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static double[] vectorRows(SymmetricEigenDecomposition eigen, int k, int length) {
+		double[] rows = new double[k * length];
+		for (int i = 0; i < k; i++) {
+			Vecnd vector = eigen.getEigenvector(i);
+			for (int j = 0; j < length; j++) {
+				rows[i * length + j] = vector.get(j);
+			}
+		}
+		return rows;
+	}
+
+	private static Matrixnd columns(double[] vectorRows, int count, int length) {
+		return new Matrixnd(length, count, transpose(vectorRows, count, length));
+	}
+
+	static double[] transpose(double[] a, int rows, int cols) {
+		double[] t = new double[rows * cols];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				t[j * rows + i] = a[i * cols + j];
+			}
+		}
+		return t;
+	}
+}
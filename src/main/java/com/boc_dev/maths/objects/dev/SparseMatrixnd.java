@@ -0,0 +1,315 @@
+package com.boc_dev.maths.objects.dev;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sparse matrix in compressed sparse row (CSR) form: the column indices and values of row r sit in
+ * rowStarts[r] to rowStarts[r + 1] (exclusive) of columns and values, sorted by column. Memory is O(non zeros) and
+ * a matrix vector multiply is a single pass over them.
+ *
+ * Built with {@link Builder}, which accepts entries in any order and sums duplicates, as when assembling finite
+ * element or mesh Laplacian matrices. Immutable once built.
+ */
+public class SparseMatrixnd implements LinearOperator {
+
+	// non zeros per task before a multiply is split over the common ForkJoinPool
+	static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	private final int rows;
+	private final int cols;
+	private final int[] rowStarts;
+	private final int[] columns;
+	private final double[] values;
+
+	private SparseMatrixnd(int rows, int cols, int[] rowStarts, int[] columns, double[] values) {
+		this.rows = rows;
+		this.cols = cols;
+		this.rowStarts = rowStarts;
+		this.columns = columns;
+		this.values = values;
+	}
+
+	public static SparseMatrixnd FromDense(Matrixnd matrix) {
+		Builder builder = new Builder(matrix.getRowSize(), matrix.getColSize());
+		for (int row = 0; row < matrix.getRowSize(); row++) {
+			for (int col = 0; col < matrix.getColSize(); col++) {
+				double value = matrix.get(col, row);
+				if (value != 0.0) {
+					builder.add(row, col, value);
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	public int getRowSize() {
+		return rows;
+	}
+
+	public int getColSize() {
+		return cols;
+	}
+
+	public int getNonZeroCount() {
+		return rowStarts[rows];
+	}
+
+	/**
+	 * Getter using x and y values assuming x are columns are y are rows, matching {@link Matrixnd#get(int, int)}.
+	 * Binary search within the row.
+	 */
+	public double get(int x, int y) {
+		Objects.checkIndex(x, cols);
+		Objects.checkIndex(y, rows);
+		int index = Arrays.binarySearch(columns, rowStarts[y], rowStarts[y + 1], x);
+		return index >= 0 ? values[index] : 0.0;
+	}
+
+	/**
+	 * dest = A x, split by rows over the common ForkJoinPool once there are enough non zeros.
+	 *
+	 * @return dest
+	 */
+	public double[] multiply(double[] x, double[] dest) {
+		if (x.length != cols || dest.length != rows) {
+			throw new IllegalArgumentException("Expected x of length " + cols + " and dest of length " + rows);
+		}
+		if (x == dest) {
+			throw new IllegalArgumentException("x and dest must be different arrays");
+		}
+		if (getNonZeroCount() < 2 * PARALLEL_THRESHOLD) {
+			multiplyRows(x, dest, 0, rows);
+		} else {
+			ForkJoinPool.commonPool().invoke(new RowTask(x, dest, 0, rows));
+		}
+		return dest;
+	}
+
+	public Vecnd multiply(Vecnd vec) {
+		double[] x = vec.toArray();
+		return new Vecnd(multiply(x, new double[rows]));
+	}
+
+	@Override
+	public void apply(double[] x, double[] y) {
+		multiply(x, y);
+	}
+
+	private void multiplyRows(double[] x, double[] dest, int from, int to) {
+		for (int row = from; row < to; row++) {
+			double sum = 0.0;
+			for (int i = rowStarts[row], end = rowStarts[row + 1]; i < end; i++) {
+				sum += values[i] * x[columns[i]];
+			}
+			dest[row] = sum;
+		}
+	}
+
+	/**
+	 * Transpose in O(non zeros) by counting the entries in each column.
+	 */
+	public SparseMatrixnd transpose() {
+		int count = getNonZeroCount();
+		int[] starts = new int[cols + 1];
+		for (int i = 0; i < count; i++) {
+			starts[columns[i] + 1]++;
+		}
+		for (int col = 0; col < cols; col++) {
+			starts[col + 1] += starts[col];
+		}
+
+		int[] next = Arrays.copyOf(starts, cols);
+		int[] transposedColumns = new int[count];
+		double[] transposedValues = new double[count];
+		// walking rows in order keeps each transposed row sorted
+		for (int row = 0; row < rows; row++) {
+			for (int i = rowStarts[row], end = rowStarts[row + 1]; i < end; i++) {
+				int index = next[columns[i]]++;
+				transposedColumns[index] = row;
+				transposedValues[index] = values[i];
+			}
+		}
+		return new SparseMatrixnd(cols, rows, starts, transposedColumns, transposedValues);
+	}
+
+	/**
+	 * Diagonal values, zero where none is stored.
+	 */
+	public double[] getDiagonal() {
+		int size = Math.min(rows, cols);
+		double[] diagonal = new double[size];
+		for (int row = 0; row < size; row++) {
+			diagonal[row] = get(row, row);
+		}
+		return diagonal;
+	}
+
+	/**
+	 * Jacobi preconditioner, M^-1 x = x / diag(A). Cheap, and enough for diagonally dominant systems.
+	 *
+	 * @throws ArithmeticException if a diagonal value is zero
+	 */
+	public LinearOperator jacobiPreconditioner() {
+		if (rows != cols) {
+			throw new IllegalArgumentException("Preconditioner needs a square matrix");
+		}
+		double[] inverse = getDiagonal();
+		for (int i = 0; i < inverse.length; i++) {
+			if (inverse[i] == 0.0) {
+				throw new ArithmeticException("Zero on the diagonal at row " + i);
+			}
+			inverse[i] = 1.0 / inverse[i];
+		}
+		return (x, y) -> {
+			for (int i = 0; i < x.length; i++) {
+				y[i] = x[i] * inverse[i];
+			}
+		};
+	}
+
+	public Matrixnd toMatrixnd() {
+		double[] elements = new double[rows * cols];
+		for (int row = 0; row < rows; row++) {
+			for (int i = rowStarts[row], end = rowStarts[row + 1]; i < end; i++) {
+				elements[row * cols + columns[i]] = values[i];
+			}
+		}
+		return new Matrixnd(rows, cols, elements);
+	}
+
+	private final class RowTask extends RecursiveAction {
+
+		private final double[] x;
+		private final double[] dest;
+		private final int from;
+		private final int to;
+
+		RowTask(double[] x, double[] dest, int from, int to) {
+			this.x = x;
+			this.dest = dest;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			int nonZeros = rowStarts[to] - rowStarts[from];
+			if (nonZeros <= PARALLEL_THRESHOLD || to - from < 2) {
+				multiplyRows(x, dest, from, to);
+				return;
+			}
+			// split on half the non zeros rather than half the rows, so dense rows do not unbalance the tasks
+			int target = rowStarts[from] + nonZeros / 2;
+			int mid = Arrays.binarySearch(rowStarts, from, to, target);
+			mid = mid >= 0 ? mid : -mid - 1;
+			mid = Math.max(from + 1, Math.min(to - 1, mid));
+			invokeAll(new RowTask(x, dest, from, mid), new RowTask(x, dest, mid, to));
+		}
+	}
+
+	/**
+	 * Collects (row, col, value) entries in any order. Duplicate entries are summed by {@link #build()}.
+	 */
+	public static class Builder {
+
+		private final int rows;
+		private final int cols;
+		private int[] entryRows;
+		private int[] entryCols;
+		private double[] entryValues;
+		private int size;
+
+		public Builder(int rows, int cols) {
+			this(rows, cols, 16);
+		}
+
+		/**
+		 * @param expectedEntries initial capacity, to avoid regrowing when the count is known
+		 */
+		public Builder(int rows, int cols, int expectedEntries) {
+			if (rows < 0 || cols < 0) {
+				throw new IllegalArgumentException("Negative size " + rows + "x" + cols);
+			}
+			this.rows = rows;
+			this.cols = cols;
+			int capacity = Math.max(1, expectedEntries);
+			this.entryRows = new int[capacity];
+			this.entryCols = new int[capacity];
+			this.entryValues = new double[capacity];
+		}
+
+		public Builder add(int row, int col, double value) {
+			Objects.checkIndex(row, rows);
+			Objects.checkIndex(col, cols);
+			if (size == entryRows.length) {
+				int capacity = size + (size >> 1) + 1;
+				entryRows = Arrays.copyOf(entryRows, capacity);
+				entryCols = Arrays.copyOf(entryCols, capacity);
+				entryValues = Arrays.copyOf(entryValues, capacity);
+			}
+			entryRows[size] = row;
+			entryCols[size] = col;
+			entryValues[size] = value;
+			size++;
+			return this;
+		}
+
+		/**
+		 * Sorts the entries into CSR order with two stable counting sorts, by column then by row, so building is
+		 * O(entries + rows + cols), then sums duplicates.
+		 */
+		public SparseMatrixnd build() {
+			int[] byColumn = new int[size];
+			int[] colStarts = new int[cols + 1];
+			for (int i = 0; i < size; i++) {
+				colStarts[entryCols[i] + 1]++;
+			}
+			for (int col = 0; col < cols; col++) {
+				colStarts[col + 1] += colStarts[col];
+			}
+			for (int i = 0; i < size; i++) {
+				byColumn[colStarts[entryCols[i]]++] = i;
+			}
+
+			int[] rowStarts = new int[rows + 1];
+			for (int i = 0; i < size; i++) {
+				rowStarts[entryRows[i] + 1]++;
+			}
+			for (int row = 0; row < rows; row++) {
+				rowStarts[row + 1] += rowStarts[row];
+			}
+			int[] next = Arrays.copyOf(rowStarts, rows);
+			int[] sorted = new int[size];
+			for (int entry : byColumn) {
+				sorted[next[entryRows[entry]]++] = entry;
+			}
+
+			// entries are now sorted by row then column, so duplicates are adjacent
+			int[] columns = new int[size];
+			double[] values = new double[size];
+			int count = 0;
+			int[] mergedStarts = new int[rows + 1];
+			for (int row = 0; row < rows; row++) {
+				mergedStarts[row] = count;
+				for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+					int entry = sorted[i];
+					if (count > mergedStarts[row] && columns[count - 1] == entryCols[entry]) {
+						values[count - 1] += entryValues[entry];
+					} else {
+						columns[count] = entryCols[entry];
+						values[count] = entryValues[entry];
+						count++;
+					}
+				}
+			}
+			mergedStarts[rows] = count;
+
+			return new SparseMatrixnd(rows, cols, mergedStarts,
+					count == size ? columns : Arrays.copyOf(columns, count),
+					count == size ? values : Arrays.copyOf(values, count));
+		}
+	}
+}
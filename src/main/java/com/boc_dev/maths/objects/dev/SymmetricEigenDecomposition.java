@@ -0,0 +1,360 @@
+package com.boc_dev.maths.objects.dev;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Eigenvalues and eigenvectors of a symmetric {@link Matrixnd}, A = V diag(values) V^T, sorted by descending
+ * eigenvalue.
+ *
+ * The full decomposition uses cyclic Jacobi rotations, which is slower than tridiagonal QL but accurate to the last
+ * bits even for small eigenvalues. {@link #Top(Matrixnd, int)} only finds the k eigenvalues of largest magnitude by
+ * subspace iteration, costing O(k n^2) per iteration instead of O(n^3), which is what PCA on large covariance
+ * matrices wants.
+ *
+ * Eigenvectors are kept as contiguous rows internally and returned as the columns of {@link #getEigenvectors()}.
+ */
+public class SymmetricEigenDecomposition {
+
+	static final int MAX_SWEEPS = 64;
+	static final int MAX_ITERATIONS = 10000;
+	static final double TOLERANCE = 1e-12;
+	// extra vectors carried by subspace iteration, convergence goes as |value[k + extra] / value[k]| per iteration
+	private static final int OVERSAMPLE = 8;
+
+	private final int size;
+	private final double[] values;
+	private final double[] vectors;
+	private final boolean converged;
+
+	private SymmetricEigenDecomposition(int size, double[] values, double[] vectors, boolean converged) {
+		this.size = size;
+		this.values = values;
+		this.vectors = vectors;
+		this.converged = converged;
+	}
+
+	/**
+	 * Full decomposition. Only the symmetric part of matrix, (A + A^T) / 2, is used.
+	 */
+	public SymmetricEigenDecomposition(Matrixnd matrix) {
+		if (matrix.getRowSize() != matrix.getColSize()) {
+			throw new IllegalArgumentException("Eigen decomposition needs a square matrix, not "
+					+ matrix.getRowSize() + "x" + matrix.getColSize());
+		}
+		int n = matrix.getRowSize();
+		double[] a = symmetricPart(matrix.getElements(), n);
+		double[] v = new double[n * n];
+		this.converged = jacobi(a, v, n);
+
+		double[] diagonal = new double[n];
+		for (int i = 0; i < n; i++) {
+			diagonal[i] = a[i * n + i];
+		}
+		int[] order = descending(diagonal, n);
+
+		this.size = n;
+		this.values = new double[n];
+		this.vectors = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			int from = order[i];
+			values[i] = diagonal[from];
+			// eigenvectors are the columns of v
+			for (int j = 0; j < n; j++) {
+				vectors[i * n + j] = v[j * n + from];
+			}
+		}
+	}
+
+	/**
+	 * The k eigenvalues of largest magnitude and their eigenvectors, by subspace iteration with Rayleigh-Ritz
+	 * projection. For positive semi-definite matrices such as covariance these are the k largest.
+	 *
+	 * Stops after {@link #MAX_ITERATIONS} when the eigenvalues near the k-th are too close in magnitude to separate,
+	 * returning the current estimates with {@link #isConverged()} false.
+	 */
+	public static SymmetricEigenDecomposition Top(Matrixnd matrix, int k) {
+		if (matrix.getRowSize() != matrix.getColSize()) {
+			throw new IllegalArgumentException("Eigen decomposition needs a square matrix, not "
+					+ matrix.getRowSize() + "x" + matrix.getColSize());
+		}
+		int n = matrix.getRowSize();
+		double[] a = symmetricPart(matrix.getElements(), n);
+		// vectors are rows, so A x for each is the row block times A
+		return Top(n, k, (x, y, count) -> Gemm.multiply(x, a, y, count, n, n));
+	}
+
+	static SymmetricEigenDecomposition Top(int n, int k, RowBlockOperator operator) {
+		if (k < 1 || k > n) {
+			throw new IllegalArgumentException("k must be between 1 and " + n + ", not " + k);
+		}
+		int p = Math.min(n, k + OVERSAMPLE);
+		double[] x = new double[p * n];
+		double[] z = new double[p * n];
+		double[] h = new double[p * p];
+		double[] w = new double[p * p];
+		double[] wt = new double[p * p];
+		double[] rotated = new double[p * n];
+		double[] theta = new double[p];
+		int[] order = new int[p];
+
+		Random random = new Random(0x5eed);
+		for (int i = 0; i < x.length; i++) {
+			x[i] = random.nextDouble() - 0.5;
+		}
+		orthonormaliseRows(x, p, n, random);
+
+		boolean converged = false;
+		for (int iteration = 0; ; iteration++) {
+			operator.apply(x, z, p);
+
+			// Rayleigh-Ritz, the projection of A onto the rows of x
+			for (int i = 0; i < p; i++) {
+				for (int j = i; j < p; j++) {
+					double dot = 0.5 * (dot(x, i * n, z, j * n, n) + dot(x, j * n, z, i * n, n));
+					h[i * p + j] = dot;
+					h[j * p + i] = dot;
+				}
+			}
+			jacobi(h, w, p);
+			for (int i = 0; i < p; i++) {
+				theta[i] = h[i * p + i];
+			}
+			int[] byMagnitude = descendingMagnitude(theta, p);
+
+			// rotate x and z onto the Ritz vectors, largest first
+			for (int i = 0; i < p; i++) {
+				order[i] = byMagnitude[i];
+				for (int j = 0; j < p; j++) {
+					wt[i * p + j] = w[j * p + order[i]];
+				}
+			}
+			Gemm.multiply(wt, x, rotated, p, p, n);
+			System.arraycopy(rotated, 0, x, 0, p * n);
+			Gemm.multiply(wt, z, rotated, p, p, n);
+			System.arraycopy(rotated, 0, z, 0, p * n);
+
+			double scale = Math.abs(theta[order[0]]);
+			converged = true;
+			for (int i = 0; i < k && converged; i++) {
+				double value = theta[order[i]];
+				double residual = 0.0;
+				for (int j = 0; j < n; j++) {
+					double r = z[i * n + j] - value * x[i * n + j];
+					residual += r * r;
+				}
+				converged = Math.sqrt(residual) <= TOLERANCE * scale;
+			}
+
+			if (converged || iteration == MAX_ITERATIONS - 1) {
+				break;
+			}
+
+			System.arraycopy(z, 0, x, 0, p * n);
+			orthonormaliseRows(x, p, n, random);
+		}
+
+		// the first k rows of x are the Ritz vectors, in order of magnitude
+		double[] values = new double[k];
+		for (int i = 0; i < k; i++) {
+			values[i] = theta[order[i]];
+		}
+		int[] sorted = descending(values, k);
+		double[] sortedValues = new double[k];
+		double[] sortedVectors = new double[k * n];
+		for (int i = 0; i < k; i++) {
+			sortedValues[i] = values[sorted[i]];
+			System.arraycopy(x, sorted[i] * n, sortedVectors, i * n, n);
+		}
+		return new SymmetricEigenDecomposition(n, sortedValues, sortedVectors, converged);
+	}
+
+	/**
+	 * Number of eigenvalues held, n for the full decomposition or k for {@link #Top(Matrixnd, int)}.
+	 */
+	public int getCount() {
+		return values.length;
+	}
+
+	/**
+	 * False when the iteration limit was hit first, the Jacobi sweeps for the full decomposition or the subspace
+	 * iterations for {@link #Top(Matrixnd, int)}, in which case the results are only estimates.
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
+	public double[] getEigenvalues() {
+		return values.clone();
+	}
+
+	public double getEigenvalue(int i) {
+		return values[i];
+	}
+
+	public Vecnd getEigenvector(int i) {
+		return new Vecnd(Arrays.copyOfRange(vectors, i * size, (i + 1) * size));
+	}
+
+	/**
+	 * n x count matrix with the eigenvectors as columns.
+	 */
+	public Matrixnd getEigenvectors() {
+		int count = values.length;
+		double[] v = new double[size * count];
+		for (int i = 0; i < count; i++) {
+			for (int j = 0; j < size; j++) {
+				v[j * count + i] = vectors[i * size + j];
+			}
+		}
+		return new Matrixnd(size, count, v);
+	}
+
+	/**
+	 * Computes y = x A for a block of count row vectors of length n, both row major.
+	 */
+	interface RowBlockOperator {
+		void apply(double[] x, double[] y, int count);
+	}
+
+	/**
+	 * Cyclic Jacobi on the symmetric row major n x n matrix a, leaving the eigenvalues on its diagonal and the
+	 * eigenvectors in the columns of v.
+	 *
+	 * @return false if {@link #MAX_SWEEPS} ran out before the off diagonal vanished
+	 */
+	static boolean jacobi(double[] a, double[] v, int n) {
+		Arrays.fill(v, 0, n * n, 0.0);
+		for (int i = 0; i < n; i++) {
+			v[i * n + i] = 1.0;
+		}
+
+		double frobenius = 0.0;
+		for (int i = 0; i < n * n; i++) {
+			frobenius += a[i] * a[i];
+		}
+		double tolerance = Math.ulp(1.0) * Math.sqrt(frobenius);
+
+		for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+			double off = 0.0;
+			for (int p = 0; p < n; p++) {
+				for (int q = p + 1; q < n; q++) {
+					off += a[p * n + q] * a[p * n + q];
+				}
+			}
+			if (Math.sqrt(off) <= tolerance) {
+				return true;
+			}
+
+			for (int p = 0; p < n; p++) {
+				for (int q = p + 1; q < n; q++) {
+					double apq = a[p * n + q];
+					if (apq == 0.0) {
+						continue;
+					}
+					double theta = (a[q * n + q] - a[p * n + p]) / (2.0 * apq);
+					double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1.0));
+					if (theta == 0.0) {
+						t = 1.0;
+					}
+					double c = 1.0 / Math.sqrt(t * t + 1.0);
+					double s = t * c;
+
+					for (int k = 0; k < n; k++) {
+						int row = k * n;
+						double akp = a[row + p];
+						double akq = a[row + q];
+						a[row + p] = c * akp - s * akq;
+						a[row + q] = s * akp + c * akq;
+					}
+					int rowP = p * n;
+					int rowQ = q * n;
+					for (int k = 0; k < n; k++) {
+						double apk = a[rowP + k];
+						double aqk = a[rowQ + k];
+						a[rowP + k] = c * apk - s * aqk;
+						a[rowQ + k] = s * apk + c * aqk;
+					}
+					a[rowP + q] = 0.0;
+					a[rowQ + p] = 0.0;
+
+					for (int k = 0; k < n; k++) {
+						int row = k * n;
+						double vkp = v[row + p];
+						double vkq = v[row + q];
+						v[row + p] = c * vkp - s * vkq;
+						v[row + q] = s * vkp + c * vkq;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Modified Gram-Schmidt on the rows, twice over for orthogonality to working precision. Rows that collapse, when
+	 * the operator has a null space, are refilled at random.
+	 */
+	static void orthonormaliseRows(double[] x, int rows, int n, Random random) {
+		for (int pass = 0; pass < 2; pass++) {
+			for (int i = 0; i < rows; i++) {
+				int row = i * n;
+				for (int attempt = 0; ; attempt++) {
+					for (int j = 0; j < i; j++) {
+						double dot = dot(x, row, x, j * n, n);
+						for (int c = 0; c < n; c++) {
+							x[row + c] -= dot * x[j * n + c];
+						}
+					}
+					double length = Math.sqrt(dot(x, row, x, row, n));
+					if (length > 1e-150 || attempt == 2) {
+						double inverse = length > 0.0 ? 1.0 / length : 0.0;
+						for (int c = 0; c < n; c++) {
+							x[row + c] *= inverse;
+						}
+						break;
+					}
+					for (int c = 0; c < n; c++) {
+						x[row + c] = random.nextDouble() - 0.5;
+					}
+				}
+			}
+		}
+	}
+
+	static double dot(double[] a, int aOffset, double[] b, int bOffset, int length) {
+		double sum = 0.0;
+		for (int i = 0; i < length; i++) {
+			sum += a[aOffset + i] * b[bOffset + i];
+		}
+		return sum;
+	}
+
+	static int[] descending(double[] values, int count) {
+		Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (i, j) -> Double.compare(values[j], values[i]));
+		return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+	}
+
+	private static int[] descendingMagnitude(double[] values, int count) {
+		Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (i, j) -> Double.compare(Math.abs(values[j]), Math.abs(values[i])));
+		return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+	}
+
+	private static double[] symmetricPart(double[] elements, int n) {
+		double[] a = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				a[i * n + j] = 0.5 * (elements[i * n + j] + elements[j * n + i]);
+			}
+		}
+		return a;
+	}
+}
@@ -6,9 +6,22 @@ public class Vecnd {
 
     private final double[] elements;
 
+    // element i lives at elements[offset + i * stride], so rows and columns of a Matrixnd can be viewed in place
+    private final int offset;
+    private final int stride;
+
     public Vecnd(double ... e) {
         elements = e;
         SIZE = e.length;
+        offset = 0;
+        stride = 1;
+    }
+
+    Vecnd(double[] elements, int offset, int stride, int size) {
+        this.elements = elements;
+        this.offset = offset;
+        this.stride = stride;
+        this.SIZE = size;
     }
 
     /**
@@ -19,11 +32,15 @@ public class Vecnd {
         return new Vecnd(0.0, 0.0, 0.0);
     }
 
+    public int size() {
+        return SIZE;
+    }
+
     public double dot(Vecnd vec) {
-        assert SIZE == vec.elements.length;
+        assert SIZE == vec.SIZE;
         double sum = 0.0;
-        for (int i = 0; i < SIZE; i++) {
-            sum += this.elements[i] * vec.elements[i];
+        for (int i = 0, a = offset, b = vec.offset; i < SIZE; i++, a += stride, b += vec.stride) {
+            sum += elements[a] * vec.elements[b];
         }
         return sum;
     }
@@ -34,7 +51,28 @@ public class Vecnd {
      * @return values in matrix
      */
     public double get(int x) {
-        return elements[x];
+        return elements[offset + x * stride];
+    }
+
+    /**
+     * Elements in a new array, packed even when this vector is a view.
+     *
+     * @return copy of the values
+     */
+    public double[] toArray() {
+        double[] values = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = elements[offset + i * stride];
+        }
+        return values;
+    }
+
+    public Vecnf toVecnf() {
+        float[] values = new float[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = (float) elements[offset + i * stride];
+        }
+        return new Vecnf(values);
     }
 
 }
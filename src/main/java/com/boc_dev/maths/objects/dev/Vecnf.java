@@ -0,0 +1,77 @@
+package com.boc_dev.maths.objects.dev;
+
+/**
+ * Single precision counterpart of {@link Vecnd}. Dot products are accumulated in double.
+ */
+public class Vecnf {
+
+    private final int SIZE;
+
+    private final float[] elements;
+
+    // element i lives at elements[offset + i * stride], so rows and columns of a Matrixnf can be viewed in place
+    private final int offset;
+    private final int stride;
+
+    public Vecnf(float ... e) {
+        elements = e;
+        SIZE = e.length;
+        offset = 0;
+        stride = 1;
+    }
+
+    Vecnf(float[] elements, int offset, int stride, int size) {
+        this.elements = elements;
+        this.offset = offset;
+        this.stride = stride;
+        this.SIZE = size;
+    }
+
+    public static Vecnf Empty(int size) {
+        return new Vecnf(new float[size]);
+    }
+
+    public int size() {
+        return SIZE;
+    }
+
+    /**
+     * Dot product, summed in double so long vectors do not lose the small terms.
+     *
+     * @return sum of products
+     */
+    public double dot(Vecnf vec) {
+        assert SIZE == vec.SIZE;
+        double sum = 0.0;
+        for (int i = 0, a = offset, b = vec.offset; i < SIZE; i++, a += stride, b += vec.stride) {
+            sum += (double) elements[a] * vec.elements[b];
+        }
+        return sum;
+    }
+
+    public float get(int x) {
+        return elements[offset + x * stride];
+    }
+
+    /**
+     * Elements in a new array, packed even when this vector is a view.
+     *
+     * @return copy of the values
+     */
+    public float[] toArray() {
+        float[] values = new float[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = elements[offset + i * stride];
+        }
+        return values;
+    }
+
+    public Vecnd toVecnd() {
+        double[] values = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = elements[offset + i * stride];
+        }
+        return new Vecnd(values);
+    }
+
+}
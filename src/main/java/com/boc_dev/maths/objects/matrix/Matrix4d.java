@@ -4,6 +4,7 @@ import com.boc_dev.maths.objects.QuaternionD;
 import com.boc_dev.maths.objects.vector.Vec3d;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 public class Matrix4d {
 
@@ -87,21 +88,137 @@ public class Matrix4d {
 	}
 
 	public Matrix4d multiply(Matrix4d matrix4d) {
-
 		double[] newElements = new double[16];
+		multiply(this.elements, 0, matrix4d.elements, 0, newElements, 0);
+		return new Matrix4d(newElements);
+	}
 
-		for (int i = 0; i < SIZE; i++) {
-			for (int j = 0; j < SIZE; j++) {
-				newElements[j * SIZE + i] =
-						this.elements[i + SIZE * 0] * matrix4d.getValues()[0 + j * SIZE] +
-								this.elements[i + SIZE * 1] * matrix4d.getValues()[1 + j * SIZE] +
-								this.elements[i + SIZE * 2] * matrix4d.getValues()[2 + j * SIZE] +
-								this.elements[i + SIZE * 3] * matrix4d.getValues()[3 + j * SIZE];
-			}
+	/**
+	 * Multiplies two matrices stored as 16 contiguous doubles, with the same ordering as
+	 * {@link #multiply(Matrix4d)} (a.multiply(b)). Every input is read before anything is written,
+	 * so dest may alias a or b.
+	 *
+	 * @param a left hand matrix values
+	 * @param aOffset start index in a
+	 * @param b right hand matrix values
+	 * @param bOffset start index in b
+	 * @param dest destination array, needs 16 doubles from destOffset
+	 * @param destOffset start index in dest
+	 */
+	public static void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] dest, int destOffset) {
+
+		double a0 = a[aOffset], a1 = a[aOffset + 1], a2 = a[aOffset + 2], a3 = a[aOffset + 3];
+		double a4 = a[aOffset + 4], a5 = a[aOffset + 5], a6 = a[aOffset + 6], a7 = a[aOffset + 7];
+		double a8 = a[aOffset + 8], a9 = a[aOffset + 9], a10 = a[aOffset + 10], a11 = a[aOffset + 11];
+		double a12 = a[aOffset + 12], a13 = a[aOffset + 13], a14 = a[aOffset + 14], a15 = a[aOffset + 15];
+
+		double b0 = b[bOffset], b1 = b[bOffset + 1], b2 = b[bOffset + 2], b3 = b[bOffset + 3];
+		double b4 = b[bOffset + 4], b5 = b[bOffset + 5], b6 = b[bOffset + 6], b7 = b[bOffset + 7];
+		double b8 = b[bOffset + 8], b9 = b[bOffset + 9], b10 = b[bOffset + 10], b11 = b[bOffset + 11];
+		double b12 = b[bOffset + 12], b13 = b[bOffset + 13], b14 = b[bOffset + 14], b15 = b[bOffset + 15];
+
+		multiplyKernel(a0, a1, a2, a3, a4, a5, a6, a7, a8, a9, a10, a11, a12, a13, a14, a15,
+				b0, b1, b2, b3, b4, b5, b6, b7, b8, b9, b10, b11, b12, b13, b14, b15, dest, destOffset);
+	}
+
+	// a.multiply(b) for two matrices already loaded into locals, which lets the batch methods hoist one side out
+	// of their loops
+	private static void multiplyKernel(double a0, double a1, double a2, double a3, double a4, double a5, double a6, double a7,
+	                                   double a8, double a9, double a10, double a11, double a12, double a13, double a14, double a15,
+	                                   double b0, double b1, double b2, double b3, double b4, double b5, double b6, double b7,
+	                                   double b8, double b9, double b10, double b11, double b12, double b13, double b14, double b15,
+	                                   double[] dest, int d) {
+		dest[d] = a0 * b0 + a4 * b1 + a8 * b2 + a12 * b3;
+		dest[d + 1] = a1 * b0 + a5 * b1 + a9 * b2 + a13 * b3;
+		dest[d + 2] = a2 * b0 + a6 * b1 + a10 * b2 + a14 * b3;
+		dest[d + 3] = a3 * b0 + a7 * b1 + a11 * b2 + a15 * b3;
+
+		dest[d + 4] = a0 * b4 + a4 * b5 + a8 * b6 + a12 * b7;
+		dest[d + 5] = a1 * b4 + a5 * b5 + a9 * b6 + a13 * b7;
+		dest[d + 6] = a2 * b4 + a6 * b5 + a10 * b6 + a14 * b7;
+		dest[d + 7] = a3 * b4 + a7 * b5 + a11 * b6 + a15 * b7;
+
+		dest[d + 8] = a0 * b8 + a4 * b9 + a8 * b10 + a12 * b11;
+		dest[d + 9] = a1 * b8 + a5 * b9 + a9 * b10 + a13 * b11;
+		dest[d + 10] = a2 * b8 + a6 * b9 + a10 * b10 + a14 * b11;
+		dest[d + 11] = a3 * b8 + a7 * b9 + a11 * b10 + a15 * b11;
+
+		dest[d + 12] = a0 * b12 + a4 * b13 + a8 * b14 + a12 * b15;
+		dest[d + 13] = a1 * b12 + a5 * b13 + a9 * b14 + a13 * b15;
+		dest[d + 14] = a2 * b12 + a6 * b13 + a10 * b14 + a14 * b15;
+		dest[d + 15] = a3 * b12 + a7 * b13 + a11 * b14 + a15 * b15;
+	}
+
+	/**
+	 * Multiplies count pairs of matrices, each stored as 16 contiguous doubles: matrix i of dest is matrix i of a
+	 * multiplied by matrix i of b, as in {@link #multiply(Matrix4d)}.
+	 */
+	public static void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] dest, int destOffset, int count) {
+		Objects.checkFromIndexSize(aOffset, count * 16, a.length);
+		Objects.checkFromIndexSize(bOffset, count * 16, b.length);
+		Objects.checkFromIndexSize(destOffset, count * 16, dest.length);
+		for (int i = 0; i < count; i++) {
+			int step = i * 16;
+			multiply(a, aOffset + step, b, bOffset + step, dest, destOffset + step);
 		}
+	}
 
-		return new Matrix4d(newElements);
+	/**
+	 * Multiplies one matrix by count matrices stored as 16 contiguous doubles each: matrix i of dest is
+	 * a.multiply(matrix i of b). a is only read once, and each b is read before its result is written so dest may
+	 * alias b.
+	 */
+	public static void multiplyOneByMany(double[] a, int aOffset, double[] b, int bOffset, double[] dest, int destOffset, int count) {
+		Objects.checkFromIndexSize(aOffset, 16, a.length);
+		Objects.checkFromIndexSize(bOffset, count * 16, b.length);
+		Objects.checkFromIndexSize(destOffset, count * 16, dest.length);
+
+		double a0 = a[aOffset], a1 = a[aOffset + 1], a2 = a[aOffset + 2], a3 = a[aOffset + 3];
+		double a4 = a[aOffset + 4], a5 = a[aOffset + 5], a6 = a[aOffset + 6], a7 = a[aOffset + 7];
+		double a8 = a[aOffset + 8], a9 = a[aOffset + 9], a10 = a[aOffset + 10], a11 = a[aOffset + 11];
+		double a12 = a[aOffset + 12], a13 = a[aOffset + 13], a14 = a[aOffset + 14], a15 = a[aOffset + 15];
+
+		for (int i = 0; i < count; i++) {
+			int o = bOffset + i * 16;
+			int d = destOffset + i * 16;
+
+			double b0 = b[o], b1 = b[o + 1], b2 = b[o + 2], b3 = b[o + 3];
+			double b4 = b[o + 4], b5 = b[o + 5], b6 = b[o + 6], b7 = b[o + 7];
+			double b8 = b[o + 8], b9 = b[o + 9], b10 = b[o + 10], b11 = b[o + 11];
+			double b12 = b[o + 12], b13 = b[o + 13], b14 = b[o + 14], b15 = b[o + 15];
+
+			multiplyKernel(a0, a1, a2, a3, a4, a5, a6, a7, a8, a9, a10, a11, a12, a13, a14, a15,
+					b0, b1, b2, b3, b4, b5, b6, b7, b8, b9, b10, b11, b12, b13, b14, b15, dest, d);
+		}
+	}
 
+	/**
+	 * Multiplies count matrices stored as 16 contiguous doubles each by one matrix: matrix i of dest is
+	 * (matrix i of a).multiply(b). b is only read once, and each a is read before its result is written so dest may
+	 * alias a.
+	 */
+	public static void multiplyManyByOne(double[] a, int aOffset, double[] b, int bOffset, double[] dest, int destOffset, int count) {
+		Objects.checkFromIndexSize(aOffset, count * 16, a.length);
+		Objects.checkFromIndexSize(bOffset, 16, b.length);
+		Objects.checkFromIndexSize(destOffset, count * 16, dest.length);
+
+		double b0 = b[bOffset], b1 = b[bOffset + 1], b2 = b[bOffset + 2], b3 = b[bOffset + 3];
+		double b4 = b[bOffset + 4], b5 = b[bOffset + 5], b6 = b[bOffset + 6], b7 = b[bOffset + 7];
+		double b8 = b[bOffset + 8], b9 = b[bOffset + 9], b10 = b[bOffset + 10], b11 = b[bOffset + 11];
+		double b12 = b[bOffset + 12], b13 = b[bOffset + 13], b14 = b[bOffset + 14], b15 = b[bOffset + 15];
+
+		for (int i = 0; i < count; i++) {
+			int o = aOffset + i * 16;
+			int d = destOffset + i * 16;
+
+			double a0 = a[o], a1 = a[o + 1], a2 = a[o + 2], a3 = a[o + 3];
+			double a4 = a[o + 4], a5 = a[o + 5], a6 = a[o + 6], a7 = a[o + 7];
+			double a8 = a[o + 8], a9 = a[o + 9], a10 = a[o + 10], a11 = a[o + 11];
+			double a12 = a[o + 12], a13 = a[o + 13], a14 = a[o + 14], a15 = a[o + 15];
+
+			multiplyKernel(a0, a1, a2, a3, a4, a5, a6, a7, a8, a9, a10, a11, a12, a13, a14, a15,
+					b0, b1, b2, b3, b4, b5, b6, b7, b8, b9, b10, b11, b12, b13, b14, b15, dest, d);
+		}
 	}
 
 	public Vec3d multiply(Vec3d vec) {
@@ -326,15 +443,193 @@ public class Matrix4d {
 		return new Matrix4f(newElems);
 	}
 
-	// todo implement gauss jordon elimination
+	/**
+	 * Determinant by cofactor expansion over 2x2 sub determinants.
+	 */
+	public double det() {
+		return det(elements, 0);
+	}
 
-	//public double det() {
+	/**
+	 * Determinant of the matrix stored as 16 contiguous doubles from offset o.
+	 */
+	public static double det(double[] m, int o) {
+
+		double a00 = m[o], a01 = m[o + 1], a02 = m[o + 2], a03 = m[o + 3];
+		double a10 = m[o + 4], a11 = m[o + 5], a12 = m[o + 6], a13 = m[o + 7];
+		double a20 = m[o + 8], a21 = m[o + 9], a22 = m[o + 10], a23 = m[o + 11];
+		double a30 = m[o + 12], a31 = m[o + 13], a32 = m[o + 14], a33 = m[o + 15];
+
+		double s0 = a00 * a11 - a01 * a10;
+		double s1 = a00 * a12 - a02 * a10;
+		double s2 = a00 * a13 - a03 * a10;
+		double s3 = a01 * a12 - a02 * a11;
+		double s4 = a01 * a13 - a03 * a11;
+		double s5 = a02 * a13 - a03 * a12;
+
+		double c0 = a20 * a31 - a21 * a30;
+		double c1 = a20 * a32 - a22 * a30;
+		double c2 = a20 * a33 - a23 * a30;
+		double c3 = a21 * a32 - a22 * a31;
+		double c4 = a21 * a33 - a23 * a31;
+		double c5 = a22 * a33 - a23 * a32;
+
+		return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+	}
+
+	/**
+	 * Cheap check for a zero determinant, true when {@link #inverse()} would succeed.
+	 */
+	public boolean isInvertible() {
+		double det = det(elements, 0);
+		return det != 0 && Double.isFinite(1 / det);
+	}
 
-	//}
+	/**
+	 * General inverse, valid for any invertible matrix including projections. Matrices whose bottom row is
+	 * 0, 0, 0, 1 take the cheaper {@link #inverseAffine()} path.
+	 *
+	 * @throws ArithmeticException if the matrix is singular
+	 */
+	public Matrix4d inverse() {
+		double[] inverse = new double[16];
+		boolean invertible = isAffine()
+				? inverseAffine(elements, 0, inverse, 0)
+				: inverse(elements, 0, inverse, 0);
+		if (!invertible) {
+			throw new ArithmeticException("Matrix is singular");
+		}
+		return new Matrix4d(inverse);
+	}
 
-	// adjugate matrix method
-	//public Matrix4d inverse() {
+	/**
+	 * Inverse of a matrix whose bottom row is 0, 0, 0, 1, allowing any rotation, non uniform scale and shear in the
+	 * top left 3x3. The bottom row is not read.
+	 *
+	 * @throws ArithmeticException if the matrix is singular
+	 */
+	public Matrix4d inverseAffine() {
+		double[] inverse = new double[16];
+		if (!inverseAffine(elements, 0, inverse, 0)) {
+			throw new ArithmeticException("Matrix is singular");
+		}
+		return new Matrix4d(inverse);
+	}
 
+	/**
+	 * General 4x4 inverse of 16 contiguous doubles by cofactors (Cramer's rule). Every input is read before
+	 * anything is written, so dest may alias m.
+	 *
+	 * @return false, leaving dest untouched, if the matrix is singular
+	 */
+	public static boolean inverse(double[] m, int o, double[] dest, int d) {
+
+		double a00 = m[o], a01 = m[o + 1], a02 = m[o + 2], a03 = m[o + 3];
+		double a10 = m[o + 4], a11 = m[o + 5], a12 = m[o + 6], a13 = m[o + 7];
+		double a20 = m[o + 8], a21 = m[o + 9], a22 = m[o + 10], a23 = m[o + 11];
+		double a30 = m[o + 12], a31 = m[o + 13], a32 = m[o + 14], a33 = m[o + 15];
+
+		double s0 = a00 * a11 - a01 * a10;
+		double s1 = a00 * a12 - a02 * a10;
+		double s2 = a00 * a13 - a03 * a10;
+		double s3 = a01 * a12 - a02 * a11;
+		double s4 = a01 * a13 - a03 * a11;
+		double s5 = a02 * a13 - a03 * a12;
+
+		double c0 = a20 * a31 - a21 * a30;
+		double c1 = a20 * a32 - a22 * a30;
+		double c2 = a20 * a33 - a23 * a30;
+		double c3 = a21 * a32 - a22 * a31;
+		double c4 = a21 * a33 - a23 * a31;
+		double c5 = a22 * a33 - a23 * a32;
+
+		double det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+		double invDet = 1 / det;
+		if (det == 0 || !Double.isFinite(invDet)) {
+			return false;
+		}
 
-	//}
+		dest[d] = ((a11 * c5 - a12 * c4 + a13 * c3) * invDet);
+		dest[d + 1] = ((-a01 * c5 + a02 * c4 - a03 * c3) * invDet);
+		dest[d + 2] = ((a31 * s5 - a32 * s4 + a33 * s3) * invDet);
+		dest[d + 3] = ((-a21 * s5 + a22 * s4 - a23 * s3) * invDet);
+
+		dest[d + 4] = ((-a10 * c5 + a12 * c2 - a13 * c1) * invDet);
+		dest[d + 5] = ((a00 * c5 - a02 * c2 + a03 * c1) * invDet);
+		dest[d + 6] = ((-a30 * s5 + a32 * s2 - a33 * s1) * invDet);
+		dest[d + 7] = ((a20 * s5 - a22 * s2 + a23 * s1) * invDet);
+
+		dest[d + 8] = ((a10 * c4 - a11 * c2 + a13 * c0) * invDet);
+		dest[d + 9] = ((-a00 * c4 + a01 * c2 - a03 * c0) * invDet);
+		dest[d + 10] = ((a30 * s4 - a31 * s2 + a33 * s0) * invDet);
+		dest[d + 11] = ((-a20 * s4 + a21 * s2 - a23 * s0) * invDet);
+
+		dest[d + 12] = ((-a10 * c3 + a11 * c1 - a12 * c0) * invDet);
+		dest[d + 13] = ((a00 * c3 - a01 * c1 + a02 * c0) * invDet);
+		dest[d + 14] = ((-a30 * s3 + a31 * s1 - a32 * s0) * invDet);
+		dest[d + 15] = ((a20 * s3 - a21 * s1 + a22 * s0) * invDet);
+		return true;
+	}
+
+	/**
+	 * Inverse of an affine matrix stored as 16 contiguous doubles, inverting the top left 3x3 by cofactors and
+	 * applying it to the negated translation. The bottom row is not read and is written as 0, 0, 0, 1. dest may
+	 * alias m.
+	 *
+	 * @return false, leaving dest untouched, if the 3x3 part is singular
+	 */
+	public static boolean inverseAffine(double[] m, int o, double[] dest, int d) {
+
+		double a00 = m[o], a01 = m[o + 1], a02 = m[o + 2], a03 = m[o + 3];
+		double a10 = m[o + 4], a11 = m[o + 5], a12 = m[o + 6], a13 = m[o + 7];
+		double a20 = m[o + 8], a21 = m[o + 9], a22 = m[o + 10], a23 = m[o + 11];
+
+		double i00 = a11 * a22 - a12 * a21;
+		double i01 = a02 * a21 - a01 * a22;
+		double i02 = a01 * a12 - a02 * a11;
+		double i10 = a12 * a20 - a10 * a22;
+		double i11 = a00 * a22 - a02 * a20;
+		double i12 = a02 * a10 - a00 * a12;
+		double i20 = a10 * a21 - a11 * a20;
+		double i21 = a01 * a20 - a00 * a21;
+		double i22 = a00 * a11 - a01 * a10;
+
+		double det = a00 * i00 + a01 * i10 + a02 * i20;
+		double invDet = 1 / det;
+		if (det == 0 || !Double.isFinite(invDet)) {
+			return false;
+		}
+
+		i00 *= invDet;
+		i01 *= invDet;
+		i02 *= invDet;
+		i10 *= invDet;
+		i11 *= invDet;
+		i12 *= invDet;
+		i20 *= invDet;
+		i21 *= invDet;
+		i22 *= invDet;
+
+		dest[d] = i00;
+		dest[d + 1] = i01;
+		dest[d + 2] = i02;
+		dest[d + 3] = -(i00 * a03 + i01 * a13 + i02 * a23);
+		dest[d + 4] = i10;
+		dest[d + 5] = i11;
+		dest[d + 6] = i12;
+		dest[d + 7] = -(i10 * a03 + i11 * a13 + i12 * a23);
+		dest[d + 8] = i20;
+		dest[d + 9] = i21;
+		dest[d + 10] = i22;
+		dest[d + 11] = -(i20 * a03 + i21 * a13 + i22 * a23);
+		dest[d + 12] = 0;
+		dest[d + 13] = 0;
+		dest[d + 14] = 0;
+		dest[d + 15] = 1;
+		return true;
+	}
+
+	private boolean isAffine() {
+		return elements[12] == 0 && elements[13] == 0 && elements[14] == 0 && elements[15] == 1;
+	}
 }
@@ -1,9 +1,13 @@
 package com.boc_dev.maths.objects.matrix;
 
+import com.boc_dev.maths.objects.FrameArena;
 import com.boc_dev.maths.objects.QuaternionF;
 import com.boc_dev.maths.objects.vector.Vec3f;
+import com.boc_dev.maths.simd.BulkMath;
+import com.boc_dev.maths.utils.FastMath;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 public class Matrix4f {
 
@@ -18,41 +22,147 @@ public class Matrix4f {
 	);
 
 	public static Matrix4f Translation(Vec3f vec3f) {
-		return new Matrix4f(
-				1.0f, 0.0f, 0.0f, vec3f.getX(),
-				0.0f, 1.0f, 0.0f, vec3f.getY(),
-				0.0f, 0.0f, 1.0f, vec3f.getZ(),
-				0.0f, 0.0f, 0.0f, 1.0f);
+		return new Matrix4f(Translation(vec3f, new float[16], 0));
+	}
+
+	/**
+	 * Translation matrix taken from arena, valid until the arena is reset.
+	 */
+	public static Matrix4f Translation(Vec3f vec3f, FrameArena arena) {
+		Matrix4f matrix = arena.matrix4f();
+		Translation(vec3f, matrix.elements, 0);
+		return matrix;
+	}
+
+	/**
+	 * Writes a translation matrix into dest starting at offset, without allocating.
+	 *
+	 * @param vec3f translation
+	 * @param dest destination array, needs 16 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public static float[] Translation(Vec3f vec3f, float[] dest, int offset) {
+		dest[offset] = 1.0f;
+		dest[offset + 1] = 0.0f;
+		dest[offset + 2] = 0.0f;
+		dest[offset + 3] = vec3f.getX();
+		dest[offset + 4] = 0.0f;
+		dest[offset + 5] = 1.0f;
+		dest[offset + 6] = 0.0f;
+		dest[offset + 7] = vec3f.getY();
+		dest[offset + 8] = 0.0f;
+		dest[offset + 9] = 0.0f;
+		dest[offset + 10] = 1.0f;
+		dest[offset + 11] = vec3f.getZ();
+		dest[offset + 12] = 0.0f;
+		dest[offset + 13] = 0.0f;
+		dest[offset + 14] = 0.0f;
+		dest[offset + 15] = 1.0f;
+		return dest;
 	}
 
 	public static Matrix4f Rotation(float angle, Vec3f axis) {
-		float[] newElems = new float[16];
-		newElems[15] = 1;
+		return new Matrix4f(Rotation(angle, axis, new float[16], 0));
+	}
 
-		float cos = (float) Math.cos(Math.toRadians(angle));
-		float sin = (float) Math.sin(Math.toRadians(angle));
-		float C = 1 - cos;
+	public static Matrix4f Rotation(float angle, Vec3f axis, FrameArena arena) {
+		Matrix4f matrix = arena.matrix4f();
+		Rotation(angle, axis, matrix.elements, 0);
+		return matrix;
+	}
+
+	/**
+	 * Writes a rotation matrix of angle degrees around axis into dest starting at offset, without allocating.
+	 *
+	 * @param angle in degrees
+	 * @param axis unit axis of rotation
+	 * @param dest destination array, needs 16 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public static float[] Rotation(float angle, Vec3f axis, float[] dest, int offset) {
+		double radians = Math.toRadians(angle);
+		return Rotation((float) Math.cos(radians), (float) Math.sin(radians), axis, dest, offset);
+	}
+
+	/**
+	 * Same as {@link #Rotation(float, Vec3f)} but uses {@link FastMath#sincos(float, float[], int)}.
+	 *
+	 * @param angle in degrees
+	 * @param axis unit axis of rotation
+	 * @return rotation matrix
+	 */
+	public static Matrix4f FastRotation(float angle, Vec3f axis) {
+		return new Matrix4f(FastRotation(angle, axis, new float[16], 0));
+	}
+
+	public static float[] FastRotation(float angle, Vec3f axis, float[] dest, int offset) {
+		// dest holds sin and cos until the rotation overwrites it
+		FastMath.sincos((float) Math.toRadians(angle), dest, offset);
+		return Rotation(dest[offset + 1], dest[offset], axis, dest, offset);
+	}
 
-		newElems[0 * SIZE + 0] = cos + axis.getX() * axis.getX() * C;
-		newElems[1 * SIZE + 0] = axis.getX() * axis.getY() * C - axis.getZ() * sin;
-		newElems[2 * SIZE + 0] = axis.getX() * axis.getZ() * C + axis.getY() * sin;
-		newElems[0 * SIZE + 1] = axis.getY() * axis.getX() * C + axis.getZ() * sin;
-		newElems[1 * SIZE + 1] = cos + axis.getY() * axis.getY() * C;
-		newElems[2 * SIZE + 1] = axis.getY() * axis.getZ() * C - axis.getX() * sin;
-		newElems[0 * SIZE + 2] = axis.getZ() * axis.getX() * C - axis.getY() * sin;
-		newElems[1 * SIZE + 2] = axis.getZ() * axis.getY() * C + axis.getX() * sin;
-		newElems[2 * SIZE + 2] = cos + axis.getZ() * axis.getZ() * C;
+	private static float[] Rotation(float cos, float sin, Vec3f axis, float[] dest, int offset) {
 
-		return new Matrix4f(newElems);
+		float C = 1 - cos;
+
+		dest[offset + 0 * SIZE + 0] = cos + axis.getX() * axis.getX() * C;
+		dest[offset + 1 * SIZE + 0] = axis.getX() * axis.getY() * C - axis.getZ() * sin;
+		dest[offset + 2 * SIZE + 0] = axis.getX() * axis.getZ() * C + axis.getY() * sin;
+		dest[offset + 3 * SIZE + 0] = 0.0f;
+		dest[offset + 0 * SIZE + 1] = axis.getY() * axis.getX() * C + axis.getZ() * sin;
+		dest[offset + 1 * SIZE + 1] = cos + axis.getY() * axis.getY() * C;
+		dest[offset + 2 * SIZE + 1] = axis.getY() * axis.getZ() * C - axis.getX() * sin;
+		dest[offset + 3 * SIZE + 1] = 0.0f;
+		dest[offset + 0 * SIZE + 2] = axis.getZ() * axis.getX() * C - axis.getY() * sin;
+		dest[offset + 1 * SIZE + 2] = axis.getZ() * axis.getY() * C + axis.getX() * sin;
+		dest[offset + 2 * SIZE + 2] = cos + axis.getZ() * axis.getZ() * C;
+		dest[offset + 3 * SIZE + 2] = 0.0f;
+		dest[offset + 0 * SIZE + 3] = 0.0f;
+		dest[offset + 1 * SIZE + 3] = 0.0f;
+		dest[offset + 2 * SIZE + 3] = 0.0f;
+		dest[offset + 3 * SIZE + 3] = 1.0f;
+
+		return dest;
 	}
 
 	public static Matrix4f Scale(Vec3f scale) {
-		return new Matrix4f(
-				scale.getX(), 0.0f, 0.0f, 0.0f,
-				0.0f, scale.getY(), 0.0f, 0.0f,
-				0.0f, 0.0f, scale.getZ(), 0.0f,
-				0.0f, 0.0f, 0.0f, 1.0f
-		);
+		return new Matrix4f(Scale(scale, new float[16], 0));
+	}
+
+	public static Matrix4f Scale(Vec3f scale, FrameArena arena) {
+		Matrix4f matrix = arena.matrix4f();
+		Scale(scale, matrix.elements, 0);
+		return matrix;
+	}
+
+	/**
+	 * Writes a scale matrix into dest starting at offset, without allocating.
+	 *
+	 * @param scale scale along each axis
+	 * @param dest destination array, needs 16 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public static float[] Scale(Vec3f scale, float[] dest, int offset) {
+		dest[offset] = scale.getX();
+		dest[offset + 1] = 0.0f;
+		dest[offset + 2] = 0.0f;
+		dest[offset + 3] = 0.0f;
+		dest[offset + 4] = 0.0f;
+		dest[offset + 5] = scale.getY();
+		dest[offset + 6] = 0.0f;
+		dest[offset + 7] = 0.0f;
+		dest[offset + 8] = 0.0f;
+		dest[offset + 9] = 0.0f;
+		dest[offset + 10] = scale.getZ();
+		dest[offset + 11] = 0.0f;
+		dest[offset + 12] = 0.0f;
+		dest[offset + 13] = 0.0f;
+		dest[offset + 14] = 0.0f;
+		dest[offset + 15] = 1.0f;
+		return dest;
 	}
 
     public static Matrix4f InverseScale(Vec3f scale) {
@@ -65,14 +175,26 @@ public class Matrix4f {
     }
 
 	public Matrix4f add(Matrix4f matrix) {
+		return new Matrix4f(add(matrix, new float[16], 0));
+	}
+
+	/**
+	 * Element wise addition written into dest starting at offset, without allocating.
+	 *
+	 * @param matrix matrix to add
+	 * @param dest destination array, needs 16 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] add(Matrix4f matrix, float[] dest, int offset) {
 
-		float[] newElements = new float[16];
+		float[] other = matrix.elements;
 
-		for (int i = 0; i < this.elements.length; i++) {
-			newElements[i] = this.elements[i] + matrix.getValues()[i];
+		for (int i = 0; i < 16; i++) {
+			dest[offset + i] = this.elements[i] + other[i];
 		}
 
-		return new Matrix4f(newElements);
+		return dest;
 	}
 
 	public Matrix4f add(Vec3f vec3f) {
@@ -85,21 +207,148 @@ public class Matrix4f {
 	}
 
 	public Matrix4f multiply(Matrix4f matrix4d) {
-
-		float[] newElements = new float[16];
-
-		for (int i = 0; i < SIZE; i++) {
-			for (int j = 0; j < SIZE; j++) {
-				newElements[j * SIZE + i] =
-						this.elements[i + SIZE * 0] * matrix4d.getValues()[0 + j * SIZE] +
-								this.elements[i + SIZE * 1] * matrix4d.getValues()[1 + j * SIZE] +
-								this.elements[i + SIZE * 2] * matrix4d.getValues()[2 + j * SIZE] +
-								this.elements[i + SIZE * 3] * matrix4d.getValues()[3 + j * SIZE];
-			}
+		return new Matrix4f(multiply(matrix4d, new float[16], 0));
+	}
+
+	public Matrix4f multiply(Matrix4f matrix4d, FrameArena arena) {
+		Matrix4f matrix = arena.matrix4f();
+		multiply(this.elements, 0, matrix4d.elements, 0, matrix.elements, 0);
+		return matrix;
+	}
+
+	/**
+	 * Matrix multiplication written into dest starting at offset, without allocating.
+	 *
+	 * @param matrix4d matrix to multiply by
+	 * @param dest destination array, needs 16 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] multiply(Matrix4f matrix4d, float[] dest, int offset) {
+		multiply(this.elements, 0, matrix4d.elements, 0, dest, offset);
+		return dest;
+	}
+
+	/**
+	 * Multiplies two matrices stored as 16 contiguous floats, with the same ordering as
+	 * {@link #multiply(Matrix4f)} (a.multiply(b)). Every input is read before anything is written,
+	 * so dest may alias a or b.
+	 *
+	 * @param a left hand matrix values
+	 * @param aOffset start index in a
+	 * @param b right hand matrix values
+	 * @param bOffset start index in b
+	 * @param dest destination array, needs 16 floats from destOffset
+	 * @param destOffset start index in dest
+	 */
+	public static void multiply(float[] a, int aOffset, float[] b, int bOffset, float[] dest, int destOffset) {
+
+		float a0 = a[aOffset], a1 = a[aOffset + 1], a2 = a[aOffset + 2], a3 = a[aOffset + 3];
+		float a4 = a[aOffset + 4], a5 = a[aOffset + 5], a6 = a[aOffset + 6], a7 = a[aOffset + 7];
+		float a8 = a[aOffset + 8], a9 = a[aOffset + 9], a10 = a[aOffset + 10], a11 = a[aOffset + 11];
+		float a12 = a[aOffset + 12], a13 = a[aOffset + 13], a14 = a[aOffset + 14], a15 = a[aOffset + 15];
+
+		float b0 = b[bOffset], b1 = b[bOffset + 1], b2 = b[bOffset + 2], b3 = b[bOffset + 3];
+		float b4 = b[bOffset + 4], b5 = b[bOffset + 5], b6 = b[bOffset + 6], b7 = b[bOffset + 7];
+		float b8 = b[bOffset + 8], b9 = b[bOffset + 9], b10 = b[bOffset + 10], b11 = b[bOffset + 11];
+		float b12 = b[bOffset + 12], b13 = b[bOffset + 13], b14 = b[bOffset + 14], b15 = b[bOffset + 15];
+
+		multiplyKernel(a0, a1, a2, a3, a4, a5, a6, a7, a8, a9, a10, a11, a12, a13, a14, a15,
+				b0, b1, b2, b3, b4, b5, b6, b7, b8, b9, b10, b11, b12, b13, b14, b15, dest, destOffset);
+	}
+
+	// a.multiply(b) for two matrices already loaded into locals, which lets the batch methods hoist one side out
+	// of their loops
+	private static void multiplyKernel(float a0, float a1, float a2, float a3, float a4, float a5, float a6, float a7,
+	                                   float a8, float a9, float a10, float a11, float a12, float a13, float a14, float a15,
+	                                   float b0, float b1, float b2, float b3, float b4, float b5, float b6, float b7,
+	                                   float b8, float b9, float b10, float b11, float b12, float b13, float b14, float b15,
+	                                   float[] dest, int d) {
+		dest[d] = a0 * b0 + a4 * b1 + a8 * b2 + a12 * b3;
+		dest[d + 1] = a1 * b0 + a5 * b1 + a9 * b2 + a13 * b3;
+		dest[d + 2] = a2 * b0 + a6 * b1 + a10 * b2 + a14 * b3;
+		dest[d + 3] = a3 * b0 + a7 * b1 + a11 * b2 + a15 * b3;
+
+		dest[d + 4] = a0 * b4 + a4 * b5 + a8 * b6 + a12 * b7;
+		dest[d + 5] = a1 * b4 + a5 * b5 + a9 * b6 + a13 * b7;
+		dest[d + 6] = a2 * b4 + a6 * b5 + a10 * b6 + a14 * b7;
+		dest[d + 7] = a3 * b4 + a7 * b5 + a11 * b6 + a15 * b7;
+
+		dest[d + 8] = a0 * b8 + a4 * b9 + a8 * b10 + a12 * b11;
+		dest[d + 9] = a1 * b8 + a5 * b9 + a9 * b10 + a13 * b11;
+		dest[d + 10] = a2 * b8 + a6 * b9 + a10 * b10 + a14 * b11;
+		dest[d + 11] = a3 * b8 + a7 * b9 + a11 * b10 + a15 * b11;
+
+		dest[d + 12] = a0 * b12 + a4 * b13 + a8 * b14 + a12 * b15;
+		dest[d + 13] = a1 * b12 + a5 * b13 + a9 * b14 + a13 * b15;
+		dest[d + 14] = a2 * b12 + a6 * b13 + a10 * b14 + a14 * b15;
+		dest[d + 15] = a3 * b12 + a7 * b13 + a11 * b14 + a15 * b15;
+	}
+
+	/**
+	 * Multiplies count pairs of matrices, each stored as 16 contiguous floats: matrix i of dest is matrix i of a
+	 * multiplied by matrix i of b, as in {@link #multiply(Matrix4f)}.
+	 */
+	public static void multiply(float[] a, int aOffset, float[] b, int bOffset, float[] dest, int destOffset, int count) {
+		BulkMath.multiplyMatrices(a, aOffset, b, bOffset, dest, destOffset, count);
+	}
+
+	/**
+	 * Multiplies one matrix by count matrices stored as 16 contiguous floats each: matrix i of dest is
+	 * a.multiply(matrix i of b). a is only read once, and each b is read before its result is written so dest may
+	 * alias b.
+	 */
+	public static void multiplyOneByMany(float[] a, int aOffset, float[] b, int bOffset, float[] dest, int destOffset, int count) {
+		Objects.checkFromIndexSize(aOffset, 16, a.length);
+		Objects.checkFromIndexSize(bOffset, count * 16, b.length);
+		Objects.checkFromIndexSize(destOffset, count * 16, dest.length);
+
+		float a0 = a[aOffset], a1 = a[aOffset + 1], a2 = a[aOffset + 2], a3 = a[aOffset + 3];
+		float a4 = a[aOffset + 4], a5 = a[aOffset + 5], a6 = a[aOffset + 6], a7 = a[aOffset + 7];
+		float a8 = a[aOffset + 8], a9 = a[aOffset + 9], a10 = a[aOffset + 10], a11 = a[aOffset + 11];
+		float a12 = a[aOffset + 12], a13 = a[aOffset + 13], a14 = a[aOffset + 14], a15 = a[aOffset + 15];
+
+		for (int i = 0; i < count; i++) {
+			int o = bOffset + i * 16;
+			int d = destOffset + i * 16;
+
+			float b0 = b[o], b1 = b[o + 1], b2 = b[o + 2], b3 = b[o + 3];
+			float b4 = b[o + 4], b5 = b[o + 5], b6 = b[o + 6], b7 = b[o + 7];
+			float b8 = b[o + 8], b9 = b[o + 9], b10 = b[o + 10], b11 = b[o + 11];
+			float b12 = b[o + 12], b13 = b[o + 13], b14 = b[o + 14], b15 = b[o + 15];
+
+			multiplyKernel(a0, a1, a2, a3, a4, a5, a6, a7, a8, a9, a10, a11, a12, a13, a14, a15,
+					b0, b1, b2, b3, b4, b5, b6, b7, b8, b9, b10, b11, b12, b13, b14, b15, dest, d);
 		}
+	}
 
-		return new Matrix4f(newElements);
-
+	/**
+	 * Multiplies count matrices stored as 16 contiguous floats each by one matrix: matrix i of dest is
+	 * (matrix i of a).multiply(b). b is only read once, and each a is read before its result is written so dest may
+	 * alias a.
+	 */
+	public static void multiplyManyByOne(float[] a, int aOffset, float[] b, int bOffset, float[] dest, int destOffset, int count) {
+		Objects.checkFromIndexSize(aOffset, count * 16, a.length);
+		Objects.checkFromIndexSize(bOffset, 16, b.length);
+		Objects.checkFromIndexSize(destOffset, count * 16, dest.length);
+
+		float b0 = b[bOffset], b1 = b[bOffset + 1], b2 = b[bOffset + 2], b3 = b[bOffset + 3];
+		float b4 = b[bOffset + 4], b5 = b[bOffset + 5], b6 = b[bOffset + 6], b7 = b[bOffset + 7];
+		float b8 = b[bOffset + 8], b9 = b[bOffset + 9], b10 = b[bOffset + 10], b11 = b[bOffset + 11];
+		float b12 = b[bOffset + 12], b13 = b[bOffset + 13], b14 = b[bOffset + 14], b15 = b[bOffset + 15];
+
+		for (int i = 0; i < count; i++) {
+			int o = aOffset + i * 16;
+			int d = destOffset + i * 16;
+
+			float a0 = a[o], a1 = a[o + 1], a2 = a[o + 2], a3 = a[o + 3];
+			float a4 = a[o + 4], a5 = a[o + 5], a6 = a[o + 6], a7 = a[o + 7];
+			float a8 = a[o + 8], a9 = a[o + 9], a10 = a[o + 10], a11 = a[o + 11];
+			float a12 = a[o + 12], a13 = a[o + 13], a14 = a[o + 14], a15 = a[o + 15];
+
+			multiplyKernel(a0, a1, a2, a3, a4, a5, a6, a7, a8, a9, a10, a11, a12, a13, a14, a15,
+					b0, b1, b2, b3, b4, b5, b6, b7, b8, b9, b10, b11, b12, b13, b14, b15, dest, d);
+		}
 	}
 
 	public Vec3f multiply(Vec3f vec) {
@@ -110,6 +359,24 @@ public class Matrix4f {
 		);
 	}
 
+	/**
+	 * Transforms a point, writing x, y and z into dest starting at offset, without allocating.
+	 *
+	 * @param vec point to transform
+	 * @param dest destination array, needs 3 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] multiply(Vec3f vec, float[] dest, int offset) {
+		float x = vec.getX();
+		float y = vec.getY();
+		float z = vec.getZ();
+		dest[offset] = (x * this.elements[0]) + (y * this.elements[1]) + (z * this.elements[2]) + this.elements[3];
+		dest[offset + 1] = (x * this.elements[4]) + (y * this.elements[5]) + (z * this.elements[6]) + this.elements[7];
+		dest[offset + 2] = (x * this.elements[8]) + (y * this.elements[9]) + (z * this.elements[10] + this.elements[11]);
+		return dest;
+	}
+
 	public Matrix4f(float... elements) {
 		assert elements.length == 16;
 		this.elements = elements;
@@ -145,9 +412,65 @@ public class Matrix4f {
 	}
 
 	public static Matrix4f Transform(Vec3f pos, Matrix4f rot, Vec3f scale) {
-		Matrix4f translation = Translation(pos);
-		Matrix4f scaleMatrix = Scale(scale);
-		return scaleMatrix.multiply(rot).multiply(translation);
+		return new Matrix4f(Transform(pos, rot, scale, new float[16], 0));
+	}
+
+	/**
+	 * Same result as {@link #Transform(Vec3f, Matrix4f, Vec3f)} in a matrix taken from arena, valid until the arena
+	 * is reset.
+	 */
+	public static Matrix4f Transform(Vec3f pos, Matrix4f rot, Vec3f scale, FrameArena arena) {
+		Matrix4f matrix = arena.matrix4f();
+		Transform(pos, rot, scale, matrix.elements, 0);
+		return matrix;
+	}
+
+	/**
+	 * Same result as {@link #Transform(Vec3f, Matrix4f, Vec3f)} but written straight into dest starting at offset,
+	 * without building the intermediate translation and scale matrices.
+	 *
+	 * @param pos translation
+	 * @param rot rotation matrix
+	 * @param scale scale along each axis
+	 * @param dest destination array, needs 16 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public static float[] Transform(Vec3f pos, Matrix4f rot, Vec3f scale, float[] dest, int offset) {
+
+		float[] r = rot.elements;
+		float sx = scale.getX();
+		float sy = scale.getY();
+		float sz = scale.getZ();
+
+		// bottom row of rotation * scale, needed to apply the translation
+		float m12 = r[12] * sx;
+		float m13 = r[13] * sy;
+		float m14 = r[14] * sz;
+		float m15 = r[15];
+
+		float tx = pos.getX();
+		float ty = pos.getY();
+		float tz = pos.getZ();
+
+		dest[offset] = r[0] * sx + tx * m12;
+		dest[offset + 1] = r[1] * sy + tx * m13;
+		dest[offset + 2] = r[2] * sz + tx * m14;
+		dest[offset + 3] = r[3] + tx * m15;
+		dest[offset + 4] = r[4] * sx + ty * m12;
+		dest[offset + 5] = r[5] * sy + ty * m13;
+		dest[offset + 6] = r[6] * sz + ty * m14;
+		dest[offset + 7] = r[7] + ty * m15;
+		dest[offset + 8] = r[8] * sx + tz * m12;
+		dest[offset + 9] = r[9] * sy + tz * m13;
+		dest[offset + 10] = r[10] * sz + tz * m14;
+		dest[offset + 11] = r[11] + tz * m15;
+		dest[offset + 12] = m12;
+		dest[offset + 13] = m13;
+		dest[offset + 14] = m14;
+		dest[offset + 15] = m15;
+
+		return dest;
 	}
 
 	public static Matrix4f InverseTransformation(Vec3f pos, Matrix4f rot, Vec3f scale) {
@@ -215,6 +538,24 @@ public class Matrix4f {
 		);
 	}
 
+	/**
+	 * Rotates a direction, writing x, y and z into dest starting at offset, without allocating.
+	 *
+	 * @param vec direction to rotate
+	 * @param dest destination array, needs 3 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] rotate(Vec3f vec, float[] dest, int offset) {
+		float x = vec.getX();
+		float y = vec.getY();
+		float z = vec.getZ();
+		dest[offset] = (x * this.elements[0]) + (y * this.elements[1]) + (z * this.elements[2]);
+		dest[offset + 1] = (x * this.elements[4]) + (y * this.elements[5]) + (z * this.elements[6]);
+		dest[offset + 2] = (x * this.elements[8]) + (y * this.elements[9]) + (z * this.elements[10]);
+		return dest;
+	}
+
 	public static Matrix4f View(Vec3f pos, Vec3f rot) {
 
 		Matrix4f translation = Translation(pos.neg());
@@ -289,16 +630,25 @@ public class Matrix4f {
 	}
 
 	public Matrix4f transpose() {
+		return new Matrix4f(transpose(new float[16], 0));
+	}
 
-		float[] newElements = new float[16];
+	/**
+	 * Transpose written into dest starting at offset, without allocating. dest must not be this matrix's values.
+	 *
+	 * @param dest destination array, needs 16 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] transpose(float[] dest, int offset) {
 
 		for (int i = 0; i < SIZE; i++) {
 			for (int j = 0; j < SIZE; j++) {
-				newElements[j * SIZE + i] = this.getValues()[i * SIZE + j];
+				dest[offset + j * SIZE + i] = this.elements[i * SIZE + j];
 			}
 		}
 
-		return new Matrix4f(newElements);
+		return dest;
 	}
 
 	public Vec3f getXVec() {
@@ -324,42 +674,194 @@ public class Matrix4f {
 		return new Matrix4d(newElems);
 	}
 
-	// only works for affine transformations
-	public Matrix4f invert() {
+	/**
+	 * Determinant by cofactor expansion over 2x2 sub determinants.
+	 */
+	public float det() {
+		return (float) det(elements, 0);
+	}
 
-		// get inverse of rotation part (1/transpose)
-		float[] inverseRotation = new float[] {
-				get(0, 0), get(0, 1), get(0, 2),
-				get(1, 0), get(1, 1), get(1, 2),
-				get(2, 0), get(2, 1), get(2, 2)
-		};
+	/**
+	 * Determinant of the matrix stored as 16 contiguous floats from offset o.
+	 */
+	public static double det(float[] m, int o) {
 
-		// get inverse of translation parts (-ve)
-		float x = -get(3, 0);
-		float y = -get(3, 1);
-		float z = -get(3, 2);
-		float[] translationInverse = new float[] {
-				(x * inverseRotation[0]) + (y * inverseRotation[1]) + (z * inverseRotation[2]),
-				(x * inverseRotation[3]) + (y * inverseRotation[4]) + (z * inverseRotation[5]),
-				(x * inverseRotation[6]) + (y * inverseRotation[7]) + (z * inverseRotation[8])
-		};
+		double a00 = m[o], a01 = m[o + 1], a02 = m[o + 2], a03 = m[o + 3];
+		double a10 = m[o + 4], a11 = m[o + 5], a12 = m[o + 6], a13 = m[o + 7];
+		double a20 = m[o + 8], a21 = m[o + 9], a22 = m[o + 10], a23 = m[o + 11];
+		double a30 = m[o + 12], a31 = m[o + 13], a32 = m[o + 14], a33 = m[o + 15];
 
-		float[] inverse = new float[] {
-				inverseRotation[0], inverseRotation[1], inverseRotation[2], translationInverse[0],
-				inverseRotation[3], inverseRotation[4], inverseRotation[5], translationInverse[1],
-				inverseRotation[6], inverseRotation[7], inverseRotation[8], translationInverse[2],
-				0, 0, 0, 1
-		};
+		double s0 = a00 * a11 - a01 * a10;
+		double s1 = a00 * a12 - a02 * a10;
+		double s2 = a00 * a13 - a03 * a10;
+		double s3 = a01 * a12 - a02 * a11;
+		double s4 = a01 * a13 - a03 * a11;
+		double s5 = a02 * a13 - a03 * a12;
+
+		double c0 = a20 * a31 - a21 * a30;
+		double c1 = a20 * a32 - a22 * a30;
+		double c2 = a20 * a33 - a23 * a30;
+		double c3 = a21 * a32 - a22 * a31;
+		double c4 = a21 * a33 - a23 * a31;
+		double c5 = a22 * a33 - a23 * a32;
 
+		return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+	}
+
+	/**
+	 * Cheap check for a zero determinant, true when {@link #invert()} would succeed.
+	 */
+	public boolean isInvertible() {
+		double det = det(elements, 0);
+		return det != 0 && Double.isFinite(1 / det);
+	}
+
+	/**
+	 * General inverse, valid for any invertible matrix including projections. Matrices whose bottom row is
+	 * 0, 0, 0, 1 take the cheaper {@link #invertAffine()} path.
+	 *
+	 * @throws ArithmeticException if the matrix is singular
+	 */
+	public Matrix4f invert() {
+		float[] inverse = new float[16];
+		boolean invertible = isAffine()
+				? invertAffine(elements, 0, inverse, 0)
+				: invert(elements, 0, inverse, 0);
+		if (!invertible) {
+			throw new ArithmeticException("Matrix is singular");
+		}
 		return new Matrix4f(inverse);
 	}
 
-	private float invertDigit(float s) {
-		if (s == 0) {
-			return 0;
-		} else {
-			return 1/s;
+	/**
+	 * Inverse of a matrix whose bottom row is 0, 0, 0, 1, allowing any rotation, non uniform scale and shear in the
+	 * top left 3x3. The bottom row is not read.
+	 *
+	 * @throws ArithmeticException if the matrix is singular
+	 */
+	public Matrix4f invertAffine() {
+		float[] inverse = new float[16];
+		if (!invertAffine(elements, 0, inverse, 0)) {
+			throw new ArithmeticException("Matrix is singular");
 		}
+		return new Matrix4f(inverse);
+	}
+
+	/**
+	 * General 4x4 inverse of 16 contiguous floats by cofactors (Cramer's rule). Worked in double precision. Every input is read before
+	 * anything is written, so dest may alias m.
+	 *
+	 * @return false, leaving dest untouched, if the matrix is singular
+	 */
+	public static boolean invert(float[] m, int o, float[] dest, int d) {
+
+		double a00 = m[o], a01 = m[o + 1], a02 = m[o + 2], a03 = m[o + 3];
+		double a10 = m[o + 4], a11 = m[o + 5], a12 = m[o + 6], a13 = m[o + 7];
+		double a20 = m[o + 8], a21 = m[o + 9], a22 = m[o + 10], a23 = m[o + 11];
+		double a30 = m[o + 12], a31 = m[o + 13], a32 = m[o + 14], a33 = m[o + 15];
+
+		double s0 = a00 * a11 - a01 * a10;
+		double s1 = a00 * a12 - a02 * a10;
+		double s2 = a00 * a13 - a03 * a10;
+		double s3 = a01 * a12 - a02 * a11;
+		double s4 = a01 * a13 - a03 * a11;
+		double s5 = a02 * a13 - a03 * a12;
+
+		double c0 = a20 * a31 - a21 * a30;
+		double c1 = a20 * a32 - a22 * a30;
+		double c2 = a20 * a33 - a23 * a30;
+		double c3 = a21 * a32 - a22 * a31;
+		double c4 = a21 * a33 - a23 * a31;
+		double c5 = a22 * a33 - a23 * a32;
+
+		double det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+		double invDet = 1 / det;
+		if (det == 0 || !Double.isFinite(invDet)) {
+			return false;
+		}
+
+		dest[d] = (float) ((a11 * c5 - a12 * c4 + a13 * c3) * invDet);
+		dest[d + 1] = (float) ((-a01 * c5 + a02 * c4 - a03 * c3) * invDet);
+		dest[d + 2] = (float) ((a31 * s5 - a32 * s4 + a33 * s3) * invDet);
+		dest[d + 3] = (float) ((-a21 * s5 + a22 * s4 - a23 * s3) * invDet);
+
+		dest[d + 4] = (float) ((-a10 * c5 + a12 * c2 - a13 * c1) * invDet);
+		dest[d + 5] = (float) ((a00 * c5 - a02 * c2 + a03 * c1) * invDet);
+		dest[d + 6] = (float) ((-a30 * s5 + a32 * s2 - a33 * s1) * invDet);
+		dest[d + 7] = (float) ((a20 * s5 - a22 * s2 + a23 * s1) * invDet);
+
+		dest[d + 8] = (float) ((a10 * c4 - a11 * c2 + a13 * c0) * invDet);
+		dest[d + 9] = (float) ((-a00 * c4 + a01 * c2 - a03 * c0) * invDet);
+		dest[d + 10] = (float) ((a30 * s4 - a31 * s2 + a33 * s0) * invDet);
+		dest[d + 11] = (float) ((-a20 * s4 + a21 * s2 - a23 * s0) * invDet);
+
+		dest[d + 12] = (float) ((-a10 * c3 + a11 * c1 - a12 * c0) * invDet);
+		dest[d + 13] = (float) ((a00 * c3 - a01 * c1 + a02 * c0) * invDet);
+		dest[d + 14] = (float) ((-a30 * s3 + a31 * s1 - a32 * s0) * invDet);
+		dest[d + 15] = (float) ((a20 * s3 - a21 * s1 + a22 * s0) * invDet);
+		return true;
+	}
+
+	/**
+	 * Inverse of an affine matrix stored as 16 contiguous floats, inverting the top left 3x3 by cofactors and
+	 * applying it to the negated translation. Worked in double precision. The bottom row is not read and is written as 0, 0, 0, 1. dest may
+	 * alias m.
+	 *
+	 * @return false, leaving dest untouched, if the 3x3 part is singular
+	 */
+	public static boolean invertAffine(float[] m, int o, float[] dest, int d) {
+
+		double a00 = m[o], a01 = m[o + 1], a02 = m[o + 2], a03 = m[o + 3];
+		double a10 = m[o + 4], a11 = m[o + 5], a12 = m[o + 6], a13 = m[o + 7];
+		double a20 = m[o + 8], a21 = m[o + 9], a22 = m[o + 10], a23 = m[o + 11];
+
+		double i00 = a11 * a22 - a12 * a21;
+		double i01 = a02 * a21 - a01 * a22;
+		double i02 = a01 * a12 - a02 * a11;
+		double i10 = a12 * a20 - a10 * a22;
+		double i11 = a00 * a22 - a02 * a20;
+		double i12 = a02 * a10 - a00 * a12;
+		double i20 = a10 * a21 - a11 * a20;
+		double i21 = a01 * a20 - a00 * a21;
+		double i22 = a00 * a11 - a01 * a10;
+
+		double det = a00 * i00 + a01 * i10 + a02 * i20;
+		double invDet = 1 / det;
+		if (det == 0 || !Double.isFinite(invDet)) {
+			return false;
+		}
+
+		i00 *= invDet;
+		i01 *= invDet;
+		i02 *= invDet;
+		i10 *= invDet;
+		i11 *= invDet;
+		i12 *= invDet;
+		i20 *= invDet;
+		i21 *= invDet;
+		i22 *= invDet;
+
+		dest[d] = (float) i00;
+		dest[d + 1] = (float) i01;
+		dest[d + 2] = (float) i02;
+		dest[d + 3] = (float) -(i00 * a03 + i01 * a13 + i02 * a23);
+		dest[d + 4] = (float) i10;
+		dest[d + 5] = (float) i11;
+		dest[d + 6] = (float) i12;
+		dest[d + 7] = (float) -(i10 * a03 + i11 * a13 + i12 * a23);
+		dest[d + 8] = (float) i20;
+		dest[d + 9] = (float) i21;
+		dest[d + 10] = (float) i22;
+		dest[d + 11] = (float) -(i20 * a03 + i21 * a13 + i22 * a23);
+		dest[d + 12] = 0;
+		dest[d + 13] = 0;
+		dest[d + 14] = 0;
+		dest[d + 15] = 1;
+		return true;
+	}
+
+	private boolean isAffine() {
+		return elements[12] == 0 && elements[13] == 0 && elements[14] == 0 && elements[15] == 1;
 	}
 
 	public Vec3f getTranslation() {
@@ -383,11 +885,23 @@ public class Matrix4f {
 	}
 
 	public Matrix4f scale(float s) {
-		return new Matrix4f(
-				get(0,0) * s, get(1,0) * s, get(2,0) * s, get(3,0) * s,
-				get(0,1) * s, get(1,1) * s, get(2,1) * s, get(3,1) * s,
-				get(0,2) * s, get(1,2) * s, get(2,2) * s, get(3,2) * s,
-				get(0,3) * s, get(1,3) * s, get(2,3) * s, get(3,3) * s
-		);
+		return new Matrix4f(scale(s, new float[16], 0));
+	}
+
+	/**
+	 * Scales every element, writing into dest starting at offset, without allocating.
+	 *
+	 * @param s scale
+	 * @param dest destination array, needs 16 floats from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] scale(float s, float[] dest, int offset) {
+
+		for (int i = 0; i < 16; i++) {
+			dest[offset + i] = this.elements[i] * s;
+		}
+
+		return dest;
 	}
 }
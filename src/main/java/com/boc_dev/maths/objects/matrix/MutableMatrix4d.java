@@ -0,0 +1,222 @@
+package com.boc_dev.maths.objects.matrix;
+
+import com.boc_dev.maths.objects.QuaternionD;
+import com.boc_dev.maths.objects.vector.MutableVec3d;
+import com.boc_dev.maths.objects.vector.Vec3d;
+
+import java.util.Arrays;
+
+/**
+ * Mutable counterpart of {@link Matrix4d}, using the same row major layout. Methods ending in Local update this
+ * matrix in place and return it, so calls can be chained without allocating, e.g.
+ * m.mulLocal(other).translateLocal(v).
+ *
+ * Local operations follow the ordering of {@link Matrix4d#multiply(Matrix4d)}: m.mulLocal(other) gives the same
+ * result as m.multiply(other), and m.translateLocal(v) the same as m.multiply(Matrix4d.Translation(v)).
+ */
+public class MutableMatrix4d {
+
+	public static final int SIZE = 4;
+	private final double[] elements = new double[16];
+	// rotation matrix for rotateLocal(QuaternionD), allocated on first use
+	private double[] rotationScratch;
+
+	/**
+	 * Creates an identity matrix.
+	 */
+	public MutableMatrix4d() {
+		setIdentity();
+	}
+
+	public MutableMatrix4d(Matrix4d matrix) {
+		set(matrix);
+	}
+
+	public MutableMatrix4d setIdentity() {
+		Arrays.fill(elements, 0.0);
+		elements[0] = 1.0;
+		elements[5] = 1.0;
+		elements[10] = 1.0;
+		elements[15] = 1.0;
+		return this;
+	}
+
+	public MutableMatrix4d set(Matrix4d matrix) {
+		return set(matrix.getValues(), 0);
+	}
+
+	public MutableMatrix4d set(MutableMatrix4d matrix) {
+		return set(matrix.elements, 0);
+	}
+
+	/**
+	 * Reads 16 values starting at offset.
+	 */
+	public MutableMatrix4d set(double[] values, int offset) {
+		System.arraycopy(values, offset, elements, 0, 16);
+		return this;
+	}
+
+	public double get(int x, int y) {
+		return elements[y * SIZE + x];
+	}
+
+	/**
+	 * Backing array, shared with this matrix.
+	 */
+	public double[] getValues() {
+		return elements;
+	}
+
+	public Matrix4d toMatrix4d() {
+		return new Matrix4d(elements.clone());
+	}
+
+	public MutableMatrix4d mulLocal(Matrix4d matrix) {
+		Matrix4d.multiply(elements, 0, matrix.getValues(), 0, elements, 0);
+		return this;
+	}
+
+	public MutableMatrix4d mulLocal(MutableMatrix4d matrix) {
+		Matrix4d.multiply(elements, 0, matrix.elements, 0, elements, 0);
+		return this;
+	}
+
+	public MutableMatrix4d addLocal(Matrix4d matrix) {
+		double[] other = matrix.getValues();
+		for (int i = 0; i < 16; i++) {
+			elements[i] += other[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Same as multiply(Matrix4d.Translation(new Vec3d(x, y, z))).
+	 */
+	public MutableMatrix4d translateLocal(double x, double y, double z) {
+		double m12 = elements[12], m13 = elements[13], m14 = elements[14], m15 = elements[15];
+		elements[0] += x * m12;
+		elements[1] += x * m13;
+		elements[2] += x * m14;
+		elements[3] += x * m15;
+		elements[4] += y * m12;
+		elements[5] += y * m13;
+		elements[6] += y * m14;
+		elements[7] += y * m15;
+		elements[8] += z * m12;
+		elements[9] += z * m13;
+		elements[10] += z * m14;
+		elements[11] += z * m15;
+		return this;
+	}
+
+	public MutableMatrix4d translateLocal(Vec3d vec) {
+		return translateLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public MutableMatrix4d translateLocal(MutableVec3d vec) {
+		return translateLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	/**
+	 * Same as multiply(Matrix4d.Scale(new Vec3d(x, y, z))).
+	 */
+	public MutableMatrix4d scaleLocal(double x, double y, double z) {
+		for (int i = 0; i < SIZE; i++) {
+			elements[i] *= x;
+			elements[4 + i] *= y;
+			elements[8 + i] *= z;
+		}
+		return this;
+	}
+
+	public MutableMatrix4d scaleLocal(Vec3d vec) {
+		return scaleLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	/**
+	 * Same as multiply(Matrix4d.Rotation(angle, axis)).
+	 *
+	 * @param angle in degrees
+	 * @param axis unit axis of rotation
+	 */
+	public MutableMatrix4d rotateLocal(double angle, Vec3d axis) {
+
+		double cos = Math.cos(Math.toRadians(angle));
+		double sin = Math.sin(Math.toRadians(angle));
+		double C = 1 - cos;
+		double x = axis.getX();
+		double y = axis.getY();
+		double z = axis.getZ();
+
+		return rotateLocal(
+				cos + x * x * C, y * x * C + z * sin, z * x * C - y * sin,
+				x * y * C - z * sin, cos + y * y * C, z * y * C + x * sin,
+				x * z * C + y * sin, y * z * C - x * sin, cos + z * z * C
+		);
+	}
+
+	/**
+	 * Same as multiply(rotation.toMatrix()).
+	 */
+	public MutableMatrix4d rotateLocal(QuaternionD rotation) {
+		if (rotationScratch == null) {
+			rotationScratch = new double[16];
+		}
+		double[] r = QuaternionD.toMatrix(rotation.getS(), rotation.getI(), rotation.getJ(), rotation.getK(), rotationScratch, 0);
+		return rotateLocal(r[0], r[1], r[2], r[4], r[5], r[6], r[8], r[9], r[10]);
+	}
+
+	// applies a pure 3x3 rotation given in row major order, the bottom row is unaffected
+	private MutableMatrix4d rotateLocal(double r00, double r01, double r02,
+	                                    double r10, double r11, double r12,
+	                                    double r20, double r21, double r22) {
+		for (int col = 0; col < SIZE; col++) {
+			double m0 = elements[col];
+			double m1 = elements[4 + col];
+			double m2 = elements[8 + col];
+			elements[col] = r00 * m0 + r01 * m1 + r02 * m2;
+			elements[4 + col] = r10 * m0 + r11 * m1 + r12 * m2;
+			elements[8 + col] = r20 * m0 + r21 * m1 + r22 * m2;
+		}
+		return this;
+	}
+
+	public MutableMatrix4d transposeLocal() {
+		for (int i = 0; i < SIZE; i++) {
+			for (int j = i + 1; j < SIZE; j++) {
+				double temp = elements[i * SIZE + j];
+				elements[i * SIZE + j] = elements[j * SIZE + i];
+				elements[j * SIZE + i] = temp;
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Transforms vec in place, as {@link Matrix4d#multiply(Vec3d)}.
+	 *
+	 * @return vec
+	 */
+	public MutableVec3d transform(MutableVec3d vec) {
+		return vec.transformLocal(this);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		MutableMatrix4d that = (MutableMatrix4d) o;
+		return Arrays.equals(elements, that.elements);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(elements);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(elements);
+	}
+}
@@ -0,0 +1,222 @@
+package com.boc_dev.maths.objects.matrix;
+
+import com.boc_dev.maths.objects.QuaternionF;
+import com.boc_dev.maths.objects.vector.MutableVec3f;
+import com.boc_dev.maths.objects.vector.Vec3f;
+
+import java.util.Arrays;
+
+/**
+ * Mutable counterpart of {@link Matrix4f}, using the same row major layout. Methods ending in Local update this
+ * matrix in place and return it, so calls can be chained without allocating, e.g.
+ * m.mulLocal(other).translateLocal(v).
+ *
+ * Local operations follow the ordering of {@link Matrix4f#multiply(Matrix4f)}: m.mulLocal(other) gives the same
+ * result as m.multiply(other), and m.translateLocal(v) the same as m.multiply(Matrix4f.Translation(v)).
+ */
+public class MutableMatrix4f {
+
+	public static final int SIZE = 4;
+	private final float[] elements = new float[16];
+	// rotation matrix for rotateLocal(QuaternionF), allocated on first use
+	private float[] rotationScratch;
+
+	/**
+	 * Creates an identity matrix.
+	 */
+	public MutableMatrix4f() {
+		setIdentity();
+	}
+
+	public MutableMatrix4f(Matrix4f matrix) {
+		set(matrix);
+	}
+
+	public MutableMatrix4f setIdentity() {
+		Arrays.fill(elements, 0.0f);
+		elements[0] = 1.0f;
+		elements[5] = 1.0f;
+		elements[10] = 1.0f;
+		elements[15] = 1.0f;
+		return this;
+	}
+
+	public MutableMatrix4f set(Matrix4f matrix) {
+		return set(matrix.getValues(), 0);
+	}
+
+	public MutableMatrix4f set(MutableMatrix4f matrix) {
+		return set(matrix.elements, 0);
+	}
+
+	/**
+	 * Reads 16 values starting at offset.
+	 */
+	public MutableMatrix4f set(float[] values, int offset) {
+		System.arraycopy(values, offset, elements, 0, 16);
+		return this;
+	}
+
+	public float get(int x, int y) {
+		return elements[y * SIZE + x];
+	}
+
+	/**
+	 * Backing array, shared with this matrix.
+	 */
+	public float[] getValues() {
+		return elements;
+	}
+
+	public Matrix4f toMatrix4f() {
+		return new Matrix4f(elements.clone());
+	}
+
+	public MutableMatrix4f mulLocal(Matrix4f matrix) {
+		Matrix4f.multiply(elements, 0, matrix.getValues(), 0, elements, 0);
+		return this;
+	}
+
+	public MutableMatrix4f mulLocal(MutableMatrix4f matrix) {
+		Matrix4f.multiply(elements, 0, matrix.elements, 0, elements, 0);
+		return this;
+	}
+
+	public MutableMatrix4f addLocal(Matrix4f matrix) {
+		float[] other = matrix.getValues();
+		for (int i = 0; i < 16; i++) {
+			elements[i] += other[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Same as multiply(Matrix4f.Translation(new Vec3f(x, y, z))).
+	 */
+	public MutableMatrix4f translateLocal(float x, float y, float z) {
+		float m12 = elements[12], m13 = elements[13], m14 = elements[14], m15 = elements[15];
+		elements[0] += x * m12;
+		elements[1] += x * m13;
+		elements[2] += x * m14;
+		elements[3] += x * m15;
+		elements[4] += y * m12;
+		elements[5] += y * m13;
+		elements[6] += y * m14;
+		elements[7] += y * m15;
+		elements[8] += z * m12;
+		elements[9] += z * m13;
+		elements[10] += z * m14;
+		elements[11] += z * m15;
+		return this;
+	}
+
+	public MutableMatrix4f translateLocal(Vec3f vec) {
+		return translateLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public MutableMatrix4f translateLocal(MutableVec3f vec) {
+		return translateLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	/**
+	 * Same as multiply(Matrix4f.Scale(new Vec3f(x, y, z))).
+	 */
+	public MutableMatrix4f scaleLocal(float x, float y, float z) {
+		for (int i = 0; i < SIZE; i++) {
+			elements[i] *= x;
+			elements[4 + i] *= y;
+			elements[8 + i] *= z;
+		}
+		return this;
+	}
+
+	public MutableMatrix4f scaleLocal(Vec3f vec) {
+		return scaleLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	/**
+	 * Same as multiply(Matrix4f.Rotation(angle, axis)).
+	 *
+	 * @param angle in degrees
+	 * @param axis unit axis of rotation
+	 */
+	public MutableMatrix4f rotateLocal(float angle, Vec3f axis) {
+
+		float cos = (float) Math.cos(Math.toRadians(angle));
+		float sin = (float) Math.sin(Math.toRadians(angle));
+		float C = 1 - cos;
+		float x = axis.getX();
+		float y = axis.getY();
+		float z = axis.getZ();
+
+		return rotateLocal(
+				cos + x * x * C, y * x * C + z * sin, z * x * C - y * sin,
+				x * y * C - z * sin, cos + y * y * C, z * y * C + x * sin,
+				x * z * C + y * sin, y * z * C - x * sin, cos + z * z * C
+		);
+	}
+
+	/**
+	 * Same as multiply(rotation.toMatrix()).
+	 */
+	public MutableMatrix4f rotateLocal(QuaternionF rotation) {
+		if (rotationScratch == null) {
+			rotationScratch = new float[16];
+		}
+		float[] r = QuaternionF.toMatrix(rotation.getS(), rotation.getI(), rotation.getJ(), rotation.getK(), rotationScratch, 0);
+		return rotateLocal(r[0], r[1], r[2], r[4], r[5], r[6], r[8], r[9], r[10]);
+	}
+
+	// applies a pure 3x3 rotation given in row major order, the bottom row is unaffected
+	private MutableMatrix4f rotateLocal(float r00, float r01, float r02,
+	                                    float r10, float r11, float r12,
+	                                    float r20, float r21, float r22) {
+		for (int col = 0; col < SIZE; col++) {
+			float m0 = elements[col];
+			float m1 = elements[4 + col];
+			float m2 = elements[8 + col];
+			elements[col] = r00 * m0 + r01 * m1 + r02 * m2;
+			elements[4 + col] = r10 * m0 + r11 * m1 + r12 * m2;
+			elements[8 + col] = r20 * m0 + r21 * m1 + r22 * m2;
+		}
+		return this;
+	}
+
+	public MutableMatrix4f transposeLocal() {
+		for (int i = 0; i < SIZE; i++) {
+			for (int j = i + 1; j < SIZE; j++) {
+				float temp = elements[i * SIZE + j];
+				elements[i * SIZE + j] = elements[j * SIZE + i];
+				elements[j * SIZE + i] = temp;
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Transforms vec in place, as {@link Matrix4f#multiply(Vec3f)}.
+	 *
+	 * @return vec
+	 */
+	public MutableVec3f transform(MutableVec3f vec) {
+		return vec.transformLocal(this);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		MutableMatrix4f that = (MutableMatrix4f) o;
+		return Arrays.equals(elements, that.elements);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(elements);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(elements);
+	}
+}
@@ -0,0 +1,243 @@
+package com.boc_dev.maths.objects.srt;
+
+import com.boc_dev.maths.objects.QuaternionF;
+import com.boc_dev.maths.objects.animation.Pose;
+import com.boc_dev.maths.objects.matrix.Matrix4f;
+import com.boc_dev.maths.objects.vector.Vec3f;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Scene graph of transforms, stored flat. Every node has a local scale, rotation and position, as {@link Transform},
+ * and a world matrix, the product of the local matrices from the root down to it.
+ *
+ * Nodes are indices into primitive arrays, and a parent always has a lower index than its children. {@link #update()}
+ * can therefore walk the arrays once in order: a node is recomputed when it or its parent is dirty, and the parent
+ * has already been handled by then. The walk starts at the lowest dirty node, and only the changed nodes and their
+ * descendants are recomputed.
+ *
+ * World matrices are kept in one contiguous array, 16 floats per node in the layout of {@link Matrix4f}, ready to
+ * upload to the GPU in one go.
+ */
+public class TransformHierarchy {
+
+	public static final int ROOT = -1;
+
+	private int size;
+	private int[] parents;
+	private float[] positions;
+	private float[] rotations;
+	private float[] scales;
+	private float[] worlds;
+	private boolean[] dirty;
+	// lowest dirty index, size when nothing is dirty
+	private int firstDirty;
+
+	private final float[] local = new float[16];
+
+	public TransformHierarchy() {
+		this(64);
+	}
+
+	/**
+	 * @param capacity nodes to allocate room for, the arrays grow past this as nodes are added
+	 */
+	public TransformHierarchy(int capacity) {
+		capacity = Math.max(1, capacity);
+		this.parents = new int[capacity];
+		this.positions = new float[capacity * 3];
+		this.rotations = new float[capacity * 4];
+		this.scales = new float[capacity * 3];
+		this.worlds = new float[capacity * 16];
+		this.dirty = new boolean[capacity];
+	}
+
+	/**
+	 * Adds a node under parent, or at the top level when parent is {@link #ROOT}.
+	 *
+	 * @return index of the new node
+	 */
+	public int add(int parent, Vec3f scale, QuaternionF rotation, Vec3f position) {
+		if (parent != ROOT) {
+			Objects.checkIndex(parent, size);
+		}
+		if (size == parents.length) {
+			int capacity = size * 2;
+			parents = Arrays.copyOf(parents, capacity);
+			positions = Arrays.copyOf(positions, capacity * 3);
+			rotations = Arrays.copyOf(rotations, capacity * 4);
+			scales = Arrays.copyOf(scales, capacity * 3);
+			worlds = Arrays.copyOf(worlds, capacity * 16);
+			dirty = Arrays.copyOf(dirty, capacity);
+		}
+		int node = size++;
+		parents[node] = parent;
+		setScale(node, scale);
+		setRotation(node, rotation);
+		setPosition(node, position);
+		return node;
+	}
+
+	public int add(int parent, Transform transform) {
+		return add(parent, transform.getScale(), transform.getRotation(), transform.getPosition());
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getParent(int node) {
+		Objects.checkIndex(node, size);
+		return parents[node];
+	}
+
+	/**
+	 * Moves node under parent, which must come before it so parents stay ahead of their children.
+	 */
+	public void setParent(int node, int parent) {
+		Objects.checkIndex(node, size);
+		if (parent != ROOT && (parent < 0 || parent >= node)) {
+			throw new IllegalArgumentException("Parent " + parent + " must come before node " + node);
+		}
+		parents[node] = parent;
+		markDirty(node);
+	}
+
+	public Vec3f getPosition(int node) {
+		Objects.checkIndex(node, size);
+		return new Vec3f(positions[node * 3], positions[node * 3 + 1], positions[node * 3 + 2]);
+	}
+
+	public void setPosition(int node, Vec3f position) {
+		Objects.checkIndex(node, size);
+		positions[node * 3] = position.getX();
+		positions[node * 3 + 1] = position.getY();
+		positions[node * 3 + 2] = position.getZ();
+		markDirty(node);
+	}
+
+	public QuaternionF getRotation(int node) {
+		Objects.checkIndex(node, size);
+		int i = node * 4;
+		return new QuaternionF(rotations[i], rotations[i + 1], rotations[i + 2], rotations[i + 3]);
+	}
+
+	public void setRotation(int node, QuaternionF rotation) {
+		Objects.checkIndex(node, size);
+		int i = node * 4;
+		rotations[i] = rotation.getS();
+		rotations[i + 1] = rotation.getI();
+		rotations[i + 2] = rotation.getJ();
+		rotations[i + 3] = rotation.getK();
+		markDirty(node);
+	}
+
+	public Vec3f getScale(int node) {
+		Objects.checkIndex(node, size);
+		return new Vec3f(scales[node * 3], scales[node * 3 + 1], scales[node * 3 + 2]);
+	}
+
+	public void setScale(int node, Vec3f scale) {
+		Objects.checkIndex(node, size);
+		scales[node * 3] = scale.getX();
+		scales[node * 3 + 1] = scale.getY();
+		scales[node * 3 + 2] = scale.getZ();
+		markDirty(node);
+	}
+
+	public void setLocal(int node, Transform transform) {
+		setScale(node, transform.getScale());
+		setRotation(node, transform.getRotation());
+		setPosition(node, transform.getPosition());
+	}
+
+	/**
+	 * Copies every joint of pose into the nodes from firstNode on, joint j into node firstNode + j, for skeletons
+	 * added as consecutive nodes.
+	 */
+	public void setPose(int firstNode, Pose pose) {
+		int joints = pose.getJointCount();
+		Objects.checkFromIndexSize(firstNode, joints, size);
+		System.arraycopy(pose.getTranslations(), 0, positions, firstNode * 3, joints * 3);
+		System.arraycopy(pose.getRotations(), 0, rotations, firstNode * 4, joints * 4);
+		System.arraycopy(pose.getScales(), 0, scales, firstNode * 3, joints * 3);
+		Arrays.fill(dirty, firstNode, firstNode + joints, true);
+		firstDirty = Math.min(firstDirty, firstNode);
+	}
+
+	public boolean isDirty(int node) {
+		Objects.checkIndex(node, size);
+		return dirty[node];
+	}
+
+	/**
+	 * Recomputes the world matrix of every dirty node and every node below one.
+	 *
+	 * @return number of world matrices recomputed
+	 */
+	public int update() {
+		int count = 0;
+		for (int node = firstDirty; node < size; node++) {
+			int parent = parents[node];
+			if (parent != ROOT && dirty[parent]) {
+				dirty[node] = true;
+			}
+			if (dirty[node]) {
+				writeLocal(node, local);
+				if (parent == ROOT) {
+					System.arraycopy(local, 0, worlds, node * 16, 16);
+				} else {
+					// parent world * local, a.multiply(b) being b * a
+					Matrix4f.multiply(local, 0, worlds, parent * 16, worlds, node * 16);
+				}
+				count++;
+			}
+		}
+		if (firstDirty < size) {
+			Arrays.fill(dirty, firstDirty, size, false);
+		}
+		firstDirty = size;
+		return count;
+	}
+
+	/**
+	 * World matrix of node, updating the hierarchy first if anything has changed.
+	 */
+	public Matrix4f getWorld(int node) {
+		Objects.checkIndex(node, size);
+		if (firstDirty <= node) {
+			update();
+		}
+		return new Matrix4f(Arrays.copyOfRange(worlds, node * 16, node * 16 + 16));
+	}
+
+	/**
+	 * Backing array of world matrices, 16 floats per node from index node * 16. Valid for every node after
+	 * {@link #update()}, and may be longer than 16 * size().
+	 */
+	public float[] getWorldMatrices() {
+		return worlds;
+	}
+
+	private void markDirty(int node) {
+		dirty[node] = true;
+		firstDirty = Math.min(firstDirty, node);
+	}
+
+	// same matrix as Matrix4f.Transform(position, rotation.toMatrix(), scale)
+	private void writeLocal(int node, float[] dest) {
+		int r = node * 4;
+		QuaternionF.toMatrix(rotations[r], rotations[r + 1], rotations[r + 2], rotations[r + 3], dest, 0);
+		int v = node * 3;
+		float sx = scales[v], sy = scales[v + 1], sz = scales[v + 2];
+		for (int row = 0; row < 12; row += 4) {
+			dest[row] *= sx;
+			dest[row + 1] *= sy;
+			dest[row + 2] *= sz;
+		}
+		dest[3] = positions[v];
+		dest[7] = positions[v + 1];
+		dest[11] = positions[v + 2];
+	}
+}
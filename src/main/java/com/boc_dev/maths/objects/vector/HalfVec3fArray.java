@@ -0,0 +1,107 @@
+package com.boc_dev.maths.objects.vector;
+
+import com.boc_dev.maths.utils.HalfFloat;
+
+import java.util.Objects;
+
+/**
+ * Vec3f array stored as half precision floats, 6 bytes per vector instead of 12. Each component keeps a relative
+ * error of at most 2^-11 while its magnitude is between about 6e-5 and 65504, see {@link HalfFloat}.
+ *
+ * Components are interleaved x, y, z in a single short array, which can be handed straight to a GPU as a half3
+ * vertex attribute.
+ */
+public class HalfVec3fArray {
+
+	private final short[] data;
+	private final int size;
+
+	public HalfVec3fArray(int size) {
+		this.data = new short[size * 3];
+		this.size = size;
+	}
+
+	public static HalfVec3fArray FromVecs(Vec3fArray vecs) {
+		HalfVec3fArray array = new HalfVec3fArray(vecs.size());
+		array.encode(vecs);
+		return array;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Backing array, interleaved x, y, z half bits.
+	 */
+	public short[] getData() {
+		return data;
+	}
+
+	public Vec3f get(int i) {
+		Objects.checkIndex(i, size);
+		int index = i * 3;
+		return new Vec3f(
+				HalfFloat.toFloat(data[index]),
+				HalfFloat.toFloat(data[index + 1]),
+				HalfFloat.toFloat(data[index + 2]));
+	}
+
+	public void set(int i, float x, float y, float z) {
+		Objects.checkIndex(i, size);
+		int index = i * 3;
+		data[index] = HalfFloat.toHalf(x);
+		data[index + 1] = HalfFloat.toHalf(y);
+		data[index + 2] = HalfFloat.toHalf(z);
+	}
+
+	public void set(int i, Vec3f vec) {
+		set(i, vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	/**
+	 * Encodes vecs from to to (exclusive) into the same indices of this array.
+	 */
+	public void encode(Vec3fArray vecs, int from, int to) {
+		Objects.checkFromToIndex(from, to, size);
+		Objects.checkFromToIndex(from, to, vecs.size());
+		float[] xs = vecs.getXs();
+		float[] ys = vecs.getYs();
+		float[] zs = vecs.getZs();
+		for (int i = from, index = from * 3; i < to; i++, index += 3) {
+			data[index] = HalfFloat.toHalf(xs[i]);
+			data[index + 1] = HalfFloat.toHalf(ys[i]);
+			data[index + 2] = HalfFloat.toHalf(zs[i]);
+		}
+	}
+
+	public void encode(Vec3fArray vecs) {
+		encode(vecs, 0, size);
+	}
+
+	/**
+	 * Decodes from to to (exclusive) into the same indices of dest.
+	 */
+	public void decode(Vec3fArray dest, int from, int to) {
+		Objects.checkFromToIndex(from, to, size);
+		Objects.checkFromToIndex(from, to, dest.size());
+		float[] xs = dest.getXs();
+		float[] ys = dest.getYs();
+		float[] zs = dest.getZs();
+		for (int i = from, index = from * 3; i < to; i++, index += 3) {
+			xs[i] = HalfFloat.toFloat(data[index]);
+			ys[i] = HalfFloat.toFloat(data[index + 1]);
+			zs[i] = HalfFloat.toFloat(data[index + 2]);
+		}
+	}
+
+	public void decode(Vec3fArray dest) {
+		decode(dest, 0, size);
+	}
+
+	public Vec3fArray toVec3fArray() {
+		Vec3fArray vecs = new Vec3fArray(size);
+		decode(vecs);
+		return vecs;
+	}
+}
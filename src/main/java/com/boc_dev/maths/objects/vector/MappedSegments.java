@@ -0,0 +1,129 @@
+package com.boc_dev.maths.objects.vector;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Headerless file of fixed size little endian records, mapped in segments of 2^segmentShift records as a single
+ * mapping is limited to 2GB. Shared by {@link MappedVec3fStore} and {@link MappedVec3dStore}, which only differ in
+ * the width of their components.
+ *
+ * Accessors take an index already checked against {@link #size()} by the caller.
+ */
+final class MappedSegments {
+
+	// null for a range view, which does not own the mapping
+	private final FileChannel channel;
+	private final MappedByteBuffer[] segments;
+	private final int recordBytes;
+	private final int segmentShift;
+	private final int segmentMask;
+	private final int from;
+	private final int size;
+
+	private MappedSegments(FileChannel channel, MappedByteBuffer[] segments, int recordBytes, int segmentShift, int from, int size) {
+		this.channel = channel;
+		this.segments = segments;
+		this.recordBytes = recordBytes;
+		this.segmentShift = segmentShift;
+		this.segmentMask = (1 << segmentShift) - 1;
+		this.from = from;
+		this.size = size;
+	}
+
+	/**
+	 * Creates or truncates the file at path to hold size zeroed records, mapped for reading and writing.
+	 */
+	static MappedSegments Create(Path path, int size, int recordBytes, int segmentShift) throws IOException {
+		FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		return map(channel, size, recordBytes, segmentShift, FileChannel.MapMode.READ_WRITE);
+	}
+
+	/**
+	 * Maps an existing file, the size is taken from its length.
+	 *
+	 * @param type name of the store, for the error when the length is not a whole number of records
+	 */
+	static MappedSegments Open(Path path, boolean writable, int recordBytes, int segmentShift, String type) throws IOException {
+		FileChannel channel = writable
+				? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+				: FileChannel.open(path, StandardOpenOption.READ);
+		long length = channel.size();
+		if (length % recordBytes != 0 || length / recordBytes > Integer.MAX_VALUE) {
+			channel.close();
+			throw new IOException(path + " is not a " + type + " store, length " + length);
+		}
+		return map(channel, (int) (length / recordBytes), recordBytes, segmentShift,
+				writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY);
+	}
+
+	private static MappedSegments map(FileChannel channel, int size, int recordBytes, int segmentShift, FileChannel.MapMode mode) throws IOException {
+		try {
+			long segmentSize = 1L << segmentShift;
+			int count = (int) ((size + segmentSize - 1) / segmentSize);
+			MappedByteBuffer[] segments = new MappedByteBuffer[count];
+			for (int i = 0; i < count; i++) {
+				long first = i * segmentSize;
+				long records = Math.min(segmentSize, size - first);
+				segments[i] = channel.map(mode, first * recordBytes, records * recordBytes);
+				segments[i].order(ByteOrder.LITTLE_ENDIAN);
+			}
+			return new MappedSegments(channel, segments, recordBytes, segmentShift, 0, size);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * View of records from to to (exclusive) sharing this mapping.
+	 */
+	MappedSegments range(int from, int to) {
+		Objects.checkFromToIndex(from, to, size);
+		return new MappedSegments(null, segments, recordBytes, segmentShift, this.from + from, to - from);
+	}
+
+	float getFloat(int i, int component) {
+		int index = from + i;
+		return segments[index >>> segmentShift].getFloat((index & segmentMask) * recordBytes + component * Float.BYTES);
+	}
+
+	void putFloat(int i, int component, float value) {
+		int index = from + i;
+		segments[index >>> segmentShift].putFloat((index & segmentMask) * recordBytes + component * Float.BYTES, value);
+	}
+
+	double getDouble(int i, int component) {
+		int index = from + i;
+		return segments[index >>> segmentShift].getDouble((index & segmentMask) * recordBytes + component * Double.BYTES);
+	}
+
+	void putDouble(int i, int component, double value) {
+		int index = from + i;
+		segments[index >>> segmentShift].putDouble((index & segmentMask) * recordBytes + component * Double.BYTES, value);
+	}
+
+	void force() {
+		for (MappedByteBuffer segment : segments) {
+			if (!segment.isReadOnly()) {
+				segment.force();
+			}
+		}
+	}
+
+	void close() throws IOException {
+		if (channel != null) {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package com.boc_dev.maths.objects.vector;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Vec3f store kept in a memory mapped file, so large point sets live outside the heap and can be reopened without
+ * being regenerated. The file is headerless: x, y, z floats per vector, little endian, so its length is always
+ * 12 * size bytes.
+ *
+ * The file is mapped in segments as a single mapping is limited to 2GB. Writes go to the page cache and reach the
+ * disk when the OS flushes them or when {@link #force()} is called. Not thread safe for concurrent writes to the
+ * same index.
+ */
+public class MappedVec3fStore implements AutoCloseable {
+
+	private static final int BYTES = 3 * Float.BYTES;
+	private static final int DEFAULT_SEGMENT_SHIFT = 26;
+
+	private final MappedSegments segments;
+
+	private MappedVec3fStore(MappedSegments segments) {
+		this.segments = segments;
+	}
+
+	/**
+	 * Creates or truncates the file at path to hold size vectors, all zero, and maps it for reading and writing.
+	 */
+	public static MappedVec3fStore Create(Path path, int size) throws IOException {
+		return Create(path, size, DEFAULT_SEGMENT_SHIFT);
+	}
+
+	static MappedVec3fStore Create(Path path, int size, int segmentShift) throws IOException {
+		return new MappedVec3fStore(MappedSegments.Create(path, size, BYTES, segmentShift));
+	}
+
+	/**
+	 * Maps an existing store, the size is taken from the file length.
+	 *
+	 * @param writable false to map the file read only, in which case set throws ReadOnlyBufferException
+	 */
+	public static MappedVec3fStore Open(Path path, boolean writable) throws IOException {
+		return Open(path, writable, DEFAULT_SEGMENT_SHIFT);
+	}
+
+	static MappedVec3fStore Open(Path path, boolean writable, int segmentShift) throws IOException {
+		return new MappedVec3fStore(MappedSegments.Open(path, writable, BYTES, segmentShift, "Vec3f"));
+	}
+
+	public int size() {
+		return segments.size();
+	}
+
+	public float getX(int i) {
+		Objects.checkIndex(i, segments.size());
+		return segments.getFloat(i, 0);
+	}
+
+	public float getY(int i) {
+		Objects.checkIndex(i, segments.size());
+		return segments.getFloat(i, 1);
+	}
+
+	public float getZ(int i) {
+		Objects.checkIndex(i, segments.size());
+		return segments.getFloat(i, 2);
+	}
+
+	public Vec3f get(int i) {
+		Objects.checkIndex(i, segments.size());
+		return new Vec3f(segments.getFloat(i, 0), segments.getFloat(i, 1), segments.getFloat(i, 2));
+	}
+
+	public void set(int i, float x, float y, float z) {
+		Objects.checkIndex(i, segments.size());
+		segments.putFloat(i, 0, x);
+		segments.putFloat(i, 1, y);
+		segments.putFloat(i, 2, z);
+	}
+
+	public void set(int i, Vec3f vec) {
+		set(i, vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	/**
+	 * Copies vectors from to to (exclusive) into dest, starting at destFrom.
+	 */
+	public void get(int from, int to, Vec3fArray dest, int destFrom) {
+		Objects.checkFromToIndex(from, to, segments.size());
+		Objects.checkFromIndexSize(destFrom, to - from, dest.size());
+		float[] xs = dest.getXs();
+		float[] ys = dest.getYs();
+		float[] zs = dest.getZs();
+		for (int i = from, j = destFrom; i < to; i++, j++) {
+			xs[j] = segments.getFloat(i, 0);
+			ys[j] = segments.getFloat(i, 1);
+			zs[j] = segments.getFloat(i, 2);
+		}
+	}
+
+	/**
+	 * Copies vectors srcFrom to srcFrom + (to - from) of src into this store from to to (exclusive).
+	 */
+	public void set(Vec3fArray src, int srcFrom, int from, int to) {
+		Objects.checkFromToIndex(from, to, segments.size());
+		Objects.checkFromIndexSize(srcFrom, to - from, src.size());
+		float[] xs = src.getXs();
+		float[] ys = src.getYs();
+		float[] zs = src.getZs();
+		for (int i = from, j = srcFrom; i < to; i++, j++) {
+			segments.putFloat(i, 0, xs[j]);
+			segments.putFloat(i, 1, ys[j]);
+			segments.putFloat(i, 2, zs[j]);
+		}
+	}
+
+	public Vec3fArray toVec3fArray() {
+		Vec3fArray vecs = new Vec3fArray(segments.size());
+		get(0, segments.size(), vecs, 0);
+		return vecs;
+	}
+
+	/**
+	 * View of vectors from to to (exclusive) sharing this store's mapping, index 0 of the view is index from here.
+	 * Closing a view does nothing, the mapping belongs to the store it was opened from.
+	 */
+	public MappedVec3fStore range(int from, int to) {
+		return new MappedVec3fStore(segments.range(from, to));
+	}
+
+	/**
+	 * Writes any changes through to the file.
+	 */
+	public void force() {
+		segments.force();
+	}
+
+	/**
+	 * Closes the file channel. The mapping stays valid until it is garbage collected, but should not be used.
+	 */
+	@Override
+	public void close() throws IOException {
+		segments.close();
+	}
+}
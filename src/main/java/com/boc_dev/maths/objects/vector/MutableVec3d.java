@@ -0,0 +1,232 @@
+package com.boc_dev.maths.objects.vector;
+
+import com.boc_dev.maths.objects.matrix.Matrix4d;
+import com.boc_dev.maths.objects.matrix.MutableMatrix4d;
+
+import java.util.Objects;
+
+/**
+ * Mutable counterpart of {@link Vec3d}. Methods ending in Local update this vector in place and return it,
+ * so calls can be chained without allocating, e.g. v.subtractLocal(a).normaliseLocal().scaleLocal(s).
+ */
+public class MutableVec3d {
+
+	private double x;
+	private double y;
+	private double z;
+
+	public MutableVec3d() {
+	}
+
+	public MutableVec3d(double x, double y, double z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+
+	public MutableVec3d(Vec3d vec) {
+		this(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public double getZ() {
+		return z;
+	}
+
+	public MutableVec3d set(double x, double y, double z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+
+	public MutableVec3d set(Vec3d vec) {
+		return set(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public MutableVec3d set(MutableVec3d vec) {
+		return set(vec.x, vec.y, vec.z);
+	}
+
+	/**
+	 * Reads x, y and z from values starting at offset.
+	 */
+	public MutableVec3d set(double[] values, int offset) {
+		return set(values[offset], values[offset + 1], values[offset + 2]);
+	}
+
+	/**
+	 * Writes x, y and z into dest starting at offset.
+	 *
+	 * @return dest
+	 */
+	public double[] getValues(double[] dest, int offset) {
+		dest[offset] = x;
+		dest[offset + 1] = y;
+		dest[offset + 2] = z;
+		return dest;
+	}
+
+	public MutableVec3d addLocal(double x, double y, double z) {
+		this.x += x;
+		this.y += y;
+		this.z += z;
+		return this;
+	}
+
+	public MutableVec3d addLocal(Vec3d vec) {
+		return addLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public MutableVec3d addLocal(MutableVec3d vec) {
+		return addLocal(vec.x, vec.y, vec.z);
+	}
+
+	public MutableVec3d subtractLocal(double x, double y, double z) {
+		this.x -= x;
+		this.y -= y;
+		this.z -= z;
+		return this;
+	}
+
+	public MutableVec3d subtractLocal(Vec3d vec) {
+		return subtractLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public MutableVec3d subtractLocal(MutableVec3d vec) {
+		return subtractLocal(vec.x, vec.y, vec.z);
+	}
+
+	public MutableVec3d scaleLocal(double s) {
+		this.x *= s;
+		this.y *= s;
+		this.z *= s;
+		return this;
+	}
+
+	// element wise multiplication
+	public MutableVec3d multiplyLocal(double x, double y, double z) {
+		this.x *= x;
+		this.y *= y;
+		this.z *= z;
+		return this;
+	}
+
+	public MutableVec3d multiplyLocal(Vec3d vec) {
+		return multiplyLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public MutableVec3d multiplyLocal(MutableVec3d vec) {
+		return multiplyLocal(vec.x, vec.y, vec.z);
+	}
+
+	public MutableVec3d crossLocal(double x, double y, double z) {
+		return set(
+				this.y * z - this.z * y,
+				this.z * x - this.x * z,
+				this.x * y - this.y * x
+		);
+	}
+
+	public MutableVec3d crossLocal(Vec3d vec) {
+		return crossLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public MutableVec3d crossLocal(MutableVec3d vec) {
+		return crossLocal(vec.x, vec.y, vec.z);
+	}
+
+	public MutableVec3d negLocal() {
+		return set(-x, -y, -z);
+	}
+
+	/**
+	 * Zero length vectors are left as zero, matching {@link Vec3d#normalise()}.
+	 */
+	public MutableVec3d normaliseLocal() {
+		double length = length();
+		if (length == 0.0) {
+			return set(0, 0, 0);
+		}
+		return scaleLocal(1.0 / length);
+	}
+
+	public MutableVec3d lerpLocal(Vec3d vecb, double percent) {
+		double thisPercent = 1 - percent;
+		return set(
+				x * thisPercent + vecb.getX() * percent,
+				y * thisPercent + vecb.getY() * percent,
+				z * thisPercent + vecb.getZ() * percent
+		);
+	}
+
+	/**
+	 * Transforms this point by m, as {@link Matrix4d#multiply(Vec3d)}.
+	 */
+	public MutableVec3d transformLocal(Matrix4d m) {
+		return transformLocal(m.getValues());
+	}
+
+	public MutableVec3d transformLocal(MutableMatrix4d m) {
+		return transformLocal(m.getValues());
+	}
+
+	private MutableVec3d transformLocal(double[] e) {
+		return set(
+				(x * e[0]) + (y * e[1]) + (z * e[2]) + e[3],
+				(x * e[4]) + (y * e[5]) + (z * e[6]) + e[7],
+				(x * e[8]) + (y * e[9]) + (z * e[10] + e[11])
+		);
+	}
+
+	public double dot(double x, double y, double z) {
+		return this.x * x + this.y * y + this.z * z;
+	}
+
+	public double dot(Vec3d vec) {
+		return dot(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public double dot(MutableVec3d vec) {
+		return dot(vec.x, vec.y, vec.z);
+	}
+
+	public double length2() {
+		return (x * x) + (y * y) + (z * z);
+	}
+
+	public double length() {
+		return Math.sqrt(length2());
+	}
+
+	public Vec3d toVec3d() {
+		return new Vec3d(x, y, z);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		MutableVec3d that = (MutableVec3d) o;
+		return Double.compare(that.x, x) == 0 &&
+				Double.compare(that.y, y) == 0 &&
+				Double.compare(that.z, z) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(x, y, z);
+	}
+
+	@Override
+	public String toString() {
+		return x + ", " + y + ", " + z;
+	}
+}
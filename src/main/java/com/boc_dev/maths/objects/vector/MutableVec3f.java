@@ -0,0 +1,232 @@
+package com.boc_dev.maths.objects.vector;
+
+import com.boc_dev.maths.objects.matrix.Matrix4f;
+import com.boc_dev.maths.objects.matrix.MutableMatrix4f;
+
+import java.util.Objects;
+
+/**
+ * Mutable counterpart of {@link Vec3f}. Methods ending in Local update this vector in place and return it,
+ * so calls can be chained without allocating, e.g. v.subtractLocal(a).normaliseLocal().scaleLocal(s).
+ */
+public class MutableVec3f {
+
+	private float x;
+	private float y;
+	private float z;
+
+	public MutableVec3f() {
+	}
+
+	public MutableVec3f(float x, float y, float z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+
+	public MutableVec3f(Vec3f vec) {
+		this(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public float getX() {
+		return x;
+	}
+
+	public float getY() {
+		return y;
+	}
+
+	public float getZ() {
+		return z;
+	}
+
+	public MutableVec3f set(float x, float y, float z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+
+	public MutableVec3f set(Vec3f vec) {
+		return set(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public MutableVec3f set(MutableVec3f vec) {
+		return set(vec.x, vec.y, vec.z);
+	}
+
+	/**
+	 * Reads x, y and z from values starting at offset.
+	 */
+	public MutableVec3f set(float[] values, int offset) {
+		return set(values[offset], values[offset + 1], values[offset + 2]);
+	}
+
+	/**
+	 * Writes x, y and z into dest starting at offset.
+	 *
+	 * @return dest
+	 */
+	public float[] getValues(float[] dest, int offset) {
+		dest[offset] = x;
+		dest[offset + 1] = y;
+		dest[offset + 2] = z;
+		return dest;
+	}
+
+	public MutableVec3f addLocal(float x, float y, float z) {
+		this.x += x;
+		this.y += y;
+		this.z += z;
+		return this;
+	}
+
+	public MutableVec3f addLocal(Vec3f vec) {
+		return addLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public MutableVec3f addLocal(MutableVec3f vec) {
+		return addLocal(vec.x, vec.y, vec.z);
+	}
+
+	public MutableVec3f subtractLocal(float x, float y, float z) {
+		this.x -= x;
+		this.y -= y;
+		this.z -= z;
+		return this;
+	}
+
+	public MutableVec3f subtractLocal(Vec3f vec) {
+		return subtractLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public MutableVec3f subtractLocal(MutableVec3f vec) {
+		return subtractLocal(vec.x, vec.y, vec.z);
+	}
+
+	public MutableVec3f scaleLocal(float s) {
+		this.x *= s;
+		this.y *= s;
+		this.z *= s;
+		return this;
+	}
+
+	// element wise multiplication
+	public MutableVec3f multiplyLocal(float x, float y, float z) {
+		this.x *= x;
+		this.y *= y;
+		this.z *= z;
+		return this;
+	}
+
+	public MutableVec3f multiplyLocal(Vec3f vec) {
+		return multiplyLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public MutableVec3f multiplyLocal(MutableVec3f vec) {
+		return multiplyLocal(vec.x, vec.y, vec.z);
+	}
+
+	public MutableVec3f crossLocal(float x, float y, float z) {
+		return set(
+				this.y * z - this.z * y,
+				this.z * x - this.x * z,
+				this.x * y - this.y * x
+		);
+	}
+
+	public MutableVec3f crossLocal(Vec3f vec) {
+		return crossLocal(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public MutableVec3f crossLocal(MutableVec3f vec) {
+		return crossLocal(vec.x, vec.y, vec.z);
+	}
+
+	public MutableVec3f negLocal() {
+		return set(-x, -y, -z);
+	}
+
+	/**
+	 * Zero length vectors are left as zero, matching {@link Vec3f#normalise()}.
+	 */
+	public MutableVec3f normaliseLocal() {
+		float length = length();
+		if (length == 0.0f) {
+			return set(0, 0, 0);
+		}
+		return scaleLocal(1f / length);
+	}
+
+	public MutableVec3f lerpLocal(Vec3f vecb, float percent) {
+		float thisPercent = 1 - percent;
+		return set(
+				x * thisPercent + vecb.getX() * percent,
+				y * thisPercent + vecb.getY() * percent,
+				z * thisPercent + vecb.getZ() * percent
+		);
+	}
+
+	/**
+	 * Transforms this point by m, as {@link Matrix4f#multiply(Vec3f)}.
+	 */
+	public MutableVec3f transformLocal(Matrix4f m) {
+		return transformLocal(m.getValues());
+	}
+
+	public MutableVec3f transformLocal(MutableMatrix4f m) {
+		return transformLocal(m.getValues());
+	}
+
+	private MutableVec3f transformLocal(float[] e) {
+		return set(
+				(x * e[0]) + (y * e[1]) + (z * e[2]) + e[3],
+				(x * e[4]) + (y * e[5]) + (z * e[6]) + e[7],
+				(x * e[8]) + (y * e[9]) + (z * e[10] + e[11])
+		);
+	}
+
+	public float dot(float x, float y, float z) {
+		return this.x * x + this.y * y + this.z * z;
+	}
+
+	public float dot(Vec3f vec) {
+		return dot(vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	public float dot(MutableVec3f vec) {
+		return dot(vec.x, vec.y, vec.z);
+	}
+
+	public float length2() {
+		return (x * x) + (y * y) + (z * z);
+	}
+
+	public float length() {
+		return (float) Math.sqrt(length2());
+	}
+
+	public Vec3f toVec3f() {
+		return new Vec3f(x, y, z);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		MutableVec3f that = (MutableVec3f) o;
+		return Float.compare(that.x, x) == 0 &&
+				Float.compare(that.y, y) == 0 &&
+				Float.compare(that.z, z) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(x, y, z);
+	}
+
+	@Override
+	public String toString() {
+		return x + ", " + y + ", " + z;
+	}
+}
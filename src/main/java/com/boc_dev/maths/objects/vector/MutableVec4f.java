@@ -0,0 +1,187 @@
+package com.boc_dev.maths.objects.vector;
+
+import com.boc_dev.maths.objects.matrix.Matrix4f;
+import com.boc_dev.maths.objects.matrix.MutableMatrix4f;
+
+import java.util.Objects;
+
+/**
+ * Mutable counterpart of {@link Vec4f}. Methods ending in Local update this vector in place and return it,
+ * so calls can be chained without allocating.
+ */
+public class MutableVec4f {
+
+	private float x;
+	private float y;
+	private float z;
+	private float s;
+
+	public MutableVec4f() {
+	}
+
+	public MutableVec4f(float x, float y, float z, float s) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.s = s;
+	}
+
+	public MutableVec4f(Vec4f vec) {
+		this(vec.getX(), vec.getY(), vec.getZ(), vec.getS());
+	}
+
+	public float getX() {
+		return x;
+	}
+
+	public float getY() {
+		return y;
+	}
+
+	public float getZ() {
+		return z;
+	}
+
+	public float getS() {
+		return s;
+	}
+
+	public MutableVec4f set(float x, float y, float z, float s) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.s = s;
+		return this;
+	}
+
+	public MutableVec4f set(Vec4f vec) {
+		return set(vec.getX(), vec.getY(), vec.getZ(), vec.getS());
+	}
+
+	public MutableVec4f set(MutableVec4f vec) {
+		return set(vec.x, vec.y, vec.z, vec.s);
+	}
+
+	/**
+	 * Reads x, y, z and s from values starting at offset.
+	 */
+	public MutableVec4f set(float[] values, int offset) {
+		return set(values[offset], values[offset + 1], values[offset + 2], values[offset + 3]);
+	}
+
+	/**
+	 * Writes x, y, z and s into dest starting at offset.
+	 *
+	 * @return dest
+	 */
+	public float[] getValues(float[] dest, int offset) {
+		dest[offset] = x;
+		dest[offset + 1] = y;
+		dest[offset + 2] = z;
+		dest[offset + 3] = s;
+		return dest;
+	}
+
+	public MutableVec4f addLocal(Vec4f vec) {
+		return set(x + vec.getX(), y + vec.getY(), z + vec.getZ(), s + vec.getS());
+	}
+
+	public MutableVec4f addLocal(MutableVec4f vec) {
+		return set(x + vec.x, y + vec.y, z + vec.z, s + vec.s);
+	}
+
+	public MutableVec4f subtractLocal(Vec4f vec) {
+		return set(x - vec.getX(), y - vec.getY(), z - vec.getZ(), s - vec.getS());
+	}
+
+	public MutableVec4f subtractLocal(MutableVec4f vec) {
+		return set(x - vec.x, y - vec.y, z - vec.z, s - vec.s);
+	}
+
+	public MutableVec4f scaleLocal(float scale) {
+		return set(x * scale, y * scale, z * scale, s * scale);
+	}
+
+	public MutableVec4f negLocal() {
+		return set(-x, -y, -z, -s);
+	}
+
+	public MutableVec4f normaliseLocal() {
+		float length = length();
+		if (length == 0.0f) {
+			return set(0, 0, 0, 0);
+		}
+		return scaleLocal(1f / length);
+	}
+
+	public MutableVec4f lerpLocal(Vec4f vecb, float percent) {
+		float thisPercent = 1 - percent;
+		return set(
+				x * thisPercent + vecb.getX() * percent,
+				y * thisPercent + vecb.getY() * percent,
+				z * thisPercent + vecb.getZ() * percent,
+				s * thisPercent + vecb.getS() * percent
+		);
+	}
+
+	/**
+	 * Full 4x4 transform of this vector by m.
+	 */
+	public MutableVec4f transformLocal(Matrix4f m) {
+		return transformLocal(m.getValues());
+	}
+
+	public MutableVec4f transformLocal(MutableMatrix4f m) {
+		return transformLocal(m.getValues());
+	}
+
+	private MutableVec4f transformLocal(float[] e) {
+		return set(
+				(x * e[0]) + (y * e[1]) + (z * e[2]) + (s * e[3]),
+				(x * e[4]) + (y * e[5]) + (z * e[6]) + (s * e[7]),
+				(x * e[8]) + (y * e[9]) + (z * e[10]) + (s * e[11]),
+				(x * e[12]) + (y * e[13]) + (z * e[14]) + (s * e[15])
+		);
+	}
+
+	public float dot(Vec4f vec) {
+		return x * vec.getX() + y * vec.getY() + z * vec.getZ() + s * vec.getS();
+	}
+
+	public float dot(MutableVec4f vec) {
+		return x * vec.x + y * vec.y + z * vec.z + s * vec.s;
+	}
+
+	public float length2() {
+		return (x * x) + (y * y) + (z * z) + (s * s);
+	}
+
+	public float length() {
+		return (float) Math.sqrt(length2());
+	}
+
+	public Vec4f toVec4f() {
+		return new Vec4f(x, y, z, s);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		MutableVec4f that = (MutableVec4f) o;
+		return Float.compare(that.x, x) == 0 &&
+				Float.compare(that.y, y) == 0 &&
+				Float.compare(that.z, z) == 0 &&
+				Float.compare(that.s, s) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(x, y, z, s);
+	}
+
+	@Override
+	public String toString() {
+		return x + ", " + y + ", " + z + ", " + s;
+	}
+}
@@ -0,0 +1,145 @@
+package com.boc_dev.maths.objects.vector;
+
+import java.util.Objects;
+
+/**
+ * Unit vector array stored with octahedral encoding as two signed 16 bit values, 4 bytes per vector instead of 12.
+ * The sphere is projected onto an octahedron and unfolded into a square, which spreads the precision evenly over
+ * all directions. The decoded vector is unit length, with an angular error below 0.0001 radians.
+ *
+ * Vectors are normalised when encoded, zero vectors decode as (0, 0, 1).
+ */
+public class OctahedralVec3fArray {
+
+	private static final float SNORM = 32767.0f;
+
+	private final short[] data;
+	private final int size;
+
+	public OctahedralVec3fArray(int size) {
+		this.data = new short[size * 2];
+		this.size = size;
+	}
+
+	public static OctahedralVec3fArray FromVecs(Vec3fArray vecs) {
+		OctahedralVec3fArray array = new OctahedralVec3fArray(vecs.size());
+		array.encode(vecs);
+		return array;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Backing array, interleaved u, v signed normalised values.
+	 */
+	public short[] getData() {
+		return data;
+	}
+
+	public Vec3f get(int i) {
+		Objects.checkIndex(i, size);
+		float[] xyz = decode(i, new float[3], 0);
+		return new Vec3f(xyz[0], xyz[1], xyz[2]);
+	}
+
+	public void set(int i, float x, float y, float z) {
+		Objects.checkIndex(i, size);
+		encode(x, y, z, i * 2);
+	}
+
+	public void set(int i, Vec3f vec) {
+		set(i, vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	/**
+	 * Encodes vecs from to to (exclusive) into the same indices of this array.
+	 */
+	public void encode(Vec3fArray vecs, int from, int to) {
+		Objects.checkFromToIndex(from, to, size);
+		Objects.checkFromToIndex(from, to, vecs.size());
+		float[] xs = vecs.getXs();
+		float[] ys = vecs.getYs();
+		float[] zs = vecs.getZs();
+		for (int i = from; i < to; i++) {
+			encode(xs[i], ys[i], zs[i], i * 2);
+		}
+	}
+
+	public void encode(Vec3fArray vecs) {
+		encode(vecs, 0, size);
+	}
+
+	/**
+	 * Decodes from to to (exclusive) into the same indices of dest.
+	 */
+	public void decode(Vec3fArray dest, int from, int to) {
+		Objects.checkFromToIndex(from, to, size);
+		Objects.checkFromToIndex(from, to, dest.size());
+		float[] xs = dest.getXs();
+		float[] ys = dest.getYs();
+		float[] zs = dest.getZs();
+		float[] xyz = new float[3];
+		for (int i = from; i < to; i++) {
+			decode(i, xyz, 0);
+			xs[i] = xyz[0];
+			ys[i] = xyz[1];
+			zs[i] = xyz[2];
+		}
+	}
+
+	public void decode(Vec3fArray dest) {
+		decode(dest, 0, size);
+	}
+
+	public Vec3fArray toVec3fArray() {
+		Vec3fArray vecs = new Vec3fArray(size);
+		decode(vecs);
+		return vecs;
+	}
+
+	/**
+	 * Decodes vector index into dest[offset] to dest[offset + 2].
+	 *
+	 * @return dest
+	 */
+	private float[] decode(int index, float[] dest, int offset) {
+		float x = data[index * 2] / SNORM;
+		float y = data[index * 2 + 1] / SNORM;
+		float z = 1 - Math.abs(x) - Math.abs(y);
+		if (z < 0) {
+			float t = x;
+			x = (1 - Math.abs(y)) * sign(t);
+			y = (1 - Math.abs(t)) * sign(y);
+		}
+		float invLength = (float) (1 / Math.sqrt(x * x + y * y + z * z));
+		dest[offset] = x * invLength;
+		dest[offset + 1] = y * invLength;
+		dest[offset + 2] = z * invLength;
+		return dest;
+	}
+
+	private void encode(float x, float y, float z, int index) {
+		float l1 = Math.abs(x) + Math.abs(y) + Math.abs(z);
+		if (l1 == 0) {
+			data[index] = 0;
+			data[index + 1] = 0;
+			return;
+		}
+		float u = x / l1;
+		float v = y / l1;
+		if (z < 0) {
+			float t = u;
+			u = (1 - Math.abs(v)) * sign(t);
+			v = (1 - Math.abs(t)) * sign(v);
+		}
+		data[index] = (short) Math.round(Math.max(-1, Math.min(1, u)) * SNORM);
+		data[index + 1] = (short) Math.round(Math.max(-1, Math.min(1, v)) * SNORM);
+	}
+
+	// sign that treats zero as positive, so the folded halves meet on the axes
+	private static float sign(float value) {
+		return value >= 0 ? 1.0f : -1.0f;
+	}
+}
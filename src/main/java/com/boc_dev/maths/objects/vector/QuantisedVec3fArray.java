@@ -0,0 +1,170 @@
+package com.boc_dev.maths.objects.vector;
+
+import java.util.Objects;
+
+/**
+ * Vec3f array stored as 16 bit fixed point within a bounding box, 6 bytes per vector instead of 12. Each axis of the
+ * box is split into 65535 equal steps, so the reconstruction error of a component is at most half a step, see
+ * {@link #getMaxError()}. Values outside the box are clamped to it.
+ *
+ * Components are interleaved x, y, z in a single short array, read as unsigned.
+ */
+public class QuantisedVec3fArray {
+
+	private static final int STEPS = 0xffff;
+
+	private final short[] data;
+	private final int size;
+
+	private final float minX, minY, minZ;
+	private final float maxX, maxY, maxZ;
+	private final float scaleX, scaleY, scaleZ;
+	private final float stepX, stepY, stepZ;
+
+	public QuantisedVec3fArray(int size, Vec3f min, Vec3f max) {
+		this.data = new short[size * 3];
+		this.size = size;
+		this.minX = min.getX();
+		this.minY = min.getY();
+		this.minZ = min.getZ();
+		this.maxX = max.getX();
+		this.maxY = max.getY();
+		this.maxZ = max.getZ();
+		if (!(maxX >= minX && maxY >= minY && maxZ >= minZ)) {
+			throw new IllegalArgumentException("Bounding box min " + min + " is not below max " + max);
+		}
+		this.stepX = (maxX - minX) / STEPS;
+		this.stepY = (maxY - minY) / STEPS;
+		this.stepZ = (maxZ - minZ) / STEPS;
+		this.scaleX = stepX == 0 ? 0 : 1 / stepX;
+		this.scaleY = stepY == 0 ? 0 : 1 / stepY;
+		this.scaleZ = stepZ == 0 ? 0 : 1 / stepZ;
+	}
+
+	/**
+	 * Quantises vecs within their own bounding box.
+	 */
+	public static QuantisedVec3fArray FromVecs(Vec3fArray vecs) {
+		float[] xs = vecs.getXs();
+		float[] ys = vecs.getYs();
+		float[] zs = vecs.getZs();
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+		for (int i = 0; i < vecs.size(); i++) {
+			minX = Math.min(minX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			minZ = Math.min(minZ, zs[i]);
+			maxX = Math.max(maxX, xs[i]);
+			maxY = Math.max(maxY, ys[i]);
+			maxZ = Math.max(maxZ, zs[i]);
+		}
+		if (vecs.size() == 0) {
+			return new QuantisedVec3fArray(0, Vec3f.ZERO, Vec3f.ZERO);
+		}
+		QuantisedVec3fArray array = new QuantisedVec3fArray(vecs.size(), new Vec3f(minX, minY, minZ), new Vec3f(maxX, maxY, maxZ));
+		array.encode(vecs);
+		return array;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Backing array, interleaved x, y, z unsigned steps from the box minimum.
+	 */
+	public short[] getData() {
+		return data;
+	}
+
+	public Vec3f getMin() {
+		return new Vec3f(minX, minY, minZ);
+	}
+
+	public Vec3f getMax() {
+		return new Vec3f(maxX, maxY, maxZ);
+	}
+
+	/**
+	 * Largest difference per axis between a value inside the box and its decoded value, half a step, ignoring float
+	 * rounding in the decode.
+	 */
+	public Vec3f getMaxError() {
+		return new Vec3f(stepX / 2, stepY / 2, stepZ / 2);
+	}
+
+	public Vec3f get(int i) {
+		Objects.checkIndex(i, size);
+		int index = i * 3;
+		return new Vec3f(
+				minX + (data[index] & STEPS) * stepX,
+				minY + (data[index + 1] & STEPS) * stepY,
+				minZ + (data[index + 2] & STEPS) * stepZ);
+	}
+
+	public void set(int i, float x, float y, float z) {
+		Objects.checkIndex(i, size);
+		int index = i * 3;
+		data[index] = quantise(x, minX, scaleX);
+		data[index + 1] = quantise(y, minY, scaleY);
+		data[index + 2] = quantise(z, minZ, scaleZ);
+	}
+
+	public void set(int i, Vec3f vec) {
+		set(i, vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	/**
+	 * Encodes vecs from to to (exclusive) into the same indices of this array.
+	 */
+	public void encode(Vec3fArray vecs, int from, int to) {
+		Objects.checkFromToIndex(from, to, size);
+		Objects.checkFromToIndex(from, to, vecs.size());
+		float[] xs = vecs.getXs();
+		float[] ys = vecs.getYs();
+		float[] zs = vecs.getZs();
+		for (int i = from, index = from * 3; i < to; i++, index += 3) {
+			data[index] = quantise(xs[i], minX, scaleX);
+			data[index + 1] = quantise(ys[i], minY, scaleY);
+			data[index + 2] = quantise(zs[i], minZ, scaleZ);
+		}
+	}
+
+	public void encode(Vec3fArray vecs) {
+		encode(vecs, 0, size);
+	}
+
+	/**
+	 * Decodes from to to (exclusive) into the same indices of dest.
+	 */
+	public void decode(Vec3fArray dest, int from, int to) {
+		Objects.checkFromToIndex(from, to, size);
+		Objects.checkFromToIndex(from, to, dest.size());
+		float[] xs = dest.getXs();
+		float[] ys = dest.getYs();
+		float[] zs = dest.getZs();
+		for (int i = from, index = from * 3; i < to; i++, index += 3) {
+			xs[i] = minX + (data[index] & STEPS) * stepX;
+			ys[i] = minY + (data[index + 1] & STEPS) * stepY;
+			zs[i] = minZ + (data[index + 2] & STEPS) * stepZ;
+		}
+	}
+
+	public void decode(Vec3fArray dest) {
+		decode(dest, 0, size);
+	}
+
+	public Vec3fArray toVec3fArray() {
+		Vec3fArray vecs = new Vec3fArray(size);
+		decode(vecs);
+		return vecs;
+	}
+
+	private static short quantise(float value, float min, float scale) {
+		float steps = (value - min) * scale;
+		if (!(steps > 0)) {
+			return 0;
+		}
+		return (short) Math.min(STEPS, Math.round(steps));
+	}
+}
@@ -50,6 +50,23 @@ public class Vec3d implements Vecd {
 				this.z + vec3d.z);
 	}
 
+	/**
+	 * Addition written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param vec vector to add
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public double[] add(Vecd vec, double[] dest, int offset) {
+		assert vec instanceof Vec3d;
+		Vec3d vec3d = (Vec3d) vec;
+		dest[offset] = this.x + vec3d.x;
+		dest[offset + 1] = this.y + vec3d.y;
+		dest[offset + 2] = this.z + vec3d.z;
+		return dest;
+	}
+
 	public Vec3d subtract(Vecd vec) {
 		assert vec instanceof Vec3d;
 		Vec3d vec3d = (Vec3d) vec;
@@ -59,6 +76,23 @@ public class Vec3d implements Vecd {
 				this.z - vec3d.z);
 	}
 
+	/**
+	 * Subtraction written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param vec vector to subtract
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public double[] subtract(Vecd vec, double[] dest, int offset) {
+		assert vec instanceof Vec3d;
+		Vec3d vec3d = (Vec3d) vec;
+		dest[offset] = this.x - vec3d.x;
+		dest[offset + 1] = this.y - vec3d.y;
+		dest[offset + 2] = this.z - vec3d.z;
+		return dest;
+	}
+
 	public Vec3d scale(double s) {
 		return new Vec3d(
 				this.x * s,
@@ -66,6 +100,21 @@ public class Vec3d implements Vecd {
 				this.z * s);
 	}
 
+	/**
+	 * Scale written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param s scale
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public double[] scale(double s, double[] dest, int offset) {
+		dest[offset] = this.x * s;
+		dest[offset + 1] = this.y * s;
+		dest[offset + 2] = this.z * s;
+		return dest;
+	}
+
 	public double dot(Vecd vec) {
 		assert vec instanceof Vec3d;
 		Vec3d vec3d = (Vec3d) vec;
@@ -93,18 +142,42 @@ public class Vec3d implements Vecd {
 		return this.scale(1/this.length());
 	}
 
+	/**
+	 * Normalised vector written as x, y, z into dest starting at offset, without allocating. A zero length vector writes zero.
+	 *
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public double[] normalise(double[] dest, int offset) {
+		double length = this.length();
+		if (length == 0.0) {
+			dest[offset] = 0;
+			dest[offset + 1] = 0;
+			dest[offset + 2] = 0;
+			return dest;
+		}
+		return this.scale(1/length, dest, offset);
+	}
+
 	public double[] getValues() {
 		return new double[] {x, y, z};
 	}
 
 	public Matrix4d outerProduct(Vecd vec3d) {
 
+		if (vec3d instanceof Vec3d) {
+			return new Matrix4d(outerProduct((Vec3d) vec3d, new double[16], 0));
+		}
+
 		double[] elements = new double[16];
+		double[] thisValues = this.getValues();
+		double[] otherValues = vec3d.getValues();
 
-		for (int thisVecIndex = 0; thisVecIndex < this.getValues().length; thisVecIndex++) {
-			for (int otherVecIndex = 0; otherVecIndex < vec3d.getValues().length; otherVecIndex++) {
+		for (int thisVecIndex = 0; thisVecIndex < thisValues.length; thisVecIndex++) {
+			for (int otherVecIndex = 0; otherVecIndex < otherValues.length; otherVecIndex++) {
 
-				elements[thisVecIndex * 4 + otherVecIndex] = this.getValues()[thisVecIndex] * vec3d.getValues()[otherVecIndex];
+				elements[thisVecIndex * 4 + otherVecIndex] = thisValues[thisVecIndex] * otherValues[otherVecIndex];
 
 			}
 		}
@@ -112,6 +185,32 @@ public class Vec3d implements Vecd {
 		return new Matrix4d(elements);
 	}
 
+	/**
+	 * Writes the outer product into the top left 3x3 of a 4x4 row major matrix at dest[offset], the rest is zeroed.
+	 *
+	 * @return dest
+	 */
+	public double[] outerProduct(Vec3d vec, double[] dest, int offset) {
+		double ox = vec.x, oy = vec.y, oz = vec.z;
+		dest[offset] = x * ox;
+		dest[offset + 1] = x * oy;
+		dest[offset + 2] = x * oz;
+		dest[offset + 3] = 0;
+		dest[offset + 4] = y * ox;
+		dest[offset + 5] = y * oy;
+		dest[offset + 6] = y * oz;
+		dest[offset + 7] = 0;
+		dest[offset + 8] = z * ox;
+		dest[offset + 9] = z * oy;
+		dest[offset + 10] = z * oz;
+		dest[offset + 11] = 0;
+		dest[offset + 12] = 0;
+		dest[offset + 13] = 0;
+		dest[offset + 14] = 0;
+		dest[offset + 15] = 0;
+		return dest;
+	}
+
 	public Vec3d cross(Vecd vec) {
 		assert vec instanceof Vec3d;
 		Vec3d vec3d = (Vec3d) vec;
@@ -122,6 +221,23 @@ public class Vec3d implements Vecd {
 		);
 	}
 
+	/**
+	 * Cross product written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param vec right hand vector
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public double[] cross(Vecd vec, double[] dest, int offset) {
+		assert vec instanceof Vec3d;
+		Vec3d vec3d = (Vec3d) vec;
+		dest[offset] = this.y * vec3d.z - this.z * vec3d.y;
+		dest[offset + 1] = this.z * vec3d.x - this.x * vec3d.z;
+		dest[offset + 2] = this.x * vec3d.y - this.y * vec3d.x;
+		return dest;
+	}
+
 	public Vec3d neg() {
 		return new Vec3d(
 				-this.x,
@@ -130,6 +246,20 @@ public class Vec3d implements Vecd {
 		);
 	}
 
+	/**
+	 * Negation written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public double[] neg(double[] dest, int offset) {
+		dest[offset] = -this.x;
+		dest[offset + 1] = -this.y;
+		dest[offset + 2] = -this.z;
+		return dest;
+	}
+
 	// used for integration
 	public Matrix4d star() {
 		return new Matrix4d(
@@ -168,6 +298,25 @@ public class Vec3d implements Vecd {
 		);
 	}
 
+	/**
+	 * Same result as {@link #multiply(Matrix4d)}, written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param m matrix to multiply by
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public double[] multiply(Matrix4d m, double[] dest, int offset) {
+		double[] e = m.getValues();
+		double newX = x * e[0] + y * e[1] + z * e[2];
+		double newY = x * e[4] + y * e[5] + z * e[6];
+		double newZ = x * e[8] + y * e[9] + z * e[10];
+		dest[offset] = newX;
+		dest[offset + 1] = newY;
+		dest[offset + 2] = newZ;
+		return dest;
+	}
+
 	// element wise multiplication
 	public Vec3d multiply(Vecd vec) {
 		assert vec instanceof Vec3d;
@@ -179,6 +328,23 @@ public class Vec3d implements Vecd {
 		);
 	}
 
+	/**
+	 * Element wise multiplication written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param vec vector to multiply by
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public double[] multiply(Vecd vec, double[] dest, int offset) {
+		assert vec instanceof Vec3d;
+		Vec3d vec3d = (Vec3d) vec;
+		dest[offset] = x * vec3d.x;
+		dest[offset + 1] = y * vec3d.y;
+		dest[offset + 2] = z * vec3d.z;
+		return dest;
+	}
+
 	@Override
 	public double get(int i) {
 		switch (i) {
@@ -249,4 +415,21 @@ public class Vec3d implements Vecd {
         return (this.scale(1 - percent)).add(vecb.scale(percent));
     }
 
+    /**
+     * Linear interpolation written as x, y, z into dest starting at offset, without allocating.
+     *
+     * @param vecb vector to interpolate towards
+     * @param percent 0 gives this vector, 1 gives vecb
+     * @param dest destination array, needs 3 values from offset
+     * @param offset start index in dest
+     * @return dest
+     */
+    public double[] lerp(Vec3d vecb, double percent, double[] dest, int offset) {
+        double thisPercent = 1 - percent;
+        dest[offset] = x * thisPercent + vecb.x * percent;
+        dest[offset + 1] = y * thisPercent + vecb.y * percent;
+        dest[offset + 2] = z * thisPercent + vecb.z * percent;
+        return dest;
+    }
+
 }
@@ -0,0 +1,282 @@
+package com.boc_dev.maths.objects.vector;
+
+import java.util.Objects;
+
+/**
+ * Structure of arrays store for many {@link Vec3d}s. x, y and z are kept in separate primitive arrays so bulk
+ * operations run as simple loops over contiguous memory instead of chasing one object per point.
+ *
+ * Bulk operations work over the index range [from, to) and write into a destination array, which may be this array
+ * or the other operand to work in place.
+ */
+public class Vec3dArray {
+
+	private final double[] x;
+	private final double[] y;
+	private final double[] z;
+	private final int size;
+
+	public Vec3dArray(int size) {
+		this(new double[size], new double[size], new double[size]);
+	}
+
+	/**
+	 * Wraps existing component arrays, no copy is made.
+	 *
+	 * @param x x components
+	 * @param y y components
+	 * @param z z components
+	 */
+	public Vec3dArray(double[] x, double[] y, double[] z) {
+		if (x.length != y.length || x.length != z.length) {
+			throw new IllegalArgumentException("Component arrays must be the same length");
+		}
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.size = x.length;
+	}
+
+	public static Vec3dArray FromVecs(Vec3d... vecs) {
+		Vec3dArray array = new Vec3dArray(vecs.length);
+		for (int i = 0; i < vecs.length; i++) {
+			array.x[i] = vecs[i].getX();
+			array.y[i] = vecs[i].getY();
+			array.z[i] = vecs[i].getZ();
+		}
+		return array;
+	}
+
+	public static Vec3dArray FromVecs(Vec3f... vecs) {
+		Vec3dArray array = new Vec3dArray(vecs.length);
+		for (int i = 0; i < vecs.length; i++) {
+			array.x[i] = vecs[i].getX();
+			array.y[i] = vecs[i].getY();
+			array.z[i] = vecs[i].getZ();
+		}
+		return array;
+	}
+
+	public Vec3d[] toVecs() {
+		Vec3d[] vecs = new Vec3d[size];
+		for (int i = 0; i < size; i++) {
+			vecs[i] = new Vec3d(x[i], y[i], z[i]);
+		}
+		return vecs;
+	}
+
+	public Vec3fArray toVec3fArray() {
+		Vec3fArray array = new Vec3fArray(size);
+		for (int i = 0; i < size; i++) {
+			array.set(i, (float) x[i], (float) y[i], (float) z[i]);
+		}
+		return array;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public double getX(int i) {
+		return x[i];
+	}
+
+	public double getY(int i) {
+		return y[i];
+	}
+
+	public double getZ(int i) {
+		return z[i];
+	}
+
+	public Vec3d get(int i) {
+		return new Vec3d(x[i], y[i], z[i]);
+	}
+
+	public void set(int i, double x, double y, double z) {
+		this.x[i] = x;
+		this.y[i] = y;
+		this.z[i] = z;
+	}
+
+	public void set(int i, Vec3d vec) {
+		set(i, vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	/**
+	 * Backing arrays, shared with this store.
+	 */
+	public double[] getXs() {
+		return x;
+	}
+
+	public double[] getYs() {
+		return y;
+	}
+
+	public double[] getZs() {
+		return z;
+	}
+
+	public void add(Vec3dArray vecs, Vec3dArray dest, int from, int to) {
+		checkRange(vecs, dest, from, to);
+		double[] bx = vecs.x, by = vecs.y, bz = vecs.z;
+		double[] dx = dest.x, dy = dest.y, dz = dest.z;
+		for (int i = from; i < to; i++) {
+			dx[i] = x[i] + bx[i];
+			dy[i] = y[i] + by[i];
+			dz[i] = z[i] + bz[i];
+		}
+	}
+
+	public void add(Vec3dArray vecs, Vec3dArray dest) {
+		add(vecs, dest, 0, size);
+	}
+
+	/**
+	 * Adds the same vector to every element in range, e.g. a translation.
+	 */
+	public void add(Vec3d vec, Vec3dArray dest, int from, int to) {
+		checkRange(this, dest, from, to);
+		double vx = vec.getX(), vy = vec.getY(), vz = vec.getZ();
+		double[] dx = dest.x, dy = dest.y, dz = dest.z;
+		for (int i = from; i < to; i++) {
+			dx[i] = x[i] + vx;
+			dy[i] = y[i] + vy;
+			dz[i] = z[i] + vz;
+		}
+	}
+
+	public void subtract(Vec3dArray vecs, Vec3dArray dest, int from, int to) {
+		checkRange(vecs, dest, from, to);
+		double[] bx = vecs.x, by = vecs.y, bz = vecs.z;
+		double[] dx = dest.x, dy = dest.y, dz = dest.z;
+		for (int i = from; i < to; i++) {
+			dx[i] = x[i] - bx[i];
+			dy[i] = y[i] - by[i];
+			dz[i] = z[i] - bz[i];
+		}
+	}
+
+	public void subtract(Vec3dArray vecs, Vec3dArray dest) {
+		subtract(vecs, dest, 0, size);
+	}
+
+	public void subtract(Vec3d vec, Vec3dArray dest, int from, int to) {
+		checkRange(this, dest, from, to);
+		double vx = vec.getX(), vy = vec.getY(), vz = vec.getZ();
+		double[] dx = dest.x, dy = dest.y, dz = dest.z;
+		for (int i = from; i < to; i++) {
+			dx[i] = x[i] - vx;
+			dy[i] = y[i] - vy;
+			dz[i] = z[i] - vz;
+		}
+	}
+
+	public void scale(double s, Vec3dArray dest, int from, int to) {
+		checkRange(this, dest, from, to);
+		double[] dx = dest.x, dy = dest.y, dz = dest.z;
+		for (int i = from; i < to; i++) {
+			dx[i] = x[i] * s;
+			dy[i] = y[i] * s;
+			dz[i] = z[i] * s;
+		}
+	}
+
+	public void scale(double s, Vec3dArray dest) {
+		scale(s, dest, 0, size);
+	}
+
+	/**
+	 * Element wise dot products, dest[i] = this[i] . vecs[i].
+	 */
+	public void dot(Vec3dArray vecs, double[] dest, int from, int to) {
+		checkRange(vecs, this, from, to);
+		Objects.checkFromToIndex(from, to, dest.length);
+		double[] bx = vecs.x, by = vecs.y, bz = vecs.z;
+		for (int i = from; i < to; i++) {
+			dest[i] = x[i] * bx[i] + y[i] * by[i] + z[i] * bz[i];
+		}
+	}
+
+	public void dot(Vec3dArray vecs, double[] dest) {
+		dot(vecs, dest, 0, size);
+	}
+
+	public void cross(Vec3dArray vecs, Vec3dArray dest, int from, int to) {
+		checkRange(vecs, dest, from, to);
+		double[] bx = vecs.x, by = vecs.y, bz = vecs.z;
+		double[] dx = dest.x, dy = dest.y, dz = dest.z;
+		for (int i = from; i < to; i++) {
+			double ax = x[i], ay = y[i], az = z[i];
+			double cx = bx[i], cy = by[i], cz = bz[i];
+			dx[i] = ay * cz - az * cy;
+			dy[i] = az * cx - ax * cz;
+			dz[i] = ax * cy - ay * cx;
+		}
+	}
+
+	public void cross(Vec3dArray vecs, Vec3dArray dest) {
+		cross(vecs, dest, 0, size);
+	}
+
+	public void length2(double[] dest, int from, int to) {
+		checkRange(this, this, from, to);
+		Objects.checkFromToIndex(from, to, dest.length);
+		for (int i = from; i < to; i++) {
+			dest[i] = x[i] * x[i] + y[i] * y[i] + z[i] * z[i];
+		}
+	}
+
+	public void length(double[] dest, int from, int to) {
+		length2(dest, from, to);
+		for (int i = from; i < to; i++) {
+			dest[i] = Math.sqrt(dest[i]);
+		}
+	}
+
+	public void length(double[] dest) {
+		length(dest, 0, size);
+	}
+
+	/**
+	 * Normalises every element in range. Zero length elements become zero, matching {@link Vec3d#normalise()}.
+	 */
+	public void normalise(Vec3dArray dest, int from, int to) {
+		checkRange(this, dest, from, to);
+		double[] dx = dest.x, dy = dest.y, dz = dest.z;
+		for (int i = from; i < to; i++) {
+			double length = Math.sqrt(x[i] * x[i] + y[i] * y[i] + z[i] * z[i]);
+			double inv = length == 0.0 ? 0.0 : 1.0 / length;
+			dx[i] = x[i] * inv;
+			dy[i] = y[i] * inv;
+			dz[i] = z[i] * inv;
+		}
+	}
+
+	public void normalise(Vec3dArray dest) {
+		normalise(dest, 0, size);
+	}
+
+	public void lerp(Vec3dArray vecs, double percent, Vec3dArray dest, int from, int to) {
+		checkRange(vecs, dest, from, to);
+		double thisPercent = 1 - percent;
+		double[] bx = vecs.x, by = vecs.y, bz = vecs.z;
+		double[] dx = dest.x, dy = dest.y, dz = dest.z;
+		for (int i = from; i < to; i++) {
+			dx[i] = x[i] * thisPercent + bx[i] * percent;
+			dy[i] = y[i] * thisPercent + by[i] * percent;
+			dz[i] = z[i] * thisPercent + bz[i] * percent;
+		}
+	}
+
+	public void lerp(Vec3dArray vecs, double percent, Vec3dArray dest) {
+		lerp(vecs, percent, dest, 0, size);
+	}
+
+	private void checkRange(Vec3dArray other, Vec3dArray dest, int from, int to) {
+		Objects.checkFromToIndex(from, to, size);
+		Objects.checkFromToIndex(from, to, other.size);
+		Objects.checkFromToIndex(from, to, dest.size);
+	}
+}
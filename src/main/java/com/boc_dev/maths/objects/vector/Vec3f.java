@@ -50,6 +50,23 @@ public class Vec3f implements Vecf {
 				this.z + vec3f.z);
 	}
 
+	/**
+	 * Addition written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param vec vector to add
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] add(Vecf vec, float[] dest, int offset) {
+		assert vec instanceof Vec3f;
+		Vec3f vec3f = (Vec3f) vec;
+		dest[offset] = this.x + vec3f.x;
+		dest[offset + 1] = this.y + vec3f.y;
+		dest[offset + 2] = this.z + vec3f.z;
+		return dest;
+	}
+
 	public Vec3f subtract(Vecf vec) {
 		assert vec instanceof Vec3f;
 		Vec3f vec3f = (Vec3f) vec;
@@ -59,6 +76,23 @@ public class Vec3f implements Vecf {
 				this.z - vec3f.z);
 	}
 
+	/**
+	 * Subtraction written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param vec vector to subtract
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] subtract(Vecf vec, float[] dest, int offset) {
+		assert vec instanceof Vec3f;
+		Vec3f vec3f = (Vec3f) vec;
+		dest[offset] = this.x - vec3f.x;
+		dest[offset + 1] = this.y - vec3f.y;
+		dest[offset + 2] = this.z - vec3f.z;
+		return dest;
+	}
+
 	public Vec3f scale(float s) {
 		return new Vec3f(
 				this.x * s,
@@ -66,6 +100,21 @@ public class Vec3f implements Vecf {
 				this.z * s);
 	}
 
+	/**
+	 * Scale written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param s scale
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] scale(float s, float[] dest, int offset) {
+		dest[offset] = this.x * s;
+		dest[offset + 1] = this.y * s;
+		dest[offset + 2] = this.z * s;
+		return dest;
+	}
+
 	public float dot(Vecf vec) {
 		assert vec instanceof Vec3f;
 		Vec3f vec3f = (Vec3f) vec;
@@ -93,18 +142,42 @@ public class Vec3f implements Vecf {
 		return this.scale(1f/this.length());
 	}
 
+	/**
+	 * Normalised vector written as x, y, z into dest starting at offset, without allocating. A zero length vector writes zero.
+	 *
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] normalise(float[] dest, int offset) {
+		float length = this.length();
+		if (length == 0.0f) {
+			dest[offset] = 0;
+			dest[offset + 1] = 0;
+			dest[offset + 2] = 0;
+			return dest;
+		}
+		return this.scale(1f/length, dest, offset);
+	}
+
 	public float[] getValues() {
 		return new float[] {x, y, z};
 	}
 
 	public Matrix4f outerProduct(Vecf vec3f) {
 
+		if (vec3f instanceof Vec3f) {
+			return new Matrix4f(outerProduct((Vec3f) vec3f, new float[16], 0));
+		}
+
 		float[] elements = new float[16];
+		float[] thisValues = this.getValues();
+		float[] otherValues = vec3f.getValues();
 
-		for (int thisVecIndex = 0; thisVecIndex < this.getValues().length; thisVecIndex++) {
-			for (int otherVecIndex = 0; otherVecIndex < vec3f.getValues().length; otherVecIndex++) {
+		for (int thisVecIndex = 0; thisVecIndex < thisValues.length; thisVecIndex++) {
+			for (int otherVecIndex = 0; otherVecIndex < otherValues.length; otherVecIndex++) {
 
-				elements[thisVecIndex * 4 + otherVecIndex] = this.getValues()[thisVecIndex] * vec3f.getValues()[otherVecIndex];
+				elements[thisVecIndex * 4 + otherVecIndex] = thisValues[thisVecIndex] * otherValues[otherVecIndex];
 
 			}
 		}
@@ -112,6 +185,32 @@ public class Vec3f implements Vecf {
 		return new Matrix4f(elements);
 	}
 
+	/**
+	 * Writes the outer product into the top left 3x3 of a 4x4 row major matrix at dest[offset], the rest is zeroed.
+	 *
+	 * @return dest
+	 */
+	public float[] outerProduct(Vec3f vec, float[] dest, int offset) {
+		float ox = vec.x, oy = vec.y, oz = vec.z;
+		dest[offset] = x * ox;
+		dest[offset + 1] = x * oy;
+		dest[offset + 2] = x * oz;
+		dest[offset + 3] = 0;
+		dest[offset + 4] = y * ox;
+		dest[offset + 5] = y * oy;
+		dest[offset + 6] = y * oz;
+		dest[offset + 7] = 0;
+		dest[offset + 8] = z * ox;
+		dest[offset + 9] = z * oy;
+		dest[offset + 10] = z * oz;
+		dest[offset + 11] = 0;
+		dest[offset + 12] = 0;
+		dest[offset + 13] = 0;
+		dest[offset + 14] = 0;
+		dest[offset + 15] = 0;
+		return dest;
+	}
+
 	public Vec3f cross(Vecf vec) {
 		assert vec instanceof Vec3f;
 		Vec3f vec3f = (Vec3f) vec;
@@ -122,6 +221,23 @@ public class Vec3f implements Vecf {
 		);
 	}
 
+	/**
+	 * Cross product written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param vec right hand vector
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] cross(Vecf vec, float[] dest, int offset) {
+		assert vec instanceof Vec3f;
+		Vec3f vec3f = (Vec3f) vec;
+		dest[offset] = this.y * vec3f.z - this.z * vec3f.y;
+		dest[offset + 1] = this.z * vec3f.x - this.x * vec3f.z;
+		dest[offset + 2] = this.x * vec3f.y - this.y * vec3f.x;
+		return dest;
+	}
+
 	public Vec3f neg() {
 		return new Vec3f(
 				-this.x,
@@ -130,6 +246,20 @@ public class Vec3f implements Vecf {
 		);
 	}
 
+	/**
+	 * Negation written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] neg(float[] dest, int offset) {
+		dest[offset] = -this.x;
+		dest[offset + 1] = -this.y;
+		dest[offset + 2] = -this.z;
+		return dest;
+	}
+
 	// used for integration
 	public Matrix4f star() {
 		return new Matrix4f(
@@ -168,6 +298,25 @@ public class Vec3f implements Vecf {
 		);
 	}
 
+	/**
+	 * Same result as {@link #multiply(Matrix4f)}, written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param m matrix to multiply by
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] multiply(Matrix4f m, float[] dest, int offset) {
+		float[] e = m.getValues();
+		float newX = x * e[0] + y * e[1] + z * e[2];
+		float newY = x * e[4] + y * e[5] + z * e[6];
+		float newZ = x * e[8] + y * e[9] + z * e[10];
+		dest[offset] = newX;
+		dest[offset + 1] = newY;
+		dest[offset + 2] = newZ;
+		return dest;
+	}
+
 	// element wise multiplication
 	public Vec3f multiply(Vecf vec) {
 		assert vec instanceof Vec3f;
@@ -179,6 +328,23 @@ public class Vec3f implements Vecf {
 		);
 	}
 
+	/**
+	 * Element wise multiplication written as x, y, z into dest starting at offset, without allocating.
+	 *
+	 * @param vec vector to multiply by
+	 * @param dest destination array, needs 3 values from offset
+	 * @param offset start index in dest
+	 * @return dest
+	 */
+	public float[] multiply(Vecf vec, float[] dest, int offset) {
+		assert vec instanceof Vec3f;
+		Vec3f vec3f = (Vec3f) vec;
+		dest[offset] = x * vec3f.x;
+		dest[offset + 1] = y * vec3f.y;
+		dest[offset + 2] = z * vec3f.z;
+		return dest;
+	}
+
 	@Override
 	public float get(int i) {
 		switch (i) {
@@ -244,4 +410,21 @@ public class Vec3f implements Vecf {
     public Vecf lerp(Vecf vecb, float percent) {
         return (this.scale(1 - percent)).add(vecb.scale(percent));
     }
+
+    /**
+     * Linear interpolation written as x, y, z into dest starting at offset, without allocating.
+     *
+     * @param vecb vector to interpolate towards
+     * @param percent 0 gives this vector, 1 gives vecb
+     * @param dest destination array, needs 3 values from offset
+     * @param offset start index in dest
+     * @return dest
+     */
+    public float[] lerp(Vec3f vecb, float percent, float[] dest, int offset) {
+        float thisPercent = 1 - percent;
+        dest[offset] = x * thisPercent + vecb.x * percent;
+        dest[offset + 1] = y * thisPercent + vecb.y * percent;
+        dest[offset + 2] = z * thisPercent + vecb.z * percent;
+        return dest;
+    }
 }
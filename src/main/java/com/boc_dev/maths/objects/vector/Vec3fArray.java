@@ -0,0 +1,292 @@
+package com.boc_dev.maths.objects.vector;
+
+import com.boc_dev.maths.objects.QuaternionF;
+import com.boc_dev.maths.objects.matrix.Matrix4f;
+import com.boc_dev.maths.simd.BulkMath;
+
+import java.util.Objects;
+
+/**
+ * Structure of arrays store for many {@link Vec3f}s. x, y and z are kept in separate primitive arrays so bulk
+ * operations run as simple loops over contiguous memory instead of chasing one object per point.
+ *
+ * Bulk operations work over the index range [from, to) and write into a destination array, which may be this array
+ * or the other operand to work in place.
+ */
+public class Vec3fArray {
+
+	private final float[] x;
+	private final float[] y;
+	private final float[] z;
+	private final int size;
+
+	public Vec3fArray(int size) {
+		this(new float[size], new float[size], new float[size]);
+	}
+
+	/**
+	 * Wraps existing component arrays, no copy is made.
+	 *
+	 * @param x x components
+	 * @param y y components
+	 * @param z z components
+	 */
+	public Vec3fArray(float[] x, float[] y, float[] z) {
+		if (x.length != y.length || x.length != z.length) {
+			throw new IllegalArgumentException("Component arrays must be the same length");
+		}
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.size = x.length;
+	}
+
+	public static Vec3fArray FromVecs(Vec3f... vecs) {
+		Vec3fArray array = new Vec3fArray(vecs.length);
+		for (int i = 0; i < vecs.length; i++) {
+			array.x[i] = vecs[i].getX();
+			array.y[i] = vecs[i].getY();
+			array.z[i] = vecs[i].getZ();
+		}
+		return array;
+	}
+
+	public static Vec3fArray FromVecs(Vec3d... vecs) {
+		Vec3fArray array = new Vec3fArray(vecs.length);
+		for (int i = 0; i < vecs.length; i++) {
+			array.x[i] = (float) vecs[i].getX();
+			array.y[i] = (float) vecs[i].getY();
+			array.z[i] = (float) vecs[i].getZ();
+		}
+		return array;
+	}
+
+	public Vec3f[] toVecs() {
+		Vec3f[] vecs = new Vec3f[size];
+		for (int i = 0; i < size; i++) {
+			vecs[i] = new Vec3f(x[i], y[i], z[i]);
+		}
+		return vecs;
+	}
+
+	public Vec3dArray toVec3dArray() {
+		Vec3dArray array = new Vec3dArray(size);
+		for (int i = 0; i < size; i++) {
+			array.set(i, x[i], y[i], z[i]);
+		}
+		return array;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public float getX(int i) {
+		return x[i];
+	}
+
+	public float getY(int i) {
+		return y[i];
+	}
+
+	public float getZ(int i) {
+		return z[i];
+	}
+
+	public Vec3f get(int i) {
+		return new Vec3f(x[i], y[i], z[i]);
+	}
+
+	public void set(int i, float x, float y, float z) {
+		this.x[i] = x;
+		this.y[i] = y;
+		this.z[i] = z;
+	}
+
+	public void set(int i, Vec3f vec) {
+		set(i, vec.getX(), vec.getY(), vec.getZ());
+	}
+
+	/**
+	 * Backing arrays, shared with this store.
+	 */
+	public float[] getXs() {
+		return x;
+	}
+
+	public float[] getYs() {
+		return y;
+	}
+
+	public float[] getZs() {
+		return z;
+	}
+
+	public void add(Vec3fArray vecs, Vec3fArray dest, int from, int to) {
+		checkRange(vecs, dest, from, to);
+		BulkMath.add(x, vecs.x, dest.x, from, to);
+		BulkMath.add(y, vecs.y, dest.y, from, to);
+		BulkMath.add(z, vecs.z, dest.z, from, to);
+	}
+
+	public void add(Vec3fArray vecs, Vec3fArray dest) {
+		add(vecs, dest, 0, size);
+	}
+
+	/**
+	 * Adds the same vector to every element in range, e.g. a translation.
+	 */
+	public void add(Vec3f vec, Vec3fArray dest, int from, int to) {
+		checkRange(this, dest, from, to);
+		float vx = vec.getX(), vy = vec.getY(), vz = vec.getZ();
+		float[] dx = dest.x, dy = dest.y, dz = dest.z;
+		for (int i = from; i < to; i++) {
+			dx[i] = x[i] + vx;
+			dy[i] = y[i] + vy;
+			dz[i] = z[i] + vz;
+		}
+	}
+
+	public void subtract(Vec3fArray vecs, Vec3fArray dest, int from, int to) {
+		checkRange(vecs, dest, from, to);
+		BulkMath.subtract(x, vecs.x, dest.x, from, to);
+		BulkMath.subtract(y, vecs.y, dest.y, from, to);
+		BulkMath.subtract(z, vecs.z, dest.z, from, to);
+	}
+
+	public void subtract(Vec3fArray vecs, Vec3fArray dest) {
+		subtract(vecs, dest, 0, size);
+	}
+
+	public void subtract(Vec3f vec, Vec3fArray dest, int from, int to) {
+		checkRange(this, dest, from, to);
+		float vx = vec.getX(), vy = vec.getY(), vz = vec.getZ();
+		float[] dx = dest.x, dy = dest.y, dz = dest.z;
+		for (int i = from; i < to; i++) {
+			dx[i] = x[i] - vx;
+			dy[i] = y[i] - vy;
+			dz[i] = z[i] - vz;
+		}
+	}
+
+	public void scale(float s, Vec3fArray dest, int from, int to) {
+		checkRange(this, dest, from, to);
+		BulkMath.scale(x, s, dest.x, from, to);
+		BulkMath.scale(y, s, dest.y, from, to);
+		BulkMath.scale(z, s, dest.z, from, to);
+	}
+
+	public void scale(float s, Vec3fArray dest) {
+		scale(s, dest, 0, size);
+	}
+
+	/**
+	 * Element wise dot products, dest[i] = this[i] . vecs[i].
+	 */
+	public void dot(Vec3fArray vecs, float[] dest, int from, int to) {
+		checkRange(vecs, this, from, to);
+		Objects.checkFromToIndex(from, to, dest.length);
+		float[] bx = vecs.x, by = vecs.y, bz = vecs.z;
+		for (int i = from; i < to; i++) {
+			dest[i] = x[i] * bx[i] + y[i] * by[i] + z[i] * bz[i];
+		}
+	}
+
+	public void dot(Vec3fArray vecs, float[] dest) {
+		dot(vecs, dest, 0, size);
+	}
+
+	public void cross(Vec3fArray vecs, Vec3fArray dest, int from, int to) {
+		checkRange(vecs, dest, from, to);
+		float[] bx = vecs.x, by = vecs.y, bz = vecs.z;
+		float[] dx = dest.x, dy = dest.y, dz = dest.z;
+		for (int i = from; i < to; i++) {
+			float ax = x[i], ay = y[i], az = z[i];
+			float cx = bx[i], cy = by[i], cz = bz[i];
+			dx[i] = ay * cz - az * cy;
+			dy[i] = az * cx - ax * cz;
+			dz[i] = ax * cy - ay * cx;
+		}
+	}
+
+	public void cross(Vec3fArray vecs, Vec3fArray dest) {
+		cross(vecs, dest, 0, size);
+	}
+
+	public void length2(float[] dest, int from, int to) {
+		checkRange(this, this, from, to);
+		Objects.checkFromToIndex(from, to, dest.length);
+		for (int i = from; i < to; i++) {
+			dest[i] = x[i] * x[i] + y[i] * y[i] + z[i] * z[i];
+		}
+	}
+
+	public void length(float[] dest, int from, int to) {
+		length2(dest, from, to);
+		for (int i = from; i < to; i++) {
+			dest[i] = (float) Math.sqrt(dest[i]);
+		}
+	}
+
+	public void length(float[] dest) {
+		length(dest, 0, size);
+	}
+
+	/**
+	 * Normalises every element in range. Zero length elements become zero, matching {@link Vec3f#normalise()}.
+	 */
+	public void normalise(Vec3fArray dest, int from, int to) {
+		checkRange(this, dest, from, to);
+		BulkMath.normalise(x, y, z, dest.x, dest.y, dest.z, from, to);
+	}
+
+	public void normalise(Vec3fArray dest) {
+		normalise(dest, 0, size);
+	}
+
+	/**
+	 * Transforms every point in range by m, as {@link Matrix4f#multiply(Vec3f)}.
+	 */
+	public void multiply(Matrix4f m, Vec3fArray dest, int from, int to) {
+		checkRange(this, dest, from, to);
+		BulkMath.transform(m, x, y, z, dest.x, dest.y, dest.z, from, to);
+	}
+
+	public void multiply(Matrix4f m, Vec3fArray dest) {
+		multiply(m, dest, 0, size);
+	}
+
+	/**
+	 * Rotates every vector in range by the unit quaternion q, as {@link QuaternionF#rotate(Vec3f)}.
+	 */
+	public void rotate(QuaternionF q, Vec3fArray dest, int from, int to) {
+		checkRange(this, dest, from, to);
+		BulkMath.rotate(q, x, y, z, dest.x, dest.y, dest.z, from, to);
+	}
+
+	public void rotate(QuaternionF q, Vec3fArray dest) {
+		rotate(q, dest, 0, size);
+	}
+
+	public void lerp(Vec3fArray vecs, float percent, Vec3fArray dest, int from, int to) {
+		checkRange(vecs, dest, from, to);
+		float thisPercent = 1 - percent;
+		float[] bx = vecs.x, by = vecs.y, bz = vecs.z;
+		float[] dx = dest.x, dy = dest.y, dz = dest.z;
+		for (int i = from; i < to; i++) {
+			dx[i] = x[i] * thisPercent + bx[i] * percent;
+			dy[i] = y[i] * thisPercent + by[i] * percent;
+			dz[i] = z[i] * thisPercent + bz[i] * percent;
+		}
+	}
+
+	public void lerp(Vec3fArray vecs, float percent, Vec3fArray dest) {
+		lerp(vecs, percent, dest, 0, size);
+	}
+
+	private void checkRange(Vec3fArray other, Vec3fArray dest, int from, int to) {
+		Objects.checkFromToIndex(from, to, size);
+		Objects.checkFromToIndex(from, to, other.size);
+		Objects.checkFromToIndex(from, to, dest.size);
+	}
+}
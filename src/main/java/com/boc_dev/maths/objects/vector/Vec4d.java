@@ -4,7 +4,7 @@ import com.boc_dev.maths.objects.matrix.Matrix4d;
 
 import java.util.Objects;
 
-public class Vec4d {
+public class Vec4d implements Vecd {
 
 	public static final Vec4d ZERO = new Vec4d(0, 0, 0, 0);
 	public static final Vec4d X = new Vec4d(1, 0, 0, 0);
@@ -69,17 +69,27 @@ public class Vec4d {
 	}
 
 	public double[] getValues() {
-		return new double[] {x, y, z};
+		return new double[] {x, y, z, s};
 	}
 
-	public Matrix4d outerProduct(Vecf vec3f) {
+	/**
+	 * Outer product with vec, this vector giving the 4 rows and vec the columns. vec may have up to 4 components, the
+	 * columns past its size are left 0.
+	 */
+	public Matrix4d outerProduct(Vecf vec) {
+
+		double[] thisValues = this.getValues();
+		float[] otherValues = vec.getValues();
+		if (otherValues.length > 4) {
+			throw new IllegalArgumentException("Outer product with a " + otherValues.length + " component vector does not fit a 4x4 matrix");
+		}
 
 		double[] elements = new double[16];
 
-		for (int thisVecIndex = 0; thisVecIndex < this.getValues().length; thisVecIndex++) {
-			for (int otherVecIndex = 0; otherVecIndex < vec3f.getValues().length; otherVecIndex++) {
+		for (int thisVecIndex = 0; thisVecIndex < 4; thisVecIndex++) {
+			for (int otherVecIndex = 0; otherVecIndex < otherValues.length; otherVecIndex++) {
 
-				elements[thisVecIndex * 4 + otherVecIndex] = this.getValues()[thisVecIndex] * vec3f.getValues()[otherVecIndex];
+				elements[thisVecIndex * 4 + otherVecIndex] = thisValues[thisVecIndex] * otherValues[otherVecIndex];
 
 			}
 		}
@@ -87,6 +97,77 @@ public class Vec4d {
 		return new Matrix4d(elements);
 	}
 
+	public Vec4d add(Vecd vec) {
+		assert vec instanceof Vec4d;
+		return add((Vec4d) vec);
+	}
+
+	public Vec4d subtract(Vecd vec) {
+		assert vec instanceof Vec4d;
+		return subtract((Vec4d) vec);
+	}
+
+	public double dot(Vecd vec) {
+		assert vec instanceof Vec4d;
+		Vec4d vec4 = (Vec4d) vec;
+		return
+				this.x * vec4.x +
+				this.y * vec4.y +
+				this.z * vec4.z +
+				this.s * vec4.s;
+	}
+
+	public double length2() {
+		return
+				(this.x * this.x) +
+				(this.y * this.y) +
+				(this.z * this.z) +
+				(this.s * this.s);
+	}
+
+	public double length() {
+		return Math.sqrt(length2());
+	}
+
+	public Vec4d normalise() {
+		double length = this.length();
+		if (length == 0.0) {
+			return Vec4d.ZERO;
+		}
+		return this.scale(1.0/length);
+	}
+
+	/**
+	 * Cross product of the x, y and z parts, treating both as directions so s is 0.
+	 */
+	public Vec4d cross(Vecd vec) {
+		assert vec instanceof Vec4d;
+		Vec4d vec4 = (Vec4d) vec;
+		return new Vec4d(
+				this.y * vec4.z - this.z * vec4.y,
+				this.z * vec4.x - this.x * vec4.z,
+				this.x * vec4.y - this.y * vec4.x,
+				0
+		);
+	}
+
+	@Override
+	public Vec4d multiply(Vecd vec) {
+		assert vec instanceof Vec4d;
+		Vec4d vec4 = (Vec4d) vec;
+		return new Vec4d(x * vec4.x, y * vec4.y, z * vec4.z, s * vec4.s);
+	}
+
+	@Override
+	public Vec4f toVecf() {
+		return new Vec4f((float) x, (float) y, (float) z, (float) s);
+	}
+
+	@Override
+	public Vecd lerp(Vecd vecb, double percent) {
+		return (this.scale(1 - percent)).add(vecb.scale(percent));
+	}
+
 	public Vec4d neg() {
 		return new Vec4d(
 				-this.x,
@@ -4,7 +4,7 @@ import com.boc_dev.maths.objects.matrix.Matrix4f;
 
 import java.util.Objects;
 
-public class Vec4f {
+public class Vec4f implements Vecf {
 
 	public static final Vec4f ZERO = new Vec4f(0, 0, 0, 0);
 	public static final Vec4f X = new Vec4f(1, 0, 0, 0);
@@ -75,11 +75,13 @@ public class Vec4f {
 	public Matrix4f outerProduct(Vecf vec3f) {
 
 		float[] elements = new float[16];
+		float[] thisValues = this.getValues();
+		float[] otherValues = vec3f.getValues();
 
-		for (int thisVecIndex = 0; thisVecIndex < this.getValues().length; thisVecIndex++) {
-			for (int otherVecIndex = 0; otherVecIndex < vec3f.getValues().length; otherVecIndex++) {
+		for (int thisVecIndex = 0; thisVecIndex < thisValues.length; thisVecIndex++) {
+			for (int otherVecIndex = 0; otherVecIndex < otherValues.length; otherVecIndex++) {
 
-				elements[thisVecIndex * 4 + otherVecIndex] = this.getValues()[thisVecIndex] * vec3f.getValues()[otherVecIndex];
+				elements[thisVecIndex * 4 + otherVecIndex] = thisValues[thisVecIndex] * otherValues[otherVecIndex];
 
 			}
 		}
@@ -87,6 +89,107 @@ public class Vec4f {
 		return new Matrix4f(elements);
 	}
 
+	public Matrix4f outerProduct(Vec4f vec) {
+		return new Matrix4f(outerProduct(vec, new float[16], 0));
+	}
+
+	/**
+	 * Writes the 4x4 row major outer product into dest starting at offset.
+	 *
+	 * @return dest
+	 */
+	public float[] outerProduct(Vec4f vec, float[] dest, int offset) {
+		float ox = vec.x, oy = vec.y, oz = vec.z, os = vec.s;
+		dest[offset] = x * ox;
+		dest[offset + 1] = x * oy;
+		dest[offset + 2] = x * oz;
+		dest[offset + 3] = x * os;
+		dest[offset + 4] = y * ox;
+		dest[offset + 5] = y * oy;
+		dest[offset + 6] = y * oz;
+		dest[offset + 7] = y * os;
+		dest[offset + 8] = z * ox;
+		dest[offset + 9] = z * oy;
+		dest[offset + 10] = z * oz;
+		dest[offset + 11] = z * os;
+		dest[offset + 12] = s * ox;
+		dest[offset + 13] = s * oy;
+		dest[offset + 14] = s * oz;
+		dest[offset + 15] = s * os;
+		return dest;
+	}
+
+	public Vec4f add(Vecf vec) {
+		assert vec instanceof Vec4f;
+		return add((Vec4f) vec);
+	}
+
+	public Vec4f subtract(Vecf vec) {
+		assert vec instanceof Vec4f;
+		return subtract((Vec4f) vec);
+	}
+
+	public float dot(Vecf vec) {
+		assert vec instanceof Vec4f;
+		Vec4f vec4 = (Vec4f) vec;
+		return
+				this.x * vec4.x +
+				this.y * vec4.y +
+				this.z * vec4.z +
+				this.s * vec4.s;
+	}
+
+	public float length2() {
+		return
+				(this.x * this.x) +
+				(this.y * this.y) +
+				(this.z * this.z) +
+				(this.s * this.s);
+	}
+
+	public float length() {
+		return (float) Math.sqrt(length2());
+	}
+
+	public Vec4f normalise() {
+		float length = this.length();
+		if (length == 0.0) {
+			return Vec4f.ZERO;
+		}
+		return this.scale(1f/length);
+	}
+
+	/**
+	 * Cross product of the x, y and z parts, treating both as directions so s is 0.
+	 */
+	public Vec4f cross(Vecf vec) {
+		assert vec instanceof Vec4f;
+		Vec4f vec4 = (Vec4f) vec;
+		return new Vec4f(
+				this.y * vec4.z - this.z * vec4.y,
+				this.z * vec4.x - this.x * vec4.z,
+				this.x * vec4.y - this.y * vec4.x,
+				0
+		);
+	}
+
+	@Override
+	public Vec4f multiply(Vecf vec) {
+		assert vec instanceof Vec4f;
+		Vec4f vec4 = (Vec4f) vec;
+		return new Vec4f(x * vec4.x, y * vec4.y, z * vec4.z, s * vec4.s);
+	}
+
+	@Override
+	public Vec4d toVecd() {
+		return new Vec4d(x, y, z, s);
+	}
+
+	@Override
+	public Vecf lerp(Vecf vecb, float percent) {
+		return (this.scale(1 - percent)).add(vecb.scale(percent));
+	}
+
 	public Vec4f neg() {
 		return new Vec4f(
 				-this.x,
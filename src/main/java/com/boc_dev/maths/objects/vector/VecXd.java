@@ -0,0 +1,194 @@
+package com.boc_dev.maths.objects.vector;
+
+import java.util.Arrays;
+
+/**
+ * Vector of any dimension backed by a flat double array. Use {@link Vector#Create(double...)} rather than this
+ * directly, which returns the specialised {@link Vec2d}, {@link Vec3d} and {@link Vec4d} classes for those sizes.
+ */
+public class VecXd implements Vecd {
+
+	private final double[] elements;
+
+	/**
+	 * The array is used as the backing store and is not copied.
+	 */
+	public VecXd(double... elements) {
+		this.elements = elements;
+	}
+
+	public int size() {
+		return elements.length;
+	}
+
+	public VecXd add(Vecd vec) {
+		return new VecXd(add(vec, new double[elements.length], 0));
+	}
+
+	/**
+	 * Writes this + vec into dest starting at offset, without allocating.
+	 *
+	 * @return dest
+	 */
+	public double[] add(Vecd vec, double[] dest, int offset) {
+		double[] other = elementsOf(vec);
+		for (int i = 0; i < elements.length; i++) {
+			dest[offset + i] = elements[i] + other[i];
+		}
+		return dest;
+	}
+
+	public VecXd subtract(Vecd vec) {
+		return new VecXd(subtract(vec, new double[elements.length], 0));
+	}
+
+	/**
+	 * Writes this - vec into dest starting at offset, without allocating.
+	 *
+	 * @return dest
+	 */
+	public double[] subtract(Vecd vec, double[] dest, int offset) {
+		double[] other = elementsOf(vec);
+		for (int i = 0; i < elements.length; i++) {
+			dest[offset + i] = elements[i] - other[i];
+		}
+		return dest;
+	}
+
+	public VecXd scale(double s) {
+		return new VecXd(scale(s, new double[elements.length], 0));
+	}
+
+	/**
+	 * Writes this * s into dest starting at offset, without allocating.
+	 *
+	 * @return dest
+	 */
+	public double[] scale(double s, double[] dest, int offset) {
+		for (int i = 0; i < elements.length; i++) {
+			dest[offset + i] = elements[i] * s;
+		}
+		return dest;
+	}
+
+	public double dot(Vecd vec) {
+		double[] other = elementsOf(vec);
+		double sum = 0.0;
+		for (int i = 0; i < elements.length; i++) {
+			sum += elements[i] * other[i];
+		}
+		return sum;
+	}
+
+	public double length2() {
+		double sum = 0.0;
+		for (double element : elements) {
+			sum += element * element;
+		}
+		return sum;
+	}
+
+	public double length() {
+		return Math.sqrt(length2());
+	}
+
+	public VecXd normalise() {
+		double length = this.length();
+		if (length == 0.0) {
+			return new VecXd(new double[elements.length]);
+		}
+		return this.scale(1.0 / length);
+	}
+
+	public VecXd neg() {
+		return scale(-1.0);
+	}
+
+	/**
+	 * Element wise multiplication.
+	 */
+	@Override
+	public VecXd multiply(Vecd vec) {
+		double[] other = elementsOf(vec);
+		double[] result = new double[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			result[i] = elements[i] * other[i];
+		}
+		return new VecXd(result);
+	}
+
+	/**
+	 * Only defined for 3 dimensions.
+	 */
+	public VecXd cross(Vecd vec) {
+		if (elements.length != 3) {
+			throw new UnsupportedOperationException("Cross product is not defined for a vector of length " + elements.length);
+		}
+		double[] other = elementsOf(vec);
+		return new VecXd(
+				elements[1] * other[2] - elements[2] * other[1],
+				elements[2] * other[0] - elements[0] * other[2],
+				elements[0] * other[1] - elements[1] * other[0]);
+	}
+
+	@Override
+	public Vecd lerp(Vecd vecb, double percent) {
+		double[] other = elementsOf(vecb);
+		double[] result = new double[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			result[i] = elements[i] + (other[i] - elements[i]) * percent;
+		}
+		return new VecXd(result);
+	}
+
+	public double[] getValues() {
+		return elements.clone();
+	}
+
+	public double get(int i) {
+		return elements[i];
+	}
+
+	@Override
+	public VecXf toVecf() {
+		float[] result = new float[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			result[i] = (float) elements[i];
+		}
+		return new VecXf(result);
+	}
+
+	// values of another vector of the same size, read through the interface when it is not a VecXd
+	private double[] elementsOf(Vecd vec) {
+		double[] other = vec instanceof VecXd ? ((VecXd) vec).elements : vec.getValues();
+		if (other.length != elements.length) {
+			throw new IllegalArgumentException("Vector has " + other.length + " values, expected " + elements.length);
+		}
+		return other;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		VecXd vecNd = (VecXd) o;
+		return Arrays.equals(elements, vecNd.elements);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(elements);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < elements.length; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append(elements[i]);
+		}
+		return builder.toString();
+	}
+}
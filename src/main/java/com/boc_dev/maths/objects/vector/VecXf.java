@@ -0,0 +1,193 @@
+package com.boc_dev.maths.objects.vector;
+
+import java.util.Arrays;
+
+/**
+ * Float counterpart of {@link VecXd}, vector of any dimension backed by a flat float array.
+ */
+public class VecXf implements Vecf {
+
+	private final float[] elements;
+
+	/**
+	 * The array is used as the backing store and is not copied.
+	 */
+	public VecXf(float... elements) {
+		this.elements = elements;
+	}
+
+	public int size() {
+		return elements.length;
+	}
+
+	public VecXf add(Vecf vec) {
+		return new VecXf(add(vec, new float[elements.length], 0));
+	}
+
+	/**
+	 * Writes this + vec into dest starting at offset, without allocating.
+	 *
+	 * @return dest
+	 */
+	public float[] add(Vecf vec, float[] dest, int offset) {
+		float[] other = elementsOf(vec);
+		for (int i = 0; i < elements.length; i++) {
+			dest[offset + i] = elements[i] + other[i];
+		}
+		return dest;
+	}
+
+	public VecXf subtract(Vecf vec) {
+		return new VecXf(subtract(vec, new float[elements.length], 0));
+	}
+
+	/**
+	 * Writes this - vec into dest starting at offset, without allocating.
+	 *
+	 * @return dest
+	 */
+	public float[] subtract(Vecf vec, float[] dest, int offset) {
+		float[] other = elementsOf(vec);
+		for (int i = 0; i < elements.length; i++) {
+			dest[offset + i] = elements[i] - other[i];
+		}
+		return dest;
+	}
+
+	public VecXf scale(float s) {
+		return new VecXf(scale(s, new float[elements.length], 0));
+	}
+
+	/**
+	 * Writes this * s into dest starting at offset, without allocating.
+	 *
+	 * @return dest
+	 */
+	public float[] scale(float s, float[] dest, int offset) {
+		for (int i = 0; i < elements.length; i++) {
+			dest[offset + i] = elements[i] * s;
+		}
+		return dest;
+	}
+
+	public float dot(Vecf vec) {
+		float[] other = elementsOf(vec);
+		float sum = 0.0f;
+		for (int i = 0; i < elements.length; i++) {
+			sum += elements[i] * other[i];
+		}
+		return sum;
+	}
+
+	public float length2() {
+		float sum = 0.0f;
+		for (float element : elements) {
+			sum += element * element;
+		}
+		return sum;
+	}
+
+	public float length() {
+		return (float) Math.sqrt(length2());
+	}
+
+	public VecXf normalise() {
+		float length = this.length();
+		if (length == 0.0) {
+			return new VecXf(new float[elements.length]);
+		}
+		return this.scale(1.0f / length);
+	}
+
+	public VecXf neg() {
+		return scale(-1.0f);
+	}
+
+	/**
+	 * Element wise multiplication.
+	 */
+	@Override
+	public VecXf multiply(Vecf vec) {
+		float[] other = elementsOf(vec);
+		float[] result = new float[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			result[i] = elements[i] * other[i];
+		}
+		return new VecXf(result);
+	}
+
+	/**
+	 * Only defined for 3 dimensions.
+	 */
+	public VecXf cross(Vecf vec) {
+		if (elements.length != 3) {
+			throw new UnsupportedOperationException("Cross product is not defined for a vector of length " + elements.length);
+		}
+		float[] other = elementsOf(vec);
+		return new VecXf(
+				elements[1] * other[2] - elements[2] * other[1],
+				elements[2] * other[0] - elements[0] * other[2],
+				elements[0] * other[1] - elements[1] * other[0]);
+	}
+
+	@Override
+	public Vecf lerp(Vecf vecb, float percent) {
+		float[] other = elementsOf(vecb);
+		float[] result = new float[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			result[i] = elements[i] + (other[i] - elements[i]) * percent;
+		}
+		return new VecXf(result);
+	}
+
+	public float[] getValues() {
+		return elements.clone();
+	}
+
+	public float get(int i) {
+		return elements[i];
+	}
+
+	@Override
+	public VecXd toVecd() {
+		double[] result = new double[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			result[i] = elements[i];
+		}
+		return new VecXd(result);
+	}
+
+	// values of another vector of the same size, read through the interface when it is not a VecXf
+	private float[] elementsOf(Vecf vec) {
+		float[] other = vec instanceof VecXf ? ((VecXf) vec).elements : vec.getValues();
+		if (other.length != elements.length) {
+			throw new IllegalArgumentException("Vector has " + other.length + " values, expected " + elements.length);
+		}
+		return other;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		VecXf vecNf = (VecXf) o;
+		return Arrays.equals(elements, vecNf.elements);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(elements);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < elements.length; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append(elements[i]);
+		}
+		return builder.toString();
+	}
+}
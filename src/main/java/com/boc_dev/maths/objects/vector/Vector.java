@@ -2,14 +2,20 @@ package com.boc_dev.maths.objects.vector;
 
 public class Vector {
 
+	/**
+	 * Lengths 2, 3 and 4 give the specialised {@link Vec2d}, {@link Vec3d} and {@link Vec4d}, any other length a
+	 * {@link VecXd} holding a copy of e.
+	 */
 	public static Vecd Create(double... e) {
 		switch (e.length) {
 			case 2:
 				return new Vec2d(e[0], e[1]);
 			case 3:
 				return new Vec3d(e[0], e[1], e[2]);
+			case 4:
+				return new Vec4d(e[0], e[1], e[2], e[3]);
 			default:
-				throw new UnsupportedOperationException("A vector of length " + e.length + " has not been implemented yet");
+				return new VecXd(e.clone());
 		}
 	}
 
@@ -19,8 +25,10 @@ public class Vector {
 				return Vec2d.ZERO;
 			case 3:
 				return Vec3d.ZERO;
+			case 4:
+				return Vec4d.ZERO;
 			default:
-				throw new UnsupportedOperationException("A vector of length " + num + " has not been implemented yet");
+				return new VecXd(new double[num]);
 		}
 	}
 }
@@ -1,15 +1,48 @@
 package com.boc_dev.maths.points_on_a_sphere;
 
+import com.boc_dev.maths.objects.vector.MappedVec3dStore;
+import com.boc_dev.maths.objects.vector.MappedVec3fStore;
 import com.boc_dev.maths.objects.vector.Vec2d;
 import com.boc_dev.maths.objects.vector.Vec3d;
 import com.boc_dev.maths.objects.vector.Vec3f;
+import com.boc_dev.maths.utils.FastMath;
 
 public class SpiralAlgorithms {
 
 
-    public Vec3d[] fibonacciSphereD(int samples) {
+    // receives each generated point, so one generator fills arrays and mapped stores alike
+    private interface PointSinkD {
+        void set(int i, double x, double y, double z);
+    }
+
+    private interface PointSinkF {
+        void set(int i, float x, float y, float z);
+    }
 
+    public Vec3d[] fibonacciSphereD(int samples) {
         Vec3d[] points = new Vec3d[samples];
+        fibonacciSphereD(samples, (i, x, y, z) -> points[i] = new Vec3d(x, y, z));
+        return points;
+    }
+
+    public Vec3f[] fibonacciSphereF(int samples) {
+        Vec3f[] points = new Vec3f[samples];
+        fibonacciSphereF(samples, (i, x, y, z) -> points[i] = new Vec3f(x, y, z));
+        return points;
+    }
+
+    // writes dest.size() samples straight into the store, without building an array on the heap
+    public void fibonacciSphereD(MappedVec3dStore dest) {
+        fibonacciSphereD(dest.size(), dest::set);
+    }
+
+    // writes dest.size() samples straight into the store, without building an array on the heap
+    public void fibonacciSphereF(MappedVec3fStore dest) {
+        fibonacciSphereF(dest.size(), dest::set);
+    }
+
+    private static void fibonacciSphereD(int samples, PointSinkD sink) {
+
         double sampleMinusOne = samples - 1.0f;
         double goldenRatio = Math.PI * (3.0 - Math.sqrt(5.0));
 
@@ -21,19 +54,13 @@ public class SpiralAlgorithms {
 
             double theta = goldenRatio * i; // golden ratio increment
 
-            double x = Math.cos(theta) * r;
-            double z = Math.sin(theta) * r;
-
-            points[i] = new Vec3d(x, y, z);
+            sink.set(i, Math.cos(theta) * r, y, Math.sin(theta) * r);
 
         }
-
-        return points;
     }
 
-    public Vec3f[] fibonacciSphereF(int samples) {
+    private static void fibonacciSphereF(int samples, PointSinkF sink) {
 
-        Vec3f[] points = new Vec3f[samples];
         float sampleMinusOne = samples - 1.0f;
         double goldenRatio = Math.PI * (3.0 - Math.sqrt(5.0));
 
@@ -45,14 +72,9 @@ public class SpiralAlgorithms {
 
             double theta = goldenRatio * i; // golden ratio increment
 
-            float x = (float) (Math.cos(theta) * r);
-            float z = (float) (Math.sin(theta) * r);
-
-            points[i] = new Vec3f(x, y, z);
+            sink.set(i, (float) (Math.cos(theta) * r), y, (float) (Math.sin(theta) * r));
 
         }
-
-        return points;
     }
 
     // based on the fact that golden ration is the most irrational number
@@ -100,5 +122,31 @@ public class SpiralAlgorithms {
 
     }
 
+    // same as sunflowerSphereSpiral, but using the FastMath approximations which are accurate to float precision
+    public Vec3d[] sunflowerSphereSpiralFast(int samples) {
+
+        double goldenRatio = Math.PI * (1.0 + Math.sqrt(5.0));
+
+        Vec3d[] points = new Vec3d[samples];
+        double[] sincos = new double[2];
+
+        for (int i = 0; i < samples; i++) {
+
+            double cosPhi = 1.0 - 2.0*i/samples;
+            // sin(acos(c)) = sqrt(1 - c^2)
+            double sinPhi = Math.sqrt((1.0 - cosPhi) * (1.0 + cosPhi));
+            FastMath.sincos(goldenRatio * i, sincos, 0);
+
+            points[i] = new Vec3d(
+                    sincos[1] * sinPhi,
+                    sincos[0] * sinPhi,
+                    cosPhi);
+
+        }
+
+        return points;
+
+    }
+
 
 }
@@ -0,0 +1,26 @@
+package com.boc_dev.maths.simd;
+
+/**
+ * Float kernels behind {@link BulkMath}. Ranges are [from, to) and dest may be the same array as an input.
+ */
+interface BulkKernels {
+
+	void add(float[] a, float[] b, float[] dest, int from, int to);
+
+	void subtract(float[] a, float[] b, float[] dest, int from, int to);
+
+	void multiply(float[] a, float[] b, float[] dest, int from, int to);
+
+	void scale(float[] a, float s, float[] dest, int from, int to);
+
+	void normalise(float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to);
+
+	void transform(float[] m, float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to);
+
+	void rotate(float qs, float qi, float qj, float qk, float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to);
+
+	void rotate(float[] qs, float[] qi, float[] qj, float[] qk, float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to);
+
+	void multiplyMatrices(float[] a, int aOffset, float[] b, int bOffset, float[] dest, int destOffset, int count);
+
+}
@@ -0,0 +1,158 @@
+package com.boc_dev.maths.simd;
+
+import com.boc_dev.maths.objects.QuaternionF;
+import com.boc_dev.maths.objects.matrix.Matrix4f;
+import com.boc_dev.maths.objects.vector.Vec3fArray;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Bulk float maths over primitive arrays.
+ *
+ * On Java 17+ the multi-release jar carries a version of these kernels written against the incubating JDK vector API.
+ * It is picked automatically when the jdk.incubator.vector module is present at runtime (run with
+ * --add-modules jdk.incubator.vector). Otherwise, or when the system property com.boc_dev.maths.simd.disable is
+ * set to true, plain scalar loops are used instead. Results are the same either way.
+ *
+ * Ranges are [from, to). Destinations may be the same arrays as the inputs to work in place.
+ */
+public final class BulkMath {
+
+	private static final String VECTOR_MODULE = "jdk.incubator.vector";
+	private static final String VECTOR_KERNELS = "com.boc_dev.maths.simd.VectorApiKernels";
+
+	private static final BulkKernels KERNELS = loadKernels();
+
+	private BulkMath() {
+	}
+
+	private static BulkKernels loadKernels() {
+
+		if (Boolean.getBoolean("com.boc_dev.maths.simd.disable")) {
+			return new ScalarKernels();
+		}
+
+		Optional<Module> vectorModule = ModuleLayer.boot().findModule(VECTOR_MODULE);
+		if (vectorModule.isEmpty()) {
+			return new ScalarKernels();
+		}
+
+		try {
+			// named modules only read what they require, and the vector api is never required at compile time
+			BulkMath.class.getModule().addReads(vectorModule.get());
+			return (BulkKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+			// running from a single release jar or classes directory
+			return new ScalarKernels();
+		}
+	}
+
+	/**
+	 * @return true when the vector api kernels are in use
+	 */
+	public static boolean isVectorised() {
+		return !(KERNELS instanceof ScalarKernels);
+	}
+
+	/**
+	 * dest[i] = a[i] + b[i]
+	 */
+	public static void add(float[] a, float[] b, float[] dest, int from, int to) {
+		checkRange(from, to, a.length, b.length, dest.length);
+		KERNELS.add(a, b, dest, from, to);
+	}
+
+	/**
+	 * dest[i] = a[i] - b[i]
+	 */
+	public static void subtract(float[] a, float[] b, float[] dest, int from, int to) {
+		checkRange(from, to, a.length, b.length, dest.length);
+		KERNELS.subtract(a, b, dest, from, to);
+	}
+
+	/**
+	 * Element wise multiplication, dest[i] = a[i] * b[i]
+	 */
+	public static void multiply(float[] a, float[] b, float[] dest, int from, int to) {
+		checkRange(from, to, a.length, b.length, dest.length);
+		KERNELS.multiply(a, b, dest, from, to);
+	}
+
+	/**
+	 * dest[i] = a[i] * s
+	 */
+	public static void scale(float[] a, float s, float[] dest, int from, int to) {
+		checkRange(from, to, a.length, dest.length);
+		KERNELS.scale(a, s, dest, from, to);
+	}
+
+	/**
+	 * Normalises 3d vectors held as separate x, y and z arrays. Zero length vectors become zero.
+	 */
+	public static void normalise(float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to) {
+		checkRange(from, to, x.length, y.length, z.length);
+		checkRange(from, to, destX.length, destY.length, destZ.length);
+		KERNELS.normalise(x, y, z, destX, destY, destZ, from, to);
+	}
+
+	/**
+	 * Transforms 3d points held as separate x, y and z arrays by m, as {@link Matrix4f#multiply(com.boc_dev.maths.objects.vector.Vec3f)}.
+	 */
+	public static void transform(Matrix4f m, float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to) {
+		checkRange(from, to, x.length, y.length, z.length);
+		checkRange(from, to, destX.length, destY.length, destZ.length);
+		KERNELS.transform(m.getValues(), x, y, z, destX, destY, destZ, from, to);
+	}
+
+	public static void transform(Matrix4f m, Vec3fArray points, Vec3fArray dest, int from, int to) {
+		transform(m, points.getXs(), points.getYs(), points.getZs(), dest.getXs(), dest.getYs(), dest.getZs(), from, to);
+	}
+
+	/**
+	 * Rotates 3d vectors held as separate x, y and z arrays by the unit quaternion q, as {@link QuaternionF#rotate(com.boc_dev.maths.objects.vector.Vec3f)}.
+	 */
+	public static void rotate(QuaternionF q, float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to) {
+		checkRange(from, to, x.length, y.length, z.length);
+		checkRange(from, to, destX.length, destY.length, destZ.length);
+		KERNELS.rotate(q.getS(), q.getI(), q.getJ(), q.getK(), x, y, z, destX, destY, destZ, from, to);
+	}
+
+	public static void rotate(QuaternionF q, Vec3fArray vecs, Vec3fArray dest, int from, int to) {
+		rotate(q, vecs.getXs(), vecs.getYs(), vecs.getZs(), dest.getXs(), dest.getYs(), dest.getZs(), from, to);
+	}
+
+	/**
+	 * Rotates each vector by its own unit quaternion, vector i by (qs[i], qi[i], qj[i], qk[i]).
+	 */
+	public static void rotate(float[] qs, float[] qi, float[] qj, float[] qk,
+	                          float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to) {
+		checkRange(from, to, qs.length, qi.length, qj.length);
+		Objects.checkFromToIndex(from, to, qk.length);
+		checkRange(from, to, x.length, y.length, z.length);
+		checkRange(from, to, destX.length, destY.length, destZ.length);
+		KERNELS.rotate(qs, qi, qj, qk, x, y, z, destX, destY, destZ, from, to);
+	}
+
+	/**
+	 * Multiplies count pairs of 4x4 matrices stored contiguously, 16 floats each, with the same ordering as
+	 * {@link Matrix4f#multiply(Matrix4f)}.
+	 */
+	public static void multiplyMatrices(float[] a, int aOffset, float[] b, int bOffset, float[] dest, int destOffset, int count) {
+		Objects.checkFromIndexSize(aOffset, count * 16, a.length);
+		Objects.checkFromIndexSize(bOffset, count * 16, b.length);
+		Objects.checkFromIndexSize(destOffset, count * 16, dest.length);
+		KERNELS.multiplyMatrices(a, aOffset, b, bOffset, dest, destOffset, count);
+	}
+
+	private static void checkRange(int from, int to, int lengthA, int lengthB) {
+		Objects.checkFromToIndex(from, to, lengthA);
+		Objects.checkFromToIndex(from, to, lengthB);
+	}
+
+	private static void checkRange(int from, int to, int lengthA, int lengthB, int lengthC) {
+		Objects.checkFromToIndex(from, to, lengthA);
+		Objects.checkFromToIndex(from, to, lengthB);
+		Objects.checkFromToIndex(from, to, lengthC);
+	}
+}
@@ -0,0 +1,96 @@
+package com.boc_dev.maths.simd;
+
+import com.boc_dev.maths.objects.matrix.Matrix4f;
+
+/**
+ * Plain loop implementation, used when the JDK vector API is not available.
+ */
+class ScalarKernels implements BulkKernels {
+
+	@Override
+	public void add(float[] a, float[] b, float[] dest, int from, int to) {
+		for (int i = from; i < to; i++) {
+			dest[i] = a[i] + b[i];
+		}
+	}
+
+	@Override
+	public void subtract(float[] a, float[] b, float[] dest, int from, int to) {
+		for (int i = from; i < to; i++) {
+			dest[i] = a[i] - b[i];
+		}
+	}
+
+	@Override
+	public void multiply(float[] a, float[] b, float[] dest, int from, int to) {
+		for (int i = from; i < to; i++) {
+			dest[i] = a[i] * b[i];
+		}
+	}
+
+	@Override
+	public void scale(float[] a, float s, float[] dest, int from, int to) {
+		for (int i = from; i < to; i++) {
+			dest[i] = a[i] * s;
+		}
+	}
+
+	@Override
+	public void normalise(float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to) {
+		for (int i = from; i < to; i++) {
+			float length = (float) Math.sqrt(x[i] * x[i] + y[i] * y[i] + z[i] * z[i]);
+			float inv = length == 0.0f ? 0.0f : 1f / length;
+			destX[i] = x[i] * inv;
+			destY[i] = y[i] * inv;
+			destZ[i] = z[i] * inv;
+		}
+	}
+
+	@Override
+	public void transform(float[] m, float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to) {
+		float m0 = m[0], m1 = m[1], m2 = m[2], m3 = m[3];
+		float m4 = m[4], m5 = m[5], m6 = m[6], m7 = m[7];
+		float m8 = m[8], m9 = m[9], m10 = m[10], m11 = m[11];
+		for (int i = from; i < to; i++) {
+			float px = x[i], py = y[i], pz = z[i];
+			destX[i] = px * m0 + py * m1 + pz * m2 + m3;
+			destY[i] = px * m4 + py * m5 + pz * m6 + m7;
+			destZ[i] = px * m8 + py * m9 + pz * m10 + m11;
+		}
+	}
+
+	@Override
+	public void rotate(float qs, float qi, float qj, float qk, float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to) {
+		for (int i = from; i < to; i++) {
+			float px = x[i], py = y[i], pz = z[i];
+			float tx = (qj * pz - qk * py) * 2;
+			float ty = (qk * px - qi * pz) * 2;
+			float tz = (qi * py - qj * px) * 2;
+			destX[i] = px + qs * tx + (qj * tz - qk * ty);
+			destY[i] = py + qs * ty + (qk * tx - qi * tz);
+			destZ[i] = pz + qs * tz + (qi * ty - qj * tx);
+		}
+	}
+
+	@Override
+	public void rotate(float[] qs, float[] qi, float[] qj, float[] qk, float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to) {
+		for (int i = from; i < to; i++) {
+			float s = qs[i], a = qi[i], b = qj[i], c = qk[i];
+			float px = x[i], py = y[i], pz = z[i];
+			float tx = (b * pz - c * py) * 2;
+			float ty = (c * px - a * pz) * 2;
+			float tz = (a * py - b * px) * 2;
+			destX[i] = px + s * tx + (b * tz - c * ty);
+			destY[i] = py + s * ty + (c * tx - a * tz);
+			destZ[i] = pz + s * tz + (a * ty - b * tx);
+		}
+	}
+
+	@Override
+	public void multiplyMatrices(float[] a, int aOffset, float[] b, int bOffset, float[] dest, int destOffset, int count) {
+		for (int i = 0; i < count; i++) {
+			int step = i * 16;
+			Matrix4f.multiply(a, aOffset + step, b, bOffset + step, dest, destOffset + step);
+		}
+	}
+}
@@ -0,0 +1,365 @@
+package com.boc_dev.maths.utils;
+
+import com.boc_dev.maths.objects.QuaternionF;
+import com.boc_dev.maths.objects.matrix.Matrix4f;
+import com.boc_dev.maths.objects.vector.Vec3f;
+import com.boc_dev.maths.objects.vector.Vec3fArray;
+import com.boc_dev.maths.objects.vector.Vec4f;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Objects;
+
+/**
+ * Packs matrices, vectors and quaternions straight into NIO buffers, without going through intermediate arrays.
+ *
+ * All writes are absolute, so the buffer's position and limit are left alone. For a {@link FloatBuffer} the index
+ * and stride are counted in floats, for a {@link ByteBuffer} they are counted in bytes and the buffer's byte order
+ * is used. The stride is the distance between the starts of consecutive elements, anything between the end of one
+ * element and the start of the next is left untouched. Every method returns the index just past the last element
+ * slot written, so calls can be chained to fill a buffer.
+ *
+ * For std140 uniform blocks use the STD140 strides: vec3 and array elements are padded to a vec4, and a mat3 is
+ * three padded columns, see {@link #putMatrix3Std140(Matrix4f, FloatBuffer, int)}.
+ *
+ * Quaternions are written as i, j, k, s to match the x, y, z, w layout of a shader vec4.
+ */
+public final class BufferWriter {
+
+	public enum Order {
+		/**
+		 * Same layout as {@link Matrix4f#getValues()}, translation in elements 3, 7 and 11.
+		 */
+		ROW_MAJOR,
+		/**
+		 * Transposed, translation in elements 12, 13 and 14, as OpenGL expects.
+		 */
+		COLUMN_MAJOR
+	}
+
+	public static final int MATRIX4F_FLOATS = 16;
+	public static final int VEC3F_FLOATS = 3;
+	public static final int VEC4F_FLOATS = 4;
+	public static final int QUATERNIONF_FLOATS = 4;
+
+	/**
+	 * Stride in floats of a vec3, or of any vec3/vec4/quaternion array element, in a std140 block.
+	 */
+	public static final int STD140_VEC_STRIDE = 4;
+	/**
+	 * Floats taken by a mat3 in a std140 block.
+	 */
+	public static final int STD140_MAT3_FLOATS = 12;
+
+	private BufferWriter() {
+	}
+
+	// Matrix4f
+
+	public static int putMatrix4f(Matrix4f matrix, FloatBuffer buffer, int index, Order order) {
+		float[] e = matrix.getValues();
+		if (order == Order.ROW_MAJOR) {
+			for (int i = 0; i < 16; i++) {
+				buffer.put(index + i, e[i]);
+			}
+		} else {
+			for (int col = 0; col < 4; col++) {
+				int base = index + col * 4;
+				buffer.put(base, e[col]);
+				buffer.put(base + 1, e[4 + col]);
+				buffer.put(base + 2, e[8 + col]);
+				buffer.put(base + 3, e[12 + col]);
+			}
+		}
+		return index + MATRIX4F_FLOATS;
+	}
+
+	public static int putMatrix4f(Matrix4f[] matrices, int from, int to, FloatBuffer buffer, int index, int stride, Order order) {
+		Objects.checkFromToIndex(from, to, matrices.length);
+		checkStride(stride, MATRIX4F_FLOATS);
+		for (int i = from; i < to; i++) {
+			putMatrix4f(matrices[i], buffer, index, order);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putMatrix4f(Iterable<Matrix4f> matrices, FloatBuffer buffer, int index, int stride, Order order) {
+		checkStride(stride, MATRIX4F_FLOATS);
+		for (Matrix4f matrix : matrices) {
+			putMatrix4f(matrix, buffer, index, order);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putMatrix4f(Matrix4f matrix, ByteBuffer buffer, int index, Order order) {
+		float[] e = matrix.getValues();
+		if (order == Order.ROW_MAJOR) {
+			for (int i = 0; i < 16; i++) {
+				buffer.putFloat(index + i * Float.BYTES, e[i]);
+			}
+		} else {
+			for (int col = 0; col < 4; col++) {
+				int base = index + col * 4 * Float.BYTES;
+				buffer.putFloat(base, e[col]);
+				buffer.putFloat(base + Float.BYTES, e[4 + col]);
+				buffer.putFloat(base + 2 * Float.BYTES, e[8 + col]);
+				buffer.putFloat(base + 3 * Float.BYTES, e[12 + col]);
+			}
+		}
+		return index + MATRIX4F_FLOATS * Float.BYTES;
+	}
+
+	public static int putMatrix4f(Matrix4f[] matrices, int from, int to, ByteBuffer buffer, int index, int stride, Order order) {
+		Objects.checkFromToIndex(from, to, matrices.length);
+		checkStride(stride, MATRIX4F_FLOATS * Float.BYTES);
+		for (int i = from; i < to; i++) {
+			putMatrix4f(matrices[i], buffer, index, order);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putMatrix4f(Iterable<Matrix4f> matrices, ByteBuffer buffer, int index, int stride, Order order) {
+		checkStride(stride, MATRIX4F_FLOATS * Float.BYTES);
+		for (Matrix4f matrix : matrices) {
+			putMatrix4f(matrix, buffer, index, order);
+			index += stride;
+		}
+		return index;
+	}
+
+	/**
+	 * Writes the top left 3x3 of matrix as a std140 mat3: three columns, each padded to four floats. The padding
+	 * is written as zero.
+	 */
+	public static int putMatrix3Std140(Matrix4f matrix, FloatBuffer buffer, int index) {
+		float[] e = matrix.getValues();
+		for (int col = 0; col < 3; col++) {
+			int base = index + col * 4;
+			buffer.put(base, e[col]);
+			buffer.put(base + 1, e[4 + col]);
+			buffer.put(base + 2, e[8 + col]);
+			buffer.put(base + 3, 0);
+		}
+		return index + STD140_MAT3_FLOATS;
+	}
+
+	public static int putMatrix3Std140(Matrix4f matrix, ByteBuffer buffer, int index) {
+		float[] e = matrix.getValues();
+		for (int col = 0; col < 3; col++) {
+			int base = index + col * 4 * Float.BYTES;
+			buffer.putFloat(base, e[col]);
+			buffer.putFloat(base + Float.BYTES, e[4 + col]);
+			buffer.putFloat(base + 2 * Float.BYTES, e[8 + col]);
+			buffer.putFloat(base + 3 * Float.BYTES, 0);
+		}
+		return index + STD140_MAT3_FLOATS * Float.BYTES;
+	}
+
+	// Vec3f
+
+	public static int putVec3f(Vec3f vec, FloatBuffer buffer, int index) {
+		buffer.put(index, vec.getX());
+		buffer.put(index + 1, vec.getY());
+		buffer.put(index + 2, vec.getZ());
+		return index + VEC3F_FLOATS;
+	}
+
+	public static int putVec3f(Vec3f[] vecs, int from, int to, FloatBuffer buffer, int index, int stride) {
+		Objects.checkFromToIndex(from, to, vecs.length);
+		checkStride(stride, VEC3F_FLOATS);
+		for (int i = from; i < to; i++) {
+			putVec3f(vecs[i], buffer, index);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putVec3f(Iterable<Vec3f> vecs, FloatBuffer buffer, int index, int stride) {
+		checkStride(stride, VEC3F_FLOATS);
+		for (Vec3f vec : vecs) {
+			putVec3f(vec, buffer, index);
+			index += stride;
+		}
+		return index;
+	}
+
+	/**
+	 * Interleaves the x, y and z arrays into the buffer.
+	 */
+	public static int putVec3f(Vec3fArray vecs, int from, int to, FloatBuffer buffer, int index, int stride) {
+		Objects.checkFromToIndex(from, to, vecs.size());
+		checkStride(stride, VEC3F_FLOATS);
+		float[] xs = vecs.getXs();
+		float[] ys = vecs.getYs();
+		float[] zs = vecs.getZs();
+		for (int i = from; i < to; i++) {
+			buffer.put(index, xs[i]);
+			buffer.put(index + 1, ys[i]);
+			buffer.put(index + 2, zs[i]);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putVec3f(Vec3f vec, ByteBuffer buffer, int index) {
+		buffer.putFloat(index, vec.getX());
+		buffer.putFloat(index + Float.BYTES, vec.getY());
+		buffer.putFloat(index + 2 * Float.BYTES, vec.getZ());
+		return index + VEC3F_FLOATS * Float.BYTES;
+	}
+
+	public static int putVec3f(Vec3f[] vecs, int from, int to, ByteBuffer buffer, int index, int stride) {
+		Objects.checkFromToIndex(from, to, vecs.length);
+		checkStride(stride, VEC3F_FLOATS * Float.BYTES);
+		for (int i = from; i < to; i++) {
+			putVec3f(vecs[i], buffer, index);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putVec3f(Iterable<Vec3f> vecs, ByteBuffer buffer, int index, int stride) {
+		checkStride(stride, VEC3F_FLOATS * Float.BYTES);
+		for (Vec3f vec : vecs) {
+			putVec3f(vec, buffer, index);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putVec3f(Vec3fArray vecs, int from, int to, ByteBuffer buffer, int index, int stride) {
+		Objects.checkFromToIndex(from, to, vecs.size());
+		checkStride(stride, VEC3F_FLOATS * Float.BYTES);
+		float[] xs = vecs.getXs();
+		float[] ys = vecs.getYs();
+		float[] zs = vecs.getZs();
+		for (int i = from; i < to; i++) {
+			buffer.putFloat(index, xs[i]);
+			buffer.putFloat(index + Float.BYTES, ys[i]);
+			buffer.putFloat(index + 2 * Float.BYTES, zs[i]);
+			index += stride;
+		}
+		return index;
+	}
+
+	// Vec4f
+
+	public static int putVec4f(Vec4f vec, FloatBuffer buffer, int index) {
+		buffer.put(index, vec.getX());
+		buffer.put(index + 1, vec.getY());
+		buffer.put(index + 2, vec.getZ());
+		buffer.put(index + 3, vec.getS());
+		return index + VEC4F_FLOATS;
+	}
+
+	public static int putVec4f(Vec4f[] vecs, int from, int to, FloatBuffer buffer, int index, int stride) {
+		Objects.checkFromToIndex(from, to, vecs.length);
+		checkStride(stride, VEC4F_FLOATS);
+		for (int i = from; i < to; i++) {
+			putVec4f(vecs[i], buffer, index);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putVec4f(Iterable<Vec4f> vecs, FloatBuffer buffer, int index, int stride) {
+		checkStride(stride, VEC4F_FLOATS);
+		for (Vec4f vec : vecs) {
+			putVec4f(vec, buffer, index);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putVec4f(Vec4f vec, ByteBuffer buffer, int index) {
+		buffer.putFloat(index, vec.getX());
+		buffer.putFloat(index + Float.BYTES, vec.getY());
+		buffer.putFloat(index + 2 * Float.BYTES, vec.getZ());
+		buffer.putFloat(index + 3 * Float.BYTES, vec.getS());
+		return index + VEC4F_FLOATS * Float.BYTES;
+	}
+
+	public static int putVec4f(Vec4f[] vecs, int from, int to, ByteBuffer buffer, int index, int stride) {
+		Objects.checkFromToIndex(from, to, vecs.length);
+		checkStride(stride, VEC4F_FLOATS * Float.BYTES);
+		for (int i = from; i < to; i++) {
+			putVec4f(vecs[i], buffer, index);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putVec4f(Iterable<Vec4f> vecs, ByteBuffer buffer, int index, int stride) {
+		checkStride(stride, VEC4F_FLOATS * Float.BYTES);
+		for (Vec4f vec : vecs) {
+			putVec4f(vec, buffer, index);
+			index += stride;
+		}
+		return index;
+	}
+
+	// QuaternionF
+
+	public static int putQuaternionF(QuaternionF quaternion, FloatBuffer buffer, int index) {
+		buffer.put(index, quaternion.getI());
+		buffer.put(index + 1, quaternion.getJ());
+		buffer.put(index + 2, quaternion.getK());
+		buffer.put(index + 3, quaternion.getS());
+		return index + QUATERNIONF_FLOATS;
+	}
+
+	public static int putQuaternionF(QuaternionF[] quaternions, int from, int to, FloatBuffer buffer, int index, int stride) {
+		Objects.checkFromToIndex(from, to, quaternions.length);
+		checkStride(stride, QUATERNIONF_FLOATS);
+		for (int i = from; i < to; i++) {
+			putQuaternionF(quaternions[i], buffer, index);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putQuaternionF(Iterable<QuaternionF> quaternions, FloatBuffer buffer, int index, int stride) {
+		checkStride(stride, QUATERNIONF_FLOATS);
+		for (QuaternionF quaternion : quaternions) {
+			putQuaternionF(quaternion, buffer, index);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putQuaternionF(QuaternionF quaternion, ByteBuffer buffer, int index) {
+		buffer.putFloat(index, quaternion.getI());
+		buffer.putFloat(index + Float.BYTES, quaternion.getJ());
+		buffer.putFloat(index + 2 * Float.BYTES, quaternion.getK());
+		buffer.putFloat(index + 3 * Float.BYTES, quaternion.getS());
+		return index + QUATERNIONF_FLOATS * Float.BYTES;
+	}
+
+	public static int putQuaternionF(QuaternionF[] quaternions, int from, int to, ByteBuffer buffer, int index, int stride) {
+		Objects.checkFromToIndex(from, to, quaternions.length);
+		checkStride(stride, QUATERNIONF_FLOATS * Float.BYTES);
+		for (int i = from; i < to; i++) {
+			putQuaternionF(quaternions[i], buffer, index);
+			index += stride;
+		}
+		return index;
+	}
+
+	public static int putQuaternionF(Iterable<QuaternionF> quaternions, ByteBuffer buffer, int index, int stride) {
+		checkStride(stride, QUATERNIONF_FLOATS * Float.BYTES);
+		for (QuaternionF quaternion : quaternions) {
+			putQuaternionF(quaternion, buffer, index);
+			index += stride;
+		}
+		return index;
+	}
+
+	private static void checkStride(int stride, int size) {
+		if (stride < size) {
+			throw new IllegalArgumentException("Stride " + stride + " is smaller than the element size " + size);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.boc_dev.maths.utils;
+
+/**
+ * Polynomial approximations of the trigonometric functions, accurate to float precision rather than double.
+ *
+ * Maximum errors, measured against the correctly rounded float of {@link Math}'s result over the valid range:
+ * <ul>
+ *     <li>sincos: 1 ulp (float) for |x| &lt; 2^29, outside that range the {@link Math} versions are used. There is no
+ *     separate sin or cos, one alone is no faster than the {@link Math} intrinsic</li>
+ *     <li>atan2, asin, acos: 1 ulp (float)</li>
+ *     <li>sqrt: exact, it is already a single hardware instruction so {@link Math#sqrt(double)} is used</li>
+ * </ul>
+ * The double overloads return the same approximation without the final rounding to float, so callers that keep
+ * their maths in double (for example large angle arguments) lose nothing to argument rounding.
+ *
+ * NaN, infinite and zero arguments, where the sign of the result matters, are passed through to {@link Math}.
+ */
+public final class FastMath {
+
+	// pi / 2 split so that n * PIO2_1 and n * PIO2_2 are exact for n < 2^29
+	private static final double PIO2_1 = 0x1.921fb6p+0;
+	private static final double PIO2_2 = -0x1.777a5cp-25;
+	private static final double PIO2_3 = -0x1.ee59d9cceba4p-50;
+	private static final double INV_PIO2 = 0.6366197723675814;
+	private static final double MAX_REDUCIBLE = 0x1p29;
+
+	// sin(x) = x + x^3 * (S1 + S2 x^2 + S3 x^4) on [-pi/4, pi/4], relative error below 2^-27
+	private static final double S1 = -1.6666654611E-1;
+	private static final double S2 = 8.3321608736E-3;
+	private static final double S3 = -1.9515295891E-4;
+
+	// cos(x) = 1 - x^2 / 2 + x^4 * (C1 + C2 x^2 + C3 x^4) on [-pi/4, pi/4], error below 2^-33
+	private static final double C1 = 4.166664568298827E-2;
+	private static final double C2 = -1.388731625493765E-3;
+	private static final double C3 = 2.443315711809948E-5;
+
+	// atan on [-tan(pi/12), tan(pi/12)], truncation error below 2^-30
+	private static final double TAN_PI_12 = 0.2679491924311227;
+	private static final double INV_SQRT_3 = 0.5773502691896257;
+	private static final double PI_6 = 0.5235987755982989;
+	private static final double PI_2 = Math.PI / 2.0;
+	private static final double A1 = -1.0 / 3.0;
+	private static final double A2 = 1.0 / 5.0;
+	private static final double A3 = -1.0 / 7.0;
+	private static final double A4 = 1.0 / 9.0;
+	private static final double A5 = -1.0 / 11.0;
+	private static final double A6 = 1.0 / 13.0;
+
+	private FastMath() {
+	}
+
+	/**
+	 * Writes sin(x) to dest[offset] and cos(x) to dest[offset + 1]. The angle is reduced once for both, which is what
+	 * makes this faster than separate calls to {@link Math#sin(double)} and {@link Math#cos(double)}.
+	 *
+	 * @return dest
+	 */
+	public static float[] sincos(float x, float[] dest, int offset) {
+		if (x == 0 || !(Math.abs(x) < MAX_REDUCIBLE)) {
+			dest[offset] = (float) Math.sin(x);
+			dest[offset + 1] = (float) Math.cos(x);
+			return dest;
+		}
+		double n = Math.rint(x * INV_PIO2);
+		double r = ((x - n * PIO2_1) - n * PIO2_2) - n * PIO2_3;
+		int quadrant = (int) n;
+		dest[offset] = (float) sin(r, quadrant);
+		// cos(x) = sin(x + pi/2), the same remainder one quadrant on
+		dest[offset + 1] = (float) sin(r, quadrant + 1);
+		return dest;
+	}
+
+	/**
+	 * Same as {@link #sincos(float, float[], int)} for a double angle, still only accurate to float precision.
+	 */
+	public static double[] sincos(double x, double[] dest, int offset) {
+		if (x == 0 || !(Math.abs(x) < MAX_REDUCIBLE)) {
+			dest[offset] = Math.sin(x);
+			dest[offset + 1] = Math.cos(x);
+			return dest;
+		}
+		double n = Math.rint(x * INV_PIO2);
+		double r = ((x - n * PIO2_1) - n * PIO2_2) - n * PIO2_3;
+		int quadrant = (int) n;
+		dest[offset] = sin(r, quadrant);
+		dest[offset + 1] = sin(r, quadrant + 1);
+		return dest;
+	}
+
+	public static float atan2(float y, float x) {
+		return (float) atan2((double) y, (double) x);
+	}
+
+	public static double atan2(double y, double x) {
+		if (y == 0 || !Double.isFinite(y) || !Double.isFinite(x)) {
+			return Math.atan2(y, x);
+		}
+		double ax = Math.abs(x);
+		double ay = Math.abs(y);
+		double angle;
+		if (ay <= ax) {
+			angle = atanUnit(ay / ax);
+		} else {
+			angle = PI_2 - atanUnit(ax / ay);
+		}
+		if (x < 0) {
+			angle = Math.PI - angle;
+		}
+		return y < 0 ? -angle : angle;
+	}
+
+	public static float acos(float x) {
+		return (float) acos((double) x);
+	}
+
+	public static double acos(double x) {
+		if (!(Math.abs(x) <= 1.0)) {
+			return Math.acos(x);
+		}
+		return atan2(Math.sqrt((1.0 - x) * (1.0 + x)), x);
+	}
+
+	public static float asin(float x) {
+		return (float) asin((double) x);
+	}
+
+	public static double asin(double x) {
+		if (!(Math.abs(x) <= 1.0)) {
+			return Math.asin(x);
+		}
+		return atan2(x, Math.sqrt((1.0 - x) * (1.0 + x)));
+	}
+
+	public static float sqrt(float x) {
+		return (float) Math.sqrt(x);
+	}
+
+	public static double sqrt(double x) {
+		return Math.sqrt(x);
+	}
+
+	// sin(r + quadrant * pi/2), |r| <= pi/4
+	private static double sin(double r, int quadrant) {
+		double z = r * r;
+		double value = (quadrant & 1) == 0
+				? r + r * z * (S1 + z * (S2 + z * S3))
+				: 1.0 - 0.5 * z + z * z * (C1 + z * (C2 + z * C3));
+		return (quadrant & 2) == 0 ? value : -value;
+	}
+
+	// 0 <= t <= 1
+	private static double atanUnit(double t) {
+		if (t > TAN_PI_12) {
+			return PI_6 + atanKernel((t - INV_SQRT_3) / (1.0 + t * INV_SQRT_3));
+		}
+		return atanKernel(t);
+	}
+
+	// |t| <= tan(pi/12)
+	private static double atanKernel(double t) {
+		double z = t * t;
+		return t + t * z * (A1 + z * (A2 + z * (A3 + z * (A4 + z * (A5 + z * A6)))));
+	}
+}
@@ -0,0 +1,76 @@
+package com.boc_dev.maths.utils;
+
+/**
+ * Conversions between float and IEEE 754 binary16 (half precision) bit patterns held in a short.
+ *
+ * Halves keep 11 significant bits, a relative error of at most 2^-11, over magnitudes from about 6e-5 to 65504.
+ * Larger values become infinity and smaller ones lose precision gradually as subnormals.
+ */
+public final class HalfFloat {
+
+	private HalfFloat() {
+	}
+
+	/**
+	 * Rounds to the nearest half, ties to even.
+	 */
+	public static short toHalf(float value) {
+		int bits = Float.floatToRawIntBits(value);
+		int sign = (bits >>> 16) & 0x8000;
+		int exponent = (bits >>> 23) & 0xff;
+		int mantissa = bits & 0x7fffff;
+
+		// infinity and NaN, keeping NaN quiet
+		if (exponent == 0xff) {
+			return (short) (sign | 0x7c00 | (mantissa != 0 ? 0x200 | (mantissa >>> 13) : 0));
+		}
+
+		int halfExponent = exponent - 127 + 15;
+		if (halfExponent >= 0x1f) {
+			return (short) (sign | 0x7c00);
+		}
+
+		if (halfExponent <= 0) {
+			// subnormal half, or rounds to zero
+			if (halfExponent < -10) {
+				return (short) sign;
+			}
+			mantissa |= 0x800000;
+			int shift = 14 - halfExponent;
+			int half = mantissa >>> shift;
+			int remainder = mantissa & ((1 << shift) - 1);
+			int midpoint = 1 << (shift - 1);
+			if (remainder > midpoint || (remainder == midpoint && (half & 1) != 0)) {
+				half++;
+			}
+			return (short) (sign | half);
+		}
+
+		int half = (halfExponent << 10) | (mantissa >>> 13);
+		int remainder = mantissa & 0x1fff;
+		// a carry out of the mantissa correctly bumps the exponent, up to infinity
+		if (remainder > 0x1000 || (remainder == 0x1000 && (half & 1) != 0)) {
+			half++;
+		}
+		return (short) (sign | half);
+	}
+
+	/**
+	 * Exact, every half is representable as a float.
+	 */
+	public static float toFloat(short half) {
+		int bits = half & 0xffff;
+		int sign = (bits & 0x8000) << 16;
+		int exponent = (bits >>> 10) & 0x1f;
+		int mantissa = bits & 0x3ff;
+
+		if (exponent == 0) {
+			float value = mantissa * 0x1p-24f;
+			return sign == 0 ? value : -value;
+		}
+		if (exponent == 0x1f) {
+			return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+		}
+		return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+	}
+}
@@ -2,178 +2,206 @@ package com.boc_dev.maths.utils;
 
 import com.boc_dev.maths.objects.matrix.Matrix4d;
 
+import java.util.Arrays;
+
+/**
+ * Cholesky factorisation and solves for small symmetric positive definite (SPD) systems held in flat row major
+ * double arrays, such as per contact effective mass matrices in a constraint solver.
+ *
+ * The batched methods take count n x n matrices packed one after another, with right hand sides and solutions
+ * packed n values apiece. Only the lower triangle of each input matrix is read. A matrix that is not positive
+ * definite gets an all zero factor, and solving with an all zero factor gives a zero solution, so a degenerate
+ * contact applies no impulse rather than poisoning the batch with NaN.
+ */
 public class MatrixAlgebra {
 
-	public static void diagonalize(Matrix4d matrix, double[] returnMatrix) {
-
-		for (int ii = 0; ii < 36; ii++) {
-
-			if (ii % 6 == 0) {
-
-				returnMatrix[ii] = matrix.getValuesF()[ii];
-
+	/**
+	 * Writes the lower triangular L with A = L L^T into dest, upper triangle zeroed. dest may be the same array and
+	 * offset as a to factor in place.
+	 *
+	 * @return false, with dest zeroed, if A is not positive definite
+	 */
+	public static boolean choleskyFactor(double[] a, int aOffset, double[] dest, int destOffset, int n) {
+		if (n == 3) {
+			return choleskyFactor3(a, aOffset, dest, destOffset);
+		}
+		for (int i = 0; i < n; i++) {
+			int rowI = destOffset + i * n;
+			for (int j = 0; j <= i; j++) {
+				int rowJ = destOffset + j * n;
+				double sum = a[aOffset + i * n + j];
+				for (int k = 0; k < j; k++) {
+					sum -= dest[rowI + k] * dest[rowJ + k];
+				}
+				if (i == j) {
+					if (!(sum > 0.0) || !Double.isFinite(sum)) {
+						Arrays.fill(dest, destOffset, destOffset + n * n, 0.0);
+						return false;
+					}
+					dest[rowI + i] = Math.sqrt(sum);
+				} else {
+					dest[rowI + j] = sum / dest[rowJ + j];
+				}
+			}
+			for (int j = i + 1; j < n; j++) {
+				dest[rowI + j] = 0.0;
 			}
-
 		}
-
+		return true;
 	}
 
-	public static void inverseOfDiagonalMatrix(double[] matrix) {
-
-		for (int ii = 0; ii < 36; ii++) {
-
-			if ((ii / 7.0f) == (int)(ii / 7.0f)) {
-
-				matrix[ii] = 1/matrix[ii];
+	/**
+	 * Solves L L^T x = b given the factor from {@link #choleskyFactor}. dest may be the same array and offset as b.
+	 */
+	public static void choleskySolve(double[] l, int lOffset, double[] b, int bOffset, double[] dest, int destOffset, int n) {
+		if (n == 3) {
+			choleskySolve3(l, lOffset, b, bOffset, dest, destOffset);
+			return;
+		}
+		if (l[lOffset] == 0.0) {
+			Arrays.fill(dest, destOffset, destOffset + n, 0.0);
+			return;
+		}
 
+		// L y = b
+		for (int i = 0; i < n; i++) {
+			int row = lOffset + i * n;
+			double sum = b[bOffset + i];
+			for (int k = 0; k < i; k++) {
+				sum -= l[row + k] * dest[destOffset + k];
 			}
-
-			else matrix[ii] = 0;
-
+			dest[destOffset + i] = sum / l[row + i];
 		}
 
+		// L^T x = y
+		for (int i = n - 1; i >= 0; i--) {
+			double sum = dest[destOffset + i];
+			for (int k = i + 1; k < n; k++) {
+				sum -= l[lOffset + k * n + i] * dest[destOffset + k];
+			}
+			dest[destOffset + i] = sum / l[lOffset + i * n + i];
+		}
 	}
 
-	/* Cholesky Decomposition and inversion section
-	*
-	*/
-
-	public static double daigonals(int i, double a_ii, double[] r) {
-
-		double summation = 0;
-
-		for (int rCounter = 0; rCounter < i; rCounter++) {
-
-			summation += r[rCounter + (i * 6)] * r[rCounter + (i * 6)];
-
+	/**
+	 * Factors count n x n matrices packed from aOffset into dest from destOffset.
+	 *
+	 * @return the number of matrices that were not positive definite
+	 */
+	public static int choleskyFactorBatch(double[] a, int aOffset, double[] dest, int destOffset, int n, int count) {
+		int stride = n * n;
+		int failures = 0;
+		for (int i = 0; i < count; i++) {
+			if (!choleskyFactor(a, aOffset + i * stride, dest, destOffset + i * stride, n)) {
+				failures++;
+			}
 		}
-
-		return Math.sqrt(a_ii - summation);
+		return failures;
 	}
 
-	public static double offDaigonals(int i, int j, double a_ij, double r_ii, double[] r) {
-
-		double summation = 0;
-
-		for (int rCounter = 0; rCounter < i; rCounter++) {
-
-			summation += r[rCounter + (6 * i)] * r[rCounter + (6 * j)];
-
+	/**
+	 * Solves count systems with factors packed from lOffset and right hand sides packed from bOffset.
+	 */
+	public static void choleskySolveBatch(double[] l, int lOffset, double[] b, int bOffset, double[] dest, int destOffset, int n, int count) {
+		int stride = n * n;
+		for (int i = 0; i < count; i++) {
+			choleskySolve(l, lOffset + i * stride, b, bOffset + i * n, dest, destOffset + i * n, n);
 		}
-
-		return (1 / r_ii) * (a_ij - summation);
 	}
 
-	public static boolean getCholeskyFactorMatrix(double[] values, Matrix4d matrix) {
-
-		double[] diagonals = new double[6];
-
-		for (int jCount = 0; jCount < 6; jCount++) {
-
-			for (int iCount = 0; iCount < 6; iCount++) {
-
-				if (iCount > jCount) {
-
-					values[(jCount * 6) + iCount] = 0;
-
-				}
-
-				else if (iCount == jCount) {
-
-					double diagonalsElement = daigonals(iCount, matrix.get(iCount, jCount), values);
-
-					if ((diagonalsElement == 0) || (!Double.isFinite(diagonalsElement))) return false;
-
-					diagonals[jCount] = diagonalsElement;
-
-					values[(jCount * 6) + iCount] = diagonals[jCount];
-
-				}
-
-				else {
-
-					values[(jCount * 6) + iCount] = offDaigonals(iCount, jCount, matrix.get(iCount, jCount), diagonals[iCount], values);
-
-				}
-
+	/**
+	 * Factors and solves count systems in one pass without keeping the factors, for when each matrix is only solved
+	 * once. a is left unchanged.
+	 *
+	 * @return the number of matrices that were not positive definite, their solutions are zero
+	 */
+	public static int solveSpdBatch(double[] a, int aOffset, double[] b, int bOffset, double[] dest, int destOffset, int n, int count) {
+		int stride = n * n;
+		double[] factor = new double[stride];
+		int failures = 0;
+		for (int i = 0; i < count; i++) {
+			if (!choleskyFactor(a, aOffset + i * stride, factor, 0, n)) {
+				failures++;
 			}
-
+			choleskySolve(factor, 0, b, bOffset + i * n, dest, destOffset + i * n, n);
 		}
-
-		return true;
-
+		return failures;
 	}
 
-	public static Matrix4d forwardSubstitution(Matrix4d a) {
-
-		Matrix4d i = Matrix4d.Identity;
-
-		double[] x = new double[36];
-
-		for (int row = 0; row < 6; row++) {
-
-			for (int col = 0; col <= row; col++) {
-
-				double summation = i.get(col, row);
-
-				for (int idx = 0; idx <= row; idx++) {
-
-					if (row != idx) {
-
-						summation -= (a.get(idx, row) * x[(idx * 6) + col]);
-
-					}
-
-				}
-
-				x[col + (row * 6)] = (double) summation / a.get(row, row);
-
+	/**
+	 * Inverse of a symmetric positive definite matrix, A^-1 = L^-T L^-1.
+	 *
+	 * @throws ArithmeticException if the matrix is not positive definite
+	 */
+	public static Matrix4d inverseMatrix(Matrix4d matrix) {
+		double[] l = new double[16];
+		if (!choleskyFactor(matrix.getValues(), 0, l, 0, 4)) {
+			throw new ArithmeticException("Matrix is not positive definite");
+		}
+		double[] inverse = new double[16];
+		double[] column = new double[4];
+		for (int col = 0; col < 4; col++) {
+			Arrays.fill(column, 0.0);
+			column[col] = 1.0;
+			choleskySolve(l, 0, column, 0, column, 0, 4);
+			for (int row = 0; row < 4; row++) {
+				inverse[row * 4 + col] = column[row];
 			}
-
 		}
-
-
-
-		return new Matrix4d(x);
-
+		return new Matrix4d(inverse);
 	}
 
-	public static Matrix4d inverseMatrix(Matrix4d matrix) {
-
-		double[] lowerTriangularMatrixTemp = {
-				0,0,0,0,
-				0,0,0,0,
-				0,0,0,0,
-				0,0,0,0};
-
-		boolean diagonalizable = getCholeskyFactorMatrix(lowerTriangularMatrixTemp, matrix);
-
-		Matrix4d inverseMatrix;
-
-		if (diagonalizable) {
-
-			Matrix4d lowerTriangularMatrix = new Matrix4d(lowerTriangularMatrixTemp);
-
-			Matrix4d inverseLowerTriangularMatrix = forwardSubstitution(lowerTriangularMatrix);
-
-			Matrix4d inverseUpperTriangularMatrix = inverseLowerTriangularMatrix.transpose();
-
-			inverseMatrix = inverseLowerTriangularMatrix.multiply(inverseUpperTriangularMatrix);
-
+	private static boolean choleskyFactor3(double[] a, int o, double[] dest, int d) {
+		double a00 = a[o];
+		double a10 = a[o + 3], a11 = a[o + 4];
+		double a20 = a[o + 6], a21 = a[o + 7], a22 = a[o + 8];
+
+		double l00 = Math.sqrt(a00);
+		double l10 = a10 / l00;
+		double l20 = a20 / l00;
+		double d11 = a11 - l10 * l10;
+		double l11 = Math.sqrt(d11);
+		double l21 = (a21 - l20 * l10) / l11;
+		double d22 = a22 - l20 * l20 - l21 * l21;
+		double l22 = Math.sqrt(d22);
+
+		if (!(a00 > 0.0 && d11 > 0.0 && d22 > 0.0) || !Double.isFinite(l00 + l11 + l22 + l10 + l20 + l21)) {
+			Arrays.fill(dest, d, d + 9, 0.0);
+			return false;
 		}
-		else {
-
-			inverseOfDiagonalMatrix(lowerTriangularMatrixTemp);
+		dest[d] = l00;
+		dest[d + 1] = 0.0;
+		dest[d + 2] = 0.0;
+		dest[d + 3] = l10;
+		dest[d + 4] = l11;
+		dest[d + 5] = 0.0;
+		dest[d + 6] = l20;
+		dest[d + 7] = l21;
+		dest[d + 8] = l22;
+		return true;
+	}
 
-			inverseMatrix = new Matrix4d(lowerTriangularMatrixTemp);
+	private static void choleskySolve3(double[] l, int o, double[] b, int bo, double[] dest, int d) {
+		double l00 = l[o];
+		if (l00 == 0.0) {
+			dest[d] = 0.0;
+			dest[d + 1] = 0.0;
+			dest[d + 2] = 0.0;
+			return;
 		}
+		double l10 = l[o + 3], l11 = l[o + 4];
+		double l20 = l[o + 6], l21 = l[o + 7], l22 = l[o + 8];
 
-		return inverseMatrix;
+		double y0 = b[bo] / l00;
+		double y1 = (b[bo + 1] - l10 * y0) / l11;
+		double y2 = (b[bo + 2] - l20 * y0 - l21 * y1) / l22;
 
-	}
-
-/* todo Moore-Penrose pseudoinverse
-*
-*/
+		double x2 = y2 / l22;
+		double x1 = (y1 - l21 * x2) / l11;
+		double x0 = (y0 - l10 * x1 - l20 * x2) / l00;
 
+		dest[d] = x0;
+		dest[d + 1] = x1;
+		dest[d + 2] = x2;
+	}
 }
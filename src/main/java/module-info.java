@@ -1,10 +1,13 @@
 module com.boc_dev.maths {
 	exports com.boc_dev.maths.differential_equation_solvers;
 	exports com.boc_dev.maths.objects;
+	exports com.boc_dev.maths.objects.animation;
 	exports com.boc_dev.maths.objects.srt;
 	exports com.boc_dev.maths.objects.matrix;
 	exports com.boc_dev.maths.objects.dev;
 	exports com.boc_dev.maths.objects.vector;
 	exports com.boc_dev.maths.noise;
 	exports com.boc_dev.maths.points_on_a_sphere;
+	exports com.boc_dev.maths.simd;
+	exports com.boc_dev.maths.utils;
 }
\ No newline at end of file
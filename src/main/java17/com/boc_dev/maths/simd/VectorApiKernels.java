@@ -0,0 +1,204 @@
+package com.boc_dev.maths.simd;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels written against the incubating JDK vector API. Only compiled into META-INF/versions/17 of the jar and
+ * only loaded by {@link BulkMath} once the jdk.incubator.vector module is known to be present.
+ *
+ * Arithmetic is done in the same order as {@link ScalarKernels} and without fused multiply-add, so both give the
+ * same results.
+ */
+class VectorApiKernels implements BulkKernels {
+
+	private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+	// one 4x4 matrix row per vector
+	private static final VectorSpecies<Float> ROW = FloatVector.SPECIES_128;
+
+	@Override
+	public void add(float[] a, float[] b, float[] dest, int from, int to) {
+		int i = from;
+		int bound = from + SPECIES.loopBound(to - from);
+		for (; i < bound; i += SPECIES.length()) {
+			FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+			FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+			va.add(vb).intoArray(dest, i);
+		}
+		for (; i < to; i++) {
+			dest[i] = a[i] + b[i];
+		}
+	}
+
+	@Override
+	public void subtract(float[] a, float[] b, float[] dest, int from, int to) {
+		int i = from;
+		int bound = from + SPECIES.loopBound(to - from);
+		for (; i < bound; i += SPECIES.length()) {
+			FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+			FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+			va.sub(vb).intoArray(dest, i);
+		}
+		for (; i < to; i++) {
+			dest[i] = a[i] - b[i];
+		}
+	}
+
+	@Override
+	public void multiply(float[] a, float[] b, float[] dest, int from, int to) {
+		int i = from;
+		int bound = from + SPECIES.loopBound(to - from);
+		for (; i < bound; i += SPECIES.length()) {
+			FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+			FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+			va.mul(vb).intoArray(dest, i);
+		}
+		for (; i < to; i++) {
+			dest[i] = a[i] * b[i];
+		}
+	}
+
+	@Override
+	public void scale(float[] a, float s, float[] dest, int from, int to) {
+		int i = from;
+		int bound = from + SPECIES.loopBound(to - from);
+		for (; i < bound; i += SPECIES.length()) {
+			FloatVector.fromArray(SPECIES, a, i).mul(s).intoArray(dest, i);
+		}
+		for (; i < to; i++) {
+			dest[i] = a[i] * s;
+		}
+	}
+
+	@Override
+	public void normalise(float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to) {
+		FloatVector one = FloatVector.broadcast(SPECIES, 1f);
+		FloatVector zero = FloatVector.zero(SPECIES);
+		int i = from;
+		int bound = from + SPECIES.loopBound(to - from);
+		for (; i < bound; i += SPECIES.length()) {
+			FloatVector vx = FloatVector.fromArray(SPECIES, x, i);
+			FloatVector vy = FloatVector.fromArray(SPECIES, y, i);
+			FloatVector vz = FloatVector.fromArray(SPECIES, z, i);
+			FloatVector length = vx.mul(vx).add(vy.mul(vy)).add(vz.mul(vz)).sqrt();
+			VectorMask<Float> isZero = length.eq(zero);
+			FloatVector inv = one.div(length).blend(zero, isZero);
+			vx.mul(inv).intoArray(destX, i);
+			vy.mul(inv).intoArray(destY, i);
+			vz.mul(inv).intoArray(destZ, i);
+		}
+		for (; i < to; i++) {
+			float length = (float) Math.sqrt(x[i] * x[i] + y[i] * y[i] + z[i] * z[i]);
+			float inv = length == 0.0f ? 0.0f : 1f / length;
+			destX[i] = x[i] * inv;
+			destY[i] = y[i] * inv;
+			destZ[i] = z[i] * inv;
+		}
+	}
+
+	@Override
+	public void transform(float[] m, float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to) {
+		float m0 = m[0], m1 = m[1], m2 = m[2], m3 = m[3];
+		float m4 = m[4], m5 = m[5], m6 = m[6], m7 = m[7];
+		float m8 = m[8], m9 = m[9], m10 = m[10], m11 = m[11];
+		int i = from;
+		int bound = from + SPECIES.loopBound(to - from);
+		for (; i < bound; i += SPECIES.length()) {
+			FloatVector px = FloatVector.fromArray(SPECIES, x, i);
+			FloatVector py = FloatVector.fromArray(SPECIES, y, i);
+			FloatVector pz = FloatVector.fromArray(SPECIES, z, i);
+			px.mul(m0).add(py.mul(m1)).add(pz.mul(m2)).add(m3).intoArray(destX, i);
+			px.mul(m4).add(py.mul(m5)).add(pz.mul(m6)).add(m7).intoArray(destY, i);
+			px.mul(m8).add(py.mul(m9)).add(pz.mul(m10)).add(m11).intoArray(destZ, i);
+		}
+		for (; i < to; i++) {
+			float px = x[i], py = y[i], pz = z[i];
+			destX[i] = px * m0 + py * m1 + pz * m2 + m3;
+			destY[i] = px * m4 + py * m5 + pz * m6 + m7;
+			destZ[i] = px * m8 + py * m9 + pz * m10 + m11;
+		}
+	}
+
+	@Override
+	public void rotate(float qs, float qi, float qj, float qk, float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to) {
+		int i = from;
+		int bound = from + SPECIES.loopBound(to - from);
+		for (; i < bound; i += SPECIES.length()) {
+			FloatVector px = FloatVector.fromArray(SPECIES, x, i);
+			FloatVector py = FloatVector.fromArray(SPECIES, y, i);
+			FloatVector pz = FloatVector.fromArray(SPECIES, z, i);
+			FloatVector tx = pz.mul(qj).sub(py.mul(qk)).mul(2f);
+			FloatVector ty = px.mul(qk).sub(pz.mul(qi)).mul(2f);
+			FloatVector tz = py.mul(qi).sub(px.mul(qj)).mul(2f);
+			px.add(tx.mul(qs)).add(tz.mul(qj).sub(ty.mul(qk))).intoArray(destX, i);
+			py.add(ty.mul(qs)).add(tx.mul(qk).sub(tz.mul(qi))).intoArray(destY, i);
+			pz.add(tz.mul(qs)).add(ty.mul(qi).sub(tx.mul(qj))).intoArray(destZ, i);
+		}
+		for (; i < to; i++) {
+			float px = x[i], py = y[i], pz = z[i];
+			float tx = (qj * pz - qk * py) * 2;
+			float ty = (qk * px - qi * pz) * 2;
+			float tz = (qi * py - qj * px) * 2;
+			destX[i] = px + qs * tx + (qj * tz - qk * ty);
+			destY[i] = py + qs * ty + (qk * tx - qi * tz);
+			destZ[i] = pz + qs * tz + (qi * ty - qj * tx);
+		}
+	}
+
+	@Override
+	public void rotate(float[] qs, float[] qi, float[] qj, float[] qk, float[] x, float[] y, float[] z, float[] destX, float[] destY, float[] destZ, int from, int to) {
+		int i = from;
+		int bound = from + SPECIES.loopBound(to - from);
+		for (; i < bound; i += SPECIES.length()) {
+			FloatVector s = FloatVector.fromArray(SPECIES, qs, i);
+			FloatVector a = FloatVector.fromArray(SPECIES, qi, i);
+			FloatVector b = FloatVector.fromArray(SPECIES, qj, i);
+			FloatVector c = FloatVector.fromArray(SPECIES, qk, i);
+			FloatVector px = FloatVector.fromArray(SPECIES, x, i);
+			FloatVector py = FloatVector.fromArray(SPECIES, y, i);
+			FloatVector pz = FloatVector.fromArray(SPECIES, z, i);
+			FloatVector tx = b.mul(pz).sub(c.mul(py)).mul(2f);
+			FloatVector ty = c.mul(px).sub(a.mul(pz)).mul(2f);
+			FloatVector tz = a.mul(py).sub(b.mul(px)).mul(2f);
+			px.add(s.mul(tx)).add(b.mul(tz).sub(c.mul(ty))).intoArray(destX, i);
+			py.add(s.mul(ty)).add(c.mul(tx).sub(a.mul(tz))).intoArray(destY, i);
+			pz.add(s.mul(tz)).add(a.mul(ty).sub(b.mul(tx))).intoArray(destZ, i);
+		}
+		for (; i < to; i++) {
+			float s = qs[i], a = qi[i], b = qj[i], c = qk[i];
+			float px = x[i], py = y[i], pz = z[i];
+			float tx = (b * pz - c * py) * 2;
+			float ty = (c * px - a * pz) * 2;
+			float tz = (a * py - b * px) * 2;
+			destX[i] = px + s * tx + (b * tz - c * ty);
+			destY[i] = py + s * ty + (c * tx - a * tz);
+			destZ[i] = pz + s * tz + (a * ty - b * tx);
+		}
+	}
+
+	@Override
+	public void multiplyMatrices(float[] a, int aOffset, float[] b, int bOffset, float[] dest, int destOffset, int count) {
+		for (int n = 0; n < count; n++) {
+			int aStart = aOffset + n * 16;
+			int bStart = bOffset + n * 16;
+			int destStart = destOffset + n * 16;
+
+			// every row of a is loaded before dest is written, so dest may alias a.
+			// row j of dest only needs row j of b, so dest may alias b too.
+			FloatVector row0 = FloatVector.fromArray(ROW, a, aStart);
+			FloatVector row1 = FloatVector.fromArray(ROW, a, aStart + 4);
+			FloatVector row2 = FloatVector.fromArray(ROW, a, aStart + 8);
+			FloatVector row3 = FloatVector.fromArray(ROW, a, aStart + 12);
+
+			for (int j = 0; j < 4; j++) {
+				int bRow = bStart + j * 4;
+				row0.mul(b[bRow])
+						.add(row1.mul(b[bRow + 1]))
+						.add(row2.mul(b[bRow + 2]))
+						.add(row3.mul(b[bRow + 3]))
+						.intoArray(dest, destStart + j * 4);
+			}
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.boc_dev.maths.objects;
+
+import com.boc_dev.maths.objects.matrix.Matrix3d;
+import com.boc_dev.maths.objects.vector.Vec3d;
+import com.boc_dev.maths.objects.vector.Vec3dArray;
+import com.boc_dev.maths.objects.vector.Vec3fArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CovarianceAccumulatorTest {
+
+	private final Vec3d[] points = {
+			new Vec3d(1, 2, 3),
+			new Vec3d(2, 4, 1),
+			new Vec3d(3, 1, 5),
+			new Vec3d(4, 3, 2),
+	};
+
+	@Test
+	void singlePoints() {
+		CovarianceAccumulator acc = new CovarianceAccumulator();
+		for (Vec3d point : points) {
+			acc.add(point);
+		}
+
+		assertEquals(4, acc.getCount());
+		assertEquals(2.5, acc.getMean().getX(), 1e-12);
+		assertEquals(2.5, acc.getMean().getY(), 1e-12);
+		assertEquals(2.75, acc.getMean().getZ(), 1e-12);
+
+		Matrix3d covariance = acc.getCovariance();
+		assertEquals(1.25, covariance.get(0, 0), 1e-12);
+		assertEquals(0.0, covariance.get(1, 0), 1e-12);
+		assertEquals(0.125, covariance.get(2, 0), 1e-12);
+		assertEquals(1.25, covariance.get(1, 1), 1e-12);
+		assertEquals(-1.625, covariance.get(2, 1), 1e-12);
+		assertEquals(-1.625, covariance.get(1, 2), 1e-12);
+		assertEquals(2.1875, covariance.get(2, 2), 1e-12);
+
+		assertEquals(1.25 * 4 / 3, acc.getSampleCovariance().get(0, 0), 1e-12);
+	}
+
+	@Test
+	void bulkAndMergeMatchSinglePoints() {
+		Random random = new Random(4);
+		Vec3dArray cloud = new Vec3dArray(10_000);
+		CovarianceAccumulator expected = new CovarianceAccumulator();
+		for (int i = 0; i < cloud.size(); i++) {
+			// offset far from the origin to check precision is kept
+			cloud.set(i, 1e6 + random.nextGaussian(), -1e6 + 2 * random.nextGaussian(), random.nextGaussian());
+			expected.add(cloud.get(i));
+		}
+
+		int blockSize = 1000;
+		CovarianceAccumulator parallel = IntStream.range(0, cloud.size() / blockSize).parallel().collect(
+				CovarianceAccumulator::new,
+				(acc, block) -> acc.addAll(cloud, block * blockSize, (block + 1) * blockSize),
+				CovarianceAccumulator::merge);
+
+		assertEquals(expected.getCount(), parallel.getCount());
+		double[] expectedValues = expected.getCovariance(new double[9], 0);
+		double[] actualValues = parallel.getCovariance(new double[9], 0);
+		for (int i = 0; i < 9; i++) {
+			assertEquals(expectedValues[i], actualValues[i], 1e-6);
+		}
+		assertEquals(4.0, actualValues[4], 0.2);
+		assertEquals(expected.getMean().getX(), parallel.getMean().getX(), 1e-6);
+	}
+
+	@Test
+	void floatBulkMatchesSinglePoints() {
+		Random random = new Random(5);
+		// more than one chunk, not a multiple of it
+		Vec3fArray cloud = new Vec3fArray(2500);
+		CovarianceAccumulator expected = new CovarianceAccumulator();
+		for (int i = 0; i < cloud.size(); i++) {
+			cloud.set(i, 100 + (float) random.nextGaussian(), 3 * (float) random.nextGaussian(), (float) random.nextGaussian());
+			if (i >= 10) {
+				expected.add(cloud.get(i));
+			}
+		}
+
+		CovarianceAccumulator bulk = new CovarianceAccumulator().addAll(cloud, 10, cloud.size());
+		assertEquals(expected.getCount(), bulk.getCount());
+		double[] expectedValues = expected.getCovariance(new double[9], 0);
+		double[] actualValues = bulk.getCovariance(new double[9], 0);
+		for (int i = 0; i < 9; i++) {
+			assertEquals(expectedValues[i], actualValues[i], 1e-9);
+		}
+		assertEquals(expected.getMean().getX(), bulk.getMean().getX(), 1e-9);
+		assertEquals(0, new CovarianceAccumulator().addAll(cloud, 5, 5).getCount());
+	}
+}
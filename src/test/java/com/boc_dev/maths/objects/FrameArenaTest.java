@@ -0,0 +1,72 @@
+package com.boc_dev.maths.objects;
+
+import com.boc_dev.maths.objects.matrix.Matrix4f;
+import com.boc_dev.maths.objects.vector.MutableVec3f;
+import com.boc_dev.maths.objects.vector.Vec3f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameArenaTest {
+
+	@Test
+	void factoriesMatchAllocatingVersions() {
+		FrameArena arena = new FrameArena();
+		Vec3f pos = new Vec3f(1, -2, 3);
+		Vec3f scale = new Vec3f(2, 0.5f, 3);
+		Matrix4f rot = QuaternionF.RotationY(0.7).toMatrix();
+
+		assertEquals(Matrix4f.Translation(pos), Matrix4f.Translation(pos, arena));
+		assertEquals(Matrix4f.Scale(scale), Matrix4f.Scale(scale, arena));
+		assertEquals(Matrix4f.Rotation(30, Vec3f.Y), Matrix4f.Rotation(30, Vec3f.Y, arena));
+		assertEquals(Matrix4f.Transform(pos, rot, scale), Matrix4f.Transform(pos, rot, scale, arena));
+		assertEquals(rot.multiply(Matrix4f.Scale(scale)), rot.multiply(Matrix4f.Scale(scale, arena), arena));
+
+		QuaternionF a = QuaternionF.RotationX(0.3);
+		QuaternionF b = QuaternionF.RotationZ(1.1);
+		QuaternionF product = a.multiply(b, arena);
+		QuaternionF expected = a.multiply(b);
+		assertEquals(expected.getS(), product.getS());
+		assertEquals(expected.getK(), product.getK());
+		assertEquals(a.toMatrix(), a.toMatrix(arena));
+
+		assertEquals(7, arena.getMatrix4fCount());
+		assertEquals(1, arena.getQuaternionFCount());
+	}
+
+	@Test
+	void instancesReusedAfterReset() {
+		FrameArena arena = new FrameArena(2, 2, 2);
+		Matrix4f first = Matrix4f.Translation(new Vec3f(1, 2, 3), arena);
+		QuaternionF quaternion = arena.quaternionF(1, 2, 3, 4);
+		MutableVec3f vec = arena.vec3f().set(1, 1, 1);
+
+		arena.reset();
+		assertEquals(0, arena.getMatrix4fCount());
+		assertSame(first, arena.matrix4f());
+		assertEquals(Matrix4f.Identity, first);
+		assertSame(quaternion, arena.quaternionF(0, 0, 0, 1));
+		assertEquals(1.0f, quaternion.getK());
+		assertSame(vec, arena.vec3f());
+		assertEquals(new MutableVec3f(0, 0, 0), vec);
+	}
+
+	@Test
+	void growsPastCapacity() {
+		FrameArena arena = new FrameArena(1, 1, 1);
+		Matrix4f[] matrices = new Matrix4f[5];
+		for (int i = 0; i < matrices.length; i++) {
+			matrices[i] = Matrix4f.Translation(new Vec3f(i, 0, 0), arena);
+		}
+		for (int i = 0; i < matrices.length; i++) {
+			assertEquals(i, matrices[i].get(3, 0));
+			for (int j = 0; j < i; j++) {
+				assertNotSame(matrices[j], matrices[i]);
+			}
+		}
+		arena.reset();
+		for (Matrix4f matrix : matrices) {
+			assertSame(matrix, arena.matrix4f());
+		}
+	}
+}
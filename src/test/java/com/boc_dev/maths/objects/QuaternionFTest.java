@@ -4,6 +4,8 @@ import com.boc_dev.maths.objects.matrix.Matrix4f;
 import com.boc_dev.maths.objects.vector.Vec3f;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class QuaternionFTest {
@@ -62,6 +64,34 @@ class QuaternionFTest {
 
 	@Test
 	void rotateVector() {
+		QuaternionF rotation = QuaternionF.RotationZ(Math.PI / 2.0);
+
+		QuaternionF rotated = rotation.rotateVector(Vec3f.X);
+		assertEquals(0.0, rotated.getS(), 0.000001);
+		assertEquals(0.0, rotated.getI(), 0.000001);
+		assertEquals(1.0, rotated.getJ(), 0.000001);
+		assertEquals(0.0, rotated.getK(), 0.000001);
+
+		float[] dest = new float[6];
+		rotation.rotateVector(Vec3f.X, dest, 2);
+		assertArrayEquals(new float[] {0, 0, 0, 0, 1, 0}, dest, 0.000001f);
+	}
+
+	@Test
+	void rotateMatchesRotateVector() {
+		QuaternionF rotation = QuaternionF.RotationX(0.4).multiply(QuaternionF.RotationY(-1.3)).multiply(QuaternionF.RotationZ(2.2));
+		Vec3f vector = new Vec3f(1.5f, -2, 0.25f);
+
+		QuaternionF expected = rotation.rotateVector(vector);
+		Vec3f rotated = rotation.rotate(vector);
+		assertEquals(expected.getI(), rotated.getX(), 0.00001);
+		assertEquals(expected.getJ(), rotated.getY(), 0.00001);
+		assertEquals(expected.getK(), rotated.getZ(), 0.00001);
+
+		float[] vectors = {1, 0, 0, 1.5f, -2, 0.25f};
+		rotation.rotate(vectors, 0, vectors, 0, 2);
+		assertArrayEquals(rotation.rotate(Vec3f.X).getValues(), Arrays.copyOfRange(vectors, 0, 3));
+		assertArrayEquals(rotated.getValues(), Arrays.copyOfRange(vectors, 3, 6));
 	}
 
 	@Test
@@ -70,6 +100,18 @@ class QuaternionFTest {
 
 	@Test
 	void multiply() {
+		QuaternionF a = new QuaternionF(1, 2, 3, 4);
+		QuaternionF b = new QuaternionF(5, 6, 7, 8);
+
+		QuaternionF product = a.multiply(b);
+		assertEquals(-60, product.getS(), 0.000001);
+		assertEquals(12, product.getI(), 0.000001);
+		assertEquals(30, product.getJ(), 0.000001);
+		assertEquals(24, product.getK(), 0.000001);
+
+		float[] dest = new float[4];
+		a.multiply(b, dest, 0);
+		assertArrayEquals(new float[] {-60, 12, 30, 24}, dest, 0.000001f);
 	}
 
 	@Test
@@ -119,6 +161,76 @@ class QuaternionFTest {
 
 	@Test
 	void slerp() {
+		QuaternionF a = QuaternionF.RotationZ(0.2);
+		QuaternionF b = QuaternionF.RotationZ(1.4);
+
+		for (float percent : new float[] {0, 0.25f, 0.5f, 1}) {
+			QuaternionF expected = QuaternionF.RotationZ(0.2 + 1.2 * percent);
+			QuaternionF result = a.slerp(b, percent);
+			assertEquals(expected.getS(), result.getS(), 0.000001f);
+			assertEquals(expected.getK(), result.getK(), 0.000001f);
+		}
+
+		// shortest path, -b is the same rotation as b
+		QuaternionF half = a.slerp(b.scale(-1), 0.5f);
+		assertEquals(Math.abs(QuaternionF.RotationZ(0.8).getK()), Math.abs(half.getK()), 0.000001f);
+
+		// nlerp follows the same path at a different speed
+		QuaternionF nlerpHalf = a.nlerp(b, 0.5f);
+		assertEquals(QuaternionF.RotationZ(0.8).getK(), nlerpHalf.getK(), 0.000001f);
+		assertEquals(1.0f, nlerpHalf.len(), 0.000001f);
+	}
+
+	@Test
+	void bulkSlerp() {
+		float[] a = new float[8];
+		float[] b = new float[8];
+		QuaternionF.RotationX(0.1).normalise(a, 0);
+		QuaternionF.RotationY(0.5).normalise(a, 4);
+		QuaternionF.RotationX(1.1).normalise(b, 0);
+		QuaternionF.RotationZ(-0.5).normalise(b, 4);
+		float[] percents = {0.3f, 0.8f};
+		float[] dest = new float[8];
+
+		QuaternionF.slerp(a, 0, b, 0, percents, 0, dest, 0, 2);
+		QuaternionF expected = QuaternionF.RotationY(0.5).slerp(QuaternionF.RotationZ(-0.5), 0.8f);
+		assertEquals(expected.getS(), dest[4]);
+		assertEquals(expected.getK(), dest[7]);
+		assertEquals(QuaternionF.RotationX(0.4).getI(), dest[1], 0.000001f);
+
+		QuaternionF.nlerp(a, 0, b, 0, percents, 0, a, 0, 2);
+		assertEquals(QuaternionF.RotationY(0.5).nlerp(QuaternionF.RotationZ(-0.5), 0.8f).getJ(), a[6]);
+	}
+
+	@Test
+	void slerpFast() {
+		QuaternionF a = QuaternionF.RotationZ(0.2);
+		QuaternionF b = QuaternionF.RotationZ(1.4);
+
+		assertEquals(QuaternionF.RotationZ(0.8).getS(), a.slerpFast(b, 0.5f).getS(), 0.00001f);
+		assertEquals(QuaternionF.RotationZ(0.8).getK(), a.slerpFast(b, 0.5f).getK(), 0.00001f);
+
+		// shortest path, -b is the same rotation as b
+		QuaternionF half = a.slerpFast(b.scale(-1), 0.5f);
+		assertEquals(Math.abs(QuaternionF.RotationZ(0.8).getK()), Math.abs(half.getK()), 0.00001f);
+	}
+
+	@Test
+	void fastRotations() {
+		assertEquals(QuaternionF.RotationX(0.7f).getI(), QuaternionF.FastRotationX(0.7f).getI(), 0.000001f);
+		assertEquals(QuaternionF.RotationY(0.7f).getS(), QuaternionF.FastRotationY(0.7f).getS(), 0.000001f);
+		assertEquals(QuaternionF.RotationZ(0.7f).getK(), QuaternionF.FastRotationZ(0.7f).getK(), 0.000001f);
+		for (QuaternionF fast : new QuaternionF[]{QuaternionF.FastRotationX(-2.5f), QuaternionF.FastRotationY(-2.5f), QuaternionF.FastRotationZ(-2.5f)}) {
+			assertEquals(Math.cos(-1.25), fast.getS(), 0.000001f);
+			assertEquals(Math.sin(-1.25), fast.getI() + fast.getJ() + fast.getK(), 0.000001f);
+		}
+
+		QuaternionF rotation = QuaternionF.RotationZ(0.3).multiply(QuaternionF.RotationY(0.2f));
+		Vec3f expected = rotation.toEulerAngles();
+		Vec3f actual = rotation.toEulerAnglesFast();
+		assertEquals(expected.getX(), actual.getX(), 0.000001f);
+		assertEquals(expected.getY(), actual.getY(), 0.000001f);
+		assertEquals(expected.getZ(), actual.getZ(), 0.000001f);
 	}
 
 	@Test
@@ -0,0 +1,43 @@
+package com.boc_dev.maths.objects;
+
+import com.boc_dev.maths.objects.matrix.MutableMatrix4f;
+import com.boc_dev.maths.objects.vector.MutableVec3f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScratchPoolTest {
+
+	@Test
+	void reusedAfterPop() {
+		MutableVec3f first;
+		try (ScratchPool pool = ScratchPool.push()) {
+			first = pool.vec3f().set(1, 2, 3);
+			assertNotSame(first, pool.vec3f());
+		}
+		try (ScratchPool pool = ScratchPool.push()) {
+			MutableVec3f again = pool.vec3f();
+			assertSame(first, again);
+			assertEquals(new MutableVec3f(0, 0, 0), again);
+		}
+	}
+
+	@Test
+	void nestedFrames() {
+		try (ScratchPool outer = ScratchPool.push()) {
+			MutableMatrix4f kept = outer.matrix4f().translateLocal(1, 2, 3);
+			try (ScratchPool inner = ScratchPool.push()) {
+				assertNotSame(kept, inner.matrix4f());
+			}
+			assertEquals(3.0f, kept.get(3, 2));
+		}
+	}
+
+	@Test
+	void noFrame() {
+		assertThrows(IllegalStateException.class, () -> ScratchPool.get().vec3f());
+	}
+}
@@ -0,0 +1,106 @@
+package com.boc_dev.maths.objects.animation;
+
+import com.boc_dev.maths.objects.QuaternionF;
+import com.boc_dev.maths.objects.vector.Vec3f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClipSamplerTest {
+
+	private static float[] rotations(double... angles) {
+		float[] values = new float[angles.length * 4];
+		for (int i = 0; i < angles.length; i++) {
+			QuaternionF.RotationZ(angles[i]).normalise(values, i * 4);
+		}
+		return values;
+	}
+
+	// joint 0 moves along x and turns around z, joint 1 only scales
+	private final AnimationClip clip = new AnimationClip(2.0f,
+			new KeyframeTrack[] {KeyframeTrack.Vector(new float[] {0, 1, 2}, new float[] {0, 0, 0, 1, 0, 0, 3, 0, 0}), null},
+			new KeyframeTrack[] {KeyframeTrack.Rotation(new float[] {0, 2}, rotations(0, 1.2)), null},
+			new KeyframeTrack[] {null, KeyframeTrack.Vector(new float[] {0.5f}, new float[] {2, 2, 2})});
+
+	@Test
+	void keyLookupWithCursor() {
+		float[] times = new float[20];
+		for (int i = 0; i < times.length; i++) {
+			times[i] = i * 0.5f;
+		}
+		KeyframeTrack track = KeyframeTrack.Vector(times, new float[60]);
+
+		assertEquals(0, track.keyIndex(-1, 0));
+		assertEquals(3, track.keyIndex(1.6f, 0));
+		assertEquals(4, track.keyIndex(2.0f, 3));
+		// jumps backwards and far ahead fall back to a search
+		assertEquals(1, track.keyIndex(0.7f, 4));
+		assertEquals(18, track.keyIndex(9.2f, 1));
+		assertEquals(19, track.keyIndex(100, 18));
+		assertEquals(0.0f, track.fraction(100, 19));
+		assertEquals(0.4f, track.fraction(9.2f, 18), 0.00001f);
+
+		assertThrows(IllegalArgumentException.class, () -> KeyframeTrack.Vector(new float[] {0, 1, 1}, new float[9]));
+		assertThrows(IllegalArgumentException.class, () -> KeyframeTrack.Rotation(new float[] {0, 1}, new float[6]));
+	}
+
+	@Test
+	void samplesPose() {
+		ClipSampler sampler = new ClipSampler(clip);
+		Pose pose = new Pose(2);
+
+		sampler.sample(0.5f, pose);
+		assertEquals(new Vec3f(0.5f, 0, 0), pose.getTranslation(0));
+		assertEquals(Vec3f.ONE, pose.getScale(0));
+		assertEquals(QuaternionF.RotationZ(0.3).getK(), pose.getRotation(0).getK(), 0.005f);
+		assertEquals(Vec3f.ZERO, pose.getTranslation(1));
+		assertEquals(1.0f, pose.getRotation(1).getS());
+		assertEquals(new Vec3f(2, 2, 2), pose.getScale(1));
+
+		sampler.sample(1.5f, pose);
+		assertEquals(new Vec3f(2, 0, 0), pose.getTranslation(0));
+
+		// past the end holds the last key
+		sampler.sample(5.0f, pose);
+		assertEquals(new Vec3f(3, 0, 0), pose.getTranslation(0));
+		assertEquals(QuaternionF.RotationZ(1.2).getK(), pose.getRotation(0).getK(), 0.000001f);
+
+		sampler.sampleLooped(2.5f, pose);
+		assertEquals(new Vec3f(0.5f, 0, 0), pose.getTranslation(0));
+	}
+
+	@Test
+	void durationMustBePositiveAndFinite() {
+		KeyframeTrack[] none = new KeyframeTrack[1];
+		for (float duration : new float[] {0, -1, Float.NaN, Float.POSITIVE_INFINITY}) {
+			assertThrows(IllegalArgumentException.class, () -> new AnimationClip(duration, none, none, none));
+		}
+		assertEquals(0.5f, new AnimationClip(0.5f, none, none, none).getDuration());
+	}
+
+	@Test
+	void slerpMovesAtConstantSpeed() {
+		ClipSampler sampler = new ClipSampler(clip, ClipSampler.RotationBlend.SLERP);
+		Pose pose = new Pose(2);
+		for (float time = 0; time <= 2; time += 0.25f) {
+			sampler.sample(time, pose);
+			QuaternionF expected = QuaternionF.RotationZ(0.6 * time);
+			assertEquals(expected.getS(), pose.getRotation(0).getS(), 0.000001f);
+			assertEquals(expected.getK(), pose.getRotation(0).getK(), 0.000001f);
+		}
+	}
+
+	@Test
+	void blendPoses() {
+		Pose a = new Pose(1);
+		Pose b = new Pose(1);
+		b.getTranslations()[0] = 4;
+		QuaternionF.RotationZ(1.0).normalise(b.getRotations(), 0);
+
+		a.blend(b, 0.25f, a);
+		assertEquals(new Vec3f(1, 0, 0), a.getTranslation(0));
+		assertEquals(1.0f, a.getRotation(0).len(), 0.000001f);
+		assertEquals(Vec3f.ONE, a.getScale(0));
+		assertEquals(new Vec3f(1, 0, 0), a.toTransform(0).getPosition());
+	}
+}
@@ -0,0 +1,66 @@
+package com.boc_dev.maths.objects.dev;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GemmTest {
+
+	// two whole 4 row passes and a 2 row tail, with n and p each crossing one block boundary
+	private static final int M = 10;
+	private static final int N = Gemm.K_BLOCK + 3;
+	private static final int P = Gemm.J_BLOCK + 5;
+
+	@Test
+	void kernelsAgreeAcrossBlocks() {
+		Random random = new Random(13);
+		// a sits in a wider array, so offset and stride are exercised too
+		int aOffset = 7;
+		int aStride = N + 2;
+		float[] a = new float[aOffset + M * aStride];
+		float[] b = new float[N * P];
+		for (int i = 0; i < a.length; i++) {
+			a[i] = random.nextFloat() * 2 - 1;
+		}
+		for (int i = 0; i < b.length; i++) {
+			b[i] = random.nextFloat() * 2 - 1;
+		}
+		double[] aDouble = new double[a.length];
+		double[] bDouble = new double[b.length];
+		for (int i = 0; i < a.length; i++) {
+			aDouble[i] = a[i];
+		}
+		for (int i = 0; i < b.length; i++) {
+			bDouble[i] = b[i];
+		}
+
+		double[] expected = new double[M * P];
+		for (int i = 0; i < M; i++) {
+			for (int j = 0; j < P; j++) {
+				double sum = 0.0;
+				for (int k = 0; k < N; k++) {
+					sum += aDouble[aOffset + i * aStride + k] * bDouble[k * P + j];
+				}
+				expected[i * P + j] = sum;
+			}
+		}
+
+		// blocking keeps the order of the sum over k, so double and mixed match the plain loop exactly
+		double[] c = new double[M * P];
+		Gemm.multiply(aDouble, aOffset, aStride, bDouble, 0, P, c, M, N, P);
+		assertArrayEquals(expected, c);
+
+		double[] mixed = new double[M * P];
+		Gemm.multiply(a, aOffset, aStride, b, 0, P, mixed, M, N, P);
+		assertArrayEquals(expected, mixed);
+
+		float[] single = new float[M * P];
+		Gemm.multiply(a, aOffset, aStride, b, 0, P, single, M, N, P);
+		for (int i = 0; i < single.length; i++) {
+			assertEquals(expected[i], single[i], 0.0001);
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package com.boc_dev.maths.objects.dev;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IterativeSolverTest {
+
+	// tridiagonal 2, -1 second difference
+	static SparseMatrixnd laplacian1d(int n) {
+		SparseMatrixnd.Builder builder = new SparseMatrixnd.Builder(n, n, 3 * n);
+		for (int i = 0; i < n; i++) {
+			builder.add(i, i, 2.0);
+			if (i > 0) {
+				builder.add(i, i - 1, -1.0);
+			}
+			if (i < n - 1) {
+				builder.add(i, i + 1, -1.0);
+			}
+		}
+		return builder.build();
+	}
+
+	// five point Laplacian on a size x size grid, plus an optional upwind convection term making it non symmetric
+	private static SparseMatrixnd grid(int size, double convection) {
+		int n = size * size;
+		SparseMatrixnd.Builder builder = new SparseMatrixnd.Builder(n, n, 5 * n);
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				int i = y * size + x;
+				builder.add(i, i, 4.0 + convection);
+				if (x > 0) {
+					builder.add(i, i - 1, -1.0 - convection);
+				}
+				if (x < size - 1) {
+					builder.add(i, i + 1, -1.0);
+				}
+				if (y > 0) {
+					builder.add(i, i - size, -1.0);
+				}
+				if (y < size - 1) {
+					builder.add(i, i + size, -1.0);
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	private static double relativeResidual(SparseMatrixnd a, double[] b, double[] x) {
+		double[] ax = a.multiply(x, new double[b.length]);
+		double r = 0.0;
+		double bb = 0.0;
+		for (int i = 0; i < b.length; i++) {
+			r += (b[i] - ax[i]) * (b[i] - ax[i]);
+			bb += b[i] * b[i];
+		}
+		return Math.sqrt(r / bb);
+	}
+
+	@Test
+	void conjugateGradient() {
+		SparseMatrixnd a = grid(60, 0.0);
+		int n = a.getRowSize();
+		double[] b = new double[n];
+		for (int i = 0; i < n; i++) {
+			b[i] = Math.sin(i * 0.01);
+		}
+
+		double[] x = new double[n];
+		IterativeSolver.Result result = IterativeSolver.conjugateGradient(a, b, x, a.jacobiPreconditioner(), 1e-10, 1000);
+		assertTrue(result.isConverged(), result.toString());
+		assertTrue(result.getIterations() < 1000);
+		assertEquals(result.getResidual(), relativeResidual(a, b, x), 1e-12);
+		assertTrue(relativeResidual(a, b, x) <= 1e-10);
+	}
+
+	@Test
+	void conjugateGradientMatrixFree() {
+		// the 1D Laplacian as a stencil, never stored
+		int n = 500;
+		LinearOperator stencil = (x, y) -> {
+			for (int i = 0; i < n; i++) {
+				double left = i > 0 ? x[i - 1] : 0.0;
+				double right = i < n - 1 ? x[i + 1] : 0.0;
+				y[i] = 2.0 * x[i] - left - right;
+			}
+		};
+		double[] b = new double[n];
+		b[n / 2] = 1.0;
+		double[] x = new double[n];
+		IterativeSolver.Result result = IterativeSolver.conjugateGradient(stencil, b, x, null, 1e-10, 2 * n);
+		assertTrue(result.isConverged(), result.toString());
+		assertTrue(relativeResidual(laplacian1d(n), b, x) <= 1e-9);
+	}
+
+	@Test
+	void biCGStab() {
+		SparseMatrixnd a = grid(50, 0.5);
+		int n = a.getRowSize();
+		double[] b = new double[n];
+		for (int i = 0; i < n; i++) {
+			b[i] = (i % 7) - 3.0;
+		}
+
+		double[] x = new double[n];
+		IterativeSolver.Result result = IterativeSolver.biCGStab(a, b, x, a.jacobiPreconditioner(), 1e-10, 1000);
+		assertTrue(result.isConverged(), result.toString());
+		assertTrue(relativeResidual(a, b, x) <= 1e-9);
+	}
+
+	@Test
+	void zeroRightHandSide() {
+		SparseMatrixnd a = laplacian1d(10);
+		double[] x = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+		IterativeSolver.Result result = IterativeSolver.conjugateGradient(a, new double[10], x, null, 1e-10, 10);
+		assertTrue(result.isConverged());
+		assertArrayEquals(new double[10], x);
+	}
+}
@@ -0,0 +1,169 @@
+package com.boc_dev.maths.objects.dev;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedMatrixndTest {
+
+	@TempDir
+	Path dir;
+
+	// tiny tiles and the smallest cache so every operation crosses tile edges and evicts constantly
+	private static final int TILE = 4;
+	private static final int CACHE = 4;
+
+	private MappedMatrixnd mapped(String name, Matrixnd matrix) throws IOException {
+		MappedMatrixnd result = MappedMatrixnd.Create(dir.resolve(name), matrix.getRowSize(), matrix.getColSize(), TILE, CACHE);
+		result.setBlock(matrix, 0, 0);
+		return result;
+	}
+
+	private static Matrixnd random(Random random, int rows, int cols) {
+		double[] elements = new double[rows * cols];
+		for (int i = 0; i < elements.length; i++) {
+			elements[i] = random.nextDouble() * 2 - 1;
+		}
+		return new Matrixnd(rows, cols, elements);
+	}
+
+	private static void assertSameElements(Matrixnd expected, Matrixnd actual, double delta) {
+		assertEquals(expected.getRowSize(), actual.getRowSize());
+		assertEquals(expected.getColSize(), actual.getColSize());
+		for (int row = 0; row < expected.getRowSize(); row++) {
+			for (int col = 0; col < expected.getColSize(); col++) {
+				assertEquals(expected.get(col, row), actual.get(col, row), delta);
+			}
+		}
+	}
+
+	@Test
+	void roundTripThroughFile() throws IOException {
+		Matrixnd matrix = random(new Random(1), 10, 7);
+		Path file = dir.resolve("a.mat");
+		try (MappedMatrixnd store = MappedMatrixnd.Create(file, 10, 7, TILE, CACHE)) {
+			store.setBlock(matrix, 0, 0);
+			store.set(6, 9, 42.0);
+		}
+
+		try (MappedMatrixnd store = MappedMatrixnd.Open(file, false, CACHE)) {
+			assertEquals(10, store.getRowSize());
+			assertEquals(7, store.getColSize());
+			assertEquals(TILE, store.getTileSize());
+			assertEquals(42.0, store.get(6, 9));
+			assertEquals(matrix.get(3, 5), store.get(3, 5));
+			assertSameElements(matrix.block(2, 3, 5, 4), store.getBlock(2, 3, 5, 4), 0.0);
+			assertThrows(ReadOnlyBufferException.class, () -> store.set(0, 0, 1.0));
+			assertThrows(IndexOutOfBoundsException.class, () -> store.get(7, 0));
+		}
+	}
+
+	@Test
+	void multiplyAndTransposeMatchInMemory() throws IOException {
+		Random random = new Random(2);
+		Matrixnd a = random(random, 9, 11);
+		Matrixnd b = random(random, 6, 9);
+
+		try (MappedMatrixnd mappedA = mapped("a.mat", a);
+			 MappedMatrixnd mappedB = mapped("b.mat", b);
+			 MappedMatrixnd product = mappedA.multiply(mappedB, dir.resolve("ba.mat"));
+			 MappedMatrixnd transpose = mappedA.transpose(dir.resolve("at.mat"))) {
+			assertSameElements(a.multiply(b), product.toMatrixnd(), 1e-12);
+			assertSameElements(a.transpose(), transpose.toMatrixnd(), 0.0);
+			assertThrows(IllegalArgumentException.class, () -> mappedB.multiply(mappedA, dir.resolve("bad.mat")));
+		}
+	}
+
+	@Test
+	void luMatchesInMemory() throws IOException {
+		Random random = new Random(3);
+		Matrixnd matrix = random(random, 13, 13);
+		double[] b = new double[13];
+		for (int i = 0; i < b.length; i++) {
+			b[i] = random.nextDouble();
+		}
+
+		try (MappedMatrixnd store = mapped("a.mat", matrix);
+			 MappedLUDecomposition lu = store.lu(dir.resolve("lu.mat"))) {
+			assertFalse(lu.isSingular());
+			assertEquals(matrix.det(), lu.det(), 1e-12 * Math.abs(matrix.det()));
+
+			Vecnd x = lu.solve(new Vecnd(b));
+			Vecnd expected = matrix.solve(new Vecnd(b));
+			for (int i = 0; i < b.length; i++) {
+				assertEquals(expected.get(i), x.get(i), 1e-10);
+			}
+			// the source is left alone
+			assertSameElements(matrix, store.toMatrixnd(), 0.0);
+		}
+	}
+
+	@Test
+	void singularLu() throws IOException {
+		Matrixnd matrix = random(new Random(4), 6, 6);
+		double[] elements = matrix.copyElements();
+		// last row is the sum of the first two
+		for (int col = 0; col < 6; col++) {
+			elements[5 * 6 + col] = elements[col] + elements[6 + col];
+		}
+
+		try (MappedMatrixnd store = mapped("a.mat", new Matrixnd(6, 6, elements));
+			 MappedLUDecomposition lu = store.lu(dir.resolve("lu.mat"))) {
+			// singular up to rounding, which takes the conditioning check
+			assertTrue(lu.isSingular(16 * Math.ulp(1.0)));
+		}
+
+		// a repeated row stays an exact copy through elimination and leaves an exact zero pivot
+		System.arraycopy(elements, 6, elements, 5 * 6, 6);
+		try (MappedMatrixnd store = mapped("b.mat", new Matrixnd(6, 6, elements));
+			 MappedLUDecomposition lu = store.lu(dir.resolve("lu-b.mat"))) {
+			assertTrue(lu.isSingular());
+			assertThrows(ArithmeticException.class, () -> lu.solve(new Vecnd(new double[6])));
+		}
+	}
+
+	@Test
+	void badlyScaledLu() throws IOException {
+		// invertible, the rows are just of very different size
+		Matrixnd matrix = new Matrixnd(1e10, 0, 0, 1e-7);
+		try (MappedMatrixnd store = mapped("a.mat", matrix);
+			 MappedLUDecomposition lu = store.lu(dir.resolve("lu.mat"))) {
+			assertFalse(lu.isSingular());
+			assertEquals(1000.0, lu.det(), 1e-9);
+			Vecnd x = lu.solve(new Vecnd(1e10, 2e-7));
+			assertEquals(1.0, x.get(0), 1e-15);
+			assertEquals(2.0, x.get(1), 1e-15);
+		}
+	}
+
+	@Test
+	void openRejectsBadFiles() throws IOException {
+		Path file = dir.resolve("a.mat");
+		MappedMatrixnd.Create(file, 5, 5, TILE, CACHE).close();
+
+		// a zero tile size in the header
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 0), 12);
+		}
+		IOException header = assertThrows(IOException.class, () -> MappedMatrixnd.Open(file, false));
+		assertTrue(header.getMessage().contains("bad header"));
+
+		// a file longer than its header says
+		MappedMatrixnd.Create(file, 5, 5, TILE, CACHE).close();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			channel.write(ByteBuffer.allocate(8));
+		}
+		IOException length = assertThrows(IOException.class, () -> MappedMatrixnd.Open(file, false));
+		assertTrue(length.getMessage().contains("expected 576"), length.getMessage());
+	}
+}
@@ -2,6 +2,8 @@ package com.boc_dev.maths.objects.dev;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class MatrixndTest {
@@ -92,6 +94,32 @@ class MatrixndTest {
 
     }
 
+    @Test
+    void multiplyLargeMatrixTest() {
+        // big enough to take the parallel path and to cross the k and j blocks
+        int m = 70, n = 300, p = 530;
+        Random random = new Random(6);
+        double[] a = new double[m * n];
+        double[] b = new double[n * p];
+        for (int i = 0; i < a.length; i++) a[i] = random.nextDouble() - 0.5;
+        for (int i = 0; i < b.length; i++) b[i] = random.nextDouble() - 0.5;
+
+        // other.multiply(this) gives this * other
+        Matrixnd product = new Matrixnd(n, p, b).multiply(new Matrixnd(m, n, a));
+        assertEquals(m, product.getRowSize());
+        assertEquals(p, product.getColSize());
+
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < p; j++) {
+                double expected = 0.0;
+                for (int k = 0; k < n; k++) {
+                    expected += a[i * n + k] * b[k * p + j];
+                }
+                assertEquals(expected, product.get(j, i), 0.000000001);
+            }
+        }
+    }
+
     @Test
     void detTest() {
         assertEquals(one.det(), 14, 0.0000000001);
@@ -100,6 +128,371 @@ class MatrixndTest {
         assertEquals(four.det(), 0.0, 0.0000000001);
     }
 
+    @Test
+    void detLargeTest() {
+        // upper triangular with a row swap, det is the product of the diagonal negated
+        int n = 40;
+        double[] elements = new double[n * n];
+        double expected = 1.0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                elements[i * n + j] = (i == j) ? 1.0 + i * 0.05 : 0.3;
+            }
+            expected *= 1.0 + i * 0.05;
+        }
+        for (int j = 0; j < n; j++) {
+            double temp = elements[j];
+            elements[j] = elements[n + j];
+            elements[n + j] = temp;
+        }
+        assertEquals(-expected, new Matrixnd(elements).det(), Math.abs(expected) * 0.000000001);
+    }
+
+    @Test
+    void solveTest() {
+        Vecnd x = two.solve(new Vecnd(1.0, 2.0, 3.0));
+        for (int row = 0; row < 3; row++) {
+            double sum = 0.0;
+            for (int col = 0; col < 3; col++) {
+                sum += two.get(col, row) * x.get(col);
+            }
+            assertEquals(row + 1.0, sum, 0.0000000001);
+        }
+
+        assertThrows(ArithmeticException.class, () -> four.solve(new Vecnd(1.0, 2.0, 3.0, 4.0, 5.0)));
+        assertTrue(four.lu().isSingular());
+        assertFalse(two.lu().isSingular());
+        // singular only up to rounding, which takes the conditioning check
+        assertTrue(three.lu().isSingular(16 * Math.ulp(1.0)));
+        assertFalse(two.lu().isSingular(16 * Math.ulp(1.0)));
+    }
+
+    @Test
+    void solveBadlyScaledTest() {
+        // invertible, the rows are just of very different size
+        Matrixnd scaled = new Matrixnd(1e10, 0, 0, 1e-7);
+        assertEquals(1000.0, scaled.det(), 1e-9);
+        assertFalse(scaled.lu().isSingular());
+
+        Vecnd x = scaled.solve(new Vecnd(1e10, 2e-7));
+        assertEquals(1.0, x.get(0), 1e-15);
+        assertEquals(2.0, x.get(1), 1e-15);
+        Matrixnd inverse = scaled.inverse();
+        assertEquals(1e-10, inverse.get(0, 0), 1e-25);
+        assertEquals(1e7, inverse.get(1, 1), 1e-8);
+    }
+
+    @Test
+    void solveManyTest() {
+        Random random = new Random(7);
+        int n = 30;
+        int columns = 5;
+        double[] a = new double[n * n];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = random.nextDouble() - 0.5;
+        }
+        double[] b = new double[n * columns];
+        for (int i = 0; i < b.length; i++) {
+            b[i] = random.nextDouble();
+        }
+        Matrixnd matrix = new Matrixnd(a);
+        LUDecomposition lu = matrix.lu();
+        Matrixnd x = lu.solve(new Matrixnd(n, columns, b));
+
+        double[] single = new double[n];
+        for (int c = 0; c < columns; c++) {
+            for (int i = 0; i < n; i++) {
+                single[i] = b[i * columns + c];
+            }
+            double[] column = single.clone();
+            double[] dest = lu.solve(column, new double[n]);
+            lu.solve(single, single);
+            assertArrayEquals(dest, single);
+            for (int i = 0; i < n; i++) {
+                // a distinct dest leaves b alone
+                assertEquals(b[i * columns + c], column[i]);
+                assertEquals(single[i], x.get(c, i), 0.000000001);
+                double sum = 0.0;
+                for (int k = 0; k < n; k++) {
+                    sum += a[i * n + k] * x.get(c, k);
+                }
+                assertEquals(b[i * columns + c], sum, 0.000000001);
+            }
+        }
+    }
+
+    @Test
+    void inverseTest() {
+        Matrixnd inverse = two.inverse();
+        Matrixnd identity = inverse.multiply(two);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(i == j ? 1.0 : 0.0, identity.get(i, j), 0.0000000001);
+            }
+        }
+        assertEquals(8.0 / 14, one.inverse().get(0, 0), 0.0000000001);
+        assertEquals(-6.0 / 14, one.inverse().get(1, 0), 0.0000000001);
+    }
+
+    @Test
+    void qrBadlyScaledTest() {
+        Matrixnd scaled = new Matrixnd(1e10, 0, 0, 1e-7);
+        QRDecomposition qr = scaled.qr();
+        assertTrue(qr.isFullRank());
+        Vecnd x = qr.solve(new Vecnd(1e10, 2e-7));
+        assertEquals(1.0, x.get(0), 1e-15);
+        assertEquals(2.0, x.get(1), 1e-15);
+
+        // a column that is a multiple of another is still caught
+        assertFalse(new Matrixnd(3, 2, new double[]{1, 3, 2, 6, 5, 15}).qr().isFullRank());
+    }
+
+    @Test
+    void qrTest() {
+        Random random = new Random(3);
+        int m = 12;
+        int n = 5;
+        double[] a = randomElements(random, m * n);
+        Matrixnd matrix = new Matrixnd(m, n, a);
+        QRDecomposition qr = matrix.qr();
+        assertTrue(qr.isFullRank());
+
+        // Q R rebuilds A, remembering multiply is reversed
+        assertSameElements(matrix, qr.getR().multiply(qr.getQ()), 0.000000001);
+        assertIdentity(qr.getQ().multiply(qr.getQ().transpose()), 0.000000001);
+
+        // least squares residual is orthogonal to the columns of A
+        double[] b = randomElements(random, m);
+        Vecnd x = qr.solve(new Vecnd(b));
+        for (int col = 0; col < n; col++) {
+            double dot = 0.0;
+            for (int row = 0; row < m; row++) {
+                double residual = b[row];
+                for (int k = 0; k < n; k++) {
+                    residual -= a[row * n + k] * x.get(k);
+                }
+                dot += a[row * n + col] * residual;
+            }
+            assertEquals(0.0, dot, 0.000000001);
+        }
+    }
+
+    @Test
+    void svdTest() {
+        Random random = new Random(5);
+        for (int[] shape : new int[][]{{9, 4}, {4, 9}}) {
+            int m = shape[0];
+            int n = shape[1];
+            Matrixnd matrix = new Matrixnd(m, n, randomElements(random, m * n));
+            SingularValueDecomposition svd = matrix.svd();
+            assertTrue(svd.isConverged());
+            assertEquals(4, svd.getCount());
+            assertEquals(4, svd.rank());
+
+            double[] values = svd.getSingularValues();
+            double[] scaled = new double[m * 4];
+            Matrixnd u = svd.getU();
+            for (int row = 0; row < m; row++) {
+                for (int col = 0; col < 4; col++) {
+                    scaled[row * 4 + col] = u.get(col, row) * values[col];
+                }
+                if (row > 0) {
+                    assertTrue(values[Math.min(row, 3)] <= values[Math.min(row, 3) - 1]);
+                }
+            }
+            assertSameElements(matrix, svd.getV().transpose().multiply(new Matrixnd(m, 4, scaled)), 0.000000001);
+
+            SingularValueDecomposition top = matrix.svd(2);
+            assertTrue(top.isConverged());
+            assertEquals(values[0], top.getSingularValue(0), 0.000000001);
+            assertEquals(values[1], top.getSingularValue(1), 0.000000001);
+            double dot = 0.0;
+            for (int row = 0; row < m; row++) {
+                dot += u.get(0, row) * top.getU().get(0, row);
+            }
+            assertEquals(1.0, Math.abs(dot), 0.000000001);
+        }
+    }
+
+    @Test
+    void symmetricEigenTest() {
+        Random random = new Random(11);
+        int n = 20;
+        double[] a = randomElements(random, n * n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                a[i * n + j] = a[j * n + i];
+            }
+        }
+        Matrixnd matrix = new Matrixnd(a);
+        SymmetricEigenDecomposition eigen = matrix.symmetricEigen();
+        assertTrue(eigen.isConverged());
+
+        for (int i = 0; i < n; i++) {
+            Vecnd v = eigen.getEigenvector(i);
+            double value = eigen.getEigenvalue(i);
+            for (int row = 0; row < n; row++) {
+                assertEquals(value * v.get(row), matrix.getRow(row).dot(v), 0.000000001);
+            }
+            if (i > 0) {
+                assertTrue(value <= eigen.getEigenvalue(i - 1));
+            }
+        }
+        assertIdentity(eigen.getEigenvectors().transpose().multiply(eigen.getEigenvectors()), 0.000000001);
+
+        // a covariance like matrix, the top eigenvalues are the largest
+        Matrixnd covariance = matrix.transpose().multiply(matrix);
+        SymmetricEigenDecomposition full = covariance.symmetricEigen();
+        SymmetricEigenDecomposition top = covariance.symmetricEigen(3);
+        assertEquals(3, top.getCount());
+        assertTrue(top.isConverged());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(full.getEigenvalue(i), top.getEigenvalue(i), 0.00000001);
+            assertEquals(1.0, Math.abs(full.getEigenvector(i).dot(top.getEigenvector(i))), 0.000000001);
+        }
+    }
+
+    @Test
+    void symmetricEigenReportsNoConvergence() {
+        // eigenvalues all +1 or -1, A^2 = I, so the subspace flips between two spans and its Ritz vectors never settle
+        int n = 20;
+        SymmetricEigenDecomposition eigen = SymmetricEigenDecomposition.Top(n, 1, (x, y, count) -> {
+            for (int i = 0; i < count * n; i++) {
+                y[i] = i % 2 == 0 ? x[i] : -x[i];
+            }
+        });
+        assertFalse(eigen.isConverged());
+        // still the current estimate, a Ritz value lies within the spectrum
+        assertEquals(1, eigen.getCount());
+        assertTrue(Math.abs(eigen.getEigenvalue(0)) <= 1.0 + 0.000000001);
+    }
+
+    private static double[] randomElements(Random random, int count) {
+        double[] elements = new double[count];
+        for (int i = 0; i < count; i++) {
+            elements[i] = random.nextDouble() * 2 - 1;
+        }
+        return elements;
+    }
+
+    private static void assertSameElements(Matrixnd expected, Matrixnd actual, double delta) {
+        assertEquals(expected.getRowSize(), actual.getRowSize());
+        assertEquals(expected.getColSize(), actual.getColSize());
+        for (int row = 0; row < expected.getRowSize(); row++) {
+            for (int col = 0; col < expected.getColSize(); col++) {
+                assertEquals(expected.get(col, row), actual.get(col, row), delta);
+            }
+        }
+    }
+
+    private static void assertIdentity(Matrixnd matrix, double delta) {
+        for (int row = 0; row < matrix.getRowSize(); row++) {
+            for (int col = 0; col < matrix.getColSize(); col++) {
+                assertEquals(row == col ? 1.0 : 0.0, matrix.get(col, row), delta);
+            }
+        }
+    }
+
+    @Test
+    void viewsShareElements() {
+        double[] elements = new double[6 * 5];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = i;
+        }
+        Matrixnd matrix = new Matrixnd(6, 5, elements);
+        assertFalse(matrix.isView());
+
+        Matrixnd transpose = matrix.transpose();
+        assertTrue(transpose.isView());
+        assertEquals(5, transpose.getRowSize());
+        assertEquals(6, transpose.getColSize());
+        assertEquals(matrix.get(3, 1), transpose.get(1, 3));
+        assertSame(matrix.getElements(), elements);
+
+        Matrixnd block = matrix.block(1, 2, 4, 3);
+        assertEquals(4, block.getRowSize());
+        assertEquals(3, block.getColSize());
+        assertEquals(matrix.get(2, 1), block.get(0, 0));
+        assertEquals(matrix.get(4, 4), block.get(2, 3));
+
+        Matrixnd nested = block.transpose().block(1, 1, 2, 2);
+        assertEquals(block.get(1, 1), nested.get(0, 0));
+        assertEquals(block.get(2, 1), nested.get(0, 1));
+        assertArrayEquals(new double[]{13, 18, 14, 19}, nested.copy().getElements());
+
+        // rows and columns of views are views too
+        assertArrayEquals(new double[]{7, 8, 9}, block.getRow(0).toArray());
+        assertArrayEquals(new double[]{7, 12, 17, 22}, block.getCol(0).toArray());
+        assertArrayEquals(new double[]{7, 12, 17, 22}, block.transpose().getRow(0).toArray());
+        assertEquals(7 * 12 + 8 * 13 + 9 * 14, block.getRow(0).dot(block.getRow(1)));
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.block(4, 0, 3, 1));
+    }
+
+    @Test
+    void operationsAcceptViews() {
+        Random random = new Random(9);
+        Matrixnd matrix = new Matrixnd(40, 40, randomElements(random, 40 * 40));
+        Matrixnd block = matrix.block(3, 5, 20, 20);
+        Matrixnd other = matrix.block(10, 0, 20, 20).transpose();
+
+        assertSameElements(block.copy().multiply(other.copy()), block.multiply(other), 0.000000001);
+        assertSameElements(other.copy().multiply(block.copy()), other.multiply(block), 0.000000001);
+        assertEquals(block.copy().det(), block.det(), Math.abs(block.det()) * 0.000000001);
+        assertSameElements(other.copy().inverse(), other.inverse(), 0.000000001);
+
+        // block elimination style, solving against a view of the right hand side columns
+        Matrixnd wide = new Matrixnd(20, 24, randomElements(random, 20 * 24));
+        Matrixnd x = wide.block(0, 0, 20, 20).solve(wide.block(0, 20, 20, 4));
+        assertSameElements(wide.block(0, 20, 20, 4), x.multiply(wide.block(0, 0, 20, 20)), 0.000000001);
+    }
+
+    @Test
+    void lazyChainMatchesElementWise() {
+        Random random = new Random(13);
+        int rows = 7;
+        int cols = 600;
+        Matrixnd a = new Matrixnd(rows, cols, randomElements(random, rows * cols));
+        Matrixnd b = new Matrixnd(rows, cols, randomElements(random, rows * cols));
+        Matrixnd c = new Matrixnd(rows, cols, randomElements(random, rows * cols));
+
+        MatrixExpression chain = a.lazy().add(b).scale(2.5).elemMultiply(c);
+        // right leaning, so evaluation needs nested buffers
+        MatrixExpression nested = a.lazy().subtract(b.lazy().elemMultiply(c.lazy().add(a)).map(Math::abs));
+        Matrixnd result = chain.eval();
+        Matrixnd nestedResult = nested.eval();
+        assertEquals(rows, result.getRowSize());
+        assertEquals(cols, result.getColSize());
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                double x = a.get(col, row);
+                double y = b.get(col, row);
+                double z = c.get(col, row);
+                assertEquals((x + y) * 2.5 * z, result.get(col, row), 0.0);
+                assertEquals(x - Math.abs(y * (z + x)), nestedResult.get(col, row), 0.0);
+            }
+        }
+
+        // the eager methods agree with the chain, and add no longer sums a matrix with its own transpose
+        assertArrayEquals(result.getElements(), a.add(b).scale(2.5).elemMultiply(c).getElements(), 0.0);
+        assertArrayEquals(new double[]{10, 9, 9, 16}, one.add(new Matrixnd(6.0, 3, 6, 8)).getElements(), 0.0);
+        assertThrows(IllegalArgumentException.class, () -> a.lazy().add(one));
+    }
+
+    @Test
+    void lazyChainOnViews() {
+        Matrixnd block = three.block(1, 1, 3, 3);
+        Matrixnd sum = block.lazy().add(block.transpose()).eval();
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                assertEquals(block.get(col, row) + block.get(row, col), sum.get(col, row), 0.0);
+            }
+        }
+        assertEquals(two.scale(2).det(), two.lazy().scale(2).det(), 0.0000001);
+        assertArrayEquals(two.scale(3).multiply(two).getElements(),
+                two.lazy().scale(3).multiply(two).getElements(), 0.0);
+    }
+
     @Test
     void getCol() {
 
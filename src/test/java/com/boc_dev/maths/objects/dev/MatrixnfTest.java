@@ -0,0 +1,139 @@
+package com.boc_dev.maths.objects.dev;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatrixnfTest {
+
+    private final Matrixnf two = new Matrixnf(6.0f, 1, 1, 4, -2, 5, 2, 8, 7);
+
+    private static float[] randomElements(Random random, int count) {
+        float[] elements = new float[count];
+        for (int i = 0; i < count; i++) {
+            elements[i] = random.nextFloat() * 2 - 1;
+        }
+        return elements;
+    }
+
+    @Test
+    void conversions() {
+        Matrixnd doubles = new Matrixnd(2, 3, 1.0, 0.1, 2.5, -3.0, 1e-9, 7.0);
+        Matrixnf floats = doubles.toMatrixnf();
+        assertEquals(2, floats.getRowSize());
+        assertEquals(3, floats.getColSize());
+        for (int row = 0; row < 2; row++) {
+            for (int col = 0; col < 3; col++) {
+                assertEquals((float) doubles.get(col, row), floats.get(col, row));
+                assertEquals(floats.get(col, row), (float) floats.toMatrixnd().get(col, row));
+            }
+        }
+        assertEquals(floats.get(2, 0), floats.transpose().toMatrixnd().get(0, 2));
+
+        Vecnf vec = new Vecnd(0.1, 0.2, 0.3).toVecnf();
+        assertArrayEquals(new float[]{0.1f, 0.2f, 0.3f}, vec.toArray());
+        assertEquals(0.2f, (float) vec.toVecnd().get(1));
+    }
+
+    @Test
+    void elementWise() {
+        Matrixnf sum = two.add(two.transpose());
+        Matrixnf product = two.elemMultiply(two);
+        Matrixnf scaled = two.scale(0.5f);
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                assertEquals(two.get(col, row) + two.get(row, col), sum.get(col, row));
+                assertEquals(two.get(col, row) * two.get(col, row), product.get(col, row));
+                assertEquals(two.get(col, row) * 0.5f, scaled.get(col, row));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> two.add(Matrixnf.Identity(2)));
+    }
+
+    @Test
+    void multiplyMatchesDouble() {
+        Random random = new Random(21);
+        int m = 50;
+        int n = 700;
+        int p = 40;
+        Matrixnf a = new Matrixnf(m, n, randomElements(random, m * n));
+        Matrixnf b = new Matrixnf(n, p, randomElements(random, n * p));
+
+        // reversed convention, b.multiply(a) is a * b
+        Matrixnd exact = b.toMatrixnd().multiply(a.toMatrixnd());
+        Matrixnf single = b.multiply(a);
+        Matrixnd mixed = b.multiplyToDouble(a);
+        assertEquals(m, single.getRowSize());
+        assertEquals(p, single.getColSize());
+        for (int row = 0; row < m; row++) {
+            for (int col = 0; col < p; col++) {
+                assertEquals(exact.get(col, row), single.get(col, row), 0.0001);
+                // float inputs are exact in double, so only the summation order differs
+                assertEquals(exact.get(col, row), mixed.get(col, row), 0.000000001);
+            }
+        }
+
+        Matrixnf view = a.block(0, 0, 40, 40).transpose();
+        Matrixnd viewExact = view.toMatrixnd().multiply(a.block(5, 5, 40, 40).toMatrixnd());
+        Matrixnd viewMixed = view.multiplyToDouble(a.block(5, 5, 40, 40));
+        for (int row = 0; row < 40; row++) {
+            for (int col = 0; col < 40; col++) {
+                assertEquals(viewExact.get(col, row), viewMixed.get(col, row), 0.000000001);
+            }
+        }
+    }
+
+    @Test
+    void solveInDouble() {
+        assertEquals(-306.0, two.det(), 0.000001);
+        Vecnf x = two.solve(new Vecnf(1, 2, 3));
+        for (int row = 0; row < 3; row++) {
+            assertEquals(row + 1.0, two.getRow(row).dot(x), 0.00001);
+        }
+        Matrixnf identity = two.inverse().multiply(two);
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                assertEquals(row == col ? 1.0f : 0.0f, identity.get(col, row), 0.000001f);
+            }
+        }
+    }
+
+    @Test
+    void decompositionsInDouble() {
+        Random random = new Random(22);
+        Matrixnf tall = new Matrixnf(8, 5, randomElements(random, 8 * 5));
+        Matrixnd exact = tall.toMatrixnd();
+
+        QRDecomposition qr = tall.qr();
+        assertTrue(qr.isFullRank());
+        Matrixnd r = qr.getR();
+        Matrixnd exactR = exact.qr().getR();
+        for (int row = 0; row < 5; row++) {
+            for (int col = 0; col < 5; col++) {
+                assertEquals(exactR.get(col, row), r.get(col, row), 0.0);
+            }
+        }
+
+        assertArrayEquals(exact.svd().getSingularValues(), tall.svd().getSingularValues(), 0.0);
+        assertArrayEquals(exact.svd(2).getSingularValues(), tall.svd(2).getSingularValues(), 0.0);
+
+        Matrixnf square = new Matrixnf(6, 6, randomElements(random, 6 * 6));
+        Matrixnf symmetric = square.add(square.transpose());
+        SymmetricEigenDecomposition eigen = symmetric.symmetricEigen();
+        assertTrue(eigen.isConverged());
+        assertArrayEquals(symmetric.toMatrixnd().symmetricEigen().getEigenvalues(), eigen.getEigenvalues(), 0.0);
+        SymmetricEigenDecomposition top = symmetric.symmetricEigen(2);
+        assertEquals(2, top.getEigenvalues().length);
+        assertArrayEquals(symmetric.toMatrixnd().symmetricEigen(2).getEigenvalues(), top.getEigenvalues(), 0.0);
+    }
+
+    @Test
+    void dotAccumulatesInDouble() {
+        // in float 1e8 + 1 rounds back to 1e8, so the 1 would be lost
+        Vecnf vec = new Vecnf(1e8f, 1.0f, -1e8f);
+        assertEquals(1.0, vec.dot(new Vecnf(1, 1, 1)), 0.0);
+        assertEquals(3, Vecnf.Empty(3).size());
+    }
+}
@@ -0,0 +1,93 @@
+package com.boc_dev.maths.objects.dev;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseMatrixndTest {
+
+	@Test
+	void buildSumsDuplicates() {
+		SparseMatrixnd matrix = new SparseMatrixnd.Builder(3, 4)
+				.add(2, 1, 5.0)
+				.add(0, 3, 1.0)
+				.add(0, 0, 2.0)
+				.add(2, 1, -1.0)
+				.add(1, 2, 7.0)
+				.build();
+
+		assertEquals(4, matrix.getNonZeroCount());
+		assertEquals(2.0, matrix.get(0, 0));
+		assertEquals(1.0, matrix.get(3, 0));
+		assertEquals(7.0, matrix.get(2, 1));
+		assertEquals(4.0, matrix.get(1, 2));
+		assertEquals(0.0, matrix.get(1, 0));
+	}
+
+	@Test
+	void multiplyMatchesDense() {
+		Random random = new Random(1);
+		int rows = 300;
+		int cols = 200;
+		SparseMatrixnd.Builder builder = new SparseMatrixnd.Builder(rows, cols);
+		double[] dense = new double[rows * cols];
+		for (int i = 0; i < 3000; i++) {
+			int row = random.nextInt(rows);
+			int col = random.nextInt(cols);
+			double value = random.nextDouble();
+			builder.add(row, col, value);
+			dense[row * cols + col] += value;
+		}
+		SparseMatrixnd matrix = builder.build();
+
+		double[] x = new double[cols];
+		for (int i = 0; i < cols; i++) {
+			x[i] = random.nextDouble() - 0.5;
+		}
+		double[] y = matrix.multiply(x, new double[rows]);
+		for (int row = 0; row < rows; row++) {
+			double expected = 0.0;
+			for (int col = 0; col < cols; col++) {
+				expected += dense[row * cols + col] * x[col];
+			}
+			assertEquals(expected, y[row], 0.000000001);
+		}
+
+		SparseMatrixnd transpose = matrix.transpose();
+		assertEquals(cols, transpose.getRowSize());
+		assertEquals(rows, transpose.getColSize());
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < cols; col++) {
+				assertEquals(dense[row * cols + col], transpose.get(row, col), 0.000000001);
+			}
+		}
+	}
+
+	@Test
+	void parallelMultiply() {
+		// enough non zeros to split over the pool
+		int n = 200000;
+		SparseMatrixnd matrix = IterativeSolverTest.laplacian1d(n);
+		assertTrue(matrix.getNonZeroCount() > 2 * SparseMatrixnd.PARALLEL_THRESHOLD);
+
+		double[] x = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = (double) i * i;
+		}
+		double[] y = matrix.multiply(x, new double[n]);
+		for (int i = 1; i < n - 1; i++) {
+			assertEquals(-2.0, y[i], 0.0);
+		}
+		assertEquals(-1.0, y[0], 0.0);
+	}
+
+	@Test
+	void denseRoundTrip() {
+		Matrixnd dense = new Matrixnd(3, 2, 1.0, 0.0, 0.0, 4.0, 5.0, 0.0);
+		SparseMatrixnd sparse = SparseMatrixnd.FromDense(dense);
+		assertEquals(3, sparse.getNonZeroCount());
+		assertArrayEquals(dense.getElements(), sparse.toMatrixnd().getElements());
+	}
+}
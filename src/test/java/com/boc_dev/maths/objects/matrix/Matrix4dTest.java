@@ -1,7 +1,13 @@
 package com.boc_dev.maths.objects.matrix;
 
+import com.boc_dev.maths.objects.vector.Vec3d;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 class Matrix4dTest {
 
 	@Test
@@ -24,6 +30,77 @@ class Matrix4dTest {
 	void multiply() {
 	}
 
+	@Test
+	void multiplyBatches() {
+		Matrix4d[] as = {
+				Matrix4d.Translation(new Vec3d(1, 2, 3)),
+				Matrix4d.Rotation(30, Vec3d.Y),
+				new Matrix4d(2, -1, 0, 3, 0.5, 4, 1, -2, 7, 0, -3, 1, 0, 2, 0.25, 1)
+		};
+		Matrix4d[] bs = {
+				Matrix4d.Rotation(45, Vec3d.Z),
+				new Matrix4d(1, 0, 2, 0, -1, 3, 0, 4, 0.5, 0, 1, -6, 2, 1, 0, 1),
+				Matrix4d.Translation(new Vec3d(-4, 0, 2))
+		};
+		// offset by one so the batch is not aligned with the array
+		double[] a = new double[49];
+		double[] b = new double[49];
+		for (int i = 0; i < 3; i++) {
+			System.arraycopy(as[i].getValues(), 0, a, 1 + i * 16, 16);
+			System.arraycopy(bs[i].getValues(), 0, b, 1 + i * 16, 16);
+		}
+
+		double[] pairs = new double[48];
+		Matrix4d.multiply(a, 1, b, 1, pairs, 0, 3);
+		double[] oneByMany = new double[48];
+		Matrix4d.multiplyOneByMany(as[2].getValues(), 0, b, 1, oneByMany, 0, 3);
+		double[] manyByOne = new double[48];
+		Matrix4d.multiplyManyByOne(a, 1, bs[1].getValues(), 0, manyByOne, 0, 3);
+
+		for (int i = 0; i < 3; i++) {
+			assertArrayEquals(product(as[i], bs[i]), Arrays.copyOfRange(pairs, i * 16, i * 16 + 16));
+			assertArrayEquals(as[i].multiply(bs[i]).getValues(), Arrays.copyOfRange(pairs, i * 16, i * 16 + 16));
+			assertArrayEquals(product(as[2], bs[i]), Arrays.copyOfRange(oneByMany, i * 16, i * 16 + 16));
+			assertArrayEquals(product(as[i], bs[1]), Arrays.copyOfRange(manyByOne, i * 16, i * 16 + 16));
+		}
+	}
+
+	@Test
+	void multiplyBatchesIntoInput() {
+		Matrix4d a = new Matrix4d(2, -1, 0, 3, 0.5, 4, 1, -2, 7, 0, -3, 1, 0, 2, 0.25, 1);
+		Matrix4d b = new Matrix4d(1, 0, 2, 0, -1, 3, 0, 4, 0.5, 0, 1, -6, 2, 1, 0, 1);
+		double[] expected = product(a, b);
+
+		double[] pairs = new double[32];
+		System.arraycopy(a.getValues(), 0, pairs, 0, 16);
+		System.arraycopy(b.getValues(), 0, pairs, 16, 16);
+		Matrix4d.multiply(pairs, 0, pairs, 16, pairs, 16, 1);
+		assertArrayEquals(expected, Arrays.copyOfRange(pairs, 16, 32));
+
+		double[] many = b.getValues().clone();
+		Matrix4d.multiplyOneByMany(a.getValues(), 0, many, 0, many, 0, 1);
+		assertArrayEquals(expected, many);
+
+		many = a.getValues().clone();
+		Matrix4d.multiplyManyByOne(many, 0, b.getValues(), 0, many, 0, 1);
+		assertArrayEquals(expected, many);
+	}
+
+	// a.multiply(b) written out as sums, dest[col * 4 + row] = sum over k of a[k * 4 + row] * b[col * 4 + k]
+	private static double[] product(Matrix4d a, Matrix4d b) {
+		double[] dest = new double[16];
+		for (int col = 0; col < 4; col++) {
+			for (int row = 0; row < 4; row++) {
+				double sum = 0;
+				for (int k = 0; k < 4; k++) {
+					sum += a.getValues()[k * 4 + row] * b.getValues()[col * 4 + k];
+				}
+				dest[col * 4 + row] = sum;
+			}
+		}
+		return dest;
+	}
+
 	@Test
 	void testMultiply() {
 	}
@@ -79,4 +156,30 @@ class Matrix4dTest {
 	@Test
 	void getZVec() {
 	}
-}
\ No newline at end of file
+
+	@Test
+	void det() {
+		Matrix4d matrix = new Matrix4d(
+				2, 0, 1, 3,
+				1, 3, 0, 1,
+				0, 1, 4, 2,
+				1, 0, 0, 1
+		);
+		assertEquals(-6.0, matrix.det(), 0.000000001);
+		assertEquals(0.0, new Matrix4d(new double[16]).det());
+	}
+
+	@Test
+	void inverse() {
+		Matrix4d matrix = new Matrix4d(
+				2, 0, 1, 3,
+				1, 3, 0, 1,
+				0, 1, 4, 2,
+				1, 0, 0, 1
+		);
+		assertArrayEquals(Matrix4d.Identity.getValues(), matrix.multiply(matrix.inverse()).getValues(), 0.000000001);
+
+		Matrix4d affine = Matrix4d.Transform(new Vec3d(1, 2, 3), Matrix4d.Rotation(30, Vec3d.Z), new Vec3d(2, 3, 4));
+		assertArrayEquals(Matrix4d.Identity.getValues(), affine.multiply(affine.inverseAffine()).getValues(), 0.000000001);
+	}
+}
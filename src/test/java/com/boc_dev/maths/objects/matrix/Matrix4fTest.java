@@ -1,8 +1,16 @@
 package com.boc_dev.maths.objects.matrix;
 
+import com.boc_dev.maths.objects.QuaternionF;
+import com.boc_dev.maths.objects.vector.Vec3f;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 class Matrix4fTest {
@@ -43,6 +51,31 @@ class Matrix4fTest {
 		assertEquals(answer.get(3, 3), inverse.get(3, 3), 0.0000000001);
 	}
 
+	@Test
+	void inverseGeneral() {
+		Matrix4f projection = Matrix4f.PerspectiveProjection(1.5f, 1.2f, 0.1f, 100f);
+		Matrix4f identity = projection.multiply(projection.invert());
+		assertArrayEquals(Matrix4f.Identity.getValues(), identity.getValues(), 0.00001f);
+
+		assertEquals(0, Matrix4f.Scale(new Vec3f(1, 0, 1)).det());
+		assertFalse(Matrix4f.Scale(new Vec3f(1, 0, 1)).isInvertible());
+		assertThrows(ArithmeticException.class, () -> new Matrix4f(new float[16]).invert());
+	}
+
+	@Test
+	void inverseAffine() {
+		Matrix4f transform = Matrix4f.Transform(new Vec3f(1, -2, 3), QuaternionF.RotationY(0.7).toMatrix(), new Vec3f(2, 0.5f, 3));
+		assertEquals(3.0f, transform.det(), 0.00001f);
+
+		Matrix4f inverse = transform.invertAffine();
+		assertArrayEquals(Matrix4f.Identity.getValues(), transform.multiply(inverse).getValues(), 0.00001f);
+		assertArrayEquals(transform.invert().getValues(), inverse.getValues(), 0.00001f);
+
+		float[] aliased = transform.getValues().clone();
+		assertTrue(Matrix4f.invertAffine(aliased, 0, aliased, 0));
+		assertArrayEquals(inverse.getValues(), aliased);
+	}
+
 
 	@Test
 	void translation() {
@@ -62,6 +95,65 @@ class Matrix4fTest {
 
 	@Test
 	void multiply() {
+		Matrix4f matrix4f = new Matrix4f(
+				1, 2, 3, 4,
+				5, 6, 7, 8,
+				9, 10, 11, 12,
+				13, 14, 15, 16
+		);
+
+		Matrix4f translation = Matrix4f.Translation(new Vec3f(1, 2, 3));
+
+		float[] answer = new float[] {
+				14, 16, 18, 20,
+				31, 34, 37, 40,
+				48, 52, 56, 60,
+				13, 14, 15, 16
+		};
+
+		assertArrayEquals(answer, matrix4f.multiply(translation).getValues(), 0.000001f);
+
+		float[] dest = new float[20];
+		matrix4f.multiply(translation, dest, 4);
+		assertArrayEquals(answer, Arrays.copyOfRange(dest, 4, 20), 0.000001f);
+
+		// destination aliasing an input
+		float[] aliased = matrix4f.getValues().clone();
+		Matrix4f.multiply(aliased, 0, translation.getValues(), 0, aliased, 0);
+		assertArrayEquals(answer, aliased, 0.000001f);
+	}
+
+	@Test
+	void multiplyBatches() {
+		Matrix4f[] as = {
+				Matrix4f.Translation(new Vec3f(1, 2, 3)),
+				Matrix4f.Rotation(30, Vec3f.Y),
+				Matrix4f.Scale(new Vec3f(2, 3, 4)).multiply(Matrix4f.Rotation(10, Vec3f.X))
+		};
+		Matrix4f[] bs = {
+				Matrix4f.Rotation(45, Vec3f.Z),
+				Matrix4f.Translation(new Vec3f(-4, 0, 2)),
+				Matrix4f.Scale(new Vec3f(0.5f, 1, 2))
+		};
+		float[] a = new float[48];
+		float[] b = new float[48];
+		for (int i = 0; i < 3; i++) {
+			System.arraycopy(as[i].getValues(), 0, a, i * 16, 16);
+			System.arraycopy(bs[i].getValues(), 0, b, i * 16, 16);
+		}
+
+		float[] pairs = new float[48];
+		Matrix4f.multiply(a, 0, b, 0, pairs, 0, 3);
+		float[] oneByMany = new float[48];
+		Matrix4f.multiplyOneByMany(as[0].getValues(), 0, b, 0, oneByMany, 0, 3);
+		float[] manyByOne = a.clone();
+		Matrix4f.multiplyManyByOne(manyByOne, 0, bs[1].getValues(), 0, manyByOne, 0, 3);
+
+		for (int i = 0; i < 3; i++) {
+			assertArrayEquals(as[i].multiply(bs[i]).getValues(), Arrays.copyOfRange(pairs, i * 16, i * 16 + 16));
+			assertArrayEquals(as[0].multiply(bs[i]).getValues(), Arrays.copyOfRange(oneByMany, i * 16, i * 16 + 16));
+			assertArrayEquals(as[i].multiply(bs[1]).getValues(), Arrays.copyOfRange(manyByOne, i * 16, i * 16 + 16));
+		}
 	}
 
 	@Test
@@ -82,6 +174,13 @@ class Matrix4fTest {
 
 	@Test
 	void transform() {
+		Vec3f pos = new Vec3f(1, -2, 3);
+		Vec3f scale = new Vec3f(2, 3, 4);
+		Matrix4f rot = Matrix4f.Rotation(30, Vec3f.Z);
+
+		Matrix4f expected = Matrix4f.Scale(scale).multiply(rot).multiply(Matrix4f.Translation(pos));
+
+		assertArrayEquals(expected.getValues(), Matrix4f.Transform(pos, rot, scale).getValues(), 0.000001f);
 	}
 
 	@Test
@@ -119,4 +218,18 @@ class Matrix4fTest {
 	@Test
 	void getZVec() {
 	}
+
+	@Test
+	void fastRotation() {
+		Vec3f axis = new Vec3f(1, -2, 3).normalise();
+		for (float angle = -720; angle <= 720; angle += 7.3f) {
+			float[] expected = Matrix4f.Rotation(angle, axis).getValues();
+			// written at an offset, sin and cos are staged in dest first
+			float[] actual = Matrix4f.FastRotation(angle, axis, new float[19], 3);
+			for (int i = 0; i < 16; i++) {
+				assertEquals(expected[i], actual[i + 3], 0.000001f);
+			}
+			assertArrayEquals(Arrays.copyOfRange(actual, 3, 19), Matrix4f.FastRotation(angle, axis).getValues());
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.boc_dev.maths.objects.matrix;
+
+import com.boc_dev.maths.objects.QuaternionF;
+import com.boc_dev.maths.objects.vector.MutableVec3f;
+import com.boc_dev.maths.objects.vector.Vec3f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MutableMatrix4fTest {
+
+	private final Matrix4f start = Matrix4f.Rotation(20, Vec3f.Y).multiply(Matrix4f.Translation(new Vec3f(4, 5, 6)));
+
+	@Test
+	void mulLocal() {
+		Matrix4f other = Matrix4f.Rotation(45, Vec3f.X);
+		MutableMatrix4f m = new MutableMatrix4f(start).mulLocal(other);
+		assertArrayEquals(start.multiply(other).getValues(), m.getValues());
+	}
+
+	@Test
+	void chained() {
+		Vec3f translation = new Vec3f(1, 2, 3);
+		Vec3f scale = new Vec3f(2, 3, 4);
+		QuaternionF rotation = QuaternionF.RotationZ(0.3);
+
+		MutableMatrix4f m = new MutableMatrix4f(start)
+				.scaleLocal(scale)
+				.rotateLocal(rotation)
+				.translateLocal(translation);
+
+		Matrix4f expected = start
+				.multiply(Matrix4f.Scale(scale))
+				.multiply(rotation.toMatrix())
+				.multiply(Matrix4f.Translation(translation));
+
+		assertArrayEquals(expected.getValues(), m.getValues(), 0.00001f);
+	}
+
+	@Test
+	void rotateLocal() {
+		MutableMatrix4f m = new MutableMatrix4f(start).rotateLocal(30, Vec3f.Z);
+		assertArrayEquals(start.multiply(Matrix4f.Rotation(30, Vec3f.Z)).getValues(), m.getValues(), 0.00001f);
+	}
+
+	@Test
+	void transposeLocal() {
+		MutableMatrix4f m = new MutableMatrix4f(start).transposeLocal();
+		assertArrayEquals(start.transpose().getValues(), m.getValues());
+	}
+
+	@Test
+	void transform() {
+		MutableMatrix4f m = new MutableMatrix4f(start);
+		MutableVec3f vec = m.transform(new MutableVec3f(1, 2, 3));
+		assertEquals(start.multiply(new Vec3f(1, 2, 3)), vec.toVec3f());
+	}
+}
@@ -0,0 +1,91 @@
+package com.boc_dev.maths.objects.srt;
+
+import com.boc_dev.maths.objects.QuaternionF;
+import com.boc_dev.maths.objects.animation.Pose;
+import com.boc_dev.maths.objects.matrix.Matrix4f;
+import com.boc_dev.maths.objects.vector.Vec3f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformHierarchyTest {
+
+	private static Matrix4f local(Vec3f scale, QuaternionF rotation, Vec3f position) {
+		return Matrix4f.Transform(position, rotation.toMatrix(), scale);
+	}
+
+	private static void assertSamePoint(Vec3f expected, Vec3f actual) {
+		assertEquals(expected.getX(), actual.getX(), 0.0001f);
+		assertEquals(expected.getY(), actual.getY(), 0.0001f);
+		assertEquals(expected.getZ(), actual.getZ(), 0.0001f);
+	}
+
+	@Test
+	void worldIsParentTimesLocal() {
+		TransformHierarchy hierarchy = new TransformHierarchy(1);
+		Vec3f rootScale = new Vec3f(2, 2, 2);
+		QuaternionF rootRotation = QuaternionF.RotationZ(0.5);
+		Vec3f rootPosition = new Vec3f(1, 2, 3);
+		Vec3f childScale = new Vec3f(1, 0.5f, 3);
+		QuaternionF childRotation = QuaternionF.RotationX(-1.2);
+		Vec3f childPosition = new Vec3f(0, 4, -1);
+
+		int root = hierarchy.add(TransformHierarchy.ROOT, rootScale, rootRotation, rootPosition);
+		int child = hierarchy.add(root, childScale, childRotation, childPosition);
+		int grandchild = hierarchy.add(child, Transform.Identity);
+		assertEquals(3, hierarchy.update());
+
+		Vec3f point = new Vec3f(0.3f, -2, 5);
+		Vec3f expected = local(rootScale, rootRotation, rootPosition).multiply(
+				local(childScale, childRotation, childPosition).multiply(point));
+		assertSamePoint(expected, hierarchy.getWorld(child).multiply(point));
+		assertSamePoint(expected, hierarchy.getWorld(grandchild).multiply(point));
+		assertArrayEquals(local(rootScale, rootRotation, rootPosition).getValues(), hierarchy.getWorld(root).getValues(), 0.000001f);
+	}
+
+	@Test
+	void onlyChangedSubtreesRecomputed() {
+		TransformHierarchy hierarchy = new TransformHierarchy();
+		int a = hierarchy.add(TransformHierarchy.ROOT, Transform.Identity);
+		int b = hierarchy.add(TransformHierarchy.ROOT, Transform.Identity);
+		int a1 = hierarchy.add(a, Transform.Identity);
+		int b1 = hierarchy.add(b, Transform.Identity);
+		int a2 = hierarchy.add(a1, Transform.Identity);
+		hierarchy.update();
+		assertEquals(0, hierarchy.update());
+
+		hierarchy.setPosition(a1, new Vec3f(0, 5, 0));
+		assertTrue(hierarchy.isDirty(a1));
+		assertEquals(2, hierarchy.update());
+		assertFalse(hierarchy.isDirty(a1));
+		assertEquals(5.0f, hierarchy.getWorldMatrices()[a2 * 16 + 7]);
+
+		hierarchy.setPosition(b, new Vec3f(1, 0, 0));
+		// getWorld updates on demand
+		assertEquals(1.0f, hierarchy.getWorld(b1).get(3, 0));
+		assertEquals(0, hierarchy.update());
+
+		hierarchy.setParent(b1, a1);
+		assertEquals(1, hierarchy.update());
+		assertEquals(5.0f, hierarchy.getWorld(b1).get(3, 1));
+		assertEquals(0.0f, hierarchy.getWorld(b1).get(3, 0));
+		assertThrows(IllegalArgumentException.class, () -> hierarchy.setParent(a, a2));
+	}
+
+	@Test
+	void setPoseMarksJoints() {
+		TransformHierarchy hierarchy = new TransformHierarchy();
+		int root = hierarchy.add(TransformHierarchy.ROOT, Transform.Identity);
+		int first = hierarchy.add(root, Transform.Identity);
+		hierarchy.add(first, Transform.Identity);
+		hierarchy.update();
+
+		Pose pose = new Pose(2);
+		pose.getTranslations()[0] = 2;
+		pose.getTranslations()[3] = 3;
+		hierarchy.setPose(first, pose);
+		assertEquals(2, hierarchy.update());
+		assertEquals(new Vec3f(2, 0, 0), hierarchy.getPosition(first));
+		assertEquals(5.0f, hierarchy.getWorld(2).get(3, 0));
+	}
+}
@@ -0,0 +1,76 @@
+package com.boc_dev.maths.objects.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedVec3fArrayTest {
+
+	private final Vec3fArray points = randomPoints(10_000);
+
+	@Test
+	void half() {
+		HalfVec3fArray half = HalfVec3fArray.FromVecs(points);
+		Vec3fArray decoded = half.toVec3fArray();
+		for (int i = 0; i < points.size(); i++) {
+			assertRelative(points.getX(i), decoded.getX(i), 0x1p-11f);
+			assertRelative(points.getY(i), decoded.getY(i), 0x1p-11f);
+			assertRelative(points.getZ(i), decoded.getZ(i), 0x1p-11f);
+		}
+		assertEquals(decoded.get(17), half.get(17));
+	}
+
+	@Test
+	void quantised() {
+		QuantisedVec3fArray quantised = QuantisedVec3fArray.FromVecs(points);
+		Vec3f maxError = quantised.getMaxError();
+		Vec3fArray decoded = quantised.toVec3fArray();
+		for (int i = 0; i < points.size(); i++) {
+			assertEquals(points.getX(i), decoded.getX(i), maxError.getX() * 1.01f);
+			assertEquals(points.getY(i), decoded.getY(i), maxError.getY() * 1.01f);
+			assertEquals(points.getZ(i), decoded.getZ(i), maxError.getZ() * 1.01f);
+		}
+		assertEquals(decoded.get(42), quantised.get(42));
+
+		// clamped to the box
+		quantised.set(0, 1e6f, -1e6f, 0);
+		assertEquals(quantised.getMax().getX(), quantised.get(0).getX(), maxError.getX());
+		assertEquals(quantised.getMin().getY(), quantised.get(0).getY(), maxError.getY());
+	}
+
+	@Test
+	void octahedral() {
+		Vec3fArray normals = new Vec3fArray(points.size());
+		points.normalise(normals);
+		normals.set(0, 0, 0, -1);
+		normals.set(1, 1, 0, 0);
+
+		OctahedralVec3fArray octahedral = OctahedralVec3fArray.FromVecs(normals);
+		Vec3fArray decoded = octahedral.toVec3fArray();
+		for (int i = 0; i < normals.size(); i++) {
+			Vec3f expected = normals.get(i);
+			Vec3f actual = decoded.get(i);
+			assertEquals(1.0f, actual.length(), 0.000001f);
+			double angle = Math.atan2(expected.cross(actual).length(), expected.dot(actual));
+			assertTrue(angle < 0.0001, "angle " + angle + " at " + i);
+		}
+		assertEquals(decoded.get(7), octahedral.get(7));
+		assertEquals(new Vec3f(0, 0, -1), octahedral.get(0));
+	}
+
+	private static void assertRelative(float expected, float actual, float relative) {
+		assertEquals(expected, actual, Math.abs(expected) * relative);
+	}
+
+	private static Vec3fArray randomPoints(int size) {
+		Random random = new Random(5);
+		Vec3fArray vecs = new Vec3fArray(size);
+		for (int i = 0; i < size; i++) {
+			vecs.set(i, (random.nextFloat() - 0.5f) * 200, (random.nextFloat() - 0.5f) * 20, random.nextFloat() * 5);
+		}
+		return vecs;
+	}
+}
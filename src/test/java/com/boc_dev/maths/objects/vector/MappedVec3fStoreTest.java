@@ -0,0 +1,76 @@
+package com.boc_dev.maths.objects.vector;
+
+import com.boc_dev.maths.points_on_a_sphere.SpiralAlgorithms;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedVec3fStoreTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void fibonacciRoundTrip() throws IOException {
+		Path file = dir.resolve("sphere.vec3f");
+		Vec3f[] expected = new SpiralAlgorithms().fibonacciSphereF(1000);
+
+		try (MappedVec3fStore store = MappedVec3fStore.Create(file, 1000)) {
+			new SpiralAlgorithms().fibonacciSphereF(store);
+			store.force();
+		}
+		assertEquals(12 * 1000, Files.size(file));
+
+		try (MappedVec3fStore store = MappedVec3fStore.Open(file, false)) {
+			assertEquals(1000, store.size());
+			for (int i = 0; i < expected.length; i++) {
+				assertEquals(expected[i], store.get(i));
+			}
+			assertThrows(ReadOnlyBufferException.class, () -> store.set(0, Vec3f.ONE));
+		}
+	}
+
+	@Test
+	void segmentsAndRanges() throws IOException {
+		// 4 vectors per segment so ranges cross segment boundaries
+		try (MappedVec3fStore store = MappedVec3fStore.Create(dir.resolve("small.vec3f"), 10, 2)) {
+			for (int i = 0; i < 10; i++) {
+				store.set(i, i, i * 2, i * 3);
+			}
+
+			MappedVec3fStore range = store.range(3, 9);
+			assertEquals(6, range.size());
+			assertEquals(new Vec3f(5, 10, 15), range.get(2));
+			range.set(0, Vec3f.ZERO);
+			assertEquals(Vec3f.ZERO, store.get(3));
+			assertThrows(IndexOutOfBoundsException.class, () -> range.get(6));
+
+			Vec3fArray copy = new Vec3fArray(4);
+			store.get(4, 8, copy, 0);
+			assertEquals(new Vec3f(7, 14, 21), copy.get(3));
+
+			copy.set(0, 1, 1, 1);
+			store.set(copy, 0, 9, 10);
+			assertEquals(new Vec3f(1, 1, 1), store.get(9));
+		}
+	}
+
+	@Test
+	void doubles() throws IOException {
+		Path file = dir.resolve("sphere.vec3d");
+		Vec3d[] expected = new SpiralAlgorithms().fibonacciSphereD(100);
+		try (MappedVec3dStore store = MappedVec3dStore.Create(file, 100)) {
+			new SpiralAlgorithms().fibonacciSphereD(store);
+		}
+		try (MappedVec3dStore store = MappedVec3dStore.Open(file, true)) {
+			assertEquals(expected[42], store.get(42));
+			assertEquals(expected[99].getZ(), store.toVec3dArray().getZ(99));
+		}
+	}
+}
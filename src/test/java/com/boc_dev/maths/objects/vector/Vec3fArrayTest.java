@@ -0,0 +1,71 @@
+package com.boc_dev.maths.objects.vector;
+
+import com.boc_dev.maths.points_on_a_sphere.SpiralAlgorithms;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Vec3fArrayTest {
+
+	private final Vec3fArray one = Vec3fArray.FromVecs(new Vec3f(1, 2, 3), new Vec3f(4, 5, 6), new Vec3f(0, 0, 0));
+	private final Vec3fArray two = Vec3fArray.FromVecs(new Vec3f(2, 3, 4), new Vec3f(0, 1, 0), new Vec3f(1, 1, 1));
+
+	@Test
+	void addTest() {
+		Vec3fArray dest = new Vec3fArray(3);
+		one.add(two, dest);
+		assertEquals(new Vec3f(3, 5, 7), dest.get(0));
+		assertEquals(new Vec3f(4, 6, 6), dest.get(1));
+		assertEquals(new Vec3f(1, 1, 1), dest.get(2));
+	}
+
+	@Test
+	void rangeTest() {
+		Vec3fArray dest = new Vec3fArray(3);
+		one.subtract(two, dest, 1, 2);
+		assertEquals(Vec3f.ZERO, dest.get(0));
+		assertEquals(new Vec3f(4, 4, 6), dest.get(1));
+		assertEquals(Vec3f.ZERO, dest.get(2));
+	}
+
+	@Test
+	void dotAndCrossTest() {
+		float[] dots = new float[3];
+		one.dot(two, dots);
+		assertArrayEquals(new float[] {20, 5, 0}, dots, 0.000001f);
+
+		Vec3fArray dest = new Vec3fArray(3);
+		one.cross(two, dest);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(one.get(i).cross(two.get(i)), dest.get(i));
+		}
+	}
+
+	@Test
+	void normaliseInPlaceTest() {
+		Vec3fArray vecs = Vec3fArray.FromVecs(new Vec3f(3, 0, 4), Vec3f.ZERO);
+		vecs.normalise(vecs);
+		assertEquals(0.6f, vecs.getX(0), 0.000001);
+		assertEquals(0.8f, vecs.getZ(0), 0.000001);
+		assertEquals(Vec3f.ZERO, vecs.get(1));
+
+		float[] lengths = new float[2];
+		vecs.length(lengths);
+		assertArrayEquals(new float[] {1, 0}, lengths, 0.000001f);
+	}
+
+	@Test
+	void lerpTest() {
+		Vec3fArray dest = new Vec3fArray(3);
+		one.lerp(two, 0.5f, dest);
+		assertEquals(new Vec3f(1.5f, 2.5f, 3.5f), dest.get(0));
+	}
+
+	@Test
+	void spiralRoundTripTest() {
+		Vec3f[] points = new SpiralAlgorithms().fibonacciSphereF(50);
+		Vec3f[] roundTrip = Vec3fArray.FromVecs(points).toVecs();
+		assertArrayEquals(points, roundTrip);
+	}
+}
@@ -44,6 +44,18 @@ class Vec3fTest {
 		assertEquals(three.getZ(), 11);
 	}
 
+	@Test
+	void addIntoTest() {
+		Vec3f one = new Vec3f(2, 3, 4);
+		Vec3f two = new Vec3f(5, 6, 7);
+		float[] dest = new float[4];
+		one.add(two, dest, 1);
+		assertEquals(dest[0], 0);
+		assertEquals(dest[1], 7);
+		assertEquals(dest[2], 9);
+		assertEquals(dest[3], 11);
+	}
+
 	@Test
 	void subtractTest() {
 		Vec3f one = new Vec3f(2, 3, 4);
@@ -0,0 +1,27 @@
+package com.boc_dev.maths.objects.vector;
+
+import com.boc_dev.maths.objects.matrix.Matrix4d;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Vec4dTest {
+
+	@Test
+	void outerProduct() {
+		Vec4d vec = new Vec4d(1, 2, 3, 4);
+
+		// every component of this vector is a row
+		Matrix4d matrix = vec.outerProduct(new Vec3f(1, 10, 100));
+		assertArrayEquals(new double[] {
+				1, 10, 100, 0,
+				2, 20, 200, 0,
+				3, 30, 300, 0,
+				4, 40, 400, 0}, matrix.getValues(), 0.0);
+
+		matrix = vec.outerProduct(new Vec4f(1, 2, 3, 4));
+		assertEquals(16.0, matrix.getValues()[15], 0.0);
+
+		assertThrows(IllegalArgumentException.class, () -> vec.outerProduct(new VecXf(1, 2, 3, 4, 5)));
+	}
+}
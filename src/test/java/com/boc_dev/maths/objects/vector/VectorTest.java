@@ -0,0 +1,56 @@
+package com.boc_dev.maths.objects.vector;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorTest {
+
+	@Test
+	void createSpecialised() {
+		assertEquals(new Vec2d(1, 2), Vector.Create(1, 2));
+		assertEquals(new Vec3d(1, 2, 3), Vector.Create(1, 2, 3));
+		assertEquals(new Vec4d(1, 2, 3, 4), Vector.Create(1, 2, 3, 4));
+		assertSame(Vec4d.ZERO, Vector.ZERO(4));
+	}
+
+	@Test
+	void createAnyLength() {
+		Vecd five = Vector.Create(1, 2, 3, 4, 5);
+		Vecd other = Vector.Create(5, 4, 3, 2, 1);
+
+		assertTrue(five instanceof VecXd);
+		assertEquals(Vector.Create(6, 6, 6, 6, 6), five.add(other));
+		assertEquals(Vector.Create(-4, -2, 0, 2, 4), five.subtract(other));
+		assertEquals(35.0, five.dot(other), 0.000001);
+		assertEquals(55.0, five.length2(), 0.000001);
+		assertEquals(Vector.Create(3, 3, 3, 3, 3), five.lerp(other, 0.5));
+		assertEquals(1.0, five.normalise().length(), 0.000001);
+		assertEquals(0.0, Vector.ZERO(7).length(), 0.0);
+		assertEquals(7, ((VecXd) Vector.ZERO(7)).size());
+		assertEquals(5.0f, five.toVecf().get(4));
+	}
+
+	@Test
+	void mixedImplementations() {
+		// built directly, so not specialised to Vec4d
+		VecXd four = new VecXd(1, 2, 3, 4);
+		assertEquals(20.0, four.dot(new Vec4d(4, 3, 2, 1)), 0.000001);
+		assertEquals(new VecXd(5, 5, 5, 5), four.add(new Vec4d(4, 3, 2, 1)));
+		assertEquals(20.0f, new VecXf(1, 2, 3, 4).dot(new Vec4f(4, 3, 2, 1)), 0.000001f);
+
+		assertThrows(IllegalArgumentException.class, () -> four.add(Vector.Create(1, 2, 3, 4, 5)));
+		assertThrows(IllegalArgumentException.class, () -> four.dot(new Vec3d(1, 2, 3)));
+		assertThrows(IllegalArgumentException.class, () -> new VecXf(1, 2).subtract(new VecXf(1, 2, 3)));
+	}
+
+	@Test
+	void vec4dAsVecd() {
+		Vecd a = Vector.Create(1, 2, 3, 4);
+		Vecd b = Vector.Create(4, 3, 2, 1);
+		assertEquals(20.0, a.dot(b), 0.000001);
+		assertArrayEquals(new double[] {1, 2, 3, 4}, a.getValues());
+		assertEquals(new Vec4d(-5, 10, -5, 0), a.cross(b));
+		assertEquals(new Vec4f(1, 2, 3, 4), a.toVecf());
+	}
+}
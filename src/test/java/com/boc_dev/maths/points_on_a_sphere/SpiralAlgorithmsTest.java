@@ -4,6 +4,8 @@ import com.boc_dev.maths.objects.vector.Vec2d;
 import com.boc_dev.maths.objects.vector.Vec3d;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 class SpiralAlgorithmsTest {
 
     @Test
@@ -23,6 +25,23 @@ class SpiralAlgorithmsTest {
     void fibonacciSphereF() {
     }
 
+    @Test
+    void sunflowerSphereSpiralFast() {
+
+        SpiralAlgorithms spiralAlgorithms = new SpiralAlgorithms();
+
+        Vec3d[] expected = spiralAlgorithms.sunflowerSphereSpiral(1000);
+        Vec3d[] actual = spiralAlgorithms.sunflowerSphereSpiralFast(1000);
+
+        // FastMath.sincos is accurate to float precision
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getX(), actual[i].getX(), 1e-7);
+            assertEquals(expected[i].getY(), actual[i].getY(), 1e-7);
+            assertEquals(expected[i].getZ(), actual[i].getZ(), 1e-12);
+        }
+
+    }
+
     @Test
     void sunflowerDiskSpiral() {
 
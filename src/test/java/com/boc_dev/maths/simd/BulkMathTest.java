@@ -0,0 +1,129 @@
+package com.boc_dev.maths.simd;
+
+import com.boc_dev.maths.objects.QuaternionF;
+import com.boc_dev.maths.objects.matrix.Matrix4f;
+import com.boc_dev.maths.objects.vector.Vec3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkMathTest {
+
+	@Test
+	void addAndScale() {
+		float[] a = new float[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+		float[] b = new float[] {11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1};
+		float[] dest = new float[11];
+
+		BulkMath.add(a, b, dest, 0, 11);
+		assertArrayEquals(new float[] {12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12}, dest);
+
+		BulkMath.scale(dest, 0.5f, dest, 2, 11);
+		assertArrayEquals(new float[] {12, 12, 6, 6, 6, 6, 6, 6, 6, 6, 6}, dest);
+
+		// a short source or destination is caught before the kernel runs
+		assertThrows(IndexOutOfBoundsException.class, () -> BulkMath.scale(new float[5], 2f, dest, 0, 11));
+		assertThrows(IndexOutOfBoundsException.class, () -> BulkMath.scale(dest, 2f, new float[5], 0, 11));
+	}
+
+	@Test
+	void normalise() {
+		float[] x = new float[] {3, 0, 1, 0, 2, 0, 0, 5, 1};
+		float[] y = new float[] {0, 0, 1, 4, 0, 0, 3, 0, 2};
+		float[] z = new float[] {4, 0, 1, 3, 0, 1, 4, 0, 3};
+
+		BulkMath.normalise(x, y, z, x, y, z, 0, x.length);
+
+		assertEquals(0.6f, x[0], 0.000001f);
+		assertEquals(0.8f, z[0], 0.000001f);
+		assertEquals(0.0f, x[1]);
+		assertEquals(0.0f, y[1]);
+		assertEquals(0.0f, z[1]);
+		assertEquals(1.0f, x[7], 0.000001f);
+	}
+
+	@Test
+	void transform() {
+		Matrix4f m = Matrix4f.Transform(new Vec3f(1, 2, 3), Matrix4f.Rotation(45, Vec3f.Z), new Vec3f(2, 2, 2));
+		float[] x = new float[] {1, 0, 0, 1, 2, 3, 4};
+		float[] y = new float[] {0, 1, 0, 1, 2, 3, 4};
+		float[] z = new float[] {0, 0, 1, 1, 2, 3, 4};
+		float[] destX = new float[7];
+		float[] destY = new float[7];
+		float[] destZ = new float[7];
+
+		BulkMath.transform(m, x, y, z, destX, destY, destZ, 0, 7);
+
+		for (int i = 0; i < 7; i++) {
+			Vec3f expected = m.multiply(new Vec3f(x[i], y[i], z[i]));
+			assertEquals(expected.getX(), destX[i], 0.00001f);
+			assertEquals(expected.getY(), destY[i], 0.00001f);
+			assertEquals(expected.getZ(), destZ[i], 0.00001f);
+		}
+	}
+
+	@Test
+	void rotate() {
+		QuaternionF q = QuaternionF.RotationX(0.4).multiply(QuaternionF.RotationZ(1.1));
+		float[] x = new float[] {1, 0, 0, 1, 2, 3, 4, -1, 0.5f};
+		float[] y = new float[] {0, 1, 0, 1, 2, 3, 4, -2, 0.25f};
+		float[] z = new float[] {0, 0, 1, 1, 2, 3, 4, -3, 0.125f};
+		float[] destX = new float[9];
+		float[] destY = new float[9];
+		float[] destZ = new float[9];
+
+		BulkMath.rotate(q, x, y, z, destX, destY, destZ, 0, 9);
+
+		for (int i = 0; i < 9; i++) {
+			Vec3f expected = q.rotate(new Vec3f(x[i], y[i], z[i]));
+			assertEquals(expected.getX(), destX[i]);
+			assertEquals(expected.getY(), destY[i]);
+			assertEquals(expected.getZ(), destZ[i]);
+		}
+
+		// one quaternion per vector
+		float[] qs = new float[9], qi = new float[9], qj = new float[9], qk = new float[9];
+		for (int i = 0; i < 9; i++) {
+			QuaternionF each = QuaternionF.RotationY(i * 0.3);
+			qs[i] = each.getS();
+			qi[i] = each.getI();
+			qj[i] = each.getJ();
+			qk[i] = each.getK();
+		}
+		Vec3f[] expected = new Vec3f[9];
+		for (int i = 0; i < 9; i++) {
+			expected[i] = QuaternionF.RotationY(i * 0.3).rotate(new Vec3f(x[i], y[i], z[i]));
+		}
+		BulkMath.rotate(qs, qi, qj, qk, x, y, z, x, y, z, 0, 9);
+		for (int i = 0; i < 9; i++) {
+			assertEquals(expected[i].getX(), x[i]);
+			assertEquals(expected[i].getY(), y[i]);
+			assertEquals(expected[i].getZ(), z[i]);
+		}
+	}
+
+	@Test
+	void multiplyMatrices() {
+		Matrix4f a0 = Matrix4f.Rotation(30, Vec3f.X);
+		Matrix4f a1 = Matrix4f.Translation(new Vec3f(1, 2, 3));
+		Matrix4f b0 = Matrix4f.Scale(new Vec3f(1, 2, 3));
+		Matrix4f b1 = Matrix4f.Rotation(60, Vec3f.Y);
+
+		float[] a = new float[32];
+		float[] b = new float[32];
+		System.arraycopy(a0.getValues(), 0, a, 0, 16);
+		System.arraycopy(a1.getValues(), 0, a, 16, 16);
+		System.arraycopy(b0.getValues(), 0, b, 0, 16);
+		System.arraycopy(b1.getValues(), 0, b, 16, 16);
+		float[] dest = new float[32];
+
+		BulkMath.multiplyMatrices(a, 0, b, 0, dest, 0, 2);
+
+		assertArrayEquals(a0.multiply(b0).getValues(), Arrays.copyOfRange(dest, 0, 16));
+		assertArrayEquals(a1.multiply(b1).getValues(), Arrays.copyOfRange(dest, 16, 32));
+	}
+}
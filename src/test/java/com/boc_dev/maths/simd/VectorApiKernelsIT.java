@@ -0,0 +1,102 @@
+package com.boc_dev.maths.simd;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs under failsafe against the packaged multi-release jar with jdk.incubator.vector added, the only setup where
+ * META-INF/versions/17 is loaded. Checks every vector kernel gives exactly the same floats as the scalar one.
+ */
+class VectorApiKernelsIT {
+
+	// not a multiple of any vector length, so every kernel runs its tail loop too
+	private static final int SIZE = 67;
+
+	private static BulkKernels vector;
+	private final BulkKernels scalar = new ScalarKernels();
+	private final Random random = new Random(3);
+
+	@BeforeAll
+	static void loadVectorKernels() throws ReflectiveOperationException {
+		assertTrue(BulkMath.isVectorised(), "vector kernels should be picked when jdk.incubator.vector is present");
+		// only in META-INF/versions/17, so not visible when the tests compile
+		vector = (BulkKernels) Class.forName("com.boc_dev.maths.simd.VectorApiKernels").getDeclaredConstructor().newInstance();
+	}
+
+	private float[] random(int size) {
+		float[] values = new float[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = random.nextFloat() * 4 - 2;
+		}
+		return values;
+	}
+
+	@Test
+	void elementWise() {
+		float[] a = random(SIZE);
+		float[] b = random(SIZE);
+		float[] expected = new float[SIZE];
+		float[] actual = new float[SIZE];
+
+		scalar.add(a, b, expected, 1, SIZE);
+		vector.add(a, b, actual, 1, SIZE);
+		assertArrayEquals(expected, actual);
+
+		scalar.subtract(a, b, expected, 1, SIZE);
+		vector.subtract(a, b, actual, 1, SIZE);
+		assertArrayEquals(expected, actual);
+
+		scalar.multiply(a, b, expected, 1, SIZE);
+		vector.multiply(a, b, actual, 1, SIZE);
+		assertArrayEquals(expected, actual);
+
+		scalar.scale(a, 0.3f, expected, 1, SIZE);
+		vector.scale(a, 0.3f, actual, 1, SIZE);
+		assertArrayEquals(expected, actual);
+	}
+
+	@Test
+	void vectors() {
+		float[] x = random(SIZE);
+		float[] y = random(SIZE);
+		float[] z = random(SIZE);
+		x[5] = y[5] = z[5] = 0;
+		float[][] expected = new float[3][SIZE];
+		float[][] actual = new float[3][SIZE];
+
+		scalar.normalise(x, y, z, expected[0], expected[1], expected[2], 0, SIZE);
+		vector.normalise(x, y, z, actual[0], actual[1], actual[2], 0, SIZE);
+		assertArrayEquals(expected, actual);
+
+		float[] m = random(16);
+		scalar.transform(m, x, y, z, expected[0], expected[1], expected[2], 2, SIZE);
+		vector.transform(m, x, y, z, actual[0], actual[1], actual[2], 2, SIZE);
+		assertArrayEquals(expected, actual);
+
+		scalar.rotate(0.5f, -0.5f, 0.5f, 0.5f, x, y, z, expected[0], expected[1], expected[2], 0, SIZE);
+		vector.rotate(0.5f, -0.5f, 0.5f, 0.5f, x, y, z, actual[0], actual[1], actual[2], 0, SIZE);
+		assertArrayEquals(expected, actual);
+
+		float[] qs = random(SIZE), qi = random(SIZE), qj = random(SIZE), qk = random(SIZE);
+		scalar.rotate(qs, qi, qj, qk, x, y, z, expected[0], expected[1], expected[2], 0, SIZE);
+		vector.rotate(qs, qi, qj, qk, x, y, z, actual[0], actual[1], actual[2], 0, SIZE);
+		assertArrayEquals(expected, actual);
+	}
+
+	@Test
+	void matrices() {
+		float[] a = random(16 * 5);
+		float[] b = random(16 * 5);
+		float[] expected = new float[16 * 5];
+		float[] actual = new float[16 * 5];
+
+		scalar.multiplyMatrices(a, 16, b, 0, expected, 0, 4);
+		vector.multiplyMatrices(a, 16, b, 0, actual, 0, 4);
+		assertArrayEquals(expected, actual);
+	}
+}
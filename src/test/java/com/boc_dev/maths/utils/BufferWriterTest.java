@@ -0,0 +1,70 @@
+package com.boc_dev.maths.utils;
+
+import com.boc_dev.maths.objects.QuaternionF;
+import com.boc_dev.maths.objects.matrix.Matrix4f;
+import com.boc_dev.maths.objects.vector.Vec3f;
+import com.boc_dev.maths.objects.vector.Vec3fArray;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BufferWriterTest {
+
+	private final Matrix4f translation = Matrix4f.Translation(new Vec3f(1, 2, 3));
+
+	@Test
+	void matrixOrder() {
+		FloatBuffer buffer = ByteBuffer.allocateDirect(64 * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+
+		int next = BufferWriter.putMatrix4f(translation, buffer, 0, BufferWriter.Order.ROW_MAJOR);
+		assertEquals(16, next);
+		assertEquals(1.0f, buffer.get(3));
+		assertEquals(3.0f, buffer.get(11));
+
+		BufferWriter.putMatrix4f(translation, buffer, 16, BufferWriter.Order.COLUMN_MAJOR);
+		assertEquals(1.0f, buffer.get(16 + 12));
+		assertEquals(2.0f, buffer.get(16 + 13));
+		assertEquals(3.0f, buffer.get(16 + 14));
+		assertEquals(0, buffer.position());
+	}
+
+	@Test
+	void stridedBytes() {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(256).order(ByteOrder.LITTLE_ENDIAN);
+		Vec3f[] vecs = {new Vec3f(1, 2, 3), new Vec3f(4, 5, 6)};
+
+		int next = BufferWriter.putVec3f(vecs, 0, 2, buffer, 8, 16);
+		assertEquals(40, next);
+		assertEquals(1.0f, buffer.getFloat(8));
+		assertEquals(6.0f, buffer.getFloat(8 + 16 + 8));
+
+		next = BufferWriter.putQuaternionF(List.of(QuaternionF.Identity), buffer, next, 16);
+		assertEquals(1.0f, buffer.getFloat(40 + 12));
+
+		assertThrows(IllegalArgumentException.class, () -> BufferWriter.putVec3f(vecs, 0, 2, buffer, 0, 8));
+	}
+
+	@Test
+	void std140() {
+		FloatBuffer buffer = FloatBuffer.allocate(32);
+		Vec3fArray vecs = Vec3fArray.FromVecs(new Vec3f(1, 2, 3), new Vec3f(4, 5, 6));
+
+		int next = BufferWriter.putVec3f(vecs, 0, 2, buffer, 0, BufferWriter.STD140_VEC_STRIDE);
+		assertEquals(8, next);
+		assertEquals(4.0f, buffer.get(4));
+
+		Matrix4f scale = Matrix4f.Scale(new Vec3f(2, 3, 4)).multiply(translation);
+		next = BufferWriter.putMatrix3Std140(scale, buffer, next);
+		assertEquals(20, next);
+		assertEquals(2.0f, buffer.get(8));
+		assertEquals(0.0f, buffer.get(11));
+		assertEquals(3.0f, buffer.get(13));
+		assertEquals(4.0f, buffer.get(18));
+	}
+}
@@ -0,0 +1,64 @@
+package com.boc_dev.maths.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FastMathTest {
+
+	private static final int SAMPLES = 200_000;
+
+	@Test
+	void sincos() {
+		Random random = new Random(1);
+		float[] values = new float[3];
+		double[] doubles = new double[2];
+		for (int i = 0; i < SAMPLES; i++) {
+			float x = (random.nextFloat() - 0.5f) * 2000.0f;
+			FastMath.sincos(x, values, 1);
+			assertUlp((float) Math.sin(x), values[1]);
+			assertUlp((float) Math.cos(x), values[2]);
+			FastMath.sincos((double) x, doubles, 0);
+			assertUlp((float) Math.sin(x), (float) doubles[0]);
+			assertUlp((float) Math.cos(x), (float) doubles[1]);
+		}
+		FastMath.sincos(-0.0f, values, 0);
+		assertEquals(-0.0f, values[0]);
+		assertEquals(1.0f, values[1]);
+		FastMath.sincos(Float.POSITIVE_INFINITY, values, 0);
+		assertTrue(Float.isNaN(values[0]) && Float.isNaN(values[1]));
+	}
+
+	@Test
+	void atan2() {
+		Random random = new Random(2);
+		for (int i = 0; i < SAMPLES; i++) {
+			float y = (float) random.nextGaussian() * 10.0f;
+			float x = (float) random.nextGaussian() * 10.0f;
+			assertUlp((float) Math.atan2(y, x), FastMath.atan2(y, x));
+		}
+		assertEquals((float) Math.atan2(0.0f, -1.0f), FastMath.atan2(0.0f, -1.0f));
+		assertEquals((float) Math.atan2(-0.0f, 1.0f), FastMath.atan2(-0.0f, 1.0f));
+	}
+
+	@Test
+	void asinAcos() {
+		Random random = new Random(3);
+		for (int i = 0; i < SAMPLES; i++) {
+			float x = random.nextFloat() * 2.0f - 1.0f;
+			assertUlp((float) Math.asin(x), FastMath.asin(x));
+			assertUlp((float) Math.acos(x), FastMath.acos(x));
+		}
+		assertEquals((float) Math.PI, FastMath.acos(-1.0f));
+		assertEquals(0.0f, FastMath.acos(1.0f));
+		assertTrue(Float.isNaN(FastMath.acos(1.5f)));
+	}
+
+	private static void assertUlp(float expected, float actual) {
+		assertTrue(Math.abs(expected - actual) <= Math.ulp(expected),
+				"expected " + expected + " but was " + actual);
+	}
+}
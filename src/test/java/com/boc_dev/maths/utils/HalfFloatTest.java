@@ -0,0 +1,34 @@
+package com.boc_dev.maths.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HalfFloatTest {
+
+	@Test
+	void everyHalfRoundTrips() {
+		for (int bits = 0; bits <= 0xffff; bits++) {
+			short half = (short) bits;
+			float value = HalfFloat.toFloat(half);
+			if (Float.isNaN(value)) {
+				assertTrue(Float.isNaN(HalfFloat.toFloat(HalfFloat.toHalf(value))));
+			} else {
+				assertEquals(half, HalfFloat.toHalf(value), "bits " + Integer.toHexString(bits));
+			}
+		}
+	}
+
+	@Test
+	void rounding() {
+		assertEquals(1.0f, HalfFloat.toFloat(HalfFloat.toHalf(1.0f)));
+		assertEquals(65504.0f, HalfFloat.toFloat(HalfFloat.toHalf(65504.0f)));
+		assertEquals(Float.POSITIVE_INFINITY, HalfFloat.toFloat(HalfFloat.toHalf(65520.0f)));
+		// halfway between 1 and the next half rounds to even
+		assertEquals(1.0f, HalfFloat.toFloat(HalfFloat.toHalf(1.0f + 0x1p-11f)));
+		assertEquals(1.0f + 0x1p-9f, HalfFloat.toFloat(HalfFloat.toHalf(1.0f + 0x1p-10f + 0x1p-11f)));
+		assertEquals(0x1p-24f, HalfFloat.toFloat(HalfFloat.toHalf(0x1.8p-25f)));
+		assertEquals(-0.0f, HalfFloat.toFloat(HalfFloat.toHalf(-1e-10f)));
+	}
+}
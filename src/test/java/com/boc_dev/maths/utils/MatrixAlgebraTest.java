@@ -0,0 +1,124 @@
+package com.boc_dev.maths.utils;
+
+import com.boc_dev.maths.objects.matrix.Matrix4d;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatrixAlgebraTest {
+
+	// M^T M + n I is symmetric positive definite
+	private static void randomSpd(Random random, double[] dest, int offset, int n) {
+		double[] m = new double[n * n];
+		for (int i = 0; i < m.length; i++) {
+			m[i] = random.nextDouble() * 2 - 1;
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				double sum = i == j ? n : 0.0;
+				for (int k = 0; k < n; k++) {
+					sum += m[k * n + i] * m[k * n + j];
+				}
+				dest[offset + i * n + j] = sum;
+			}
+		}
+	}
+
+	@Test
+	void factorRebuildsMatrix() {
+		Random random = new Random(2);
+		for (int n = 1; n <= 8; n++) {
+			double[] a = new double[n * n];
+			randomSpd(random, a, 0, n);
+			double[] l = new double[n * n];
+			assertTrue(MatrixAlgebra.choleskyFactor(a, 0, l, 0, n));
+
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					if (j > i) {
+						assertEquals(0.0, l[i * n + j]);
+					}
+					double sum = 0.0;
+					for (int k = 0; k < n; k++) {
+						sum += l[i * n + k] * l[j * n + k];
+					}
+					assertEquals(a[i * n + j], sum, 0.000000001);
+				}
+			}
+		}
+	}
+
+	@Test
+	void batchSolves() {
+		Random random = new Random(4);
+		for (int n : new int[]{3, 6}) {
+			int count = 1000;
+			double[] a = new double[count * n * n];
+			double[] b = new double[count * n];
+			for (int i = 0; i < count; i++) {
+				randomSpd(random, a, i * n * n, n);
+			}
+			for (int i = 0; i < b.length; i++) {
+				b[i] = random.nextDouble();
+			}
+
+			double[] l = new double[a.length];
+			assertEquals(0, MatrixAlgebra.choleskyFactorBatch(a, 0, l, 0, n, count));
+			double[] x = new double[b.length];
+			MatrixAlgebra.choleskySolveBatch(l, 0, b, 0, x, 0, n, count);
+
+			double[] fused = new double[b.length];
+			assertEquals(0, MatrixAlgebra.solveSpdBatch(a, 0, b, 0, fused, 0, n, count));
+
+			for (int s = 0; s < count; s++) {
+				for (int i = 0; i < n; i++) {
+					double sum = 0.0;
+					for (int j = 0; j < n; j++) {
+						sum += a[s * n * n + i * n + j] * x[s * n + j];
+					}
+					assertEquals(b[s * n + i], sum, 0.000000001);
+					assertEquals(x[s * n + i], fused[s * n + i], 0.000000001);
+				}
+			}
+		}
+	}
+
+	@Test
+	void notPositiveDefinite() {
+		double[] a = {
+				1, 2, 0,
+				2, 1, 0,
+				0, 0, 1,
+				4, 0, 0,
+				0, 4, 0,
+				0, 0, 4};
+		double[] b = {1, 1, 1, 4, 8, 12};
+		double[] x = new double[6];
+		assertEquals(1, MatrixAlgebra.solveSpdBatch(a, 0, b, 0, x, 0, 3, 2));
+		assertArrayEquals(new double[]{0, 0, 0, 1, 2, 3}, x, 0.0);
+		assertFalse(MatrixAlgebra.choleskyFactor(a, 0, new double[9], 0, 3));
+	}
+
+	@Test
+	void inverseMatrix() {
+		Matrix4d matrix = new Matrix4d(
+				4, 1, 0, 0,
+				1, 3, 1, 0,
+				0, 1, 2, 0.5,
+				0, 0, 0.5, 5);
+		Matrix4d inverse = MatrixAlgebra.inverseMatrix(matrix);
+		Matrix4d identity = inverse.multiply(matrix);
+		for (int x = 0; x < 4; x++) {
+			for (int y = 0; y < 4; y++) {
+				assertEquals(x == y ? 1.0 : 0.0, identity.get(x, y), 0.000000001);
+			}
+		}
+		assertThrows(ArithmeticException.class, () -> MatrixAlgebra.inverseMatrix(new Matrix4d(
+				1, 0, 0, 0,
+				0, -1, 0, 0,
+				0, 0, 1, 0,
+				0, 0, 0, 1)));
+	}
+}